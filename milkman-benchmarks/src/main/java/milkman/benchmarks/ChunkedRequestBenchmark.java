@@ -0,0 +1,102 @@
+package milkman.benchmarks;
+
+import com.sun.net.httpserver.HttpServer;
+import milkman.ui.plugin.rest.ChunkedRequest;
+import milkman.ui.plugin.rest.RequestTimer;
+import milkman.utils.Event0;
+import milkman.utils.MemoryBudget;
+import milkman.utils.ResponseBodyStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * receives a chunked response from a local http server into a response body store
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChunkedRequestBenchmark {
+
+	private static final int CHUNK_SIZE = 8 * 1024;
+	private static final long MEMORY_THRESHOLD = 128 * 1024 * 1024;
+
+	@Param({"64", "4096", "65536"})
+	private int bodySizeInKb;
+
+	private HttpServer server;
+	private ExecutorService serverExecutor;
+	private HttpClient httpClient;
+	private HttpRequest request;
+
+	@Setup
+	public void setup() throws Exception {
+		byte[] chunk = new byte[CHUNK_SIZE];
+		Arrays.fill(chunk, (byte) 'x');
+		long bodySize = bodySizeInKb * 1024L;
+
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		serverExecutor = Executors.newFixedThreadPool(4);
+		server.setExecutor(serverExecutor);
+		server.createContext("/", exchange -> {
+			exchange.getResponseHeaders().add("Content-Type", "text/plain");
+			//length 0 means chunked transfer encoding
+			exchange.sendResponseHeaders(200, 0);
+			try (var body = exchange.getResponseBody()) {
+				for (long written = 0; written < bodySize; written += CHUNK_SIZE) {
+					body.write(chunk, 0, (int) Math.min(CHUNK_SIZE, bodySize - written));
+				}
+			}
+		});
+		server.start();
+
+		httpClient = HttpClient.newHttpClient();
+		request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getAddress().getPort() + "/"))
+				.GET()
+				.build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		server.stop(0);
+		serverExecutor.shutdownNow();
+	}
+
+	@Benchmark
+	public long receiveChunks() throws Exception {
+		var bodyStore = new ResponseBodyStore(MEMORY_THRESHOLD, MemoryBudget.unbounded());
+		try {
+			var chunkedRequest = new ChunkedRequest(httpClient, request, bodyStore, new RequestTimer());
+			chunkedRequest.executeRequest(new Event0());
+			chunkedRequest.getRequestDone().get(1, TimeUnit.MINUTES);
+			return bodyStore.asFlux()
+					.map(bytes -> (long) bytes.length)
+					.reduce(0L, Long::sum)
+					.block();
+		} finally {
+			bodyStore.dispose();
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package milkman.benchmarks;
+
+import de.danielbechler.diff.node.DiffNode;
+import milkman.domain.Collection;
+import milkman.plugin.sync.git.CollectionDiffer;
+import milkman.ui.plugin.rest.domain.RestRequestContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CollectionDifferBenchmark {
+
+	@Param({"100", "1000"})
+	private int requestCount;
+
+	private final CollectionDiffer differ = new CollectionDiffer();
+	private List<Collection> base;
+	private List<Collection> working;
+
+	@Setup
+	public void setup() throws Exception {
+		base = SyntheticData.collections(requestCount);
+		working = SyntheticData.collections(requestCount);
+		//one changed request, as in a typical sync
+		((RestRequestContainer) working.get(0).getRequests().get(0)).setUrl("http://localhost/changed");
+		//warm up the subclass scan, which is done only once per jvm
+		differ.compare(working, base);
+	}
+
+	@Benchmark
+	public DiffNode compare() throws Exception {
+		return differ.compare(working, base);
+	}
+}
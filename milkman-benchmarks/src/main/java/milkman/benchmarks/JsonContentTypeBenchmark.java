@@ -0,0 +1,81 @@
+package milkman.benchmarks;
+
+import milkman.ui.components.CodeFoldingContentEditor;
+import milkman.ui.plugin.rest.contenttype.JsonContentType;
+import milkman.ui.plugin.rest.contenttype.JsonStreamFormatter;
+import org.fxmisc.richtext.model.StyleSpans;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonContentTypeBenchmark {
+
+	@Param({"16", "1024", "8192"})
+	private int sizeInKb;
+
+	private static final int CHUNK_SIZE = 16 * 1024;
+
+	private final JsonContentType contentType = new JsonContentType();
+	private String compactJson;
+	private String formattedJson;
+	private byte[][] chunks;
+
+	@Setup
+	public void setup() {
+		compactJson = SyntheticData.json(sizeInKb * 1024);
+		formattedJson = contentType.formatContent(compactJson);
+		byte[] bytes = compactJson.getBytes(StandardCharsets.UTF_8);
+		chunks = new byte[(bytes.length + CHUNK_SIZE - 1) / CHUNK_SIZE][];
+		for (int i = 0; i < chunks.length; i++) {
+			chunks[i] = Arrays.copyOfRange(bytes, i * CHUNK_SIZE, Math.min(bytes.length, (i + 1) * CHUNK_SIZE));
+		}
+	}
+
+	@Benchmark
+	public String formatContent() {
+		return contentType.formatContent(compactJson);
+	}
+
+	/**
+	 * formatting while the response is received, in chunks of a typical http client buffer size
+	 */
+	@Benchmark
+	public int formatContentStreaming() throws IOException {
+		var formatter = new JsonStreamFormatter();
+		int length = 0;
+		for (byte[] chunk : chunks) {
+			length += formatter.format(chunk).length();
+		}
+		return length + formatter.finish().length();
+	}
+
+	@Benchmark
+	public StyleSpans<Collection<String>> computeHighlighting() {
+		return contentType.computeHighlighting(formattedJson);
+	}
+
+	@Benchmark
+	public CodeFoldingContentEditor.ContentRange computeFolding() {
+		return contentType.computeFolding(formattedJson);
+	}
+}
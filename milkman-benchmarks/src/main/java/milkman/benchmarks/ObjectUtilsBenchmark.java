@@ -0,0 +1,45 @@
+package milkman.benchmarks;
+
+import milkman.domain.Collection;
+import milkman.ui.plugin.rest.domain.RestRequestContainer;
+import milkman.utils.ObjectUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjectUtilsBenchmark {
+
+	private RestRequestContainer request;
+	private Collection collection;
+
+	@Setup
+	public void setup() {
+		request = SyntheticData.restRequest(1);
+		collection = SyntheticData.collections(100).get(0);
+	}
+
+	@Benchmark
+	public RestRequestContainer deepCloneRequest() {
+		return ObjectUtils.deepClone(request);
+	}
+
+	@Benchmark
+	public Collection deepCloneCollection() {
+		return ObjectUtils.deepClone(collection);
+	}
+}
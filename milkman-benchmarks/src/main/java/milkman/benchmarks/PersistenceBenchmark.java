@@ -0,0 +1,77 @@
+package milkman.benchmarks;
+
+import milkman.domain.Workspace;
+import milkman.persistence.PersistenceManager;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * loads and persists a workspace with a large number of requests. The database is created in a temporary directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class PersistenceBenchmark {
+
+	private static final String WORKSPACE_NAME = "benchmark";
+
+	@Param({"10000"})
+	private int requestCount;
+
+	private Path databaseDir;
+	private PersistenceManager persistence;
+	private Workspace workspace;
+
+	@Setup
+	public void setup() throws Exception {
+		databaseDir = Files.createTempDirectory("milkman-benchmark");
+		System.setProperty(PersistenceManager.DATABASE_FILE_PROPERTY, databaseDir.resolve("database.db").toString());
+		persistence = new PersistenceManager();
+		persistence.init();
+
+		workspace = SyntheticData.workspace(WORKSPACE_NAME, requestCount);
+		persistence.persistWorkspace(workspace);
+		persistence.flush();
+	}
+
+	@TearDown
+	public void tearDown() {
+		persistence.shutdown();
+		System.clearProperty(PersistenceManager.DATABASE_FILE_PROPERTY);
+		FileUtils.deleteQuietly(databaseDir.toFile());
+	}
+
+	@Benchmark
+	public Optional<Workspace> loadWorkspace() {
+		return persistence.loadWorkspaceByName(WORKSPACE_NAME);
+	}
+
+	@Benchmark
+	public Workspace persistWorkspace() {
+		//mark a single request as changed, like after editing in the ui
+		workspace.getActiveRequest().setName("request " + System.nanoTime());
+		persistence.persistWorkspace(workspace);
+		//writes are asynchronous, so wait for them to be stored
+		persistence.flush();
+		return workspace;
+	}
+}
@@ -0,0 +1,57 @@
+package milkman.benchmarks;
+
+import milkman.domain.Collection;
+import milkman.domain.RequestContainer;
+import milkman.utils.SearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SearchIndexBenchmark {
+
+	@Param({"1000", "20000"})
+	private int requestCount;
+
+	private final SearchIndex index = new SearchIndex();
+	private List<RequestContainer> requests;
+
+	@Setup
+	public void setup() {
+		requests = SyntheticData.collections(requestCount).stream()
+				.map(Collection::getRequests)
+				.flatMap(List::stream)
+				.collect(Collectors.toList());
+		index.update(requests);
+		index.search("");
+	}
+
+	@Benchmark
+	public Set<String> search() {
+		return index.search("url:items/421?");
+	}
+
+	@Benchmark
+	public long matchAll() {
+		//the linear scan the index replaces
+		return requests.stream().filter(r -> r.match("items/421?")).count();
+	}
+}
@@ -0,0 +1,93 @@
+package milkman.benchmarks;
+
+import milkman.domain.Collection;
+import milkman.domain.Environment;
+import milkman.domain.RequestContainer;
+import milkman.domain.Workspace;
+import milkman.ui.plugin.rest.domain.HeaderEntry;
+import milkman.ui.plugin.rest.domain.RestBodyAspect;
+import milkman.ui.plugin.rest.domain.RestHeaderAspect;
+import milkman.ui.plugin.rest.domain.RestRequestContainer;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * generates reproducible workspaces, environments and json documents for the benchmarks
+ */
+public class SyntheticData {
+
+	private static final int REQUESTS_PER_COLLECTION = 100;
+
+	public static RestRequestContainer restRequest(int idx) {
+		var request = new RestRequestContainer("request " + idx, "{{host}}/api/v1/items/" + idx + "?page={{page}}", "POST");
+		request.setId("request-" + idx);
+
+		var headers = new RestHeaderAspect();
+		headers.getEntries().add(new HeaderEntry("header-" + idx + "-1", "Content-Type", "application/json", true));
+		headers.getEntries().add(new HeaderEntry("header-" + idx + "-2", "Authorization", "Bearer {{token}}", true));
+		request.getAspects().add(headers);
+
+		var body = new RestBodyAspect();
+		body.setBody("{\"id\": " + idx + ", \"name\": \"{{name}}\", \"tags\": [\"a\", \"b\", \"c\"]}");
+		request.getAspects().add(body);
+		return request;
+	}
+
+	public static List<Collection> collections(int requestCount) {
+		List<Collection> collections = new ArrayList<>();
+		for (int start = 0; start < requestCount; start += REQUESTS_PER_COLLECTION) {
+			List<RequestContainer> requests = new LinkedList<>();
+			for (int idx = start; idx < Math.min(requestCount, start + REQUESTS_PER_COLLECTION); idx++) {
+				requests.add(restRequest(idx));
+			}
+			collections.add(new Collection("collection-" + start, "collection " + start, false, requests, new LinkedList<>()));
+		}
+		return collections;
+	}
+
+	public static Workspace workspace(String name, int requestCount) {
+		var collections = collections(requestCount);
+		var activeRequest = collections.get(0).getRequests().get(0);
+		var workspace = new Workspace(0, UUID.randomUUID().toString(), name, collections,
+				new LinkedList<>(List.of(activeRequest)), activeRequest);
+		workspace.getEnvironments().add(environment("default", 100));
+		return workspace;
+	}
+
+	public static Environment environment(String name, int entryCount) {
+		var environment = new Environment(name);
+		environment.setActive(true);
+		for (int i = 0; i < entryCount; i++) {
+			environment.setOrAdd("var" + i, "value" + i);
+		}
+		environment.setOrAdd("host", "http://localhost:8080");
+		environment.setOrAdd("page", "1");
+		environment.setOrAdd("token", "secret");
+		environment.setOrAdd("name", "milkman");
+		return environment;
+	}
+
+	/**
+	 * returns compact json of approximately the given size
+	 */
+	public static String json(int sizeInBytes) {
+		var builder = new StringBuilder(sizeInBytes + 256);
+		builder.append("{\"items\":[");
+		for (int idx = 0; builder.length() < sizeInBytes; idx++) {
+			if (idx > 0) {
+				builder.append(',');
+			}
+			builder.append("{\"id\":").append(idx)
+					.append(",\"name\":\"item ").append(idx)
+					.append("\",\"price\":").append(idx * 1.5)
+					.append(",\"available\":").append(idx % 2 == 0)
+					.append(",\"tags\":[\"a\",\"b\"],\"details\":{\"weight\":").append(idx % 100)
+					.append(",\"color\":\"red\"}}");
+		}
+		builder.append("]}");
+		return builder.toString();
+	}
+}
@@ -0,0 +1,65 @@
+package milkman.benchmarks;
+
+import milkman.domain.Environment;
+import milkman.templater.EnvironmentTemplater;
+import milkman.templater.PrefixedTemplaterResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplaterBenchmark {
+
+	@Param({"url", "body", "plain"})
+	private String input;
+
+	private String template;
+	private Optional<Environment> activeEnvironment;
+	private List<Environment> globalEnvironments;
+	private PrefixedTemplaterResolver resolver;
+	private EnvironmentTemplater templater;
+
+	@Setup
+	public void setup() {
+		var request = SyntheticData.restRequest(1);
+		template = switch (input) {
+			case "url" -> request.getUrl();
+			case "body" -> SyntheticData.json(4 * 1024).replace("red", "{{var42}}");
+			default -> SyntheticData.json(4 * 1024);
+		};
+		activeEnvironment = Optional.of(SyntheticData.environment("active", 200));
+		globalEnvironments = List.of(SyntheticData.environment("global", 50));
+		resolver = new PrefixedTemplaterResolver(List.of());
+		templater = new EnvironmentTemplater(activeEnvironment, globalEnvironments, resolver);
+	}
+
+	/**
+	 * a new templater is created for every request execution
+	 */
+	@Benchmark
+	public String replaceTagsWithNewTemplater() {
+		return new EnvironmentTemplater(activeEnvironment, globalEnvironments, resolver).replaceTags(template);
+	}
+
+	@Benchmark
+	public String replaceTags() {
+		return templater.replaceTags(template);
+	}
+}
@@ -6,12 +6,16 @@ import com.datastax.oss.driver.api.core.config.OptionsMap;
 import com.datastax.oss.driver.api.core.config.TypedDriverOption;
 import com.datastax.oss.driver.api.core.cql.ResultSet;
 import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
 import com.datastax.oss.driver.shaded.guava.common.collect.Streams;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import milkman.domain.RequestContainer;
 import milkman.domain.ResponseContainer;
 import milkman.domain.ResponseContainer.StyledText;
+import milkman.domain.table.ColumnType;
+import milkman.domain.table.ResultTable;
 import milkman.plugin.cassandra.domain.CassandraRequestContainer;
 import milkman.plugin.cassandra.proxy.SocksProxyAwareSessionBuilder;
 import milkman.plugin.jdbc.domain.JdbcSqlAspect;
@@ -23,8 +27,6 @@ import org.apache.commons.lang3.StringUtils;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -80,30 +82,50 @@ public class CassandraQueryProcessor {
 		var columnNames = Streams.stream(rs.getColumnDefinitions())
 				.map(cd -> cd.getName().asCql(true))
 				.collect(Collectors.toList());
+		var columnTypes = Streams.stream(rs.getColumnDefinitions())
+				.map(cd -> toColumnType(cd.getType()))
+				.collect(Collectors.toList());
 
-		var rows = new LinkedList<List<String>>();
+		var rows = new ResultTable(columnNames, columnTypes);
 		for (Row row : rs) {
-			List<String> rowValues = new LinkedList<>();
 			for(int c = 0; c < columnNames.size(); ++c){
-				var value = row.getObject(c);
-				rowValues.add(value != null ? value.toString() : "NULL");
+				rows.appendValue(c, row.getObject(c));
 			}
-			rows.add(rowValues);
+			rows.endRow();
 		}
 
-		rowSetAspect.setColumnNames(columnNames);
-		rowSetAspect.setRows(rows);
+		rowSetAspect.setTable(rows);
 
 
 		response.getAspects().add(rowSetAspect);
 		response.getStatusInformations().complete(Map.of(
-				"Rows", new StyledText(""+ rowSetAspect.getRows().size()),
+				"Rows", new StyledText(""+ rowSetAspect.getRowCount()),
 				"Time", new StyledText(requestTimeInMs + "ms")));
 
 
 		return response;
 	}
 
+	private static ColumnType toColumnType(DataType type) {
+		if (type.equals(DataTypes.BIGINT) || type.equals(DataTypes.INT) || type.equals(DataTypes.SMALLINT)
+				|| type.equals(DataTypes.TINYINT) || type.equals(DataTypes.COUNTER)) {
+			return ColumnType.LONG;
+		}
+		if (type.equals(DataTypes.DOUBLE)) {
+			return ColumnType.DOUBLE;
+		}
+		if (type.equals(DataTypes.FLOAT)) {
+			return ColumnType.FLOAT;
+		}
+		if (type.equals(DataTypes.BOOLEAN)) {
+			return ColumnType.BOOLEAN;
+		}
+		if (type.equals(DataTypes.TEXT) || type.equals(DataTypes.ASCII)) {
+			return ColumnType.STRING;
+		}
+		return ColumnType.OBJECT;
+	}
+
 	private CqlSession openCqlSession(CassandraConnectionProperties conProps) {
 		if (connectionCache.containsKey(conProps)){
 			CqlSession cachedSession = connectionCache.get(conProps);
@@ -1,5 +1,6 @@
 package milkmancli;
 
+import milkman.PlatformUtil;
 import milkman.ctrl.ExecutionListenerManager;
 import milkman.ctrl.RequestTypeManager;
 import milkman.logback.LogbackConfiguration;
@@ -8,10 +9,12 @@ import milkman.ui.main.MainWindow;
 import milkman.ui.main.Toaster;
 import milkman.ui.plugin.OptionPageProvider;
 import milkman.ui.plugin.OptionsObject;
+import milkman.ui.plugin.PluginIndex;
 import milkman.ui.plugin.UiPluginManager;
 import wrm.hardwire.Module;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 
 @Module
@@ -30,6 +33,7 @@ public class MilkmanCli extends MilkmanCliBase {
 
 	public static void main(String[] args) throws IOException {
 		LogbackConfiguration.setMuteConsole(true);
+		PluginIndex.load(Path.of(PlatformUtil.getWritableLocationForFile("plugin-index.json")));
 		MilkmanCli cli = new MilkmanCli();
 		cli.start();
 		if (args.length > 1) {
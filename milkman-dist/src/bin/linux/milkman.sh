@@ -9,9 +9,10 @@ if [ ! -f "$BASE_DIR/jre-linux64/lib/client/classes.jsa" ]; then
     "$BASE_DIR/jre-linux64/bin/java" -Xshare:dump
 fi
 
-CDS_COMMAND=-XX:SharedArchiveFile=$BASE_DIR/app-cds.jsa
-if [ ! -f "$BASE_DIR/app-cds.jsa" ]; then
-  CDS_COMMAND=-XX:ArchiveClassesAtExit=$BASE_DIR/app-cds.jsa
+# app-cds archive is generated by milkman in the background (training run)
+CDS_COMMAND=
+if [ -f "$BASE_DIR/app-cds.jsa" ]; then
+  CDS_COMMAND=-XX:SharedArchiveFile=$BASE_DIR/app-cds.jsa
 fi
 
 
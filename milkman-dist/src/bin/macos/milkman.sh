@@ -7,9 +7,10 @@ if [ ! -f "./jre-macos64/lib/client/classes.jsa" ]; then
     "./jre-macos64/bin/java" -Xshare:dump
 fi
 
-CDS_COMMAND=-XX:SharedArchiveFile=app-cds.jsa
-if [ ! -f "app-cds.jsa" ]; then
-  CDS_COMMAND=-XX:ArchiveClassesAtExit=app-cds.jsa
+# app-cds archive is generated by milkman in the background (training run)
+CDS_COMMAND=
+if [ -f "app-cds.jsa" ]; then
+  CDS_COMMAND=-XX:SharedArchiveFile=app-cds.jsa
 fi
 
 ./jre-macos64/bin/java $CDS_COMMAND \
@@ -4,9 +4,10 @@ if not exist .\jre-win64\lib\client\classes.jsa (
     .\jre-win64\bin\java.exe -Xshare:dump
 )
 
-set CDS_COMMAND=-XX:SharedArchiveFile=app-cds.jsa
-if not exist "app-cds.jsa" (
-  set CDS_COMMAND=-XX:ArchiveClassesAtExit=app-cds.jsa
+rem app-cds archive is generated by milkman in the background (training run)
+set CDS_COMMAND=
+if exist "app-cds.jsa" (
+  set CDS_COMMAND=-XX:SharedArchiveFile=app-cds.jsa
 )
 
 @start .\jre-win64\bin\javaw.exe ^
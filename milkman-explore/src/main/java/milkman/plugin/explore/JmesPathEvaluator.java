@@ -0,0 +1,111 @@
+package milkman.plugin.explore;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.burt.jmespath.Expression;
+import io.burt.jmespath.JmesPath;
+import io.burt.jmespath.jackson.JacksonRuntime;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * evaluates JMESPath queries against a response body.
+ *
+ * The body is read and parsed once, on first evaluation, and reused for all further queries.
+ * Compiled expressions are cached by query. Only the latest evaluation is of interest: results of
+ * evaluations that were superseded by a newer query are dropped.
+ */
+class JmesPathEvaluator {
+
+	private static final int MAX_CACHED_EXPRESSIONS = 128;
+
+	private static final JmesPath<JsonNode> jmespath = new JacksonRuntime();
+	private static final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+	private static final Map<String, Expression<JsonNode>> expressionCache = Collections.synchronizedMap(
+			new LinkedHashMap<>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Expression<JsonNode>> eldest) {
+					return size() > MAX_CACHED_EXPRESSIONS;
+				}
+			});
+
+	private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+		Thread t = Executors.defaultThreadFactory().newThread(r);
+		t.setDaemon(true);
+		return t;
+	});
+
+	private final Flux<byte[]> body;
+	private final AtomicLong latestEvaluation = new AtomicLong();
+	private CompletableFuture<JsonNode> parsedBody;
+
+	/**
+	 * @param body the body to query, null if there is none
+	 */
+	JmesPathEvaluator(Flux<byte[]> body) {
+		this.body = body;
+	}
+
+	/**
+	 * evaluates the query in the background and returns the formatted result. The returned future fails with a
+	 * {@link CancellationException}, if a newer evaluation was started in the meantime.
+	 */
+	CompletableFuture<String> evaluate(String query) {
+		long evaluation = latestEvaluation.incrementAndGet();
+		return getParsedBody().thenApplyAsync(input -> {
+			checkLatest(evaluation);
+			JsonNode result = compile(query).search(input);
+			checkLatest(evaluation);
+			try {
+				return mapper.writeValueAsString(result);
+			} catch (Exception e) {
+				throw new IllegalStateException("Failed to serialize result: " + e.getMessage(), e);
+			}
+		}, executor);
+	}
+
+	static Expression<JsonNode> compile(String query) {
+		//parse exceptions are not cached, computeIfAbsent just rethrows them
+		return expressionCache.computeIfAbsent(query, jmespath::compile);
+	}
+
+	private void checkLatest(long evaluation) {
+		if (evaluation != latestEvaluation.get()) {
+			throw new CancellationException("Superseded by newer query");
+		}
+	}
+
+	private synchronized CompletableFuture<JsonNode> getParsedBody() {
+		if (parsedBody == null) {
+			parsedBody = readBody().thenApplyAsync(bytes -> {
+				try {
+					return mapper.readTree(bytes);
+				} catch (Exception e) {
+					throw new IllegalArgumentException(e.getMessage(), e);
+				}
+			}, executor);
+		}
+		return parsedBody;
+	}
+
+	private CompletableFuture<byte[]> readBody() {
+		if (body == null) {
+			return CompletableFuture.completedFuture(new byte[0]);
+		}
+		var result = new CompletableFuture<byte[]>();
+		var buffer = new ByteArrayOutputStream();
+		body.subscribe(buffer::writeBytes, result::completeExceptionally, () -> result.complete(buffer.toByteArray()));
+		return result;
+	}
+}
@@ -1,17 +1,10 @@
 package milkman.plugin.explore;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
 import com.jfoenix.controls.JFXButton;
 import com.jfoenix.controls.JFXTextField;
 import com.jfoenix.controls.JFXTooltip;
 import de.jensd.fx.glyphs.fontawesome.FontAwesomeIcon;
 import de.jensd.fx.glyphs.fontawesome.FontAwesomeIconView;
-import io.burt.jmespath.Expression;
-import io.burt.jmespath.JmesPath;
-import io.burt.jmespath.jackson.JacksonRuntime;
-import io.burt.jmespath.parser.ParseException;
 import javafx.application.Platform;
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
@@ -34,11 +27,11 @@ import milkman.ui.plugin.rest.domain.RestResponseBodyAspect;
 import milkman.utils.fxml.GenericBinding;
 import org.apache.commons.lang3.StringUtils;
 
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -91,8 +84,11 @@ public class JqlAspectResponseEditor implements ResponseAspectEditor {
 		qryInput.textProperty().bindBidirectional(binding);
 		qryInput.setUserData(binding);
 
+		JmesPathEvaluator evaluator = new JmesPathEvaluator(response.getAspect(RestResponseBodyAspect.class)
+				.map(RestResponseBodyAspect::getBody)
+				.orElse(null));
 		binding.toStream().successionEnds(Duration.ofMillis(500))
-				.subscribe(qry -> evaluateExpression(request, response, contentView, qry));
+				.subscribe(qry -> evaluateExpression(request, evaluator, contentView, qry));
 
 		HBox.setHgrow(qryInput, Priority.ALWAYS);
 
@@ -111,33 +107,28 @@ public class JqlAspectResponseEditor implements ResponseAspectEditor {
 		tab.setContent(new VBox(new HBox(qryInput, compilationWarning, helpBtn), contentView));
 
 		// initial evaluation
-		evaluateExpression(request, response, contentView, qryAspect.getQuery());
+		evaluateExpression(request, evaluator, contentView, qryAspect.getQuery());
 
 		return tab;
 	}
 
-	private void evaluateExpression(RequestContainer request, ResponseContainer response, ContentEditor contentView,
+	private void evaluateExpression(RequestContainer request, JmesPathEvaluator evaluator, ContentEditor contentView,
 			String qry) {
-		var aspect = response.getAspect(RestResponseBodyAspect.class);
-
-		CompletableFuture<String> body = aspect
-				.map(b -> b.getBody())
-				.map(b -> {
-					var buffer = new StringBuffer();
-					var f = new CompletableFuture<String>();
-					b.subscribe(value -> buffer.append(new String(value, StandardCharsets.UTF_8)),
-							buffer::append, () -> f.complete(buffer.toString()));
-					return f;
-				}).orElse(CompletableFuture.completedFuture(""));
-
 		String executeQry = StringUtils.isBlank(qry) ? "@" : qry;
 
-		body.thenAccept(b -> executeJmesQuery(executeQry, b)
-				.ifPresent(jmesRes -> {
-					addToQueryHistory(qry, jmesRes, request);
-					Platform.runLater(() -> contentView.setContent(() -> jmesRes, s -> {}));
+		evaluator.evaluate(executeQry).whenComplete((jmesRes, throwable) -> Platform.runLater(() -> {
+			Throwable error = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+			if (error instanceof CancellationException) {
+				return; //superseded by a newer query
+			}
+			if (error != null) {
+				setCompilationWarning(Optional.of(String.valueOf(error.getMessage())));
+				return;
+			}
+			setCompilationWarning(Optional.empty());
+			addToQueryHistory(qry, jmesRes, request);
+			contentView.setContent(() -> jmesRes, s -> {});
 		}));
-		
 	}
 
 	private void addToQueryHistory(String qry, String qryResult, RequestContainer request) {
@@ -166,25 +157,6 @@ public class JqlAspectResponseEditor implements ResponseAspectEditor {
 		error.ifPresent(compilationTooltip::setText);
 	}
 
-	private Optional<String> executeJmesQuery(String query, String body) {
-		JmesPath<JsonNode> jmespath = new JacksonRuntime();
-		try {
-			Expression<JsonNode> expression = jmespath.compile(query);
-			ObjectMapper mapper = new ObjectMapper();
-			mapper.enable(SerializationFeature.INDENT_OUTPUT); // formatting
-			JsonNode input = mapper.readTree(body);
-			JsonNode result = expression.search(input);
-			setCompilationWarning(Optional.empty());
-			return Optional.ofNullable(mapper.writeValueAsString(result));
-		} catch (ParseException e) {
-			setCompilationWarning(Optional.of(e.getMessage()));
-			return Optional.empty();
-		} catch (Exception e) {
-			setCompilationWarning(Optional.of(e.getMessage()));
-			return Optional.empty();
-		}
-	}
-
 	@Override
 	public boolean canHandleAspect(RequestContainer request, ResponseContainer response) {
 		return request.getAspect(JqlQueryAspect.class).isPresent();
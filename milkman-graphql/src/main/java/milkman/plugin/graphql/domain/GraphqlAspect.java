@@ -2,6 +2,7 @@ package milkman.plugin.graphql.domain;
 
 import lombok.Data;
 import milkman.domain.RequestAspect;
+import milkman.domain.SearchTermCollector;
 
 @Data
 public class GraphqlAspect extends RequestAspect {
@@ -11,5 +12,10 @@ public class GraphqlAspect extends RequestAspect {
 	public GraphqlAspect() {
 		super("graphql");
 	}
-	
+
+	@Override
+	public void collectSearchTerms(SearchTermCollector collector) {
+		collector.add(SearchTermCollector.BODY, query);
+		collector.add(SearchTermCollector.BODY, variables);
+	}
 }
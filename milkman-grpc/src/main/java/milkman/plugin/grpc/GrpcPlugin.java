@@ -1,6 +1,8 @@
 package milkman.plugin.grpc;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 
 import milkman.domain.RequestContainer;
 import milkman.domain.RequestExecutionContext;
@@ -105,6 +107,18 @@ public class GrpcPlugin implements RequestTypePlugin, RequestAspectsPlugin {
 		}
 	}
 
+	@Override
+	public Optional<RequestContainer> createTrainingRequest(String localServerUrl) {
+		var request = new GrpcRequestContainer("Training Request", URI.create(localServerUrl).getAuthority());
+		initializeRequestAspects(request);
+		request.getAspect(GrpcOperationAspect.class).ifPresent(o -> {
+			o.setOperation("milkman.Training/Call");
+			o.setUseReflection(true);
+		});
+		request.getAspect(GrpcPayloadAspect.class).ifPresent(p -> p.setPayload("{}"));
+		return Optional.of(request);
+	}
+
 	@Override
 	public String getRequestType() {
 		return "Grpc";
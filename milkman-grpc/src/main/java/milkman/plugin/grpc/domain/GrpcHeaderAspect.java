@@ -5,6 +5,7 @@ import java.util.List;
 
 import lombok.Data;
 import milkman.domain.RequestAspect;
+import milkman.domain.SearchTermCollector;
 import milkman.ui.plugin.Templater;
 
 @Data
@@ -14,6 +15,13 @@ public class GrpcHeaderAspect extends RequestAspect {
 	public GrpcHeaderAspect() {
 		super("headers");
 	}
+
+	@Override
+	public void collectSearchTerms(SearchTermCollector collector) {
+		for (HeaderEntry entry : entries) {
+			collector.add(SearchTermCollector.HEADER, entry.getName() + ": " + entry.getValue());
+		}
+	}
 	
 //	@Override
 //	public void enrichRequest(HttpRequestBuilder builder, Templater templater) throws Exception {
@@ -2,6 +2,7 @@ package milkman.plugin.grpc.domain;
 
 import lombok.Data;
 import milkman.domain.RequestAspect;
+import milkman.domain.SearchTermCollector;
 
 @Data
 public class GrpcPayloadAspect extends RequestAspect {
@@ -11,6 +12,11 @@ public class GrpcPayloadAspect extends RequestAspect {
 	public GrpcPayloadAspect() {
 		super("payload");
 	}
+
+	@Override
+	public void collectSearchTerms(SearchTermCollector collector) {
+		collector.add(SearchTermCollector.BODY, payload);
+	}
 	
 	
 }
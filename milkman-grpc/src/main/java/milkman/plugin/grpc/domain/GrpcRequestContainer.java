@@ -2,6 +2,7 @@ package milkman.plugin.grpc.domain;
 
 import lombok.*;
 import milkman.domain.RequestContainer;
+import milkman.domain.SearchTermCollector;
 import org.apache.commons.lang3.StringUtils;
 
 @Getter @Setter
@@ -24,6 +25,12 @@ public class GrpcRequestContainer extends RequestContainer {
 		return StringUtils.containsIgnoreCase(endpoint, searchString)
 				|| super.match(searchString);
 	}
+
+	@Override
+	public void collectSearchTerms(SearchTermCollector collector) {
+		collector.add(SearchTermCollector.URL, endpoint);
+		super.collectSearchTerms(collector);
+	}
 	
 	
 	@Override
@@ -9,7 +9,6 @@ import milkman.domain.RequestContainer;
 import milkman.domain.ResponseContainer;
 import milkman.plugin.grpc.domain.GrpcResponsePayloadAspect;
 import milkman.ui.components.CodeFoldingContentEditor;
-import milkman.ui.components.ContentEditor;
 import milkman.ui.plugin.ContentTypeAwareEditor;
 import milkman.ui.plugin.ContentTypePlugin;
 import milkman.ui.plugin.ResponseAspectEditor;
@@ -27,7 +26,7 @@ public class GrpcResponsePayloadEditor implements ResponseAspectEditor, ContentT
 	public Tab getRoot(RequestContainer request, ResponseContainer response) {
 		val payload = response.getAspect(GrpcResponsePayloadAspect.class).orElseThrow(() -> new IllegalArgumentException("No Grpc payload aspect"));
 
-		ContentEditor root = new CodeFoldingContentEditor();
+		CodeFoldingContentEditor root = new CodeFoldingContentEditor();
 		root.setEditable(false);
 		if (plugins != null)
 			root.setContentTypePlugins(plugins);
@@ -44,8 +43,10 @@ public class GrpcResponsePayloadEditor implements ResponseAspectEditor, ContentT
 				Platform.runLater(() -> {
 					root.addContent("\n");
 					root.addContent(ExceptionUtils.getRootCauseMessage(throwable));
+					root.completeContent();
 				});
-			}
+			},
+			() -> Platform.runLater(root::completeContent)
 		);
 		return new Tab("Response Payload", root);
 	}
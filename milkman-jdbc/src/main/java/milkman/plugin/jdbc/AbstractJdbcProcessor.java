@@ -1,19 +1,17 @@
 package milkman.plugin.jdbc;
 
+import lombok.extern.slf4j.Slf4j;
+import milkman.domain.table.ResultTable;
 import milkman.plugin.jdbc.domain.JdbcRequestContainer;
 import milkman.plugin.jdbc.domain.RowSetResponseAspect;
 import milkman.ui.main.options.CoreApplicationOptionsProvider;
 import milkman.ui.plugin.Templater;
-import org.apache.commons.io.IOUtils;
 
-import java.io.IOException;
-import java.sql.Blob;
+import java.sql.Connection;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.util.LinkedList;
-import java.util.List;
 
+@Slf4j
 public class AbstractJdbcProcessor {
 
 
@@ -42,38 +40,34 @@ public class AbstractJdbcProcessor {
 		}
 	}
 
-	protected void extractRows(ResultSet resultSet, RowSetResponseAspect rowSetAspect) throws SQLException {
-		ResultSetMetaData metaData = resultSet.getMetaData();		
-		
-		List<String> columnNames = new LinkedList<String>();
-		for(int i = 1; i <= metaData.getColumnCount(); ++i) { // column idx starts at 1
-			columnNames.add(metaData.getColumnName(i));
-		}
-		rowSetAspect.setColumnNames(columnNames);
-		
-		while(resultSet.next() && !maxRowLimitReached(rowSetAspect)) {
-			List<String> row = new LinkedList<>();
-			for(int i = 1; i <= metaData.getColumnCount(); ++i) {// column idx starts at 1
-				var value = resultSet.getObject(i);
-				row.add(valueToString(value));
-			}
-			rowSetAspect.addRow(row);
+	/**
+	 * switches off auto-commit, e.g. as some drivers (e.g. postgres) only stream result sets within a transaction.
+	 * Returns false, if the driver does not support transactions.
+	 */
+	protected boolean beginTransaction(Connection connection) {
+		try {
+			connection.setAutoCommit(false);
+			return true;
+		} catch (SQLException e) {
+			log.debug("Driver does not support transactions, using auto-commit", e);
+			return false;
 		}
 	}
 
-	private String valueToString(Object value) {
-		if (value instanceof Blob) {
-			try {
-				value = IOUtils.toString(((Blob) value).getBinaryStream());
-			} catch (IOException | SQLException e) {
-				value = "BLOB";
-			}
+	/**
+	 * reads all rows of a (small) result set, e.g. of database metadata, up to the row fetch limit
+	 */
+	protected void extractRows(ResultSet resultSet, RowSetResponseAspect rowSetAspect) throws SQLException {
+		ResultTable table = new ResultTable(JdbcRowCursor.readColumnNames(resultSet.getMetaData()),
+				JdbcRowCursor.readColumnTypes(resultSet.getMetaData()));
+		rowSetAspect.setTable(table);
+		
+		while(!maxRowLimitReached(table) && resultSet.next()) {
+			JdbcRowCursor.readRow(resultSet, table);
 		}
-		String stringValue = value != null ? value.toString() : "NULL";
-		return stringValue;
 	}
 
-	private boolean maxRowLimitReached(RowSetResponseAspect rowSetAspect) {
-		return rowSetAspect.getRows().size() > JdbcOptionsProvider.options().getMaxRowFetchLimit();
+	private boolean maxRowLimitReached(ResultTable table) {
+		return table.getRowCount() >= JdbcOptionsProvider.options().getMaxRowFetchLimit();
 	}
 }
@@ -0,0 +1,331 @@
+package milkman.plugin.jdbc;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * a small pool of connections to a single jdbc url.
+ *
+ * Connections are validated when borrowed, idle connections above the minimum are closed after the idle timeout.
+ * If all connections are in use, borrowing asks the {@link ConnectionReclaimer} to free a connection (e.g. held by an open
+ * cursor) and waits for a connection to be released otherwise.
+ * Prepared statements are cached per connection, as long as the connection is pooled.
+ */
+@Slf4j
+public class JdbcConnectionPool {
+
+	@FunctionalInterface
+	public interface ConnectionFactory {
+		Connection connect() throws SQLException;
+	}
+
+	/**
+	 * frees a connection of the pool that is held, but not actively used
+	 */
+	@FunctionalInterface
+	public interface ConnectionReclaimer {
+		/**
+		 * returns true, if a connection was given back to the pool
+		 */
+		boolean reclaim(JdbcConnectionPool pool);
+	}
+
+	/**
+	 * pool sizes and timeouts
+	 */
+	public static class Settings {
+		final int minIdle;
+		final int maxSize;
+		final long idleTimeoutMs;
+		final int validationTimeoutSec;
+		final long borrowTimeoutMs;
+		final int statementCacheSize;
+
+		public Settings(int minIdle, int maxSize, long idleTimeoutMs, int validationTimeoutSec, long borrowTimeoutMs, int statementCacheSize) {
+			this.maxSize = Math.max(1, maxSize);
+			this.minIdle = Math.max(0, Math.min(minIdle, this.maxSize));
+			this.idleTimeoutMs = idleTimeoutMs;
+			this.validationTimeoutSec = validationTimeoutSec;
+			this.borrowTimeoutMs = borrowTimeoutMs;
+			this.statementCacheSize = Math.max(0, statementCacheSize);
+		}
+	}
+
+	private final String name;
+	private final ConnectionFactory factory;
+	private final ConnectionReclaimer reclaimer;
+	private final Settings settings;
+
+	/** most recently released connection first */
+	private final Deque<IdleConnection> idle = new ArrayDeque<>();
+	private final Map<Connection, PreparedStatementCache> statementCaches = new ConcurrentHashMap<>();
+	private int borrowed = 0;
+	private int connecting = 0;
+	private int reserved = 0;
+	private boolean closed = false;
+	private volatile long lastUsed = System.currentTimeMillis();
+
+	public JdbcConnectionPool(String name, ConnectionFactory factory, ConnectionReclaimer reclaimer, Settings settings) {
+		this.name = name;
+		this.factory = factory;
+		this.reclaimer = reclaimer;
+		this.settings = settings;
+	}
+
+	/**
+	 * returns a valid connection, which has to be given back via {@link #release(Connection)}
+	 */
+	public Connection borrow() throws SQLException {
+		lastUsed = System.currentTimeMillis();
+		long deadline = System.currentTimeMillis() + settings.borrowTimeoutMs;
+		boolean reclaimable = true;
+		while (true) {
+			IdleConnection candidate = null;
+			boolean reclaim = false;
+			synchronized (this) {
+				while (idle.isEmpty() && borrowed + connecting >= settings.maxSize && !closed) {
+					if (reclaimable) {
+						// the reclaimer gives the connection back, so it is called outside of the lock
+						reclaim = true;
+						break;
+					}
+					long remaining = deadline - System.currentTimeMillis();
+					if (remaining <= 0) {
+						throw new SQLTimeoutException("No connection available within " + settings.borrowTimeoutMs + "ms, all "
+								+ settings.maxSize + " connections of pool " + name + " are in use");
+					}
+					try {
+						wait(remaining);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new SQLException("Interrupted while waiting for a connection", e);
+					}
+					// connections might be held again in the meantime
+					reclaimable = true;
+				}
+				if (!reclaim) {
+					if (closed) {
+						throw new SQLException("Connection pool " + name + " is closed");
+					}
+					if (!idle.isEmpty()) {
+						candidate = idle.pollFirst();
+					}
+					borrowed++;
+				}
+			}
+
+			if (reclaim) {
+				reclaimable = reclaimer.reclaim(this);
+				continue;
+			}
+
+			if (candidate == null) {
+				return connect();
+			}
+			if (isValid(candidate.connection)) {
+				return candidate.connection;
+			}
+			log.debug("Dropping invalid connection of pool {}", name);
+			discard(candidate.connection);
+			synchronized (this) {
+				borrowed--;
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * gives a borrowed connection back. Closed connections (or connections in unknown state) are dropped.
+	 */
+	public void release(Connection connection) {
+		lastUsed = System.currentTimeMillis();
+		boolean keep = resetState(connection);
+		synchronized (this) {
+			borrowed--;
+			keep = keep && !closed;
+			if (keep) {
+				idle.addFirst(new IdleConnection(connection, System.currentTimeMillis()));
+			}
+			notifyAll();
+		}
+		if (!keep) {
+			discard(connection);
+		}
+	}
+
+	/**
+	 * prepares a statement on a borrowed connection or returns the cached one. Cached statements are closed
+	 * together with their connection, so they have to be given back via {@link #releaseStatement(Connection, Statement)}
+	 * instead of closing them.
+	 */
+	public PreparedStatement prepareStatement(Connection connection, String sql) throws SQLException {
+		return statementCaches
+				.computeIfAbsent(connection, c -> new PreparedStatementCache(settings.statementCacheSize))
+				.prepare(connection, sql);
+	}
+
+	/**
+	 * closes the statement, unless it is cached
+	 */
+	public void releaseStatement(Connection connection, Statement statement) throws SQLException {
+		var cache = statementCaches.get(connection);
+		if (cache == null || !cache.contains(statement)) {
+			statement.close();
+		}
+	}
+
+	/**
+	 * closes connections that were idle for too long, keeping the configured minimum of idle connections
+	 * and opens new connections, if there are less idle connections than the minimum
+	 */
+	public void maintain() {
+		var expired = new ArrayDeque<Connection>();
+		int missing;
+		synchronized (this) {
+			long expireBefore = System.currentTimeMillis() - settings.idleTimeoutMs;
+			while (idle.size() > settings.minIdle && idle.peekLast().idleSince <= expireBefore) {
+				expired.add(idle.pollLast().connection);
+			}
+			missing = closed ? 0 : Math.min(settings.minIdle - idle.size(), settings.maxSize - borrowed - connecting - idle.size());
+			if (missing > 0) {
+				connecting += missing;
+			}
+		}
+		expired.forEach(this::discard);
+		for (int i = 0; i < missing; i++) {
+			Connection connection = null;
+			try {
+				connection = factory.connect();
+			} catch (SQLException e) {
+				log.debug("Failed to open idle connection for pool {}", name, e);
+			}
+			synchronized (this) {
+				connecting--;
+				if (connection != null && !closed) {
+					idle.addLast(new IdleConnection(connection, System.currentTimeMillis()));
+					connection = null;
+				}
+				notifyAll();
+			}
+			if (connection != null) {
+				closeQuietly(connection);
+			}
+		}
+	}
+
+	/**
+	 * marks the pool as about to be borrowed from, so it is not considered unused in the meantime
+	 */
+	public synchronized void reserve() {
+		reserved++;
+	}
+
+	public synchronized void unreserve() {
+		reserved--;
+	}
+
+	/**
+	 * true, if the pool was not used within the idle timeout and holds no connections
+	 */
+	public synchronized boolean isUnused() {
+		return borrowed == 0 && connecting == 0 && reserved == 0 && idle.isEmpty()
+				&& lastUsed <= System.currentTimeMillis() - settings.idleTimeoutMs;
+	}
+
+	public synchronized int getIdleCount() {
+		return idle.size();
+	}
+
+	public synchronized int getBorrowedCount() {
+		return borrowed;
+	}
+
+	/**
+	 * closes all idle connections. Borrowed connections are closed when released.
+	 */
+	public void close() {
+		var connections = new ArrayDeque<IdleConnection>();
+		synchronized (this) {
+			closed = true;
+			connections.addAll(idle);
+			idle.clear();
+			notifyAll();
+		}
+		connections.forEach(c -> discard(c.connection));
+	}
+
+	private Connection connect() throws SQLException {
+		try {
+			log.debug("Opening new connection for pool {}", name);
+			return factory.connect();
+		} catch (SQLException | RuntimeException e) {
+			synchronized (this) {
+				borrowed--;
+				notifyAll();
+			}
+			throw e;
+		}
+	}
+
+	private boolean isValid(Connection connection) {
+		try {
+			return !connection.isClosed() && connection.isValid(settings.validationTimeoutSec);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * closes the connection and its cached statements
+	 */
+	private void discard(Connection connection) {
+		var cache = statementCaches.remove(connection);
+		if (cache != null) {
+			cache.close();
+		}
+		closeQuietly(connection);
+	}
+
+	/**
+	 * rolls back unfinished transactions, so the next user gets a connection in its default state
+	 */
+	private static boolean resetState(Connection connection) {
+		try {
+			if (connection.isClosed()) {
+				return false;
+			}
+			if (!connection.getAutoCommit()) {
+				connection.rollback();
+				connection.setAutoCommit(true);
+			}
+			connection.clearWarnings();
+			return true;
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	static void closeQuietly(Connection connection) {
+		try {
+			connection.close();
+		} catch (SQLException e) {
+			log.debug("Failed to close connection", e);
+		}
+	}
+
+	@RequiredArgsConstructor
+	private static class IdleConnection {
+		private final Connection connection;
+		private final long idleSince;
+	}
+}
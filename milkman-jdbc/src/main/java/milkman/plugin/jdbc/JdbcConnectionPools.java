@@ -0,0 +1,186 @@
+package milkman.plugin.jdbc;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import milkman.plugin.jdbc.JdbcOptionsProvider.JdbcOptions;
+import milkman.ui.main.options.CoreApplicationOptionsProvider;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * hands out jdbc connections from pools, keyed by the resolved jdbc url and the socks proxy settings, so that
+ * subsequent requests reuse open sessions instead of doing a full connect/authentication every time.
+ *
+ * Pools are maintained in the background (idle connections are closed, minimum idle connections opened) and closed
+ * when the application shuts down. If pooling is disabled, every lease opens a new connection and closes it afterwards.
+ */
+@Slf4j
+public class JdbcConnectionPools {
+
+	private static final long BORROW_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(30);
+	private static final JdbcConnectionPools instance = new JdbcConnectionPools();
+
+	private static final ScheduledExecutorService maintenanceScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "jdbc-pool-maintenance");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	static {
+		maintenanceScheduler.scheduleWithFixedDelay(instance::maintain, 10, 10, TimeUnit.SECONDS);
+		Runtime.getRuntime().addShutdownHook(new Thread(instance::closeAll, "jdbc-pool-shutdown"));
+	}
+
+	private final Map<PoolKey, JdbcConnectionPool> pools = new ConcurrentHashMap<>();
+
+	public static JdbcConnectionPools instance() {
+		return instance;
+	}
+
+	/**
+	 * borrows a connection for the given (resolved) jdbc url. The lease has to be closed to give the connection back.
+	 */
+	public Lease borrow(String jdbcUrl) throws SQLException {
+		JdbcOptions options = JdbcOptionsProvider.options();
+		if (!options.isConnectionPoolingEnabled()) {
+			Connection connection = DriverManager.getConnection(jdbcUrl);
+			return new Lease(connection, null);
+		}
+		var key = new PoolKey(jdbcUrl, socksProxy());
+		//the pool is reserved atomically with the lookup, so the maintenance does not close it before the connection is borrowed
+		var pool = pools.compute(key, (k, existing) -> {
+			var result = existing != null ? existing : new JdbcConnectionPool(describe(k.getJdbcUrl()),
+					() -> DriverManager.getConnection(k.getJdbcUrl()),
+					JdbcRowCursor::closeLeastRecentlyUsed,
+					settings(options));
+			result.reserve();
+			return result;
+		});
+		try {
+			return new Lease(pool.borrow(), pool);
+		} finally {
+			pool.unreserve();
+		}
+	}
+
+	/**
+	 * closes all pools, their idle connections and open cursors. Connections in use are closed as soon as they are given back.
+	 * Returns the number of closed pools.
+	 */
+	public int closeAll() {
+		JdbcRowCursor.closeAll();
+		var closedPools = new ArrayList<JdbcConnectionPool>();
+		pools.keySet().forEach(key -> {
+			var pool = pools.remove(key);
+			if (pool != null) {
+				closedPools.add(pool);
+			}
+		});
+		closedPools.forEach(JdbcConnectionPool::close);
+		log.debug("Closed {} jdbc connection pools", closedPools.size());
+		return closedPools.size();
+	}
+
+	public void maintain() {
+		JdbcRowCursor.closeIdleCursors(TimeUnit.SECONDS.toMillis(JdbcOptionsProvider.options().getIdleTimeoutSeconds()));
+		pools.forEach((key, pool) -> {
+			try {
+				pool.maintain();
+			} catch (RuntimeException e) {
+				log.warn("Failed to maintain connection pool for {}", describe(key.getJdbcUrl()), e);
+			}
+			if (pool.isUnused() && pools.computeIfPresent(key, (k, p) -> p == pool && p.isUnused() ? null : p) == null) {
+				pool.close();
+			}
+		});
+	}
+
+	public int size() {
+		return pools.size();
+	}
+
+	private static JdbcConnectionPool.Settings settings(JdbcOptions options) {
+		return new JdbcConnectionPool.Settings(
+				options.getMinIdleConnections(),
+				options.getMaxConnections(),
+				TimeUnit.SECONDS.toMillis(options.getIdleTimeoutSeconds()),
+				options.getValidationTimeoutSeconds(),
+				BORROW_TIMEOUT_MS,
+				options.getStatementCacheSize());
+	}
+
+	private static String socksProxy() {
+		var coreOptions = CoreApplicationOptionsProvider.options();
+		return coreOptions.isUseSocksProxy() ? coreOptions.getSocksProxyAddress() : null;
+	}
+
+	/**
+	 * url without parameters (which might contain credentials), used for logging
+	 */
+	private static String describe(String jdbcUrl) {
+		int paramsIdx = jdbcUrl.indexOf('?');
+		return paramsIdx < 0 ? jdbcUrl : jdbcUrl.substring(0, paramsIdx);
+	}
+
+	@Value
+	private static class PoolKey {
+		String jdbcUrl;
+		String socksProxy;
+	}
+
+	/**
+	 * a borrowed connection, which is given back to its pool (or closed, if not pooled) on close
+	 */
+	@RequiredArgsConstructor
+	public static class Lease implements AutoCloseable {
+		private final Connection connection;
+		private final JdbcConnectionPool pool;
+
+		public Connection getConnection() {
+			return connection;
+		}
+
+		boolean isOf(JdbcConnectionPool pool) {
+			return this.pool != null && this.pool == pool;
+		}
+
+		/**
+		 * prepares a statement, which is cached for the connection if it is pooled.
+		 * The statement has to be given back via {@link #releaseStatement(Statement)}.
+		 */
+		public PreparedStatement prepareStatement(String sql) throws SQLException {
+			return pool != null ? pool.prepareStatement(connection, sql) : connection.prepareStatement(sql);
+		}
+
+		/**
+		 * closes the statement, unless it is cached
+		 */
+		public void releaseStatement(Statement statement) throws SQLException {
+			if (pool != null) {
+				pool.releaseStatement(connection, statement);
+			} else {
+				statement.close();
+			}
+		}
+
+		@Override
+		public void close() {
+			if (pool != null) {
+				pool.release(connection);
+			} else {
+				JdbcConnectionPool.closeQuietly(connection);
+			}
+		}
+	}
+}
@@ -11,9 +11,6 @@ import milkman.plugin.jdbc.domain.TableResponseContainer;
 import milkman.ui.main.dialogs.StringInputDialog;
 import milkman.ui.plugin.Templater;
 
-import java.sql.Connection;
-import java.sql.DatabaseMetaData;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
@@ -27,16 +24,14 @@ public class JdbcMetaProcessor extends AbstractJdbcProcessor {
 		JdbcRequestContainer jdbcRequest = (JdbcRequestContainer) request;
 		String jdbcUrl = getJdbcUrl(jdbcRequest, templater);
 
-		Connection connection = DriverManager.getConnection(jdbcUrl);
-	
-		DatabaseMetaData md = connection.getMetaData();
-		ResultSet rs = md.getTables(null, null, "%", null);
-		
 		TableResponseContainer response = new TableResponseContainer();
 		RowSetResponseAspect rowSetAspect = new RowSetResponseAspect();
-		extractRows(rs, rowSetAspect);
+		try (var lease = JdbcConnectionPools.instance().borrow(jdbcUrl);
+			 ResultSet rs = lease.getConnection().getMetaData().getTables(null, null, "%", null)) {
+			extractRows(rs, rowSetAspect);
+		}
 		response.getAspects().add(rowSetAspect);
-		response.getStatusInformations().complete(Map.of("Selected Rows", new StyledText(""+ rowSetAspect.getRows().size())));
+		response.getStatusInformations().complete(Map.of("Selected Rows", new StyledText(""+ rowSetAspect.getRowCount())));
 
 		
 		return response;
@@ -48,25 +43,32 @@ public class JdbcMetaProcessor extends AbstractJdbcProcessor {
 			throw new IllegalArgumentException("Unsupported request container: " + request.getType());
 		}
 		JdbcRequestContainer jdbcRequest = (JdbcRequestContainer) request;
-		String jdbcUrl = jdbcRequest.getJdbcUrl();
+		String jdbcUrl = getJdbcUrl(jdbcRequest, templater);
 		
 		var tableName = getTableName();
 
-		Connection connection = DriverManager.getConnection(templater.replaceTags(jdbcUrl));
-	
-		DatabaseMetaData md = connection.getMetaData();
-		ResultSet rs = md.getColumns(null, null, tableName, "%");
-		
 		TableResponseContainer response = new TableResponseContainer();
 		RowSetResponseAspect rowSetAspect = new RowSetResponseAspect();
-		extractRows(rs, rowSetAspect);
+		try (var lease = JdbcConnectionPools.instance().borrow(jdbcUrl);
+			 ResultSet rs = lease.getConnection().getMetaData().getColumns(null, null, tableName, "%")) {
+			extractRows(rs, rowSetAspect);
+		}
 		response.getAspects().add(rowSetAspect);
-		response.getStatusInformations().complete(Map.of("Selected Rows", new StyledText(""+ rowSetAspect.getRows().size())));
+		response.getStatusInformations().complete(Map.of("Selected Rows", new StyledText(""+ rowSetAspect.getRowCount())));
 
 		
 		return response;
 	}
 
+	public ResponseContainer closePooledConnections() {
+		int closedPools = JdbcConnectionPools.instance().closeAll();
+
+		TableResponseContainer response = new TableResponseContainer();
+		response.getAspects().add(new RowSetResponseAspect());
+		response.getStatusInformations().complete(Map.of("Closed Pools", new StyledText("" + closedPools)));
+		return response;
+	}
+
 	private String getTableName() throws InterruptedException {
 		StringInputDialog dialog = new StringInputDialog();
 		CountDownLatch latch = new CountDownLatch(1);
@@ -11,6 +11,14 @@ public class JdbcOptionsProvider implements OptionPageProvider<JdbcOptionsProvid
 	@Data
 	public static class JdbcOptions implements OptionsObject {
 		private int maxRowFetchLimit = 500;
+		private int fetchSize = 500;
+		private boolean connectionPoolingEnabled = true;
+		private int minIdleConnections = 0;
+		private int maxConnections = 4;
+		private int idleTimeoutSeconds = 300;
+		private int validationTimeoutSeconds = 5;
+		private int statementCacheSize = 32;
+		private int maxBatchSize = 1000;
 	} 
 
 	private static JdbcOptions currentOptions = new JdbcOptions();
@@ -26,13 +34,28 @@ public class JdbcOptionsProvider implements OptionPageProvider<JdbcOptionsProvid
 	@Override
 	public void setOptions(JdbcOptions options) {
 		currentOptions = options;
+		//pools are recreated with new settings on next request
+		JdbcConnectionPools.instance().closeAll();
 	}
 
 	@Override
 	public OptionDialogPane getOptionsDialog(OptionDialogBuilder builder) {
 		return builder.page("Jdbc", getOptions())
 				.section("Jdbc Fetch")
-					.numberInput("Row Fetch limit", JdbcOptions::getMaxRowFetchLimit, JdbcOptions::setMaxRowFetchLimit)
+					.numberInput("Rows per page", JdbcOptions::getMaxRowFetchLimit, JdbcOptions::setMaxRowFetchLimit)
+					.numberInput("Jdbc fetch size", JdbcOptions::getFetchSize, JdbcOptions::setFetchSize)
+				.endSection()
+				.section("Sql Scripts")
+					.numberInput("Max statements per batch", JdbcOptions::getMaxBatchSize, JdbcOptions::setMaxBatchSize)
+				.endSection()
+				.section("Connection Pool")
+					.toggle("Reuse connections", JdbcOptions::isConnectionPoolingEnabled, JdbcOptions::setConnectionPoolingEnabled)
+					.numberInput("Min idle connections", JdbcOptions::getMinIdleConnections, JdbcOptions::setMinIdleConnections)
+					.numberInput("Max connections", JdbcOptions::getMaxConnections, JdbcOptions::setMaxConnections)
+					.numberInput("Idle timeout (s)", JdbcOptions::getIdleTimeoutSeconds, JdbcOptions::setIdleTimeoutSeconds)
+					.numberInput("Validation timeout (s)", JdbcOptions::getValidationTimeoutSeconds, JdbcOptions::setValidationTimeoutSeconds)
+					.numberInput("Cached statements per connection", JdbcOptions::getStatementCacheSize, JdbcOptions::setStatementCacheSize)
+					.button("Close pooled connections", () -> JdbcConnectionPools.instance().closeAll())
 				.endSection()
 				.build();
 	}
@@ -12,15 +12,30 @@ import milkman.plugin.jdbc.domain.TableResponseContainer;
 import milkman.ui.plugin.Templater;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 @Slf4j
 public class JdbcQueryProcessor extends AbstractJdbcProcessor {
 
-	@SneakyThrows
+	private static final Pattern QUERY = Pattern.compile("^[\\s(]*(select|with|values|table|show|explain|describe|desc)\\b", Pattern.CASE_INSENSITIVE);
+	private static final Pattern MODIFYING = Pattern.compile("\\b(insert|update|delete|merge|into|lock|for\\s+share|for\\s+key\\s+share)\\b", Pattern.CASE_INSENSITIVE);
+
+	/**
+	 * executes the request, all rows are read up to the row fetch limit
+	 */
 	public ResponseContainer executeRequest(RequestContainer request, Templater templater) {
+		return executeRequest(request, templater, false);
+	}
+
+	/**
+	 * executes the request. If keepCursor is set, the result of a query stays open, so further rows can be fetched
+	 * page by page. The cursor has to be closed then, once the response is disposed.
+	 */
+	@SneakyThrows
+	public ResponseContainer executeRequest(RequestContainer request, Templater templater, boolean keepCursor) {
 		
 		if (!(request instanceof JdbcRequestContainer)) {
 			throw new IllegalArgumentException("Unsupported request container: " + request.getType());
@@ -28,34 +43,95 @@ public class JdbcQueryProcessor extends AbstractJdbcProcessor {
 		
 		JdbcSqlAspect jdbcSqlAspect = request.getAspect(JdbcSqlAspect.class)
 				.orElseThrow(() -> new IllegalArgumentException("Missing Sql Aspect"));
-		String finalSql = templater.replaceTags(jdbcSqlAspect.getSql());
-		
-		
 		JdbcRequestContainer jdbcRequest = (JdbcRequestContainer)request;
 		String jdbcUrl = getJdbcUrl(jdbcRequest, templater);
+		boolean backslashEscapes = SqlScriptSplitter.usesBackslashEscapes(jdbcUrl);
+
+		String finalSql = null;
+		ParameterizedSql.Bound boundSql = null;
+		if (jdbcSqlAspect.isBindParameters()) {
+			boundSql = ParameterizedSql.of(jdbcSqlAspect.getSql(), backslashEscapes).bind(templater);
+		} else {
+			finalSql = templater.replaceTags(jdbcSqlAspect.getSql());
+		}
+
+		// only queries that keep their cursor run in a transaction (needed by some drivers for streaming results),
+		// everything else stays in auto-commit, as some statements can't run in a transaction (e.g. vacuum)
+		boolean pageable = keepCursor && isPageable(boundSql != null ? boundSql.getSql() : finalSql, backslashEscapes);
 
-		Connection connection = DriverManager.getConnection(jdbcUrl);
-		Statement statement = connection.createStatement();
-		long startTime = System.currentTimeMillis();
-		boolean isResultSet = statement.execute(finalSql);
-		long requestTimeInMs = System.currentTimeMillis() - startTime;
-		
 		TableResponseContainer response = new TableResponseContainer();
 		RowSetResponseAspect rowSetAspect = new RowSetResponseAspect();
-		
-		if (isResultSet) {
-			extractRows(statement.getResultSet(), rowSetAspect);
-			response.getStatusInformations().complete(Map.of("Selected Rows", new StyledText(""+ rowSetAspect.getRows().size())));
-		} else {
-			response.getStatusInformations().complete(Map.of("Affected Rows", new StyledText(""+ statement.getUpdateCount())));
+
+		var lease = JdbcConnectionPools.instance().borrow(jdbcUrl);
+		Statement statement = null;
+		JdbcRowCursor cursor = null;
+		try {
+			Connection connection = lease.getConnection();
+			boolean transactional = pageable && beginTransaction(connection);
+			long startTime = System.currentTimeMillis();
+			boolean isResultSet;
+			if (boundSql != null) {
+				PreparedStatement preparedStatement = lease.prepareStatement(boundSql.getSql());
+				statement = preparedStatement;
+				boundSql.setParameters(preparedStatement);
+				preparedStatement.setFetchSize(JdbcOptionsProvider.options().getFetchSize());
+				isResultSet = preparedStatement.execute();
+			} else {
+				statement = connection.createStatement();
+				statement.setFetchSize(JdbcOptionsProvider.options().getFetchSize());
+				isResultSet = statement.execute(finalSql);
+			}
+			long requestTimeInMs = System.currentTimeMillis() - startTime;
+
+			if (isResultSet) {
+				cursor = new JdbcRowCursor(lease, statement, statement.getResultSet());
+				rowSetAspect.setTable(cursor.fetch(JdbcOptionsProvider.options().getMaxRowFetchLimit()));
+				boolean moreRows = !cursor.isExhausted();
+				if (moreRows && pageable) {
+					rowSetAspect.setCursor(cursor);
+				} else {
+					cursor.close(); // commits and gives back the connection
+				}
+				String selectedRows = rowSetAspect.getRowCount() + (moreRows ? "+" : "");
+				response.getStatusInformations().complete(Map.of("Selected Rows", new StyledText(selectedRows)));
+			} else {
+				response.getStatusInformations().complete(Map.of("Affected Rows", new StyledText(""+ statement.getUpdateCount())));
+				lease.releaseStatement(statement);
+				if (transactional) {
+					connection.commit();
+				}
+				lease.close();
+			}
+			response.getStatusInformations().complete(Map.of("Time", new StyledText(requestTimeInMs + "ms")));
+		} catch (Exception e) {
+			if (cursor != null) {
+				cursor.close(); // gives back statement and connection, if not already done
+			} else {
+				try {
+					if (statement != null) {
+						lease.releaseStatement(statement);
+					}
+				} finally {
+					lease.close();
+				}
+			}
+			throw e;
 		}
-		response.getStatusInformations().complete(Map.of("Time", new StyledText(requestTimeInMs + "ms")));
 
 		response.getAspects().add(rowSetAspect);
 		
 		return response;
 	}
 
-
+	/**
+	 * true, if the statement only reads data, so its result can stay open for paging. Statements that change data or
+	 * lock rows (e.g. insert ... returning or select ... for update) run in auto-commit, as the transaction would stay
+	 * open (and keep its locks) as long as the cursor.
+	 * Keywords within string literals are not distinguished, so such queries are not paged either.
+	 */
+	static boolean isPageable(String sql, boolean backslashEscapes) {
+		String statement = SqlScriptSplitter.stripComments(sql, backslashEscapes).trim();
+		return QUERY.matcher(statement).find() && !MODIFYING.matcher(statement).find();
+	}
 
 }
@@ -6,10 +6,13 @@ import milkman.domain.RequestExecutionContext;
 import milkman.domain.ResponseContainer;
 import milkman.plugin.jdbc.domain.JdbcRequestContainer;
 import milkman.plugin.jdbc.domain.JdbcSqlAspect;
+import milkman.plugin.jdbc.domain.RowSetResponseAspect;
 import milkman.plugin.jdbc.editor.JdbcRequestEditor;
 import milkman.plugin.jdbc.editor.JdbcResultSetAspectEditor;
 import milkman.plugin.jdbc.editor.SqlAspectEditor;
+import milkman.plugin.jdbc.editor.SqlScriptResultAspectEditor;
 import milkman.ui.plugin.*;
+import milkman.utils.AsyncResponseControl.AsyncControl;
 
 import java.util.Collections;
 import java.util.List;
@@ -19,6 +22,7 @@ public class JdbcRequestPlugin implements RequestTypePlugin, RequestAspectsPlugi
 
 	JdbcQueryProcessor processor = new JdbcQueryProcessor();
 	JdbcMetaProcessor metaProcessor = new JdbcMetaProcessor();
+	JdbcScriptProcessor scriptProcessor = new JdbcScriptProcessor();
 	
 	@Override
 	public RequestContainer createNewRequest() {
@@ -30,9 +34,40 @@ public class JdbcRequestPlugin implements RequestTypePlugin, RequestAspectsPlugi
 		return new JdbcRequestEditor();
 	}
 
+	/**
+	 * executes the request without keeping results open, e.g. for the cli
+	 */
 	@Override
 	public ResponseContainer executeRequest(RequestContainer request, Templater templater) {
-		return processor.executeRequest(request, templater);
+		return executeRequest(request, templater, false);
+	}
+
+	private ResponseContainer executeRequest(RequestContainer request, Templater templater, boolean keepCursor) {
+		boolean scriptMode = request.getAspect(JdbcSqlAspect.class)
+				.map(JdbcSqlAspect::isScriptMode)
+				.orElse(false);
+		return scriptMode
+				? scriptProcessor.executeRequest(request, templater)
+				: processor.executeRequest(request, templater, keepCursor);
+	}
+
+	/**
+	 * open cursors of results are closed, once the response is disposed
+	 */
+	@Override
+	public ResponseContainer executeRequestAsync(RequestContainer request, Templater templater, AsyncControl asyncControl) {
+		asyncControl.triggerReqeuestStarted();
+		try {
+			ResponseContainer response = executeRequest(request, templater, true);
+			response.getAspect(RowSetResponseAspect.class)
+					.map(RowSetResponseAspect::getCursor)
+					.ifPresent(cursor -> asyncControl.onResponseDisposed(cursor::close));
+			asyncControl.triggerRequestSucceeded();
+			return response;
+		} catch (Exception e) {
+			asyncControl.triggerRequestFailed(e);
+			throw e;
+		}
 	}
 
 	@Override
@@ -42,7 +77,7 @@ public class JdbcRequestPlugin implements RequestTypePlugin, RequestAspectsPlugi
 
 	@Override
 	public List<ResponseAspectEditor> getResponseTabs() {
-		return Collections.singletonList(new JdbcResultSetAspectEditor());
+		return List.of(new JdbcResultSetAspectEditor(), new SqlScriptResultAspectEditor());
 	}
 
 	@Override
@@ -77,7 +112,8 @@ public class JdbcRequestPlugin implements RequestTypePlugin, RequestAspectsPlugi
 	public List<CustomCommand> getCustomCommands() {
 		return List.of(
 				new CustomCommand("SHOW_TABLES", "Show Tables"),
-				new CustomCommand("SHOW_COLUMNS", "Show Table Schema")
+				new CustomCommand("SHOW_COLUMNS", "Show Table Schema"),
+				new CustomCommand("CLOSE_CONNECTIONS", "Close Pooled Connections")
 				);
 	}
 
@@ -88,6 +124,8 @@ public class JdbcRequestPlugin implements RequestTypePlugin, RequestAspectsPlugi
 			return metaProcessor.showAllTables(request, templater);
 		} else if (commandId.equals("SHOW_COLUMNS")) {
 			return metaProcessor.showTableInformation(request, templater);
+		} else if (commandId.equals("CLOSE_CONNECTIONS")) {
+			return metaProcessor.closePooledConnections();
 		}
 		throw new IllegalArgumentException("Custom command " + commandId + " not supported.");
 	}
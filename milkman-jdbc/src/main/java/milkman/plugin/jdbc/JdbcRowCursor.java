@@ -0,0 +1,246 @@
+package milkman.plugin.jdbc;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import milkman.domain.table.ColumnType;
+import milkman.domain.table.ResultTable;
+import milkman.domain.table.StringColumn;
+import milkman.plugin.jdbc.domain.RowCursor;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.sql.Blob;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * an open jdbc result set, rows are fetched page by page (the driver fetches them in batches of the jdbc fetch size).
+ *
+ * The cursor holds its connection until it is exhausted or closed. Cursors that were not used for a while
+ * are closed by the pool maintenance, so open results do not block the pool forever. If all connections of a pool
+ * are in use, the least recently used cursor of the pool is closed to free a connection.
+ */
+@Slf4j
+public class JdbcRowCursor implements RowCursor {
+
+	private static final Set<JdbcRowCursor> openCursors = ConcurrentHashMap.newKeySet();
+
+	private final JdbcConnectionPools.Lease lease;
+	private final Statement statement;
+	private final ResultSet resultSet;
+	private final List<String> columnNames;
+	private final List<ColumnType> columnTypes;
+	private volatile long lastUsed = System.currentTimeMillis();
+	private boolean exhausted = false;
+	private boolean closed = false;
+
+	JdbcRowCursor(JdbcConnectionPools.Lease lease, Statement statement, ResultSet resultSet) throws SQLException {
+		this.lease = lease;
+		this.statement = statement;
+		this.resultSet = resultSet;
+		this.columnNames = readColumnNames(resultSet.getMetaData());
+		this.columnTypes = readColumnTypes(resultSet.getMetaData());
+		openCursors.add(this);
+	}
+
+	@Override
+	@SneakyThrows
+	public synchronized ResultTable fetch(int maxRows) {
+		lastUsed = System.currentTimeMillis();
+		ResultTable rows = new ResultTable(columnNames, columnTypes);
+		if (exhausted) {
+			return rows;
+		}
+		try {
+			while (rows.getRowCount() < maxRows) {
+				if (!resultSet.next()) {
+					exhausted = true;
+					close();
+					break;
+				}
+				readRow(resultSet, rows);
+			}
+		} catch (SQLException | RuntimeException e) {
+			close();
+			throw e;
+		}
+		return rows;
+	}
+
+	@Override
+	public synchronized boolean isExhausted() {
+		return exhausted;
+	}
+
+	/**
+	 * closes the result set and gives the connection back. The transaction is committed, as the statement
+	 * might have changed data (e.g. insert ... returning)
+	 */
+	@Override
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		exhausted = true;
+		openCursors.remove(this);
+		try {
+			resultSet.close();
+			lease.releaseStatement(statement);
+			Connection connection = lease.getConnection();
+			if (!connection.getAutoCommit()) {
+				connection.commit();
+			}
+		} catch (SQLException e) {
+			log.debug("Failed to close cursor", e);
+		} finally {
+			lease.close();
+		}
+	}
+
+	/**
+	 * closes cursors that were not used within the given time
+	 */
+	static void closeIdleCursors(long idleTimeoutMs) {
+		long closeBefore = System.currentTimeMillis() - idleTimeoutMs;
+		openCursors.stream()
+				.filter(c -> c.lastUsed <= closeBefore)
+				.forEach(JdbcRowCursor::close);
+	}
+
+	/**
+	 * closes the least recently used cursor holding a connection of the given pool, returns false if there is none
+	 */
+	static boolean closeLeastRecentlyUsed(JdbcConnectionPool pool) {
+		var cursor = openCursors.stream()
+				.filter(c -> c.lease.isOf(pool))
+				.min(Comparator.comparingLong(c -> c.lastUsed));
+		cursor.ifPresent(JdbcRowCursor::close);
+		return cursor.isPresent();
+	}
+
+	static void closeAll() {
+		openCursors.forEach(JdbcRowCursor::close);
+	}
+
+	static List<String> readColumnNames(ResultSetMetaData metaData) throws SQLException {
+		List<String> columnNames = new ArrayList<>(metaData.getColumnCount());
+		for(int i = 1; i <= metaData.getColumnCount(); ++i) { // column idx starts at 1
+			columnNames.add(metaData.getColumnName(i));
+		}
+		return columnNames;
+	}
+
+	/**
+	 * the column type used for storing the values of each column of the result set
+	 */
+	static List<ColumnType> readColumnTypes(ResultSetMetaData metaData) throws SQLException {
+		List<ColumnType> columnTypes = new ArrayList<>(metaData.getColumnCount());
+		for(int i = 1; i <= metaData.getColumnCount(); ++i) { // column idx starts at 1
+			columnTypes.add(toColumnType(metaData.getColumnType(i), metaData.isSigned(i)));
+		}
+		return columnTypes;
+	}
+
+	private static ColumnType toColumnType(int sqlType, boolean signed) {
+		switch (sqlType) {
+			case Types.TINYINT:
+			case Types.SMALLINT:
+			case Types.INTEGER:
+				return ColumnType.LONG;
+			case Types.BIGINT:
+				// unsigned bigints don't fit into a long
+				return signed ? ColumnType.LONG : ColumnType.OBJECT;
+			case Types.DOUBLE:
+			case Types.FLOAT:
+				return ColumnType.DOUBLE;
+			case Types.REAL:
+				return ColumnType.FLOAT;
+			case Types.BOOLEAN:
+				return ColumnType.BOOLEAN;
+			case Types.CHAR:
+			case Types.VARCHAR:
+			case Types.LONGVARCHAR:
+			case Types.NCHAR:
+			case Types.NVARCHAR:
+			case Types.LONGNVARCHAR:
+				return ColumnType.STRING;
+			default:
+				return ColumnType.OBJECT;
+		}
+	}
+
+	/**
+	 * appends the current row to the table, using the typed getters of the result set for primitive columns
+	 */
+	static void readRow(ResultSet resultSet, ResultTable table) throws SQLException {
+		for(int i = 0; i < table.getColumnCount(); ++i) {
+			int columnIdx = i + 1; // column idx starts at 1
+			var column = table.getColumn(i);
+			switch (column.getType()) {
+				case LONG:
+					long longValue = resultSet.getLong(columnIdx);
+					if (resultSet.wasNull()) {
+						column.appendNull();
+					} else {
+						column.appendLong(longValue);
+					}
+					break;
+				case DOUBLE:
+				case FLOAT:
+					double doubleValue = column.getType() == ColumnType.FLOAT ? resultSet.getFloat(columnIdx) : resultSet.getDouble(columnIdx);
+					if (resultSet.wasNull()) {
+						column.appendNull();
+					} else {
+						column.appendDouble(doubleValue);
+					}
+					break;
+				case BOOLEAN:
+					boolean booleanValue = resultSet.getBoolean(columnIdx);
+					if (resultSet.wasNull()) {
+						column.appendNull();
+					} else {
+						column.appendBoolean(booleanValue);
+					}
+					break;
+				case STRING:
+					((StringColumn) column).appendString(resultSet.getString(columnIdx));
+					break;
+				default:
+					column.appendValue(detach(resultSet.getObject(columnIdx)));
+			}
+		}
+		table.endRow();
+	}
+
+	/**
+	 * values are displayed after the cursor moved on (or was closed). Values that are not immutable
+	 * (e.g. blobs or driver specific objects) are converted to strings right away.
+	 */
+	private static Object detach(Object value) {
+		if (value == null || value instanceof Number || value instanceof Boolean || value instanceof String
+				|| value instanceof Date || value instanceof TemporalAccessor || value instanceof UUID) {
+			return value;
+		}
+		if (value instanceof Blob) {
+			try {
+				return IOUtils.toString(((Blob) value).getBinaryStream());
+			} catch (IOException | SQLException e) {
+				return "BLOB";
+			}
+		}
+		return value.toString();
+	}
+}
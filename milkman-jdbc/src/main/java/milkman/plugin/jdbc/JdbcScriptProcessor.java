@@ -0,0 +1,332 @@
+package milkman.plugin.jdbc;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import milkman.domain.RequestContainer;
+import milkman.domain.ResponseContainer;
+import milkman.domain.ResponseContainer.StyledText;
+import milkman.domain.table.ColumnType;
+import milkman.domain.table.ResultTable;
+import milkman.domain.table.StringColumn;
+import milkman.plugin.jdbc.domain.JdbcRequestContainer;
+import milkman.plugin.jdbc.domain.JdbcSqlAspect;
+import milkman.plugin.jdbc.domain.RowSetResponseAspect;
+import milkman.plugin.jdbc.domain.SqlScriptResponseAspect;
+import milkman.plugin.jdbc.domain.SqlScriptResponseAspect.ScriptResult;
+import milkman.plugin.jdbc.domain.TableResponseContainer;
+import milkman.ui.plugin.Templater;
+import org.apache.commons.lang3.StringUtils;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * executes a sql script statement by statement on a single connection, optionally within one transaction.
+ *
+ * Consecutive insert/update/delete statements are sent to the database in batches instead of one round trip per statement.
+ * If parameters are bound, only statements with the same sql (and different values) are batched, as a prepared statement is
+ * executed with all parameter sets.
+ */
+@Slf4j
+public class JdbcScriptProcessor extends AbstractJdbcProcessor {
+
+	private static final Pattern BATCHABLE = Pattern.compile("^(insert|update|delete|merge|upsert|replace)\\b", Pattern.CASE_INSENSITIVE);
+	private static final Pattern RETURNING = Pattern.compile("\\breturning\\b", Pattern.CASE_INSENSITIVE);
+	private static final int MAX_SUMMARY_SQL_LENGTH = 200;
+
+	@SneakyThrows
+	public ResponseContainer executeRequest(RequestContainer request, Templater templater) {
+		if (!(request instanceof JdbcRequestContainer)) {
+			throw new IllegalArgumentException("Unsupported request container: " + request.getType());
+		}
+
+		JdbcSqlAspect jdbcSqlAspect = request.getAspect(JdbcSqlAspect.class)
+				.orElseThrow(() -> new IllegalArgumentException("Missing Sql Aspect"));
+		String jdbcUrl = getJdbcUrl((JdbcRequestContainer) request, templater);
+		boolean backslashEscapes = SqlScriptSplitter.usesBackslashEscapes(jdbcUrl);
+		List<String> statements = SqlScriptSplitter.split(jdbcSqlAspect.getSql(), backslashEscapes);
+
+		SqlScriptResponseAspect scriptAspect = new SqlScriptResponseAspect();
+		ScriptExecution execution;
+		long startTime = System.currentTimeMillis();
+		try (var lease = JdbcConnectionPools.instance().borrow(jdbcUrl)) {
+			Connection connection = lease.getConnection();
+			boolean transactional = jdbcSqlAspect.isScriptInTransaction() && beginTransaction(connection);
+			execution = new ScriptExecution(lease, templater, jdbcSqlAspect.isBindParameters(), backslashEscapes, scriptAspect);
+			try {
+				for (int i = 0; i < statements.size(); i++) {
+					execution.execute(i + 1, statements.get(i));
+				}
+				execution.flushBatch();
+				if (transactional) {
+					connection.commit();
+				}
+			} catch (SQLException | RuntimeException e) {
+				execution.discardBatch();
+				Exception rollbackFailure = transactional ? rollback(connection) : null;
+				String message = execution.describeCurrentStatement() + " failed: " + e.getMessage()
+						+ (!transactional ? ", previous statements were committed"
+							: rollbackFailure == null ? ", the script was rolled back" : ", rolling back the script failed");
+				Exception failure = e instanceof SQLException sqlException
+						? new SQLException(message, sqlException.getSQLState(), sqlException.getErrorCode(), e)
+						: new IllegalArgumentException(message, e);
+				if (rollbackFailure != null) {
+					failure.addSuppressed(rollbackFailure);
+				}
+				throw failure;
+			}
+		}
+		long requestTimeInMs = System.currentTimeMillis() - startTime;
+
+		TableResponseContainer response = new TableResponseContainer();
+		response.getAspects().add(scriptAspect);
+		response.getStatusInformations().complete(Map.of(
+				"Statements", new StyledText("" + statements.size()),
+				"Affected Rows", new StyledText("" + execution.affectedRows),
+				"Result Sets", new StyledText("" + scriptAspect.getResults().size()),
+				"Time", new StyledText(requestTimeInMs + "ms")));
+		return response;
+	}
+
+	/**
+	 * rolls back the transaction and returns the failure, if that did not work
+	 */
+	private static Exception rollback(Connection connection) {
+		try {
+			connection.rollback();
+			return null;
+		} catch (SQLException | RuntimeException e) {
+			log.debug("Failed to roll back script", e);
+			return e;
+		}
+	}
+
+	static boolean isBatchable(String sql, boolean backslashEscapes) {
+		String statement = SqlScriptSplitter.stripComments(sql, backslashEscapes).trim();
+		return BATCHABLE.matcher(statement).find() && !RETURNING.matcher(statement).find();
+	}
+
+	/**
+	 * state of a running script: the pending batch and the summary of executed statements
+	 */
+	private class ScriptExecution {
+		private final JdbcConnectionPools.Lease lease;
+		private final Templater templater;
+		private final boolean bindParameters;
+		private final boolean backslashEscapes;
+		private final boolean batchingSupported;
+		private final int maxBatchSize;
+		private final SqlScriptResponseAspect scriptAspect;
+		private final ResultTable summary = new ResultTable(
+				List.of("#", "Statement", "Result", "Time (ms)"),
+				List.of(ColumnType.LONG, ColumnType.STRING, ColumnType.STRING, ColumnType.LONG));
+
+		private long affectedRows = 0;
+		private int currentStatement = 0;
+		/** last statement of the failed batch, if the driver did not report which statement failed */
+		private int currentStatementsEnd = 0;
+
+		/** statement collecting the pending batch, null if there is none */
+		private Statement batch;
+		/** sql of the prepared statement of the batch, null for batches of plain statements */
+		private String batchSql;
+		private final List<Integer> batchNumbers = new ArrayList<>();
+		private final List<String> batchStatements = new ArrayList<>();
+
+		ScriptExecution(JdbcConnectionPools.Lease lease, Templater templater, boolean bindParameters, boolean backslashEscapes,
+						SqlScriptResponseAspect scriptAspect) throws SQLException {
+			this.lease = lease;
+			this.templater = templater;
+			this.bindParameters = bindParameters;
+			this.backslashEscapes = backslashEscapes;
+			this.batchingSupported = lease.getConnection().getMetaData().supportsBatchUpdates();
+			this.maxBatchSize = Math.max(1, JdbcOptionsProvider.options().getMaxBatchSize());
+			this.scriptAspect = scriptAspect;
+			scriptAspect.getStatements().setTable(summary);
+		}
+
+		void execute(int number, String statementText) throws SQLException {
+			currentStatement = number;
+			ParameterizedSql.Bound bound = bindParameters ? ParameterizedSql.of(statementText, backslashEscapes).bind(templater) : null;
+			String sql = bound != null ? bound.getSql() : templater.replaceTags(statementText);
+
+			if (batchingSupported && isBatchable(sql, backslashEscapes)) {
+				String preparedSql = bound != null ? sql : null;
+				if (batch != null && (!Objects.equals(batchSql, preparedSql) || batchNumbers.size() >= maxBatchSize)) {
+					flushBatch();
+				}
+				if (bound != null) {
+					if (batch == null) {
+						batch = lease.prepareStatement(sql);
+						batchSql = sql;
+					}
+					bound.setParameters((PreparedStatement) batch);
+					((PreparedStatement) batch).addBatch();
+				} else {
+					if (batch == null) {
+						batch = lease.getConnection().createStatement();
+					}
+					batch.addBatch(sql);
+				}
+				batchNumbers.add(number);
+				batchStatements.add(statementText);
+				return;
+			}
+
+			flushBatch();
+			currentStatement = number;
+			Statement statement = null;
+			try {
+				long startTime = System.currentTimeMillis();
+				boolean isResultSet;
+				if (bound != null) {
+					PreparedStatement preparedStatement = lease.prepareStatement(sql);
+					statement = preparedStatement;
+					bound.setParameters(preparedStatement);
+					isResultSet = preparedStatement.execute();
+				} else {
+					statement = lease.getConnection().createStatement();
+					isResultSet = statement.execute(sql);
+				}
+				List<String> outcomes = readResults(number, statement, isResultSet);
+				long timeInMs = System.currentTimeMillis() - startTime;
+				addSummary(number, statementText, outcomes.isEmpty() ? "executed" : String.join(", ", outcomes), timeInMs);
+			} finally {
+				if (statement != null) {
+					lease.releaseStatement(statement);
+				}
+			}
+		}
+
+		/**
+		 * reads all results of a statement, e.g. several result sets of a procedure call
+		 */
+		private List<String> readResults(int number, Statement statement, boolean isResultSet) throws SQLException {
+			List<String> outcomes = new ArrayList<>();
+			int resultSetIdx = 0;
+			while (true) {
+				if (isResultSet) {
+					RowSetResponseAspect rows = new RowSetResponseAspect();
+					try (ResultSet resultSet = statement.getResultSet()) {
+						extractRows(resultSet, rows);
+					}
+					resultSetIdx++;
+					String name = "#" + number + (resultSetIdx > 1 ? " (" + resultSetIdx + ")" : "");
+					scriptAspect.getResults().add(new ScriptResult(name, rows));
+					outcomes.add(rows.getRowCount() + " rows selected");
+				} else {
+					int updateCount = statement.getUpdateCount();
+					if (updateCount == -1) {
+						return outcomes;
+					}
+					affectedRows += updateCount;
+					outcomes.add(updateCount + " rows affected");
+				}
+				isResultSet = statement.getMoreResults();
+			}
+		}
+
+		void flushBatch() throws SQLException {
+			if (batch == null) {
+				return;
+			}
+			int size = batchNumbers.size();
+			int[] updateCounts = null;
+			long startTime = System.currentTimeMillis();
+			try {
+				updateCounts = batch.executeBatch();
+			} catch (BatchUpdateException e) {
+				// drivers either stop at the failing statement or report failures per statement (or report nothing)
+				int[] executedCounts = e.getUpdateCounts();
+				if (executedCounts != null) {
+					int failedIdx = executedCounts.length < size ? executedCounts.length : indexOfFailure(executedCounts);
+					currentStatement = batchNumbers.get(Math.max(0, failedIdx));
+				} else {
+					currentStatement = batchNumbers.get(0);
+					currentStatementsEnd = batchNumbers.get(size - 1);
+				}
+				throw e;
+			} finally {
+				if (updateCounts == null) {
+					clearBatchQuietly(batch);
+				}
+				lease.releaseStatement(batch);
+				batch = null;
+				batchSql = null;
+			}
+			long timeInMs = System.currentTimeMillis() - startTime;
+			for (int i = 0; i < size; i++) {
+				int updateCount = i < updateCounts.length ? updateCounts[i] : Statement.SUCCESS_NO_INFO;
+				String outcome = updateCount >= 0 ? updateCount + " rows affected" : "executed";
+				affectedRows += Math.max(0, updateCount);
+				//the time of the batch is split across its statements, so the times still add up
+				long statementTimeInMs = timeInMs / size + (i < timeInMs % size ? 1 : 0);
+				addSummary(batchNumbers.get(i), batchStatements.get(i), outcome + " (batch of " + size + ")", statementTimeInMs);
+			}
+			batchNumbers.clear();
+			batchStatements.clear();
+		}
+
+		/**
+		 * drops the pending batch, e.g. if a later statement failed before the batch was executed
+		 */
+		void discardBatch() {
+			if (batch == null) {
+				return;
+			}
+			clearBatchQuietly(batch);
+			try {
+				lease.releaseStatement(batch);
+			} catch (SQLException e) {
+				log.debug("Failed to release statement", e);
+			}
+			batch = null;
+			batchSql = null;
+			batchNumbers.clear();
+			batchStatements.clear();
+		}
+
+		/**
+		 * cached prepared statements are reused, so they must not keep the statements of a failed batch
+		 */
+		private void clearBatchQuietly(Statement statement) {
+			try {
+				statement.clearBatch();
+			} catch (SQLException e) {
+				log.debug("Failed to clear batch", e);
+			}
+		}
+
+		private int indexOfFailure(int[] updateCounts) {
+			for (int i = 0; i < updateCounts.length; i++) {
+				if (updateCounts[i] == Statement.EXECUTE_FAILED) {
+					return i;
+				}
+			}
+			return 0;
+		}
+
+		String describeCurrentStatement() {
+			return currentStatementsEnd > currentStatement
+					? "One of the statements #" + currentStatement + "-#" + currentStatementsEnd
+					: "Statement #" + currentStatement;
+		}
+
+		private void addSummary(int number, String statementText, String outcome, long timeInMs) {
+			summary.getColumn(0).appendLong(number);
+			((StringColumn) summary.getColumn(1)).appendString(StringUtils.abbreviate(StringUtils.normalizeSpace(statementText), MAX_SUMMARY_SQL_LENGTH));
+			((StringColumn) summary.getColumn(2)).appendString(outcome);
+			summary.getColumn(3).appendLong(timeInMs);
+			summary.endRow();
+		}
+	}
+}
@@ -0,0 +1,354 @@
+package milkman.plugin.jdbc;
+
+import milkman.ui.plugin.Templater;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * sql, in which {{tags}} are bound as jdbc parameters instead of being replaced in the sql text. So the sql stays the
+ * same for all values and the database can reuse the prepared statement (and its plan).
+ *
+ * The type of a parameter can be declared via {{name|type}} (e.g. {{id|int}}), otherwise it is inferred from the value:
+ * integral and decimal numbers are bound as numbers, everything else as string.
+ * String literals containing tags (e.g. '%{{name}}%') are bound as a single string parameter.
+ * Tags in comments, quoted identifiers or dollar-quoted blocks (postgres) and tags declared as {{name|raw}} (e.g. table names)
+ * are replaced in the sql text. Nested tags are not supported.
+ *
+ * Literals and comments are recognized the same way as by the {@link SqlScriptSplitter}, backslashes only escape characters
+ * in dialects that use them (mysql, mariadb) and in E'' strings (postgres). Question marks of the sql itself
+ * (e.g. the jsonb operators ?, ?| and ?& of postgres) are escaped as ??, so they are not taken for parameters.
+ */
+class ParameterizedSql {
+
+	private static final int MAX_CACHED_STATEMENTS = 256;
+
+	private static final Pattern INTEGRAL = Pattern.compile("-?(0|[1-9]\\d{0,17})");
+	private static final Pattern DECIMAL = Pattern.compile("-?(0|[1-9]\\d*)\\.\\d+");
+
+	private static final Map<CacheKey, ParameterizedSql> cache = Collections.synchronizedMap(
+			new LinkedHashMap<>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<CacheKey, ParameterizedSql> eldest) {
+					return size() > MAX_CACHED_STATEMENTS;
+				}
+			});
+
+	private record CacheKey(String sql, boolean backslashEscapes) {
+	}
+
+	enum ParameterType {
+		INFERRED,
+		STRING("string", "varchar", "text"),
+		LONG("int", "integer", "long", "bigint"),
+		DECIMAL("decimal", "numeric"),
+		DOUBLE("double", "float"),
+		BOOLEAN("boolean", "bool"),
+		DATE("date"),
+		TIME("time"),
+		TIMESTAMP("timestamp"),
+		RAW("raw");
+
+		private final List<String> names;
+
+		ParameterType(String... names) {
+			this.names = List.of(names);
+		}
+
+		static ParameterType of(String name) {
+			String normalized = name.trim().toLowerCase(Locale.ROOT);
+			for (ParameterType type : values()) {
+				if (type.names.contains(normalized)) {
+					return type;
+				}
+			}
+			throw new IllegalArgumentException("Unknown parameter type '" + name + "', supported types: "
+					+ "string, int, decimal, double, boolean, date, time, timestamp, raw");
+		}
+	}
+
+	/**
+	 * a template, either rendered into the sql text (no type) or bound as parameter
+	 */
+	private static class Segment {
+		final String template;
+		final ParameterType type;
+
+		Segment(String template, ParameterType type) {
+			this.template = template;
+			this.type = type;
+		}
+	}
+
+	private final List<Segment> segments;
+
+	private ParameterizedSql(List<Segment> segments) {
+		this.segments = segments;
+	}
+
+	/**
+	 * returns the (cached) parsed sql
+	 */
+	static ParameterizedSql of(String sql, boolean backslashEscapes) {
+		return cache.computeIfAbsent(new CacheKey(sql, backslashEscapes), key -> parse(key.sql(), key.backslashEscapes()));
+	}
+
+	static ParameterizedSql parse(String sql, boolean backslashEscapes) {
+		List<Segment> segments = new ArrayList<>();
+		StringBuilder text = new StringBuilder();
+		int idx = 0;
+		while (idx < sql.length()) {
+			char c = sql.charAt(idx);
+			int end;
+			if (c == '-' && sql.startsWith("--", idx)) {
+				end = sql.indexOf('\n', idx);
+				end = end < 0 ? sql.length() : end + 1;
+			} else if (c == '/' && sql.startsWith("/*", idx)) {
+				end = sql.indexOf("*/", idx + 2);
+				end = end < 0 ? sql.length() : end + 2;
+			} else if (c == '"' || c == '`') {
+				end = SqlScriptSplitter.findQuoteEnd(sql, idx + 1, c, backslashEscapes);
+				end = end < 0 ? sql.length() : end;
+			} else if (c == '\'') {
+				boolean escapeString = SqlScriptSplitter.isEscapeString(sql, idx);
+				end = SqlScriptSplitter.findQuoteEnd(sql, idx + 1, c, backslashEscapes || escapeString);
+				if (end < 0) {
+					end = sql.length();
+				} else if (containsTag(sql.substring(idx + 1, end - 1))) {
+					if (escapeString) {
+						// the E prefix belongs to the literal, which is replaced by the parameter
+						text.setLength(text.length() - 1);
+					}
+					addText(segments, text);
+					segments.add(new Segment(unescapeLiteral(sql.substring(idx + 1, end - 1), backslashEscapes || escapeString), ParameterType.STRING));
+					idx = end;
+					continue;
+				}
+			} else if (c == '$' && (end = SqlScriptSplitter.findDollarQuoteEnd(sql, idx)) > 0) {
+				// end is already set, tags in the block are replaced in the text
+			} else if (c == '?') {
+				// an already escaped ?? is kept as it is
+				end = sql.startsWith("??", idx) ? idx + 2 : idx + 1;
+				text.append("??");
+				idx = end;
+				continue;
+			} else if (c == '{' && sql.startsWith("{{", idx) && (end = findTagEnd(sql, idx + 2)) >= 0) {
+				String tag = sql.substring(idx + 2, end);
+				ParameterType type = ParameterType.INFERRED;
+				int typeIdx = tag.lastIndexOf('|');
+				if (typeIdx >= 0) {
+					type = ParameterType.of(tag.substring(typeIdx + 1));
+					tag = tag.substring(0, typeIdx);
+				}
+				if (type == ParameterType.RAW) {
+					text.append("{{").append(tag).append("}}");
+				} else {
+					addText(segments, text);
+					segments.add(new Segment("{{" + tag + "}}", type));
+				}
+				idx = end + 2;
+				continue;
+			} else {
+				end = idx + 1;
+			}
+			text.append(sql, idx, end);
+			idx = end;
+		}
+		addText(segments, text);
+		return new ParameterizedSql(segments);
+	}
+
+	private static void addText(List<Segment> segments, StringBuilder text) {
+		if (text.length() > 0) {
+			segments.add(new Segment(text.toString(), null));
+			text.setLength(0);
+		}
+	}
+
+	/**
+	 * the value of a string literal: doubled quotes are unescaped. If backslashEscapes is set, backslash-escaped quotes and
+	 * backslashes are unescaped as well, otherwise all backslashes are kept, as they are no escapes in standard sql
+	 * (e.g. in windows paths).
+	 */
+	static String unescapeLiteral(String content, boolean backslashEscapes) {
+		StringBuilder result = new StringBuilder(content.length());
+		for (int i = 0; i < content.length(); i++) {
+			char c = content.charAt(i);
+			char next = i + 1 < content.length() ? content.charAt(i + 1) : 0;
+			if ((backslashEscapes && c == '\\' && (next == '\'' || next == '"' || next == '\\')) || (c == '\'' && next == '\'')) {
+				result.append(next);
+				i++;
+			} else {
+				result.append(c);
+			}
+		}
+		return result.toString();
+	}
+
+	private static boolean containsTag(String content) {
+		int idx = content.indexOf("{{");
+		while (idx >= 0) {
+			if (findTagEnd(content, idx + 2) >= 0) {
+				return true;
+			}
+			idx = content.indexOf("{{", idx + 1);
+		}
+		return false;
+	}
+
+	/**
+	 * same rules as for templates: a tag does not contain an opening brace
+	 */
+	private static int findTagEnd(String input, int contentStart) {
+		for (int i = contentStart; i < input.length(); i++) {
+			char c = input.charAt(i);
+			if (c == '{') {
+				return -1;
+			}
+			if (c == '}' && i > contentStart && i + 1 < input.length() && input.charAt(i + 1) == '}') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * resolves the tags. The resulting sql text only depends on the raw tags, so it can be used as key for cached statements.
+	 */
+	Bound bind(Templater templater) {
+		StringBuilder sql = new StringBuilder();
+		List<Parameter> parameters = new ArrayList<>();
+		for (Segment segment : segments) {
+			String value = templater.replaceTags(segment.template);
+			if (segment.type == null) {
+				sql.append(value);
+			} else {
+				sql.append('?');
+				parameters.add(new Parameter(segment.type, value));
+			}
+		}
+		return new Bound(sql.toString(), parameters);
+	}
+
+	private static class Parameter {
+		final ParameterType type;
+		final String value;
+
+		Parameter(ParameterType type, String value) {
+			this.type = type;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * sql text with placeholders and the resolved parameter values
+	 */
+	static class Bound {
+		private final String sql;
+		private final List<Parameter> parameters;
+
+		private Bound(String sql, List<Parameter> parameters) {
+			this.sql = sql;
+			this.parameters = parameters;
+		}
+
+		String getSql() {
+			return sql;
+		}
+
+		int getParameterCount() {
+			return parameters.size();
+		}
+
+		void setParameters(PreparedStatement statement) throws SQLException {
+			for (int i = 0; i < parameters.size(); i++) {
+				setParameter(statement, i + 1, parameters.get(i).type, parameters.get(i).value);
+			}
+		}
+
+		private static void setParameter(PreparedStatement statement, int idx, ParameterType type, String value) throws SQLException {
+			try {
+				switch (type) {
+					case INFERRED:
+						if (INTEGRAL.matcher(value).matches()) {
+							statement.setLong(idx, Long.parseLong(value));
+						} else if (DECIMAL.matcher(value).matches()) {
+							statement.setBigDecimal(idx, new BigDecimal(value));
+						} else {
+							statement.setString(idx, value);
+						}
+						break;
+					case STRING:
+						statement.setString(idx, value);
+						break;
+					case LONG:
+						if (value.isBlank()) {
+							statement.setNull(idx, Types.BIGINT);
+						} else {
+							statement.setLong(idx, Long.parseLong(value.trim()));
+						}
+						break;
+					case DECIMAL:
+						if (value.isBlank()) {
+							statement.setNull(idx, Types.DECIMAL);
+						} else {
+							statement.setBigDecimal(idx, new BigDecimal(value.trim()));
+						}
+						break;
+					case DOUBLE:
+						if (value.isBlank()) {
+							statement.setNull(idx, Types.DOUBLE);
+						} else {
+							statement.setDouble(idx, Double.parseDouble(value.trim()));
+						}
+						break;
+					case BOOLEAN:
+						if (value.isBlank()) {
+							statement.setNull(idx, Types.BOOLEAN);
+						} else {
+							statement.setBoolean(idx, "true".equalsIgnoreCase(value.trim()) || "1".equals(value.trim()));
+						}
+						break;
+					case DATE:
+						if (value.isBlank()) {
+							statement.setNull(idx, Types.DATE);
+						} else {
+							statement.setDate(idx, Date.valueOf(value.trim()));
+						}
+						break;
+					case TIME:
+						if (value.isBlank()) {
+							statement.setNull(idx, Types.TIME);
+						} else {
+							statement.setTime(idx, Time.valueOf(value.trim()));
+						}
+						break;
+					case TIMESTAMP:
+						if (value.isBlank()) {
+							statement.setNull(idx, Types.TIMESTAMP);
+						} else {
+							statement.setTimestamp(idx, Timestamp.valueOf(value.trim().replace('T', ' ')));
+						}
+						break;
+					default:
+						throw new IllegalArgumentException("Unsupported parameter type " + type);
+				}
+			} catch (IllegalArgumentException e) { //includes NumberFormatException
+				throw new IllegalArgumentException("Invalid value for parameter " + idx + " of type " + type.names.get(0)
+						+ ": '" + value + "'", e);
+			}
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package milkman.plugin.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * prepared statements of a single connection, by sql. The least recently used statement is closed,
+ * if there are more statements than the configured maximum.
+ */
+@Slf4j
+class PreparedStatementCache {
+
+	private final int maxSize;
+	private final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+	PreparedStatementCache(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * returns the cached statement for the sql (with cleared parameters and batch) or prepares a new one
+	 */
+	synchronized PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+		PreparedStatement statement = statements.get(sql);
+		if (statement != null && !statement.isClosed()) {
+			statement.clearParameters();
+			clearBatch(statement);
+			return statement;
+		}
+		statement = connection.prepareStatement(sql);
+		if (maxSize > 0) {
+			statements.put(sql, statement);
+			while (statements.size() > maxSize) {
+				var eldest = statements.entrySet().iterator();
+				closeQuietly(eldest.next().getValue());
+				eldest.remove();
+			}
+		}
+		return statement;
+	}
+
+	/**
+	 * a failed script might have left a batch that was never executed
+	 */
+	private static void clearBatch(PreparedStatement statement) throws SQLException {
+		try {
+			statement.clearBatch();
+		} catch (SQLFeatureNotSupportedException e) {
+			//without batch support, there is nothing to clear
+		}
+	}
+
+	synchronized boolean contains(Statement statement) {
+		return statements.containsValue(statement);
+	}
+
+	synchronized void close() {
+		statements.values().forEach(PreparedStatementCache::closeQuietly);
+		statements.clear();
+	}
+
+	private static void closeQuietly(Statement statement) {
+		try {
+			statement.close();
+		} catch (SQLException e) {
+			log.debug("Failed to close statement", e);
+		}
+	}
+}
@@ -0,0 +1,214 @@
+package milkman.plugin.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * splits a sql script into statements. Statements are separated by ';' outside of string literals, quoted identifiers,
+ * comments and dollar-quoted blocks (postgres). Within string literals, quotes are escaped by doubling them.
+ * Backslashes only escape the next character in dialects that use them (mysql, mariadb) and in E'' strings (postgres),
+ * as they are no escapes in standard sql (e.g. 'C:\').
+ *
+ * Client side delimiters of common dialects are supported as well. If a script contains a line with only "GO" (sql server)
+ * or "/" (oracle), these lines are the only separators, so blocks containing ';' (e.g. pl/sql or t-sql batches)
+ * are kept together. "DELIMITER //" (mysql) changes the delimiter, e.g. for procedure bodies.
+ */
+class SqlScriptSplitter {
+
+	private static final String DEFAULT_DELIMITER = ";";
+
+	/**
+	 * true, if backslashes escape characters in string literals of the database
+	 */
+	static boolean usesBackslashEscapes(String jdbcUrl) {
+		String url = jdbcUrl.toLowerCase(Locale.ROOT);
+		return url.startsWith("jdbc:mysql:") || url.startsWith("jdbc:mariadb:");
+	}
+
+	/**
+	 * splits the script according to standard sql
+	 */
+	static List<String> split(String script) {
+		return split(script, false);
+	}
+
+	static List<String> split(String script, boolean backslashEscapes) {
+		boolean separatedByLines = containsSeparatorLine(script, backslashEscapes);
+		List<String> statements = new ArrayList<>();
+		StringBuilder current = new StringBuilder();
+		String delimiter = DEFAULT_DELIMITER;
+		int idx = 0;
+		while (idx < script.length()) {
+			if (isLineStart(script, idx)) {
+				int lineEnd = lineEnd(script, idx);
+				String line = script.substring(idx, lineEnd).trim();
+				if (isSeparatorLine(line)) {
+					addStatement(statements, current);
+					idx = lineEnd;
+					continue;
+				}
+				if (!separatedByLines && line.toLowerCase(Locale.ROOT).startsWith("delimiter ") && line.length() > "delimiter ".length()) {
+					addStatement(statements, current);
+					delimiter = line.substring("delimiter ".length()).trim();
+					idx = lineEnd;
+					continue;
+				}
+			}
+
+			if (!separatedByLines && script.startsWith(delimiter, idx)) {
+				addStatement(statements, current);
+				idx += delimiter.length();
+				continue;
+			}
+			int end = skipToken(script, idx, backslashEscapes);
+			current.append(script, idx, end);
+			idx = end;
+		}
+		addStatement(statements, current);
+		return statements;
+	}
+
+	/**
+	 * true, if a line outside of literals and comments consists of a separator only
+	 */
+	private static boolean containsSeparatorLine(String script, boolean backslashEscapes) {
+		int idx = 0;
+		while (idx < script.length()) {
+			if (isLineStart(script, idx) && isSeparatorLine(script.substring(idx, lineEnd(script, idx)).trim())) {
+				return true;
+			}
+			idx = skipToken(script, idx, backslashEscapes);
+		}
+		return false;
+	}
+
+	private static boolean isSeparatorLine(String line) {
+		return line.equalsIgnoreCase("go") || line.equals("/");
+	}
+
+	/**
+	 * index after the token starting at idx: a comment, a literal, a quoted identifier, a dollar-quoted block
+	 * or a single character
+	 */
+	private static int skipToken(String script, int idx, boolean backslashEscapes) {
+		char c = script.charAt(idx);
+		int end;
+		if (c == '-' && script.startsWith("--", idx)) {
+			return lineEnd(script, idx);
+		} else if (c == '/' && script.startsWith("/*", idx)) {
+			end = script.indexOf("*/", idx + 2);
+			return end < 0 ? script.length() : end + 2;
+		} else if (c == '\'' || c == '"' || c == '`') {
+			end = findQuoteEnd(script, idx + 1, c, backslashEscapes || isEscapeString(script, idx));
+			return end < 0 ? script.length() : end;
+		} else if (c == '$' && (end = findDollarQuoteEnd(script, idx)) > 0) {
+			return end;
+		}
+		return idx + 1;
+	}
+
+	private static boolean isLineStart(String script, int idx) {
+		return idx == 0 || script.charAt(idx - 1) == '\n';
+	}
+
+	private static int lineEnd(String script, int idx) {
+		int end = script.indexOf('\n', idx);
+		return end < 0 ? script.length() : end;
+	}
+
+	/**
+	 * adds the statement, unless it contains only whitespaces and comments
+	 */
+	private static void addStatement(List<String> statements, StringBuilder current) {
+		String statement = current.toString().trim();
+		current.setLength(0);
+		if (!stripComments(statement).isBlank()) {
+			statements.add(statement);
+		}
+	}
+
+	/**
+	 * the statement without comments (according to standard sql), string literals and quoted identifiers are kept
+	 */
+	static String stripComments(String statement) {
+		return stripComments(statement, false);
+	}
+
+	static String stripComments(String statement, boolean backslashEscapes) {
+		StringBuilder result = new StringBuilder();
+		int idx = 0;
+		while (idx < statement.length()) {
+			char c = statement.charAt(idx);
+			if (c == '-' && statement.startsWith("--", idx)) {
+				idx = lineEnd(statement, idx);
+			} else if (c == '/' && statement.startsWith("/*", idx)) {
+				int end = statement.indexOf("*/", idx + 2);
+				idx = end < 0 ? statement.length() : end + 2;
+			} else if (c == '\'' || c == '"' || c == '`') {
+				int end = findQuoteEnd(statement, idx + 1, c, backslashEscapes || isEscapeString(statement, idx));
+				end = end < 0 ? statement.length() : end;
+				result.append(statement, idx, end);
+				idx = end;
+			} else {
+				result.append(c);
+				idx++;
+			}
+		}
+		return result.toString();
+	}
+
+	/**
+	 * true, if the quote at idx starts an E'' string (postgres), in which backslashes are escapes
+	 */
+	static boolean isEscapeString(String script, int idx) {
+		if (script.charAt(idx) != '\'' || idx == 0 || Character.toUpperCase(script.charAt(idx - 1)) != 'E') {
+			return false;
+		}
+		return idx == 1 || !(Character.isLetterOrDigit(script.charAt(idx - 2)) || script.charAt(idx - 2) == '_');
+	}
+
+	/**
+	 * index after the closing quote or -1, if it is not closed. Quotes are escaped by doubling them.
+	 * If backslashEscapes is set, a backslash escapes the next character within string literals ('...' and "..." in mysql).
+	 */
+	static int findQuoteEnd(String script, int contentStart, char quote, boolean backslashEscapes) {
+		int idx = contentStart;
+		while (idx < script.length()) {
+			char c = script.charAt(idx);
+			if (c == '\\' && backslashEscapes && quote != '`') {
+				idx += 2;
+				continue;
+			}
+			if (c == quote) {
+				if (idx + 1 < script.length() && script.charAt(idx + 1) == quote) {
+					idx += 2;
+					continue;
+				}
+				return idx + 1;
+			}
+			idx++;
+		}
+		return -1;
+	}
+
+	/**
+	 * index after the end of a dollar-quoted block ($$...$$ or $tag$...$tag$) starting at idx or -1, if there is none.
+	 * Unclosed blocks end at the end of the script.
+	 */
+	static int findDollarQuoteEnd(String script, int idx) {
+		if (idx > 0 && (Character.isLetterOrDigit(script.charAt(idx - 1)) || script.charAt(idx - 1) == '_')) {
+			return -1;
+		}
+		int tagEnd = idx + 1;
+		while (tagEnd < script.length() && (Character.isLetter(script.charAt(tagEnd)) || script.charAt(tagEnd) == '_')) {
+			tagEnd++;
+		}
+		if (tagEnd >= script.length() || script.charAt(tagEnd) != '$') {
+			return -1;
+		}
+		String tag = script.substring(idx, tagEnd + 1);
+		int close = script.indexOf(tag, tagEnd + 1);
+		return close < 0 ? script.length() : close + tag.length();
+	}
+}
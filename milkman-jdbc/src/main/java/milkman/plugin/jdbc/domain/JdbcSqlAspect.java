@@ -2,13 +2,34 @@ package milkman.plugin.jdbc.domain;
 
 import lombok.Data;
 import milkman.domain.RequestAspect;
+import milkman.domain.SearchTermCollector;
 
 @Data
 public class JdbcSqlAspect extends RequestAspect {
 
 	String sql = "";
+
+	/**
+	 * if true, {{tags}} are bound as parameters of a prepared statement instead of being replaced in the sql
+	 */
+	boolean bindParameters = false;
+
+	/**
+	 * if true, the sql is split into statements, which are executed one after another
+	 */
+	boolean scriptMode = false;
+
+	/**
+	 * if true, all statements of a script are executed in a single transaction, which is rolled back if a statement fails
+	 */
+	boolean scriptInTransaction = true;
 	
 	public JdbcSqlAspect() {
 		super("sql");
 	}
+
+	@Override
+	public void collectSearchTerms(SearchTermCollector collector) {
+		collector.add(SearchTermCollector.BODY, sql);
+	}
 }
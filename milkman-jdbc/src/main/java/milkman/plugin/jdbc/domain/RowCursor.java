@@ -0,0 +1,22 @@
+package milkman.plugin.jdbc.domain;
+
+import milkman.domain.table.ResultTable;
+
+/**
+ * rows of a result that were not fetched yet, e.g. an open jdbc result set
+ */
+public interface RowCursor {
+
+	/**
+	 * fetches up to the given number of rows into a new table with the columns of the result.
+	 * Returns less rows, if the cursor is exhausted.
+	 */
+	ResultTable fetch(int maxRows);
+
+	/**
+	 * true, if all rows were fetched or the cursor was closed
+	 */
+	boolean isExhausted();
+
+	void close();
+}
@@ -1,16 +1,23 @@
 package milkman.plugin.jdbc.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import milkman.domain.ResponseAspect;
+import milkman.domain.table.ResultTable;
 
-import java.util.LinkedList;
 import java.util.List;
 
 @Data
 public class RowSetResponseAspect implements ResponseAspect {
 
-	List<String> columnNames = new LinkedList<>();
-	List<List<String>> rows = new LinkedList<>();
+	@JsonIgnore
+	ResultTable table = new ResultTable();
+
+	/**
+	 * remaining rows of the result, null if all rows were fetched
+	 */
+	@JsonIgnore
+	RowCursor cursor;
 	
 	
 	@Override
@@ -19,8 +26,28 @@ public class RowSetResponseAspect implements ResponseAspect {
 	}
 
 
-	public void addRow(List<String> row) {
-		rows.add(row);
+	public List<String> getColumnNames() {
+		return table.getColumnNames();
+	}
+
+	/**
+	 * display values of the rows, e.g. for scripts
+	 */
+	public List<List<String>> getRows() {
+		return table.getRows();
+	}
+
+	@JsonIgnore
+	public int getRowCount() {
+		return table.getRowCount();
+	}
+
+	public void addRows(ResultTable page) {
+		table.appendAll(page);
+	}
+
+	public boolean hasMoreRows() {
+		return cursor != null && !cursor.isExhausted();
 	}
 	
 }
@@ -0,0 +1,32 @@
+package milkman.plugin.jdbc.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import milkman.domain.ResponseAspect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * result of a sql script: a summary of all executed statements and the rows of every result set
+ */
+@Data
+public class SqlScriptResponseAspect implements ResponseAspect {
+
+	RowSetResponseAspect statements = new RowSetResponseAspect();
+	List<ScriptResult> results = new ArrayList<>();
+
+	@Override
+	public String getName() {
+		return "script";
+	}
+
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class ScriptResult {
+		String name;
+		RowSetResponseAspect rows;
+	}
+}
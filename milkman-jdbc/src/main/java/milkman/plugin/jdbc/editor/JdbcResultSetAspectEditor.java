@@ -1,143 +1,296 @@
 package milkman.plugin.jdbc.editor;
 
 import com.jfoenix.controls.JFXButton;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.ObservableListBase;
+import javafx.concurrent.Task;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.control.SelectionMode;
 import javafx.scene.control.Tab;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableRow;
+import javafx.scene.control.TableView;
 import javafx.scene.input.Clipboard;
 import javafx.scene.input.ClipboardContent;
+import javafx.scene.input.KeyCode;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
+import lombok.extern.slf4j.Slf4j;
+import milkman.PlatformUtil;
 import milkman.domain.RequestContainer;
 import milkman.domain.ResponseContainer;
+import milkman.domain.table.ColumnType;
+import milkman.domain.table.ResultTable;
+import milkman.domain.table.StringColumn;
+import milkman.plugin.jdbc.JdbcOptionsProvider;
 import milkman.plugin.jdbc.domain.RowSetResponseAspect;
-import milkman.ui.components.JfxTableEditor;
 import milkman.ui.plugin.ResponseAspectEditor;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.function.Function;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
+/**
+ * shows the rows of a result in a virtualized table, cell values are converted to strings when they are rendered.
+ * If the result has more rows than fetched initially,
+ * the next page is fetched in the background as soon as the table is scrolled near the end of the loaded rows.
+ * "Fetch All" loads all remaining rows.
+ */
+@Slf4j
 public class JdbcResultSetAspectEditor implements ResponseAspectEditor {
 
-	private JfxTableEditor<List<String>> editor;
+	/**
+	 * the next page is fetched, if a row within this distance to the last loaded row is shown
+	 */
+	private static final int PREFETCH_DISTANCE = 50;
+
+	private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+		Thread t = Executors.defaultThreadFactory().newThread(r);
+		t.setDaemon(true);
+		return t;
+	});
+
+	private TableView<Integer> table;
+	private RowList rows;
+	private Label status;
+	private JFXButton fetchAllBtn;
 
 	private boolean contentIsTransposed;
 
-	private RowSetResponseAspect transposedContent;
+	private RowSetResponseAspect rowSetAspect;
+	private ResultTable shownContent;
+
+	private Task<?> fetchTask;
+	private boolean fetchAll;
 
 	@Override
 	public Tab getRoot(RequestContainer request, ResponseContainer response) {
-		editor = new JfxTableEditor<>("jdbc.result.list");
-		editor.disableAddition();
-		editor.setRowToStringConverter(this::rowToString);
-		VBox.setVgrow(editor, Priority.ALWAYS);
-		RowSetResponseAspect rowSetAspect = response.getAspect(RowSetResponseAspect.class).get();
-
-		initEditor(rowSetAspect);
-		
-		HBox tableToolbar = setupToolbar(rowSetAspect);
-		VBox vBox = new VBox(tableToolbar, editor);
-
-		return new Tab("Result", vBox);
+		return getRoot("Result", response.getAspect(RowSetResponseAspect.class).get());
 	}
 
+	/**
+	 * tab showing the given rows, e.g. one of several results of a script
+	 */
+	public Tab getRoot(String title, RowSetResponseAspect rowSetAspect) {
+		this.rowSetAspect = rowSetAspect;
+
+		table = new TableView<>();
+		table.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+		table.setRowFactory(view -> new PrefetchingRow());
+		var copyCombination = PlatformUtil.getControlKeyCombination(KeyCode.C);
+		table.setOnKeyPressed(e -> {
+			if (copyCombination.match(e)) {
+				copySelectionToClipboard();
+			}
+		});
+		VBox.setVgrow(table, Priority.ALWAYS);
+
+		initEditor(rowSetAspect.getTable());
+
+		HBox tableToolbar = setupToolbar();
+		updateStatus();
+		VBox vBox = new VBox(tableToolbar, table);
 
-	private void initEditor(RowSetResponseAspect rowSetAspect) {
-		for(int i = 0; i < rowSetAspect.getColumnNames().size(); ++i) {
-			editor.addReadOnlyColumn(rowSetAspect.getColumnNames().get(i), getRowValue(i));	
+		return new Tab(title, vBox);
+	}
+
+
+	private void initEditor(ResultTable content) {
+		shownContent = content;
+		table.getColumns().clear();
+		for(int i = 0; i < content.getColumnCount(); ++i) {
+			int columnIdx = i;
+			TableColumn<Integer, String> column = new TableColumn<>(content.getColumnNames().get(i));
+			column.setCellValueFactory(param -> new ReadOnlyStringWrapper(content.getDisplayValue(param.getValue(), columnIdx)));
+			column.setSortable(false);
+			table.getColumns().add(column);
 		}
-		editor.setItems(rowSetAspect.getRows());
+		rows = new RowList(content.getRowCount());
+		table.setItems(rows);
 	}
 
 
-	private HBox setupToolbar(RowSetResponseAspect rowSetAspect) {
+	private HBox setupToolbar() {
 		JFXButton copyResultBtn = new JFXButton("Copy to Clipboard");
-		copyResultBtn.setOnAction(e -> copyResultToClipboard(rowSetAspect));
-		
+		copyResultBtn.setOnAction(e -> copyResultToClipboard());
+
 		JFXButton transposeBtn = new JFXButton("Transpose");
-		transposeBtn.setOnAction(e -> transpose(rowSetAspect));
-		
-		
-		HBox tableToolbar = new HBox(copyResultBtn, transposeBtn);
+		transposeBtn.setOnAction(e -> transpose());
+
+		fetchAllBtn = new JFXButton("Fetch All");
+		fetchAllBtn.setOnAction(e -> {
+			fetchAll = true;
+			fetchNextPage();
+		});
+
+		status = new Label();
+
+		HBox tableToolbar = new HBox(copyResultBtn, transposeBtn, fetchAllBtn, status);
+		tableToolbar.setAlignment(Pos.CENTER_LEFT);
 		tableToolbar.getStyleClass().add("response-header");
-		
+
 		return tableToolbar;
 	}
 
-	
-	private void transpose(RowSetResponseAspect rowSetAspect) {
-		editor.clearContent();
+	/**
+	 * fetches the next page of rows in the background, if there are more rows and no fetch is running
+	 */
+	private void fetchNextPage() {
+		if (fetchTask != null || contentIsTransposed || !rowSetAspect.hasMoreRows()) {
+			return;
+		}
+		var cursor = rowSetAspect.getCursor();
+		int pageSize = Math.max(1, JdbcOptionsProvider.options().getMaxRowFetchLimit());
+		Task<ResultTable> task = new Task<>() {
+			@Override
+			protected ResultTable call() throws Exception {
+				return cursor.fetch(pageSize);
+			}
+		};
+		task.setOnSucceeded(e -> {
+			fetchTask = null;
+			rowSetAspect.addRows(task.getValue());
+			// a transposed table shows a copy of the rows, they are added once it is transposed back
+			if (!contentIsTransposed) {
+				rows.rowsAdded(task.getValue().getRowCount());
+			}
+			updateStatus();
+			if (fetchAll) {
+				fetchNextPage();
+			}
+		});
+		task.setOnFailed(e -> {
+			fetchTask = null;
+			fetchAll = false;
+			log.warn("Failed to fetch rows", task.getException());
+			updateStatus();
+			status.setText(status.getText() + ", fetching failed: " + task.getException().getMessage());
+		});
+		fetchTask = task;
+		updateStatus();
+		executor.execute(task);
+	}
+
+	private void updateStatus() {
+		boolean moreRows = rowSetAspect.hasMoreRows();
+		fetchAllBtn.setDisable(!moreRows || fetchAll || contentIsTransposed);
+		String text = String.format("%,d rows", rowSetAspect.getRowCount());
+		if (fetchTask != null) {
+			text += ", fetching...";
+		} else if (moreRows) {
+			text += ", more available";
+		}
+		status.setText(text);
+	}
+
+	/**
+	 * transposes the loaded rows. Paging stops while the content is transposed.
+	 */
+	private void transpose() {
+		fetchAll = false;
 		if (contentIsTransposed) {
-			initEditor(rowSetAspect);
+			initEditor(rowSetAspect.getTable());
 		} else {
-			if (transposedContent == null) {
-				transposedContent = createTransposedContent(rowSetAspect);
-			}
-			initEditor(transposedContent);
+			initEditor(createTransposedContent(rowSetAspect.getTable()));
 		}
 		contentIsTransposed = !contentIsTransposed;
+		updateStatus();
 	}
 
 
-	private RowSetResponseAspect createTransposedContent(RowSetResponseAspect rowSetAspect) {
-		List<String> columnNames = new LinkedList<>();
-		List<List<String>> rows = new LinkedList<>();
-		
+	private ResultTable createTransposedContent(ResultTable content) {
+		List<String> columnNames = new ArrayList<>();
 		columnNames.add("Key");
-		for(int idx = 1; idx <= rowSetAspect.getRows().size(); ++idx) {
+		for(int idx = 1; idx <= content.getRowCount(); ++idx) {
 			columnNames.add("item " + idx);
 		}
-		
-		for(int curRow = 0; curRow < rowSetAspect.getColumnNames().size(); ++curRow) {
-			LinkedList<String> curRowL = new LinkedList<>();
-			rows.add(curRowL);
-			curRowL.add(rowSetAspect.getColumnNames().get(curRow));
-			for(int curCol = 0; curCol < rowSetAspect.getRows().size(); ++curCol) {
-				curRowL.add(rowSetAspect.getRows().get(curCol).get(curRow));
+
+		ResultTable result = new ResultTable(columnNames, Collections.nCopies(columnNames.size(), ColumnType.STRING));
+		for(int curRow = 0; curRow < content.getColumnCount(); ++curRow) {
+			((StringColumn) result.getColumn(0)).appendString(content.getColumnNames().get(curRow));
+			for(int curCol = 0; curCol < content.getRowCount(); ++curCol) {
+				((StringColumn) result.getColumn(curCol + 1)).appendString(content.getDisplayValue(curCol, curRow));
 			}
+			result.endRow();
 		}
-		RowSetResponseAspect result = new RowSetResponseAspect();
-		result.setColumnNames(columnNames);
-		result.setRows(rows);
 		return result;
 	}
 
 
-	private void copyResultToClipboard(RowSetResponseAspect rowSetAspect) {
-		RowSetResponseAspect source = contentIsTransposed ? transposedContent : rowSetAspect;
-		StringBuilder b = new StringBuilder();
-		b.append(rowToString(source.getColumnNames()));
-		for (List<String> row : source.getRows()) {
-			b.append(System.lineSeparator());
-			b.append(rowToString(row));
-		}
-		ClipboardContent clipboardContent = new ClipboardContent();
-	    clipboardContent.putString(b.toString());
-	    Clipboard.getSystemClipboard().setContent(clipboardContent);
+	private void copySelectionToClipboard() {
+		var content = table.getSelectionModel().getSelectedItems().stream()
+				.map(row -> shownContent.formatRow(row, "\t"))
+				.collect(Collectors.joining(System.lineSeparator()));
+		putToClipboard(content);
 	}
 
+	private void copyResultToClipboard() {
+		putToClipboard(shownContent.format("\t"));
+	}
 
-	private Function<List<String>, String> getRowValue(int columnIdx) {
-		return row -> row.get(columnIdx);
+	private void putToClipboard(String content) {
+		ClipboardContent clipboardContent = new ClipboardContent();
+	    clipboardContent.putString(content);
+	    Clipboard.getSystemClipboard().setContent(clipboardContent);
 	}
 
 
-	private String rowToString(List<String> row) {
-		StringBuilder b = new StringBuilder();
-		boolean first = true;
-		for (Object value : row) {
-			if (!first)
-				b.append("\t");
-			first = false;
-			b.append(value);
-		}
-		return b.toString();
-	}
-	
-	
 	@Override
 	public boolean canHandleAspect(RequestContainer request, ResponseContainer response) {
 		return response.getAspect(RowSetResponseAspect.class).isPresent();
 	}
 
+	/**
+	 * indices of the rows of the table, cells read their values from the table
+	 */
+	private static class RowList extends ObservableListBase<Integer> {
+		private int size;
+
+		RowList(int size) {
+			this.size = size;
+		}
+
+		@Override
+		public Integer get(int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException(index);
+			}
+			return index;
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		void rowsAdded(int count) {
+			if (count == 0) {
+				return;
+			}
+			beginChange();
+			nextAdd(size, size + count);
+			size += count;
+			endChange();
+		}
+	}
+
+	/**
+	 * triggers fetching of the next page, once it shows one of the last loaded rows
+	 */
+	private class PrefetchingRow extends TableRow<Integer> {
+		@Override
+		public void updateIndex(int index) {
+			super.updateIndex(index);
+			if (index >= 0 && index >= rows.size() - PREFETCH_DISTANCE) {
+				// don't modify the items while the table lays out its rows
+				Platform.runLater(JdbcResultSetAspectEditor.this::fetchNextPage);
+			}
+		}
+	}
 }
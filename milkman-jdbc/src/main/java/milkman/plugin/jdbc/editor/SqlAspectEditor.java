@@ -1,15 +1,25 @@
 package milkman.plugin.jdbc.editor;
 
+import com.jfoenix.controls.JFXCheckBox;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Tab;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
 import lombok.SneakyThrows;
 import lombok.val;
 import milkman.domain.RequestContainer;
 import milkman.plugin.jdbc.SqlContentType;
+import milkman.plugin.jdbc.domain.JdbcRequestContainer;
 import milkman.plugin.jdbc.domain.JdbcSqlAspect;
 import milkman.ui.components.ContentEditor;
 import milkman.ui.plugin.RequestAspectEditor;
+import milkman.utils.fxml.GenericBinding;
 
 import java.util.Collections;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 import static milkman.utils.FunctionalUtils.run;
 
@@ -27,7 +37,41 @@ public class SqlAspectEditor implements RequestAspectEditor {
 		root.setContent(sqlAspect::getSql, run(sqlAspect::setSql).andThen(() -> sqlAspect.setDirty(true)));
 		root.setContentTypePlugins(Collections.singletonList(new SqlContentType()));
 		root.setContentType("application/sql");
-		return new Tab("Body", root);
+
+		if (!(request instanceof JdbcRequestContainer)) {
+			//cql requests reuse this editor, but support neither parameters nor scripts
+			return new Tab("Body", root);
+		}
+
+		CheckBox bindParameters = createCheckBox(sqlAspect, "Bind variables as parameters",
+				"{{variables}} are bound as parameters of a prepared statement, which is cached per connection.\n"
+				+ "Types are inferred or can be declared, e.g. {{id|int}}. Use {{name|raw}} for e.g. table names.",
+				JdbcSqlAspect::isBindParameters, JdbcSqlAspect::setBindParameters);
+		CheckBox scriptMode = createCheckBox(sqlAspect, "Run as script",
+				"Statements separated by ';' are executed one after another, consecutive inserts/updates are sent in batches.\n"
+				+ "Lines with only GO or / separate blocks containing ';' (these lines are the only separators then), "
+				+ "DELIMITER changes the delimiter.",
+				JdbcSqlAspect::isScriptMode, JdbcSqlAspect::setScriptMode);
+		CheckBox scriptInTransaction = createCheckBox(sqlAspect, "Single transaction",
+				"All statements of the script are executed in one transaction, which is rolled back if a statement fails.",
+				JdbcSqlAspect::isScriptInTransaction, JdbcSqlAspect::setScriptInTransaction);
+		scriptInTransaction.disableProperty().bind(scriptMode.selectedProperty().not());
+
+		VBox.setVgrow(root, Priority.ALWAYS);
+		return new Tab("Body", new VBox(new HBox(10, bindParameters, scriptMode, scriptInTransaction), root));
+	}
+
+	private CheckBox createCheckBox(JdbcSqlAspect sqlAspect, String text, String tooltip,
+									Function<JdbcSqlAspect, Boolean> getter, BiConsumer<JdbcSqlAspect, Boolean> setter) {
+		CheckBox checkBox = new JFXCheckBox(text);
+		checkBox.setTooltip(new Tooltip(tooltip));
+		GenericBinding<JdbcSqlAspect, Boolean> binding = GenericBinding.of(
+				getter,
+				run(setter).andThen(() -> sqlAspect.setDirty(true)), //mark aspect as dirty propagates to the request itself and shows up in UI
+				sqlAspect);
+		checkBox.selectedProperty().bindBidirectional(binding);
+		checkBox.setUserData(binding); //need to add a strong reference to keep the binding from being GC-collected.
+		return checkBox;
 	}
 
 	@Override
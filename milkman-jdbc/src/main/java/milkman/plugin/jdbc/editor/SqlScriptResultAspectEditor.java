@@ -0,0 +1,38 @@
+package milkman.plugin.jdbc.editor;
+
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.control.TabPane.TabClosingPolicy;
+import milkman.domain.RequestContainer;
+import milkman.domain.ResponseContainer;
+import milkman.plugin.jdbc.domain.SqlScriptResponseAspect;
+import milkman.plugin.jdbc.domain.SqlScriptResponseAspect.ScriptResult;
+import milkman.ui.plugin.ResponseAspectEditor;
+
+/**
+ * shows the executed statements of a script and every result set in a separate tab
+ */
+public class SqlScriptResultAspectEditor implements ResponseAspectEditor {
+
+	@Override
+	public Tab getRoot(RequestContainer request, ResponseContainer response) {
+		SqlScriptResponseAspect scriptAspect = response.getAspect(SqlScriptResponseAspect.class).get();
+
+		TabPane tabs = new TabPane();
+		tabs.setTabClosingPolicy(TabClosingPolicy.UNAVAILABLE);
+		tabs.getTabs().add(new JdbcResultSetAspectEditor().getRoot("Statements", scriptAspect.getStatements()));
+		for (ScriptResult result : scriptAspect.getResults()) {
+			tabs.getTabs().add(new JdbcResultSetAspectEditor().getRoot("Result " + result.getName(), result.getRows()));
+		}
+		if (!scriptAspect.getResults().isEmpty()) {
+			tabs.getSelectionModel().select(1);
+		}
+
+		return new Tab("Result", tabs);
+	}
+
+	@Override
+	public boolean canHandleAspect(RequestContainer request, ResponseContainer response) {
+		return response.getAspect(SqlScriptResponseAspect.class).isPresent();
+	}
+}
@@ -0,0 +1,88 @@
+package milkman.plugin.jdbc;
+
+import milkman.plugin.jdbc.JdbcOptionsProvider.JdbcOptions;
+import milkman.plugin.jdbc.domain.JdbcRequestContainer;
+import milkman.plugin.jdbc.domain.JdbcSqlAspect;
+import milkman.plugin.jdbc.domain.RowSetResponseAspect;
+import milkman.ui.plugin.Templater;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JdbcQueryProcessorTest {
+
+	private final Templater templater = input -> input;
+	private final JdbcQueryProcessor processor = new JdbcQueryProcessor();
+
+	@AfterEach
+	void resetOptions() {
+		new JdbcOptionsProvider().setOptions(new JdbcOptions());
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"select * from users",
+			"  SELECT update_date FROM users",
+			"-- all users\nselect * from users",
+			"with active as (select * from users where active) select * from active",
+			"(select 1) union (select 2)",
+			"values (1), (2)",
+			"show tables",
+	})
+	void shouldPageQueries(String sql) {
+		assertThat(JdbcQueryProcessor.isPageable(sql, false)).isTrue();
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"insert into users (name) values ('a') returning id",
+			"update users set name = 'a' returning id",
+			"delete from users returning *",
+			"select * from users for update",
+			"select * from users for no key update skip locked",
+			"select * from users for share",
+			"select * into backup from users",
+			"with deleted as (delete from users returning *) select * from deleted",
+			"call refresh_users()",
+	})
+	void shouldNotPageStatementsChangingData(String sql) {
+		assertThat(JdbcQueryProcessor.isPageable(sql, false)).isFalse();
+	}
+
+	@Test
+	void shouldCloseLeastRecentlyUsedCursorIfAllConnectionsAreInUse() throws SQLException {
+		var options = new JdbcOptions();
+		options.setMaxConnections(1);
+		options.setMaxRowFetchLimit(1);
+		new JdbcOptionsProvider().setOptions(options);
+		String jdbcUrl = "jdbc:hsqldb:mem:" + UUID.randomUUID();
+		try (var connection = DriverManager.getConnection(jdbcUrl);
+			 var statement = connection.createStatement()) {
+			statement.execute("create table items (id int primary key)");
+			statement.execute("insert into items values (1), (2), (3)");
+		}
+
+		var first = query(jdbcUrl, "select * from items");
+		var second = query(jdbcUrl, "select * from items");
+
+		assertThat(first.hasMoreRows()).isFalse();
+		assertThat(second.hasMoreRows()).isTrue();
+		second.getCursor().close();
+	}
+
+	private RowSetResponseAspect query(String jdbcUrl, String sql) {
+		var request = new JdbcRequestContainer("query", jdbcUrl);
+		var aspect = new JdbcSqlAspect();
+		aspect.setSql(sql);
+		request.addAspect(aspect);
+		return processor.executeRequest(request, templater, true)
+				.getAspect(RowSetResponseAspect.class).orElseThrow();
+	}
+}
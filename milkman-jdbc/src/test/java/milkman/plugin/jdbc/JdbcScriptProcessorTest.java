@@ -0,0 +1,148 @@
+package milkman.plugin.jdbc;
+
+import milkman.domain.ResponseContainer;
+import milkman.plugin.jdbc.domain.JdbcRequestContainer;
+import milkman.plugin.jdbc.domain.JdbcSqlAspect;
+import milkman.plugin.jdbc.domain.SqlScriptResponseAspect;
+import milkman.ui.plugin.Templater;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JdbcScriptProcessorTest {
+
+	private final Templater templater = input -> {
+		if (input.contains("{{missing}}")) {
+			throw new IllegalArgumentException("Unknown variable: missing");
+		}
+		return input.replace("{{name}}", "milk");
+	};
+	private final JdbcScriptProcessor processor = new JdbcScriptProcessor();
+	private String jdbcUrl;
+
+	@BeforeEach
+	void setup() throws SQLException {
+		jdbcUrl = "jdbc:hsqldb:mem:" + UUID.randomUUID();
+		try (var connection = DriverManager.getConnection(jdbcUrl);
+			 var statement = connection.createStatement()) {
+			statement.execute("create table items (id int primary key, name varchar(100))");
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"insert into items values (1, 'a')",
+			"-- comment\nUPDATE items set name = 'b'",
+			"delete from items",
+	})
+	void shouldBatchDataChanges(String sql) {
+		assertThat(JdbcScriptProcessor.isBatchable(sql, false)).isTrue();
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"select * from items",
+			"insert into items values (1, 'a') returning id",
+			"create table other (id int)",
+	})
+	void shouldNotBatchOtherStatements(String sql) {
+		assertThat(JdbcScriptProcessor.isBatchable(sql, false)).isFalse();
+	}
+
+	@Test
+	void shouldExecuteConsecutiveInsertsAsBatch() {
+		var response = execute("insert into items values (1, 'a');\n"
+				+ "insert into items values (2, 'b');\n"
+				+ "insert into items values (3, '{{name}}');\n"
+				+ "select name from items order by id;", true, false);
+
+		var script = response.getAspect(SqlScriptResponseAspect.class).orElseThrow();
+		assertThat(script.getStatements().getRows()).extracting(row -> row.get(2)).containsExactly(
+				"1 rows affected (batch of 3)",
+				"1 rows affected (batch of 3)",
+				"1 rows affected (batch of 3)",
+				"3 rows selected");
+		assertThat(script.getResults().get(0).getRows().getRows())
+				.containsExactly(List.of("a"), List.of("b"), List.of("milk"));
+	}
+
+	@Test
+	void shouldBatchBoundStatementsWithSameSql() {
+		var response = execute("insert into items values (1, {{name}});\n"
+				+ "insert into items values (2, {{name}});", true, true);
+
+		var script = response.getAspect(SqlScriptResponseAspect.class).orElseThrow();
+		assertThat(script.getStatements().getRows()).extracting(row -> row.get(2))
+				.containsOnly("1 rows affected (batch of 2)");
+		assertThat(names()).containsExactly("milk", "milk");
+	}
+
+	@Test
+	void shouldRollBackScriptIfBatchFails() {
+		assertThatThrownBy(() -> execute("insert into items values (1, 'a');\n"
+				+ "insert into items values (1, 'duplicate');", true, false))
+				.isInstanceOf(SQLException.class)
+				.hasMessageStartingWith("Statement #2 failed")
+				.hasMessageEndingWith("the script was rolled back");
+
+		assertThat(names()).isEmpty();
+	}
+
+	@Test
+	void shouldNotReusePendingBatchOfFailedScript() {
+		assertThatThrownBy(() -> execute("insert into items values (1, {{name}});\n"
+				+ "insert into items values (2, {{missing}});", true, true))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageStartingWith("Statement #2 failed");
+
+		execute("insert into items values (1, {{name}});", true, true);
+
+		assertThat(names()).containsExactly("milk");
+	}
+
+	@Test
+	void shouldKeepPreviousStatementsWithoutTransaction() {
+		assertThatThrownBy(() -> execute("insert into items values (1, 'a');\n"
+				+ "select * from missing;", false, false))
+				.isInstanceOf(SQLException.class)
+				.hasMessageStartingWith("Statement #2 failed")
+				.hasMessageEndingWith("previous statements were committed");
+
+		assertThat(names()).containsExactly("a");
+	}
+
+	private ResponseContainer execute(String sql, boolean inTransaction, boolean bindParameters) {
+		var request = new JdbcRequestContainer("script", jdbcUrl);
+		var aspect = new JdbcSqlAspect();
+		aspect.setSql(sql);
+		aspect.setScriptMode(true);
+		aspect.setScriptInTransaction(inTransaction);
+		aspect.setBindParameters(bindParameters);
+		request.addAspect(aspect);
+		return processor.executeRequest(request, templater);
+	}
+
+	private List<String> names() {
+		try (var connection = DriverManager.getConnection(jdbcUrl);
+			 var statement = connection.createStatement();
+			 var resultSet = statement.executeQuery("select name from items order by id")) {
+			var names = new ArrayList<String>();
+			while (resultSet.next()) {
+				names.add(resultSet.getString(1));
+			}
+			return names;
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,166 @@
+package milkman.plugin.jdbc;
+
+import milkman.ui.plugin.Templater;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParameterizedSqlTest {
+
+	private final Map<String, String> variables = Map.of(
+			"id", "42",
+			"price", "9.99",
+			"name", "milk",
+			"table", "items",
+			"day", "2024-01-31",
+			"empty", "");
+	private final Templater templater = input -> {
+		String result = input;
+		for (var variable : variables.entrySet()) {
+			result = result.replace("{{" + variable.getKey() + "}}", variable.getValue());
+		}
+		return result;
+	};
+
+	@Test
+	void shouldBindTagsAsParameters() {
+		var bound = ParameterizedSql.parse("select * from t where id = {{id}} and name = {{name}}", false).bind(templater);
+
+		assertThat(bound.getSql()).isEqualTo("select * from t where id = ? and name = ?");
+		assertThat(bound.getParameterCount()).isEqualTo(2);
+	}
+
+	@Test
+	void shouldBindStringLiteralsContainingTagsAsSingleParameter() {
+		var bound = ParameterizedSql.parse("select * from t where name like '%{{name}}''s%' and x = 'plain'", false).bind(templater);
+
+		assertThat(bound.getSql()).isEqualTo("select * from t where name like ? and x = 'plain'");
+		assertThat(setParameters(bound)).containsExactly("setString(1, %milk's%)");
+	}
+
+	@Test
+	void shouldRecognizeBackslashEscapedQuotes() {
+		var bound = ParameterizedSql.parse("select * from t where a = 'it\\'s {{name}}' and b = 'x\\' {{id}}'", true).bind(templater);
+
+		assertThat(bound.getSql()).isEqualTo("select * from t where a = ? and b = ?");
+		assertThat(setParameters(bound)).containsExactly("setString(1, it's milk)", "setString(2, x' 42)");
+	}
+
+	@Test
+	void shouldKeepBackslashesInStandardSql() {
+		var bound = ParameterizedSql.parse("select * from t where path = 'C:\\{{name}}\\' and id = {{id}}", false).bind(templater);
+
+		assertThat(bound.getSql()).isEqualTo("select * from t where path = ? and id = ?");
+		assertThat(setParameters(bound)).containsExactly("setString(1, C:\\milk\\)", "setLong(2, 42)");
+	}
+
+	@Test
+	void shouldUnescapeBackslashesInEscapeStrings() {
+		var bound = ParameterizedSql.parse("select * from t where a = E'it\\'s {{name}}'", false).bind(templater);
+
+		assertThat(bound.getSql()).isEqualTo("select * from t where a = ?");
+		assertThat(setParameters(bound)).containsExactly("setString(1, it's milk)");
+	}
+
+	@Test
+	void shouldReplaceTagsInCommentsIdentifiersAndDollarQuotes() {
+		var bound = ParameterizedSql.parse("select \"{{name}}\" -- {{id}}\n"
+				+ "from t /* {{id}} */ where f($$ {{name}} $$, $body$ '{{id}}' $body$)", false).bind(templater);
+
+		assertThat(bound.getSql()).isEqualTo("select \"milk\" -- 42\nfrom t /* 42 */ where f($$ milk $$, $body$ '42' $body$)");
+		assertThat(bound.getParameterCount()).isZero();
+	}
+
+	@Test
+	void shouldEscapeQuestionMarksOfSql() {
+		var bound = ParameterizedSql.parse("select * from t where data ? 'a' and data ?| array['b'] and data ?& {{name}} and x ?? 'c'", false)
+				.bind(templater);
+
+		assertThat(bound.getSql()).isEqualTo("select * from t where data ?? 'a' and data ??| array['b'] and data ??& ? and x ?? 'c'");
+		assertThat(bound.getParameterCount()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldKeepQuestionMarksInLiterals() {
+		var bound = ParameterizedSql.parse("select '?' from t where id = {{id}}", false).bind(templater);
+
+		assertThat(bound.getSql()).isEqualTo("select '?' from t where id = ?");
+	}
+
+	@Test
+	void shouldReplaceRawTagsInText() {
+		var bound = ParameterizedSql.parse("select * from {{table|raw}} where id = {{id}}", false).bind(templater);
+
+		assertThat(bound.getSql()).isEqualTo("select * from items where id = ?");
+	}
+
+	@Test
+	void shouldInferParameterTypes() {
+		var bound = ParameterizedSql.parse("values ({{id}}, {{price}}, {{name}}, {{day}})", false).bind(templater);
+
+		assertThat(setParameters(bound)).containsExactly(
+				"setLong(1, 42)",
+				"setBigDecimal(2, " + new BigDecimal("9.99") + ")",
+				"setString(3, milk)",
+				"setString(4, 2024-01-31)");
+	}
+
+	@Test
+	void shouldUseDeclaredParameterTypes() {
+		var bound = ParameterizedSql.parse("values ({{id|string}}, {{price|double}}, {{day|date}}, {{empty|int}}, {{id|BIGINT}})", false)
+				.bind(templater);
+
+		assertThat(setParameters(bound)).containsExactly(
+				"setString(1, 42)",
+				"setDouble(2, 9.99)",
+				"setDate(3, " + Date.valueOf("2024-01-31") + ")",
+				"setNull(4, " + Types.BIGINT + ")",
+				"setLong(5, 42)");
+	}
+
+	@Test
+	void shouldRejectUnknownTypes() {
+		assertThatThrownBy(() -> ParameterizedSql.parse("select {{id|uuid}}", false))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("Unknown parameter type 'uuid'");
+	}
+
+	@Test
+	void shouldRejectInvalidValues() {
+		var bound = ParameterizedSql.parse("select {{name|int}}", false).bind(templater);
+
+		assertThatThrownBy(() -> setParameters(bound))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Invalid value for parameter 1 of type int: 'milk'");
+	}
+
+	/**
+	 * sets the parameters on a prepared statement, which records the calls
+	 */
+	private static List<String> setParameters(ParameterizedSql.Bound bound) {
+		List<String> calls = new ArrayList<>();
+		var statement = (PreparedStatement) Proxy.newProxyInstance(ParameterizedSqlTest.class.getClassLoader(),
+				new Class<?>[]{PreparedStatement.class},
+				(proxy, method, args) -> {
+					calls.add(method.getName() + "(" + args[0] + ", " + args[1] + ")");
+					return null;
+				});
+		try {
+			bound.setParameters(statement);
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+		return calls;
+	}
+}
@@ -0,0 +1,92 @@
+package milkman.plugin.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlScriptSplitterTest {
+
+	@Test
+	void shouldSplitAtSemicolons() {
+		assertThat(SqlScriptSplitter.split("insert into a values (1);\ninsert into a values (2);\n\n"))
+				.containsExactly("insert into a values (1)", "insert into a values (2)");
+	}
+
+	@Test
+	void shouldIgnoreSemicolonsInLiteralsAndComments() {
+		var script = "insert into a values ('x;y', \"b;c\", `d;e`); -- comment;\n"
+				+ "/* block; comment */ select 'it''s;' from a;";
+
+		assertThat(SqlScriptSplitter.split(script)).containsExactly(
+				"insert into a values ('x;y', \"b;c\", `d;e`)",
+				"-- comment;\n/* block; comment */ select 'it''s;' from a");
+	}
+
+	@Test
+	void shouldHandleBackslashEscapedQuotes() {
+		assertThat(SqlScriptSplitter.split("insert into a values ('it\\'s; fine');insert into a values (\"a\\\";b\")", true))
+				.containsExactly("insert into a values ('it\\'s; fine')", "insert into a values (\"a\\\";b\")");
+	}
+
+	@Test
+	void shouldNotTreatBackslashesAsEscapesInStandardSql() {
+		assertThat(SqlScriptSplitter.split("select 'C:\\'; select 1"))
+				.containsExactly("select 'C:\\'", "select 1");
+	}
+
+	@Test
+	void shouldHandleBackslashEscapesInEscapeStrings() {
+		assertThat(SqlScriptSplitter.split("select E'it\\'s; fine'; select 1"))
+				.containsExactly("select E'it\\'s; fine'", "select 1");
+	}
+
+	@Test
+	void shouldUseBackslashEscapesForMysqlAndMariadb() {
+		assertThat(SqlScriptSplitter.usesBackslashEscapes("jdbc:mysql://localhost/db")).isTrue();
+		assertThat(SqlScriptSplitter.usesBackslashEscapes("jdbc:MariaDB://localhost/db")).isTrue();
+		assertThat(SqlScriptSplitter.usesBackslashEscapes("jdbc:postgresql://localhost/db")).isFalse();
+	}
+
+	@Test
+	void shouldKeepDollarQuotedBlocks() {
+		var function = "create function f() returns void as $body$ begin update a set b = 1; end; $body$ language plpgsql";
+
+		assertThat(SqlScriptSplitter.split(function + ";\nselect f();"))
+				.containsExactly(function, "select f()");
+	}
+
+	@Test
+	void shouldSplitOnlyAtSlashLinesIfScriptUsesThem() {
+		var block = "BEGIN\n  update a set b = 1;\n  update a set c = 2;\nEND;";
+
+		assertThat(SqlScriptSplitter.split(block + "\n/\n" + block + "\n/\n"))
+				.containsExactly(block, block);
+	}
+
+	@Test
+	void shouldSplitOnlyAtGoLinesIfScriptUsesThem() {
+		var batch = "declare @x int;\nset @x = 1;\nselect @x;";
+
+		assertThat(SqlScriptSplitter.split(batch + "\nGO\n" + batch + "\ngo"))
+				.containsExactly(batch, batch);
+	}
+
+	@Test
+	void shouldIgnoreSeparatorLinesInComments() {
+		assertThat(SqlScriptSplitter.split("/*\nGO\n*/ select 1; select 2;"))
+				.containsExactly("/*\nGO\n*/ select 1", "select 2");
+	}
+
+	@Test
+	void shouldChangeDelimiter() {
+		var body = "create procedure p() begin select 1; select 2; end";
+
+		assertThat(SqlScriptSplitter.split("DELIMITER //\n" + body + "//\nDELIMITER ;\ncall p();"))
+				.containsExactly(body, "call p()");
+	}
+
+	@Test
+	void shouldSkipEmptyStatements() {
+		assertThat(SqlScriptSplitter.split(";; -- only a comment\n;")).isEmpty();
+	}
+}
@@ -1,17 +1,15 @@
 package milkman.plugin.nosql;
 
-import java.util.LinkedHashSet;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.SneakyThrows;
 import milkman.domain.RequestContainer;
 import milkman.domain.ResponseContainer;
 import milkman.domain.ResponseContainer.StyledText;
+import milkman.domain.table.ColumnType;
+import milkman.domain.table.ResultTable;
 import milkman.plugin.nosql.domain.NosqlParameterAspect;
 import milkman.plugin.nosql.domain.NosqlQueryAspect;
 import milkman.plugin.nosql.domain.NosqlRequestContainer;
@@ -46,22 +44,22 @@ public class NosqlRequestProcessor {
     Stream<Map<String, Object>> resultStream = queryExecutor.query(database, query.getQuery());
     requestTimeInMs = System.currentTimeMillis() - startTime;
 
-    Set<String> keys = new LinkedHashSet<>();
-
-    List<List<String>> resultRows = resultStream.map(document -> {
-      keys.addAll(document.keySet());
-      return keys.stream()
-          .map(k -> Optional.ofNullable(document.get(k)).map(Object::toString).orElse(null))
-          .toList();
-    }).collect(Collectors.toList());
+    ResultTable resultRows = new ResultTable();
+    Map<String, Integer> columnIndices = new HashMap<>();
+    resultStream.forEach(document -> {
+      document.forEach((key, value) -> {
+        int columnIdx = columnIndices.computeIfAbsent(key, k -> resultRows.addColumn(k, ColumnType.of(value)));
+        resultRows.appendValue(columnIdx, value);
+      });
+      resultRows.endRow();
+    });
 
     NosqlResponseAspect responseAspect = new NosqlResponseAspect();
-    responseAspect.setColumnNames(new LinkedList<>(keys));
-    responseAspect.setRows(resultRows);
+    responseAspect.setTable(resultRows);
 
     NosqlResponseContainer response = new NosqlResponseContainer();
     response.getStatusInformations().complete(Map.of(
-        "Rows", new StyledText(String.valueOf(resultRows.size())),
+        "Rows", new StyledText(String.valueOf(resultRows.getRowCount())),
         "Time", new StyledText(requestTimeInMs + "ms")
     ));
 
@@ -1,15 +1,16 @@
 package milkman.plugin.nosql.domain;
 
-import java.util.LinkedList;
 import java.util.List;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import milkman.domain.ResponseAspect;
+import milkman.domain.table.ResultTable;
 
 @Data
 public class NosqlResponseAspect implements ResponseAspect {
 
-	List<String> columnNames = new LinkedList<>();
-	List<List<String>> rows = new LinkedList<>();
+	@JsonIgnore
+	ResultTable table = new ResultTable();
 	
 	
 	@Override
@@ -18,8 +19,15 @@ public class NosqlResponseAspect implements ResponseAspect {
 	}
 
 
-	public void addRow(List<String> row) {
-		rows.add(row);
+	public List<String> getColumnNames() {
+		return table.getColumnNames();
+	}
+
+	/**
+	 * display values of the rows, e.g. for scripts
+	 */
+	public List<List<String>> getRows() {
+		return table.getRows();
 	}
 	
 }
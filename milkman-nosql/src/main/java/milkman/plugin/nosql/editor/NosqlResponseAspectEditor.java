@@ -1,8 +1,6 @@
 package milkman.plugin.nosql.editor;
 
 import com.jfoenix.controls.JFXButton;
-import java.util.List;
-import java.util.function.Function;
 import javafx.scene.control.Tab;
 import javafx.scene.input.Clipboard;
 import javafx.scene.input.ClipboardContent;
@@ -11,21 +9,22 @@ import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import milkman.domain.RequestContainer;
 import milkman.domain.ResponseContainer;
+import milkman.domain.table.ResultTable;
 import milkman.plugin.nosql.domain.NosqlResponseAspect;
 import milkman.ui.components.JfxTableEditor;
 import milkman.ui.plugin.ResponseAspectEditor;
 
 public class NosqlResponseAspectEditor implements ResponseAspectEditor {
 
-	private JfxTableEditor<List<String>> editor;
+	private JfxTableEditor<Integer> editor;
 
 	@Override
 	public Tab getRoot(RequestContainer request, ResponseContainer response) {
 		editor = new JfxTableEditor<>("nosql.result.list");
 		editor.disableAddition();
-		editor.setRowToStringConverter(this::rowToString);
 		VBox.setVgrow(editor, Priority.ALWAYS);
 		NosqlResponseAspect rowSetAspect = response.getAspect(NosqlResponseAspect.class).get();
+		editor.setRowToStringConverter(row -> rowSetAspect.getTable().formatRow(row, "\t"));
 
 		initEditor(rowSetAspect);
 
@@ -37,10 +36,12 @@ public class NosqlResponseAspectEditor implements ResponseAspectEditor {
 
 
 	private void initEditor(NosqlResponseAspect rowSetAspect) {
-		for(int i = 0; i < rowSetAspect.getColumnNames().size(); ++i) {
-			editor.addReadOnlyColumn(rowSetAspect.getColumnNames().get(i), getRowValue(i));	
+		ResultTable table = rowSetAspect.getTable();
+		for(int i = 0; i < table.getColumnCount(); ++i) {
+			int columnIdx = i;
+			editor.addReadOnlyColumn(table.getColumnNames().get(i), row -> table.getDisplayValue(row, columnIdx));
 		}
-		editor.setItems(rowSetAspect.getRows());
+		editor.setItems(table.getRowIndices());
 	}
 
 	private HBox setupToolbar(NosqlResponseAspect nosqlResult) {
@@ -54,36 +55,12 @@ public class NosqlResponseAspectEditor implements ResponseAspectEditor {
 	}
 
 	private void copyResultToClipboard(NosqlResponseAspect rowSetAspect) {
-		StringBuilder b = new StringBuilder();
-		b.append(rowToString(rowSetAspect.getColumnNames()));
-		for (List<String> row : rowSetAspect.getRows()) {
-			b.append(System.lineSeparator());
-			b.append(rowToString(row));
-		}
 		ClipboardContent clipboardContent = new ClipboardContent();
-	    clipboardContent.putString(b.toString());
+	    clipboardContent.putString(rowSetAspect.getTable().format("\t"));
 	    Clipboard.getSystemClipboard().setContent(clipboardContent);
 	}
 
 
-	private Function<List<String>, String> getRowValue(int columnIdx) {
-		return row -> row.get(columnIdx);
-	}
-
-
-	private String rowToString(List<String> row) {
-		StringBuilder b = new StringBuilder();
-		boolean first = true;
-		for (Object value : row) {
-			if (!first)
-				b.append("\t");
-			first = false;
-			b.append(value);
-		}
-		return b.toString();
-	}
-	
-	
 	@Override
 	public boolean canHandleAspect(RequestContainer request, ResponseContainer response) {
 		return response.getAspect(NosqlResponseAspect.class).isPresent();
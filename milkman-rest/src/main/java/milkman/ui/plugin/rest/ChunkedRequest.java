@@ -4,10 +4,11 @@ import java.util.Optional;
 import javax.net.ssl.SSLSession;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import milkman.ui.plugin.rest.RequestTimer.Mark;
 import milkman.utils.Event0;
+import milkman.utils.ResponseBodyStore;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.ReplayProcessor;
 
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -24,6 +25,9 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class ChunkedRequest {
 	private final HttpClient httpclient; 
 	private final HttpRequest httpRequest;
+	private final ResponseBodyStore bodyStore;
+	@Getter
+	private final RequestTimer timer;
 	
 	@Getter
 	private final CompletableFuture<ResponseInfo> responseInfo = new CompletableFuture<>();
@@ -32,22 +36,21 @@ public class ChunkedRequest {
 	private final CompletableFuture<Optional<SSLSession>> sslSessionInfo = new CompletableFuture<>();
 
 	@Getter
-	private CompletableFuture<Void> requestDone;
+	private final CompletableFuture<Void> requestDone = new CompletableFuture<>();
 	
-	private ReplayProcessor<byte[]> emitterProcessor;
 	private Flux<byte[]> chunks;
 
 	public void executeRequest(Event0 cancellationEvent){
 
 
-		this.emitterProcessor = ReplayProcessor.create();
-		chunks = emitterProcessor;
-		this.requestDone = emitterProcessor.then().toFuture();
+		chunks = bodyStore.asFlux();
 		AtomicBoolean isSubscribed = new AtomicBoolean();
-		var future = httpclient.sendAsync(httpRequest, conInfo -> new HttpResponse.BodySubscriber<String>(){
+		timer.mark(Mark.SEND);
+		var future = httpclient.sendAsync(timer.tap(httpRequest), conInfo -> new HttpResponse.BodySubscriber<String>(){
 			private Flow.Subscription subscription;
 
 			{
+				timer.mark(Mark.HEADERS_RECEIVED);
 				responseInfo.complete(conInfo);
 				cancellationEvent.add(() -> {
 					if (subscription != null)
@@ -67,18 +70,18 @@ public class ChunkedRequest {
 			public void onNext(List<ByteBuffer> item) {
 				byte[] chunk = toBytes(item);
 //				System.out.println("Received chunk: " + chunk);
-				emitterProcessor.onNext(chunk);
+				bodyStore.onNext(chunk);
 				subscription.request(1);
 			}
 
 			@Override
 			public void onError(Throwable throwable) {
-				emitterProcessor.onError(throwable);
+				failBody(throwable);
 			}
 
 			@Override
 			public void onComplete() {
-				emitterProcessor.onComplete();
+				completeBody();
 			}
 
 			@Override
@@ -106,11 +109,12 @@ public class ChunkedRequest {
 			//under certain circumstances, the stringSubscriber was not subscribed (body handler not activated)
 			//leading to the call-future resolve but the futures in the subscriber to not be resolved.
 			if (!isSubscribed.get()) {
+					timer.mark(Mark.HEADERS_RECEIVED);
 					if (err != null) {
-						emitterProcessor.onError(ExceptionUtils.getRootCause(err));
+						failBody(ExceptionUtils.getRootCause(err));
 						responseInfo.complete(new JavaRequestProcessor.EmptyResponseInfo());
 					} else {
-						emitterProcessor.onComplete();
+						completeBody();
 						responseInfo.complete(new JavaRequestProcessor.StaticResponseInfo(res));
 					}
 				}
@@ -147,6 +151,18 @@ public class ChunkedRequest {
 		return chunks;
 	}
 
+	private void completeBody() {
+		timer.mark(Mark.DONE);
+		bodyStore.onComplete();
+		requestDone.complete(null);
+	}
+
+	private void failBody(Throwable throwable) {
+		timer.mark(Mark.DONE);
+		bodyStore.onError(throwable);
+		requestDone.completeExceptionally(throwable);
+	}
+
 
 //	private static String asString(List<ByteBuffer> buffers) {
 //		return new String(toBytes(buffers), StandardCharsets.UTF_8);
@@ -0,0 +1,42 @@
+package milkman.ui.plugin.rest;
+
+import lombok.Value;
+import milkman.ui.plugin.rest.HttpOptionsPluginProvider.HttpOptions;
+import milkman.ui.plugin.rest.tls.Certificate;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * the effective configuration of a http client. Two requests with equal properties can share the same client
+ * (and therefore the same connections).
+ */
+@Value
+public class HttpClientProperties {
+	boolean http2Support;
+	boolean useProxy;
+	String proxyUrl;
+	String proxyExclusion;
+	Certificate clientCertificate;
+	boolean certificateValidation;
+	boolean followRedirects;
+
+	public static HttpClientProperties fromOptions(HttpOptions options, String clientCertificateName) {
+		Certificate certificate = null;
+		if (StringUtils.isNotEmpty(clientCertificateName)) {
+			Certificate cert = options.getCertificates().stream()
+					.filter(c -> c.getName().equals(clientCertificateName))
+					.findAny()
+					.orElseThrow(() -> new IllegalStateException("Certificate not found: " + clientCertificateName));
+			//we copy the certificate, as it can be edited in-place in the options dialog
+			certificate = new Certificate(cert.getBase64Certificate(), cert.getBase64PrivateKey(), cert.getPassword(), cert.getName(), cert.getType());
+		}
+
+		return new HttpClientProperties(
+				options.isHttp2Support(),
+				options.isUseProxy(),
+				options.isUseProxy() ? options.getProxyUrl() : null,
+				options.isUseProxy() ? options.getProxyExclusion() : null,
+				certificate,
+				options.isCertificateValidation(),
+				options.isFollowRedirects());
+	}
+}
@@ -0,0 +1,94 @@
+package milkman.ui.plugin.rest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * hands out shared http clients, keyed by their effective configuration, so that subsequent requests
+ * can reuse open connections (and http/2 streams) instead of doing a fresh tcp/tls handshake every time.
+ *
+ * clients that were not used for a while are evicted. Evicted and invalidated clients are shut down, so their
+ * connections and selector threads are freed right away. Requests in flight are still completed.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class HttpClientRegistry {
+
+	private static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(5);
+	private static final HttpClientRegistry instance = new HttpClientRegistry(DEFAULT_IDLE_TIMEOUT);
+
+	private static final ScheduledExecutorService evictionScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "http-client-eviction");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	static {
+		evictionScheduler.scheduleWithFixedDelay(instance::evictIdleClients, 1, 1, TimeUnit.MINUTES);
+	}
+
+	private final Duration idleTimeout;
+	private final Map<HttpClientProperties, PooledClient> clients = new ConcurrentHashMap<>();
+
+	public static HttpClientRegistry instance() {
+		return instance;
+	}
+
+	/**
+	 * returns a cached client for the given properties or creates a new one using the given factory.
+	 */
+	public HttpClient getClient(HttpClientProperties properties, Function<HttpClientProperties, HttpClient> clientFactory) {
+		//lastUsed is updated atomically with the lookup, so the client is not evicted before it is used
+		PooledClient pooledClient = clients.compute(properties, (p, existing) -> {
+			if (existing == null) {
+				log.debug("Creating new http client for {}", p);
+				return new PooledClient(clientFactory.apply(p));
+			}
+			existing.lastUsed = System.currentTimeMillis();
+			return existing;
+		});
+		return pooledClient.client;
+	}
+
+	/**
+	 * shuts down all cached clients, e.g. because options changed. New clients will be created on next request.
+	 */
+	public void invalidateAll() {
+		log.debug("Dropping {} cached http clients", clients.size());
+		clients.keySet().forEach(key -> {
+			var removed = clients.remove(key);
+			if (removed != null) {
+				removed.client.shutdown();
+			}
+		});
+	}
+
+	public void evictIdleClients() {
+		long evictBefore = System.currentTimeMillis() - idleTimeout.toMillis();
+		clients.forEach((key, pooledClient) -> {
+			if (pooledClient.lastUsed <= evictBefore
+					&& clients.computeIfPresent(key, (k, c) -> c == pooledClient && c.lastUsed <= evictBefore ? null : c) == null) {
+				pooledClient.client.shutdown();
+			}
+		});
+	}
+
+	public int size() {
+		return clients.size();
+	}
+
+	@RequiredArgsConstructor
+	private static class PooledClient {
+		private final HttpClient client;
+		private volatile long lastUsed = System.currentTimeMillis();
+	}
+}
@@ -56,7 +56,8 @@ public class HttpOptionsPluginProvider implements OptionPageProvider<HttpOptions
 
 	@Override
 	public void setOptions(HttpOptions options) {
-		currentOptions = options;		
+		currentOptions = options;
+		HttpClientRegistry.instance().invalidateAll();
 	}
 
 	@Override
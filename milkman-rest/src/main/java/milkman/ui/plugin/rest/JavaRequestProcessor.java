@@ -13,6 +13,7 @@ import milkman.domain.ResponseContainer.StyledText;
 import milkman.ui.main.dialogs.CredentialsInputDialog;
 import milkman.ui.main.options.CoreApplicationOptionsProvider;
 import milkman.ui.plugin.Templater;
+import milkman.ui.plugin.rest.RequestTimer.Mark;
 import milkman.ui.plugin.rest.tls.CertificateReader;
 import milkman.ui.plugin.rest.tls.CustomCertificateKeyManager;
 import milkman.ui.plugin.rest.tls.TrustAllTrustManager;
@@ -84,14 +85,20 @@ public class JavaRequestProcessor implements RequestProcessor {
 			return new JettyHttp3Client();
 		}
 
+		var properties = HttpClientProperties.fromOptions(HttpOptionsPluginProvider.options(), request.getClientCertificate());
+		return HttpClientRegistry.instance().getClient(properties, this::createClient);
+	}
+
+	@SneakyThrows
+	private HttpClient createClient(HttpClientProperties properties) {
 		Builder builder = HttpClient.newBuilder();
-		if (!HttpOptionsPluginProvider.options().isHttp2Support()){
+		if (!properties.isHttp2Support()){
 			builder.version(Version.HTTP_1_1);
 		}
 
-		if (HttpOptionsPluginProvider.options().isUseProxy()) {
-			URL url = new URL(HttpOptionsPluginProvider.options().getProxyUrl());
-			builder.proxy(new ProxyExclusionRoutePlanner(url, HttpOptionsPluginProvider.options().getProxyExclusion()).java());
+		if (properties.isUseProxy()) {
+			URL url = new URL(properties.getProxyUrl());
+			builder.proxy(new ProxyExclusionRoutePlanner(url, properties.getProxyExclusion()).java());
 			
 			//we dont use Authenticator because it might result in an exception if there is a 401 response
 			// see https://github.com/AdoptOpenJDK/openjdk-jdk11/blob/master/src/java.net.http/share/classes/jdk/internal/net/http/AuthenticationFilter.java#L263
@@ -106,22 +113,17 @@ public class JavaRequestProcessor implements RequestProcessor {
 //			}
 		}
 
-		if (StringUtils.isNotEmpty(request.getClientCertificate())) {
+		if (properties.getClientCertificate() != null) {
 			CertificateReader certReader = new CertificateReader();
-			milkman.ui.plugin.rest.tls.Certificate cert = HttpOptionsPluginProvider.options().getCertificates().stream()
-					.filter(c -> c.getName().equals(request.getClientCertificate()))
-					.findAny()
-					.orElseThrow(() -> new IllegalStateException("Certificate not found: " + request.getClientCertificate()));
-
-			var x509Certificate = certReader.readCertificate(cert);
-			var privateKey = certReader.readPrivateKey(cert);
-			configureSsl(builder, !HttpOptionsPluginProvider.options().isCertificateValidation(), x509Certificate, privateKey);
+			var x509Certificate = certReader.readCertificate(properties.getClientCertificate());
+			var privateKey = certReader.readPrivateKey(properties.getClientCertificate());
+			configureSsl(builder, !properties.isCertificateValidation(), x509Certificate, privateKey);
 		} else {
-			configureSsl(builder, !HttpOptionsPluginProvider.options().isCertificateValidation(), null, null);
+			configureSsl(builder, !properties.isCertificateValidation(), null, null);
 		}
 
 
-		if (HttpOptionsPluginProvider.options().isFollowRedirects()) {
+		if (properties.isFollowRedirects()) {
 			builder.followRedirects(Redirect.ALWAYS);
 		}
 
@@ -170,13 +172,12 @@ public class JavaRequestProcessor implements RequestProcessor {
 	@Override
 	@SneakyThrows
 	public RestResponseContainer executeRequest(RestRequestContainer request, Templater templater, AsyncControl asyncControl) {
+		var timer = new RequestTimer();
 		HttpRequest httpRequest = toHttpRequest(request, templater);
 		
 		asyncControl.triggerReqeuestStarted();
-		AtomicLong startTime = new AtomicLong(System.currentTimeMillis());
-		
 		
-		var chReq = new ChunkedRequest(buildClient(request), httpRequest);
+		var chReq = new ChunkedRequest(buildClient(request), httpRequest, asyncControl.createResponseBodyStore(), timer);
 		chReq.executeRequest(asyncControl.onCancellationRequested);
 		
 		//we block until we get the headers:
@@ -192,10 +193,10 @@ public class JavaRequestProcessor implements RequestProcessor {
 				if (!dialog.isCancelled()) {
 					proxyCredentials = new PasswordAuthentication(dialog.getUsername(), dialog.getPassword().toCharArray());
 					try {
+						var proxyTimer = new RequestTimer();
 						var newRequest = toHttpRequest(request, templater);
-						startTime.set(System.currentTimeMillis());
 						//TODO i actually need a new flux here, no?
-						var proxyReq = new ChunkedRequest(buildClient(request), newRequest);
+						var proxyReq = new ChunkedRequest(buildClient(request), newRequest, asyncControl.createResponseBodyStore(), proxyTimer);
 						proxyReq.executeRequest(asyncControl.onCancellationRequested);
 						responseHolder.set(proxyReq);
 					} catch (Exception e) {
@@ -223,11 +224,14 @@ public class JavaRequestProcessor implements RequestProcessor {
 			return null;
 		});
 
-		return toResponseContainer(httpRequest,
+		var response = toResponseContainer(httpRequest,
 																chReq.getEmitterProcessor(),
 																chReq.getResponseInfo(),
 																chReq.getSslSessionInfo(),
-																startTime);
+																chReq.getTimer());
+		response.getAspect(RestResponseBodyAspect.class)
+				.ifPresent(body -> asyncControl.onResponseDisposed(body::dispose));
+		return response;
 	}
 
 	private String getRealmInfo(ResponseInfo responseInfo) {
@@ -283,17 +287,18 @@ public class JavaRequestProcessor implements RequestProcessor {
 			Flux<byte[]> bodyPublisher,
 			CompletableFuture<ResponseInfo> httpResponse,
 			CompletableFuture<Optional<SSLSession>> sslSessionInfo,
-			AtomicLong startTime) {
+			RequestTimer timer) {
 		RestResponseContainer response = new RestResponseContainer(request.uri().toString());
 
 		bodyPublisher = tapContentLength(bodyPublisher, response);
 		bodyPublisher = bodyPublisher.doOnComplete(() -> {
-			response.getStatusInformations().add("Time", (System.currentTimeMillis() - startTime.get()) + "ms");
+			response.getStatusInformations().add("Time", RequestTimer.formatMillis(timer.sinceStart(Mark.DONE)));
 //			response.getStatusInformations().complete();
 		});
 
 
 		response.getAspects().add(new RestResponseBodyAspect(bodyPublisher));
+		response.getAspects().add(response.getTiming());
 
 		addDebugOutput(request, response);
 
@@ -316,14 +321,15 @@ public class JavaRequestProcessor implements RequestProcessor {
           ssl.ifPresent(sslSession ->
               response.getStatusInformations().add("SSL", getCertDetails(sslSession)));
 
+			timer.recordDnsLookup(request.uri());
+			timer.applyTo(response.getTiming(), ssl);
+			response.getStatusInformations().add("Timing", RequestTimer.toStatusInfo(response.getTiming()));
+
 			//HACK: ssl information is propagated last by chunckedRequest, so we can complete the status information here
 			response.getStatusInformations().complete();
         });
 
-		httpResponse.thenAccept(res -> {
-			var responseTimeInMs = System.currentTimeMillis() - startTime.get();
-			buildStatusView(res, response, responseTimeInMs);
-		});
+		httpResponse.thenAccept(res -> buildStatusView(res, response, timer.sinceStart(Mark.HEADERS_RECEIVED)));
 
 		return response;
 	}
@@ -371,7 +377,7 @@ public class JavaRequestProcessor implements RequestProcessor {
 		}
 	}
 
-	private void buildStatusView(ResponseInfo httpResponse, RestResponseContainer response, long responseTimeInMs) {
+	private void buildStatusView(ResponseInfo httpResponse, RestResponseContainer response, long responseTimeInNanos) {
 		String versionStr = "undefined";
 		if (httpResponse.version() == Version.HTTP_1_1) {
 			versionStr = "1.1";
@@ -383,7 +389,7 @@ public class JavaRequestProcessor implements RequestProcessor {
 		response.getStatusInformations()
 				.add("Status", new StyledText(""+httpResponse.statusCode(), getStyle(httpResponse.statusCode())))
 				.add("Details", Map.of(
-						"TTFB", responseTimeInMs + "ms",
+						"TTFB", RequestTimer.formatMillis(responseTimeInNanos),
 						"Http", versionStr
 				));
 	}
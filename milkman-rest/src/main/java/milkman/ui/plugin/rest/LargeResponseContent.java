@@ -0,0 +1,99 @@
+package milkman.ui.plugin.rest;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import milkman.utils.Event0;
+import milkman.utils.MappedTextFile;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * a response body replayed into a {@link MappedTextFile}. The body is written only once per response,
+ * all views of the response share the file and get notified about appended content.
+ */
+@Slf4j
+public class LargeResponseContent {
+
+	@Getter
+	private final MappedTextFile file;
+	public final Event0 onContentChanged = new Event0();
+
+	private Disposable subscription;
+	private boolean disposed = false;
+
+	private LargeResponseContent(MappedTextFile file) {
+		this.file = file;
+	}
+
+	public static LargeResponseContent replay(Flux<byte[]> body, Consumer<Throwable> errorHandler) throws IOException {
+		var content = new LargeResponseContent(MappedTextFile.create());
+		var subscription = body
+				.subscribeOn(Schedulers.elastic())
+				.subscribe(content::append,
+						throwable -> {
+							log.error("Received Error", throwable);
+							errorHandler.accept(throwable);
+						},
+						content::complete);
+		content.setSubscription(subscription);
+		return content;
+	}
+
+	/**
+	 * stops replaying the body and removes the file
+	 */
+	public void dispose() {
+		Disposable toBeCancelled;
+		synchronized (this) {
+			if (disposed) {
+				return;
+			}
+			disposed = true;
+			toBeCancelled = subscription;
+			file.dispose();
+		}
+		if (toBeCancelled != null) {
+			toBeCancelled.dispose();
+		}
+		onContentChanged.clear();
+	}
+
+	private void setSubscription(Disposable subscription) {
+		boolean alreadyDisposed;
+		synchronized (this) {
+			this.subscription = subscription;
+			alreadyDisposed = disposed;
+		}
+		if (alreadyDisposed) {
+			subscription.dispose();
+		}
+	}
+
+	private void append(byte[] chunk) {
+		synchronized (this) {
+			if (disposed) {
+				return;
+			}
+			try {
+				file.append(chunk);
+			} catch (IOException e) {
+				throw new IllegalStateException("Failed to write response body", e);
+			}
+		}
+		onContentChanged.invoke();
+	}
+
+	private void complete() {
+		synchronized (this) {
+			if (disposed) {
+				return;
+			}
+			file.complete();
+		}
+		onContentChanged.invoke();
+	}
+}
@@ -0,0 +1,205 @@
+package milkman.ui.plugin.rest;
+
+import milkman.ui.plugin.rest.domain.RestResponseTimingAspect;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * records the points in time (nanoTime) of a http request execution.
+ *
+ * The java http client does not expose connection events, so these are approximated:
+ * the request body is only subscribed after the connection is established, and the tls handshake is
+ * estimated from the creation time of the ssl session. The dns lookup is taken from the resolver
+ * (see {@link TimedInetAddressResolverProvider}), if the host was looked up while connecting.
+ */
+public class RequestTimer {
+
+	public enum Mark {
+		START,
+		DNS_START,
+		DNS_END,
+		SEND,
+		CONNECTED,
+		REQUEST_WRITTEN,
+		HEADERS_RECEIVED,
+		DONE
+	}
+
+	private final AtomicLongArray marks = new AtomicLongArray(Mark.values().length);
+	private final long startTimeMillis = System.currentTimeMillis();
+
+	public RequestTimer() {
+		mark(Mark.START);
+	}
+
+	/**
+	 * sets the given mark to the current time, if it was not set before
+	 */
+	public void mark(Mark mark) {
+		mark(mark, System.nanoTime());
+	}
+
+	private void mark(Mark mark, long nanos) {
+		marks.compareAndSet(mark.ordinal(), 0, nanos);
+	}
+
+	public boolean isSet(Mark mark) {
+		return marks.get(mark.ordinal()) != 0;
+	}
+
+	/**
+	 * returns the nanoseconds between the two marks or -1, if one of them is not set
+	 */
+	public long between(Mark from, Mark to) {
+		if (!isSet(from) || !isSet(to)) {
+			return -1;
+		}
+		return marks.get(to.ordinal()) - marks.get(from.ordinal());
+	}
+
+	public long sinceStart(Mark to) {
+		return between(Mark.START, to);
+	}
+
+	/**
+	 * marks the dns lookup of the host, if it was looked up after sending and before the connection was established.
+	 * With a proxy, the host is resolved by the proxy, so there is no lookup.
+	 */
+	public void recordDnsLookup(URI uri) {
+		if (uri.getHost() == null || !isSet(Mark.SEND)) {
+			return;
+		}
+		var connected = isSet(Mark.CONNECTED) ? Mark.CONNECTED : Mark.HEADERS_RECEIVED;
+		TimedInetAddressResolverProvider.lastLookup(uri.getHost(), marks.get(Mark.SEND.ordinal()))
+				.filter(lookup -> !isSet(connected) || marks.get(connected.ordinal()) - lookup.endNanos() >= 0)
+				.ifPresent(lookup -> {
+					mark(Mark.DNS_START, lookup.startNanos());
+					mark(Mark.DNS_END, lookup.endNanos());
+				});
+	}
+
+	/**
+	 * returns a copy of the request that records when the body gets subscribed and fully written
+	 */
+	public HttpRequest tap(HttpRequest request) {
+		var bodyPublisher = request.bodyPublisher().orElseGet(BodyPublishers::noBody);
+		return HttpRequest.newBuilder(request, (name, value) -> true)
+				.method(request.method(), new TimedBodyPublisher(bodyPublisher))
+				.build();
+	}
+
+	/**
+	 * computes the duration of all phases, should be called after the request is done
+	 */
+	public void applyTo(RestResponseTimingAspect timing, Optional<SSLSession> sslSession) {
+		var requestSent = isSet(Mark.REQUEST_WRITTEN) ? Mark.REQUEST_WRITTEN : Mark.SEND;
+		long dnsNanos = between(Mark.DNS_START, Mark.DNS_END);
+		long connectNanos = between(Mark.SEND, Mark.CONNECTED);
+		timing.setQueueingNanos(between(Mark.START, Mark.SEND));
+		timing.setDnsNanos(dnsNanos);
+		//the lookup happens while connecting
+		timing.setConnectNanos(connectNanos < 0 ? -1 : Math.max(0, connectNanos - Math.max(0, dnsNanos)));
+		timing.setRequestWriteNanos(between(Mark.CONNECTED, Mark.REQUEST_WRITTEN));
+		timing.setTimeToFirstByteNanos(between(requestSent, Mark.HEADERS_RECEIVED));
+		timing.setDownloadNanos(between(Mark.HEADERS_RECEIVED, Mark.DONE));
+		timing.setTotalNanos(sinceStart(Mark.DONE));
+
+		sslSession.ifPresent(session -> estimateTlsHandshake(session, timing));
+	}
+
+	/**
+	 * a new session is created at the beginning of the handshake, so everything after that (until the connection
+	 * is established) is attributed to the handshake. Reused connections keep their session, so there is no handshake
+	 */
+	private void estimateTlsHandshake(SSLSession session, RestResponseTimingAspect timing) {
+		long connectNanos = timing.getConnectNanos();
+		if (connectNanos < 0) {
+			return;
+		}
+		long sendTimeMillis = startTimeMillis + TimeUnit.NANOSECONDS.toMillis(sinceStart(Mark.SEND));
+		long sessionCreatedAfterSendNanos = TimeUnit.MILLISECONDS.toNanos(session.getCreationTime() - sendTimeMillis);
+		if (sessionCreatedAfterSendNanos < 0) {
+			timing.setTlsHandshakeNanos(0);
+			return;
+		}
+		//connect time does not include the dns lookup
+		long sessionCreatedAfterConnectStartNanos = Math.max(0, sessionCreatedAfterSendNanos - Math.max(0, timing.getDnsNanos()));
+		long tlsHandshakeNanos = connectNanos - Math.min(sessionCreatedAfterConnectStartNanos, connectNanos);
+		timing.setTlsHandshakeNanos(tlsHandshakeNanos);
+		timing.setConnectNanos(connectNanos - tlsHandshakeNanos);
+	}
+
+	public static Map<String, String> toStatusInfo(RestResponseTimingAspect timing) {
+		var result = new LinkedHashMap<String, String>();
+		addPhase(result, "Queueing", timing.getQueueingNanos());
+		addPhase(result, "DNS", timing.getDnsNanos());
+		addPhase(result, "Connect", timing.getConnectNanos());
+		addPhase(result, "TLS handshake", timing.getTlsHandshakeNanos());
+		addPhase(result, "Request write", timing.getRequestWriteNanos());
+		addPhase(result, "Waiting (TTFB)", timing.getTimeToFirstByteNanos());
+		addPhase(result, "Download", timing.getDownloadNanos());
+		addPhase(result, "Total", timing.getTotalNanos());
+		return result;
+	}
+
+	private static void addPhase(Map<String, String> result, String name, long nanos) {
+		if (nanos >= 0) {
+			result.put(name, formatMillis(nanos));
+		}
+	}
+
+	public static String formatMillis(long nanos) {
+		return String.format("%.3fms", nanos / 1_000_000.0);
+	}
+
+	private class TimedBodyPublisher implements BodyPublisher {
+		private final BodyPublisher delegate;
+
+		TimedBodyPublisher(BodyPublisher delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public long contentLength() {
+			return delegate.contentLength();
+		}
+
+		@Override
+		public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+			mark(Mark.CONNECTED);
+			delegate.subscribe(new Flow.Subscriber<ByteBuffer>() {
+				@Override
+				public void onSubscribe(Flow.Subscription subscription) {
+					subscriber.onSubscribe(subscription);
+				}
+
+				@Override
+				public void onNext(ByteBuffer item) {
+					subscriber.onNext(item);
+				}
+
+				@Override
+				public void onError(Throwable throwable) {
+					subscriber.onError(throwable);
+				}
+
+				@Override
+				public void onComplete() {
+					mark(Mark.REQUEST_WRITTEN);
+					subscriber.onComplete();
+				}
+			});
+		}
+	}
+}
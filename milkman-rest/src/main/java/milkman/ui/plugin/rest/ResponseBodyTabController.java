@@ -8,19 +8,25 @@ import lombok.val;
 import milkman.domain.RequestContainer;
 import milkman.domain.ResponseContainer;
 import milkman.ui.components.CodeFoldingContentEditor;
+import milkman.ui.components.LargeContentViewer;
 import milkman.ui.main.Toaster;
 import milkman.ui.main.options.CoreApplicationOptionsProvider;
 import milkman.ui.plugin.ContentTypeAwareEditor;
 import milkman.ui.plugin.ContentTypePlugin;
 import milkman.ui.plugin.ResponseAspectEditor;
+import milkman.ui.plugin.StreamingContentFormatter;
 import milkman.ui.plugin.ToasterAware;
 import milkman.ui.plugin.rest.domain.RestResponseBodyAspect;
 import milkman.ui.plugin.rest.domain.RestResponseHeaderAspect;
+import reactor.core.Disposable;
 import reactor.core.scheduler.Schedulers;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 public class ResponseBodyTabController implements ResponseAspectEditor, ContentTypeAwareEditor, ToasterAware {
@@ -43,33 +49,123 @@ public class ResponseBodyTabController implements ResponseAspectEditor, ContentT
 		
 
 		
+		Tab tab = new Tab("Response Body", root);
+
+		//content above the threshold is shown in the large content viewer instead
+		long largeContentThreshold = CoreApplicationOptionsProvider.options().getLargeContentThresholdMb() * 1024L * 1024L;
+		AtomicLong receivedBytes = new AtomicLong();
+		//json etc. is formatted while it is received
+		StreamingContentFormatter formatter = root.createStreamingFormatter().orElse(null);
+		AtomicBoolean formattingFailed = new AtomicBoolean(false);
 		AtomicInteger idx = new AtomicInteger(0);
-		body.getBody()
+		Disposable subscription = body.getBody()
+				.takeWhile(value -> receivedBytes.addAndGet(value.length) <= largeContentThreshold)
 				.subscribeOn(Schedulers.elastic())
 				.subscribe(
 				value -> {
 					val cidx = idx.getAndIncrement();
 //					System.out.println("receiving content: " + cidx );
+					String text = formatChunk(formatter, value, formattingFailed);
 					Platform.runLater(() -> {
 //						System.out.println("adding content" + cidx + " " + value);
-						root.addContent(new String(value, StandardCharsets.UTF_8));
+						root.addContent(text);
 					});
 				},
 				throwable -> {
 					log.error("Received Error", throwable);
 					toaster.showToast(throwable.toString());
 				},
-				() -> Platform.runLater(() -> {
-					if (CoreApplicationOptionsProvider.options().isAutoformatContent())
-						root.formatCurrentCode();
-				}),
+				() -> {
+					String text = receivedBytes.get() > largeContentThreshold ? "" : finishFormatting(formatter, formattingFailed);
+					Platform.runLater(() -> {
+						if (receivedBytes.get() > largeContentThreshold) {
+							showInLargeContentViewer(tab, body);
+						} else if (formattingFailed.get()) {
+							showUnformatted(root, body);
+						} else if (formatter != null) {
+							root.addContent(text);
+							root.completeContent();
+						} else if (CoreApplicationOptionsProvider.options().isAutoformatContent()) {
+							root.formatCurrentCode();
+						} else {
+							root.completeContent();
+						}
+					});
+				},
 				s -> {
 //					System.out.println("Subscribed");
 					s.request(Long.MAX_VALUE);
 				}
 			);
+		onTabRemoved(tab, subscription::dispose);
 		
-		return new Tab("Response Body", root);
+		return tab;
+	}
+
+	private String formatChunk(StreamingContentFormatter formatter, byte[] chunk, AtomicBoolean formattingFailed) {
+		if (formatter == null) {
+			return new String(chunk, StandardCharsets.UTF_8);
+		}
+		if (formattingFailed.get()) {
+			return "";
+		}
+		try {
+			return formatter.format(chunk);
+		} catch (IOException e) {
+			log.debug("Failed to format content", e);
+			formattingFailed.set(true);
+			return "";
+		}
+	}
+
+	private String finishFormatting(StreamingContentFormatter formatter, AtomicBoolean formattingFailed) {
+		if (formatter == null || formattingFailed.get()) {
+			return "";
+		}
+		try {
+			return formatter.finish();
+		} catch (IOException e) {
+			log.debug("Failed to format content", e);
+			formattingFailed.set(true);
+			return "";
+		}
+	}
+
+	/**
+	 * replaces partially formatted content by the unformatted body, if it turned out to be invalid
+	 */
+	private void showUnformatted(CodeFoldingContentEditor root, RestResponseBodyAspect body) {
+		body.getBody()
+				.subscribeOn(Schedulers.elastic())
+				.reduce(new StringBuilder(), (builder, value) -> builder.append(new String(value, StandardCharsets.UTF_8)))
+				.subscribe(content -> Platform.runLater(() -> root.setContent(content::toString, s -> {})),
+						throwable -> log.error("Received Error", throwable));
+	}
+
+	/**
+	 * shows the body in a {@link LargeContentViewer}. The memory-mapped file is shared by all tabs of the response
+	 * and removed, once the response is disposed.
+	 */
+	@SneakyThrows
+	private void showInLargeContentViewer(Tab tab, RestResponseBodyAspect body) {
+		LargeResponseContent content = body.largeContent(throwable -> toaster.showToast(throwable.toString()));
+		LargeContentViewer viewer = new LargeContentViewer(content.getFile());
+		tab.setContent(viewer);
+		Runnable listener = viewer::contentChanged;
+		content.onContentChanged.add(listener);
+		onTabRemoved(tab, () -> content.onContentChanged.remove(listener));
+		viewer.contentChanged();
+	}
+
+	/**
+	 * the tab is removed, if the response is displayed again or another response is shown
+	 */
+	private void onTabRemoved(Tab tab, Runnable listener) {
+		tab.tabPaneProperty().addListener((obs, oldPane, newPane) -> {
+			if (oldPane != null && newPane == null) {
+				listener.run();
+			}
+		});
 	}
 
 	@Override
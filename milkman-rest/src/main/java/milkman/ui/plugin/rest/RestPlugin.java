@@ -4,6 +4,7 @@ import milkman.domain.RequestContainer;
 import milkman.domain.RequestExecutionContext;
 import milkman.domain.ResponseContainer;
 import milkman.ui.plugin.*;
+import milkman.ui.plugin.rest.domain.HeaderEntry;
 import milkman.ui.plugin.rest.domain.RestBodyAspect;
 import milkman.ui.plugin.rest.domain.RestHeaderAspect;
 import milkman.ui.plugin.rest.domain.RestQueryParamAspect;
@@ -12,6 +13,8 @@ import milkman.utils.AsyncResponseControl.AsyncControl;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 public class RestPlugin implements RequestAspectsPlugin, RequestTypePlugin {
 
@@ -75,6 +78,16 @@ public class RestPlugin implements RequestAspectsPlugin, RequestTypePlugin {
 		// we dont need to do anything here as we created the request (where we added everything already)
 	}
 
+	@Override
+	public Optional<RequestContainer> createTrainingRequest(String localServerUrl) {
+		var request = new RestRequestContainer("Training Request", localServerUrl + "/json?page=1", "POST");
+		initializeRequestAspects(request);
+		request.getAspect(RestHeaderAspect.class).ifPresent(h -> h.getEntries()
+				.add(new HeaderEntry(UUID.randomUUID().toString(), "Content-Type", "application/json", true)));
+		request.getAspect(RestBodyAspect.class).ifPresent(b -> b.setBody("{\"training\": true}"));
+		return Optional.of(request);
+	}
+
 	@Override
 	public String getRequestType() {
 		return "HTTP";
@@ -0,0 +1,64 @@
+package milkman.ui.plugin.rest;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.net.spi.InetAddressResolver;
+import java.net.spi.InetAddressResolverProvider;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * resolves host names with the built-in resolver and records the time of the last lookup per host, so the dns lookup
+ * of the connection that the http client actually opened can be measured (see {@link RequestTimer}).
+ *
+ * The jvm only picks up resolvers from the class path at startup. Lookups served from the address cache of the jvm
+ * do not reach the resolver, so there is no dns phase for them.
+ */
+public class TimedInetAddressResolverProvider extends InetAddressResolverProvider {
+
+	private static final Map<String, DnsLookup> lastLookups = new ConcurrentHashMap<>();
+
+	record DnsLookup(long startNanos, long endNanos) {
+	}
+
+	/**
+	 * returns the last lookup of the given host, if it started not before the given time (nanoTime)
+	 */
+	static Optional<DnsLookup> lastLookup(String host, long notBeforeNanos) {
+		return Optional.ofNullable(lastLookups.get(host.toLowerCase(Locale.ROOT)))
+				.filter(lookup -> lookup.startNanos() - notBeforeNanos >= 0);
+	}
+
+	static void recordLookup(String host, long startNanos, long endNanos) {
+		lastLookups.put(host.toLowerCase(Locale.ROOT), new DnsLookup(startNanos, endNanos));
+	}
+
+	@Override
+	public InetAddressResolver get(Configuration configuration) {
+		var builtinResolver = configuration.builtinResolver();
+		return new InetAddressResolver() {
+			@Override
+			public Stream<InetAddress> lookupByName(String host, LookupPolicy lookupPolicy) throws UnknownHostException {
+				long startTime = System.nanoTime();
+				try {
+					return builtinResolver.lookupByName(host, lookupPolicy);
+				} finally {
+					recordLookup(host, startTime, System.nanoTime());
+				}
+			}
+
+			@Override
+			public String lookupByAddress(byte[] addr) throws UnknownHostException {
+				return builtinResolver.lookupByAddress(addr);
+			}
+		};
+	}
+
+	@Override
+	public String name() {
+		return "milkman-timed-resolver";
+	}
+}
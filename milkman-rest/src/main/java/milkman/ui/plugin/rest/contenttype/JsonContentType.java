@@ -1,24 +1,10 @@
 package milkman.ui.plugin.rest.contenttype;
 
-import com.fasterxml.jackson.core.JsonFactory;
-import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
-import java.io.StringBufferInputStream;
-import java.io.StringReader;
-import java.io.StringWriter;
-import java.util.Iterator;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import milkman.ui.components.CodeFoldingContentEditor;
 import milkman.ui.plugin.ContentTypePlugin;
+import milkman.ui.plugin.StreamingContentFormatter;
 import milkman.utils.Stopwatch;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -27,6 +13,7 @@ import org.fxmisc.richtext.model.StyleSpansBuilder;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -63,35 +50,27 @@ public class JsonContentType implements ContentTypePlugin {
 
 	@Override
 	public String formatContent(String text) {
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.enable(SerializationFeature.INDENT_OUTPUT);
-
-		StringWriter writer = new StringWriter();
 		try {
-			JsonFactory jsonFactory = new JsonFactory();
-			try(BufferedReader br = new BufferedReader(new StringReader(text))) {
-				Iterator<JsonNode> value = mapper.readValues( jsonFactory.createParser(br), JsonNode.class);
-				value.forEachRemaining(u-> {
-					try {
-						boolean first = writer.getBuffer().length() == 0;
-						if (!first) {
-							writer.write("\n\n");
-						}
-						mapper.writeValue(writer, u);
-					} catch (IOException e) {
-						throw new RuntimeException(e);
-					}
-				});
-			}
-			return writer.toString();
+			return JsonStreamFormatter.format(text);
 		} catch (Throwable t) {
 			log.warn("failed to format json", t);
 		}
 		return text;
 	}
 
+	@Override
+	@SneakyThrows
+	public Optional<StreamingContentFormatter> createStreamingFormatter() {
+		return Optional.of(new JsonStreamFormatter());
+	}
+
 	@Override
 	public StyleSpans<Collection<String>> computeHighlighting(String text) {
+		return computeHighlighting((CharSequence) text);
+	}
+
+	@Override
+	public StyleSpans<Collection<String>> computeHighlighting(CharSequence text) {
 		Matcher matcher = FINAL_REGEX.matcher(text);
         int lastKwEnd = 0;
         StyleSpansBuilder<Collection<String>> spansBuilder
@@ -123,24 +102,26 @@ public class JsonContentType implements ContentTypePlugin {
 		return parseText(text);
 	}
 
-	protected CodeFoldingContentEditor.CollapsableRange parseText(String text) {
-		CodeFoldingContentEditor.CodeFoldingBuilder folding = new CodeFoldingContentEditor.CodeFoldingBuilder(text);
-
-		char[] chars = text.toCharArray();
-		int indentation = 0;
+	@Override
+	public boolean supportIncrementalFolding() {
+		return true;
+	}
 
-		for(int idx = 0; idx < chars.length; ++idx){
-			char c = chars[idx];
-			if(c == '{'){
-				folding.startRange(idx, indent("{\n  ...\n}", indentation));
-				indentation += 2;
+	@Override
+	public void computeFolding(CodeFoldingContentEditor.CodeFoldingBuilder folding, String chunk, int offset) {
+		for (int idx = 0; idx < chunk.length(); ++idx) {
+			char c = chunk.charAt(idx);
+			if (c == '{') {
+				folding.startRange(offset + idx, indent("{\n  ...\n}", folding.getDepth() * 2));
 			} else if (c == '}') {
-				indentation -= 2;
-				idx += 1;
-				folding.endRange(idx);
+				folding.endRange(offset + idx + 1);
 			}
 		}
+	}
 
+	protected CodeFoldingContentEditor.CollapsableRange parseText(String text) {
+		CodeFoldingContentEditor.CodeFoldingBuilder folding = new CodeFoldingContentEditor.CodeFoldingBuilder(text);
+		computeFolding(folding, text, 0);
 		return folding.build();
 	}
 
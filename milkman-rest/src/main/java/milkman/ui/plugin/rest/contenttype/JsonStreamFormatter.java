@@ -0,0 +1,84 @@
+package milkman.ui.plugin.rest.contenttype;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.core.util.Separators;
+import milkman.ui.plugin.StreamingContentFormatter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+/**
+ * pretty-prints json by piping the tokens of a parser straight into an indenting generator, without building a tree.
+ * Concatenated documents are separated by an empty line. Content can be formatted as a whole or chunk by chunk
+ * (using a non-blocking parser).
+ */
+public class JsonStreamFormatter implements StreamingContentFormatter {
+
+	private static final JsonFactory jsonFactory = new JsonFactory();
+	private static final String DOCUMENT_SEPARATOR = "\n\n";
+
+	private final StringWriter output = new StringWriter();
+	private final JsonParser parser;
+	private final ByteArrayFeeder feeder;
+	private final JsonGenerator generator;
+
+	public JsonStreamFormatter() throws IOException {
+		parser = jsonFactory.createNonBlockingByteArrayParser();
+		feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+		generator = createGenerator(output);
+	}
+
+	public static String format(String text) throws IOException {
+		var writer = new StringWriter(text.length() + text.length() / 2);
+		try (var parser = jsonFactory.createParser(new StringReader(text));
+			 var generator = createGenerator(writer)) {
+			copyTokens(parser, generator);
+		}
+		return writer.toString();
+	}
+
+	@Override
+	public String format(byte[] chunk) throws IOException {
+		feeder.feedInput(chunk, 0, chunk.length);
+		return formatAvailableTokens();
+	}
+
+	@Override
+	public String finish() throws IOException {
+		feeder.endOfInput();
+		String result = formatAvailableTokens();
+		parser.close();
+		generator.close();
+		return result;
+	}
+
+	private String formatAvailableTokens() throws IOException {
+		copyTokens(parser, generator);
+		generator.flush();
+		String result = output.toString();
+		output.getBuffer().setLength(0);
+		return result;
+	}
+
+	/**
+	 * copies tokens until the end of input or until the (non-blocking) parser needs more input
+	 */
+	private static void copyTokens(JsonParser parser, JsonGenerator generator) throws IOException {
+		JsonToken token;
+		while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+			generator.copyCurrentEvent(parser);
+		}
+	}
+
+	private static JsonGenerator createGenerator(StringWriter writer) throws IOException {
+		return jsonFactory.createGenerator(writer)
+				.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)
+				.setPrettyPrinter(new DefaultPrettyPrinter(Separators.createDefaultInstance().withRootSeparator(DOCUMENT_SEPARATOR)));
+	}
+}
@@ -64,6 +64,11 @@ public class XmlContentType implements ContentTypePlugin {
 
 	@Override
 	public StyleSpans<Collection<String>> computeHighlighting(String text) {
+		return computeHighlighting((CharSequence) text);
+	}
+
+	@Override
+	public StyleSpans<Collection<String>> computeHighlighting(CharSequence text) {
 		Matcher matcher = XML_TAG.matcher(text);
 		int lastKwEnd = 0;
 		StyleSpansBuilder<Collection<String>> spansBuilder = new StyleSpansBuilder<>();
@@ -2,6 +2,7 @@ package milkman.ui.plugin.rest.domain;
 
 import lombok.Data;
 import milkman.domain.RequestAspect;
+import milkman.domain.SearchTermCollector;
 
 @Data
 public class RestBodyAspect extends RequestAspect {
@@ -11,4 +12,9 @@ public class RestBodyAspect extends RequestAspect {
 	public RestBodyAspect() {
 		super("body");
 	}
+
+	@Override
+	public void collectSearchTerms(SearchTermCollector collector) {
+		collector.add(SearchTermCollector.BODY, body);
+	}
 }
@@ -2,6 +2,7 @@ package milkman.ui.plugin.rest.domain;
 
 import lombok.Data;
 import milkman.domain.RequestAspect;
+import milkman.domain.SearchTermCollector;
 
 import java.util.LinkedList;
 import java.util.List;
@@ -14,5 +15,11 @@ public class RestHeaderAspect  extends RequestAspect {
 	public RestHeaderAspect() {
 		super("headers");
 	}
-	
+
+	@Override
+	public void collectSearchTerms(SearchTermCollector collector) {
+		for (HeaderEntry entry : entries) {
+			collector.add(SearchTermCollector.HEADER, entry.getName() + ": " + entry.getValue());
+		}
+	}
 }
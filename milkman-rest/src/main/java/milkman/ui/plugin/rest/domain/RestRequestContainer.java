@@ -2,6 +2,7 @@ package milkman.ui.plugin.rest.domain;
 
 import lombok.*;
 import milkman.domain.RequestContainer;
+import milkman.domain.SearchTermCollector;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.Locale;
@@ -37,6 +38,13 @@ public class RestRequestContainer extends RequestContainer {
 				|| super.match(searchString);
 	}
 
+	@Override
+	public void collectSearchTerms(SearchTermCollector collector) {
+		collector.add(SearchTermCollector.URL, url);
+		collector.add(SearchTermCollector.METHOD, httpMethod);
+		super.collectSearchTerms(collector);
+	}
+
 
 	@Override
 	public String getType() {
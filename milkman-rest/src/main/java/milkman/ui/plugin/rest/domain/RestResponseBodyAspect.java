@@ -1,21 +1,72 @@
 package milkman.ui.plugin.rest.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import milkman.domain.ResponseAspect;
+import milkman.ui.plugin.rest.LargeResponseContent;
 import milkman.utils.json.BlockingFluxByteToStringConverter;
 import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.util.function.Consumer;
+
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class RestResponseBodyAspect implements ResponseAspect {
 
 	@JsonSerialize(converter = BlockingFluxByteToStringConverter.class)
 	private Flux<byte[]> body;
 
+	@JsonIgnore
+	@Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+	@EqualsAndHashCode.Exclude @ToString.Exclude
+	private LargeResponseContent largeContent;
+
+	@JsonIgnore
+	@Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+	@EqualsAndHashCode.Exclude @ToString.Exclude
+	private boolean disposed = false;
+
+	public RestResponseBodyAspect(Flux<byte[]> body) {
+		this.body = body;
+	}
+
+	/**
+	 * the body replayed into a memory-mapped file for large content. The file is created on first use
+	 * and shared by all views of this response.
+	 */
+	public synchronized LargeResponseContent largeContent(Consumer<Throwable> errorHandler) throws IOException {
+		if (disposed) {
+			throw new IllegalStateException("Response is already disposed");
+		}
+		if (largeContent == null) {
+			largeContent = LargeResponseContent.replay(body, errorHandler);
+		}
+		return largeContent;
+	}
+
+	/**
+	 * releases the file of large content, should be called once the response is disposed
+	 */
+	public void dispose() {
+		LargeResponseContent content;
+		synchronized (this) {
+			disposed = true;
+			content = largeContent;
+			largeContent = null;
+		}
+		if (content != null) {
+			content.dispose();
+		}
+	}
+
 	@Override
 	public String getName() {
 		return "body";
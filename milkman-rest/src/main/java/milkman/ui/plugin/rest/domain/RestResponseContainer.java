@@ -7,5 +7,7 @@ import milkman.domain.ResponseContainer;
 public class RestResponseContainer extends ResponseContainer {
 
 	private final String url;
-	
+
+	private final RestResponseTimingAspect timing = new RestResponseTimingAspect();
+
 }
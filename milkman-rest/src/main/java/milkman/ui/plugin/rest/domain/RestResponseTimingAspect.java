@@ -0,0 +1,30 @@
+package milkman.ui.plugin.rest.domain;
+
+import lombok.Data;
+import milkman.domain.ResponseAspect;
+
+/**
+ * duration of the phases of a http request in nanoseconds. Phases that could not be measured are -1.
+ * Accessible in scripts via {@code mm.response.timing}.
+ */
+@Data
+public class RestResponseTimingAspect implements ResponseAspect {
+
+	/** preparing and dispatching the request */
+	private long queueingNanos = -1;
+	private long dnsNanos = -1;
+	/** establishing the tcp connection (or acquiring a pooled one) */
+	private long connectNanos = -1;
+	/** estimated from the creation time of the tls session, so only millisecond precision */
+	private long tlsHandshakeNanos = -1;
+	private long requestWriteNanos = -1;
+	/** time after the request was written until the response headers were received */
+	private long timeToFirstByteNanos = -1;
+	private long downloadNanos = -1;
+	private long totalNanos = -1;
+
+	@Override
+	public String getName() {
+		return "timing";
+	}
+}
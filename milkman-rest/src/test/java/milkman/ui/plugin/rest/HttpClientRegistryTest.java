@@ -0,0 +1,62 @@
+package milkman.ui.plugin.rest;
+
+import milkman.ui.plugin.rest.HttpOptionsPluginProvider.HttpOptions;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpClientRegistryTest {
+
+	@Test
+	void shouldReuseClientForSameConfiguration() {
+		var registry = new HttpClientRegistry(Duration.ofMinutes(5));
+		var props = HttpClientProperties.fromOptions(new HttpOptions(), null);
+
+		HttpClient first = registry.getClient(props, p -> HttpClient.newHttpClient());
+		HttpClient second = registry.getClient(HttpClientProperties.fromOptions(new HttpOptions(), null), p -> HttpClient.newHttpClient());
+
+		assertThat(second).isSameAs(first);
+		assertThat(registry.size()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldCreateNewClientIfConfigurationChanged() {
+		var registry = new HttpClientRegistry(Duration.ofMinutes(5));
+		var options = new HttpOptions();
+		HttpClient first = registry.getClient(HttpClientProperties.fromOptions(options, null), p -> HttpClient.newHttpClient());
+
+		options.setFollowRedirects(true);
+		HttpClient second = registry.getClient(HttpClientProperties.fromOptions(options, null), p -> HttpClient.newHttpClient());
+
+		assertThat(second).isNotSameAs(first);
+		assertThat(registry.size()).isEqualTo(2);
+	}
+
+	@Test
+	void shouldEvictIdleClients() throws InterruptedException {
+		var registry = new HttpClientRegistry(Duration.ZERO);
+		var props = HttpClientProperties.fromOptions(new HttpOptions(), null);
+		HttpClient first = registry.getClient(props, p -> HttpClient.newHttpClient());
+
+		registry.evictIdleClients();
+		assertThat(registry.size()).isEqualTo(0);
+		assertThat(first.awaitTermination(Duration.ofSeconds(10))).isTrue();
+
+		HttpClient second = registry.getClient(props, p -> HttpClient.newHttpClient());
+		assertThat(second).isNotSameAs(first);
+	}
+
+	@Test
+	void shouldDropClientsOnInvalidation() throws InterruptedException {
+		var registry = new HttpClientRegistry(Duration.ofMinutes(5));
+		HttpClient client = registry.getClient(HttpClientProperties.fromOptions(new HttpOptions(), null), p -> HttpClient.newHttpClient());
+
+		registry.invalidateAll();
+
+		assertThat(registry.size()).isEqualTo(0);
+		assertThat(client.awaitTermination(Duration.ofSeconds(10))).isTrue();
+	}
+}
@@ -0,0 +1,52 @@
+package milkman.ui.plugin.rest;
+
+import milkman.ui.plugin.rest.domain.RestResponseBodyAspect;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LargeResponseContentTest {
+
+	@Test
+	void shouldReplayBodyOnceForAllViews() throws Exception {
+		var body = new RestResponseBodyAspect(Flux.just("line 1\n", "line 2\n", "line 3").map(s -> s.getBytes(StandardCharsets.UTF_8)));
+
+		var content = body.largeContent(e -> {});
+		awaitSize(content, 20);
+
+		assertThat(body.largeContent(e -> {})).isSameAs(content);
+		assertThat(content.getFile().lineCount()).isEqualTo(3);
+		assertThat(content.getFile().getLine(2)).isEqualTo("line 3");
+		body.dispose();
+	}
+
+	@Test
+	void shouldStopReplayingOnDispose() throws Exception {
+		var subscribed = new CountDownLatch(1);
+		var cancelled = new AtomicBoolean(false);
+		var body = new RestResponseBodyAspect(Flux.<byte[]>never()
+				.doOnSubscribe(s -> subscribed.countDown())
+				.doOnCancel(() -> cancelled.set(true)));
+		body.largeContent(e -> {});
+		assertThat(subscribed.await(5, TimeUnit.SECONDS)).isTrue();
+
+		body.dispose();
+
+		assertThat(cancelled).isTrue();
+		assertThatThrownBy(() -> body.largeContent(e -> {})).isInstanceOf(IllegalStateException.class);
+	}
+
+	private static void awaitSize(LargeResponseContent content, long size) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (content.getFile().size() < size && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package milkman.ui.plugin.rest;
+
+import milkman.ui.plugin.rest.RequestTimer.Mark;
+import milkman.ui.plugin.rest.domain.RestResponseTimingAspect;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestTimerTest {
+
+	@Test
+	void shouldComputePhases() {
+		var timer = new RequestTimer();
+		timer.mark(Mark.SEND);
+		timer.mark(Mark.CONNECTED);
+		timer.mark(Mark.REQUEST_WRITTEN);
+		timer.mark(Mark.HEADERS_RECEIVED);
+		timer.mark(Mark.DONE);
+
+		var timing = new RestResponseTimingAspect();
+		timer.applyTo(timing, Optional.empty());
+
+		assertThat(timing.getDnsNanos()).isEqualTo(-1);
+		assertThat(timing.getTlsHandshakeNanos()).isEqualTo(-1);
+		assertThat(timing.getConnectNanos()).isGreaterThanOrEqualTo(0);
+		assertThat(timing.getTotalNanos()).isEqualTo(timing.getQueueingNanos()
+				+ timing.getConnectNanos()
+				+ timing.getRequestWriteNanos()
+				+ timing.getTimeToFirstByteNanos()
+				+ timing.getDownloadNanos());
+	}
+
+	@Test
+	void shouldTakeDnsLookupWhileConnecting() {
+		var timer = new RequestTimer();
+		timer.mark(Mark.SEND);
+		TimedInetAddressResolverProvider.recordLookup("Lookup.Example.com", System.nanoTime(), System.nanoTime());
+		timer.mark(Mark.CONNECTED);
+		timer.mark(Mark.REQUEST_WRITTEN);
+		timer.mark(Mark.HEADERS_RECEIVED);
+		timer.mark(Mark.DONE);
+
+		timer.recordDnsLookup(URI.create("https://lookup.example.com/api"));
+		var timing = new RestResponseTimingAspect();
+		timer.applyTo(timing, Optional.empty());
+
+		assertThat(timing.getDnsNanos()).isGreaterThanOrEqualTo(0);
+		assertThat(timing.getTotalNanos()).isGreaterThanOrEqualTo(timing.getQueueingNanos()
+				+ timing.getDnsNanos()
+				+ timing.getConnectNanos()
+				+ timing.getRequestWriteNanos()
+				+ timing.getTimeToFirstByteNanos()
+				+ timing.getDownloadNanos());
+	}
+
+	@Test
+	void shouldIgnoreDnsLookupsOfPreviousRequests() {
+		TimedInetAddressResolverProvider.recordLookup("previous.example.com", System.nanoTime(), System.nanoTime());
+		var timer = new RequestTimer();
+		timer.mark(Mark.SEND);
+		timer.mark(Mark.CONNECTED);
+
+		timer.recordDnsLookup(URI.create("https://previous.example.com/api"));
+
+		assertThat(timer.isSet(Mark.DNS_START)).isFalse();
+	}
+
+	@Test
+	void shouldOmitPhasesThatWereNotMeasured() {
+		var timer = new RequestTimer();
+		timer.mark(Mark.SEND);
+		timer.mark(Mark.HEADERS_RECEIVED);
+		timer.mark(Mark.DONE);
+
+		var timing = new RestResponseTimingAspect();
+		timer.applyTo(timing, Optional.empty());
+
+		assertThat(RequestTimer.toStatusInfo(timing))
+				.containsOnlyKeys("Queueing", "Waiting (TTFB)", "Download", "Total");
+	}
+
+	@Test
+	void shouldKeepFirstMark() throws InterruptedException {
+		var timer = new RequestTimer();
+		timer.mark(Mark.DONE);
+		long first = timer.sinceStart(Mark.DONE);
+		Thread.sleep(2);
+		timer.mark(Mark.DONE);
+		assertThat(timer.sinceStart(Mark.DONE)).isEqualTo(first);
+	}
+
+	@Test
+	void shouldKeepRequestPropertiesWhenTapping() {
+		var request = HttpRequest.newBuilder(URI.create("http://localhost/test"))
+				.header("X-Test", "value")
+				.method("PUT", BodyPublishers.ofString("body"))
+				.build();
+
+		var tapped = new RequestTimer().tap(request);
+
+		assertThat(tapped.uri()).isEqualTo(request.uri());
+		assertThat(tapped.method()).isEqualTo("PUT");
+		assertThat(tapped.headers().firstValue("X-Test")).contains("value");
+		assertThat(tapped.bodyPublisher().get().contentLength()).isEqualTo(4);
+	}
+}
@@ -0,0 +1,93 @@
+package milkman.ui.plugin.rest.contenttype;
+
+import milkman.ui.components.CodeFoldingContentEditor.CodeFoldingBuilder;
+import milkman.ui.components.CodeFoldingContentEditor.CollapsableRange;
+import milkman.ui.components.CodeFoldingContentEditor.ContentRange;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonContentTypeFoldingTest {
+
+	private static final String JSON = "{\n  \"a\" : {\n    \"b\" : 1\n  },\n  \"c\" : [ {}, {\"d\":{}} ]\n}\n\n{\"e\":{}}";
+
+	private final JsonContentType contentType = new JsonContentType();
+
+	@Test
+	void shouldFoldNestedObjects() {
+		var root = contentType.parseText(JSON);
+
+		var ranges = describeRanges(root);
+		assertThat(ranges).containsExactly(
+				"0-55 lines 0-5 {\n  \"a\" : {\n    \"b\" : 1\n  },\n  \"c\" : [ {}, {\"d\":{}} ]\n}",
+				"10-27 lines 1-3 {\n    \"b\" : 1\n  }",
+				"39-41 lines 4-4 {}",
+				"43-51 lines 4-4 {\"d\":{}}",
+				"48-50 lines 4-4 {}",
+				"57-65 lines 7-7 {\"e\":{}}",
+				"62-64 lines 7-7 {}");
+		assertThat(toString(root)).isEqualTo(JSON);
+	}
+
+	@Test
+	void shouldFoldChunkByChunk() {
+		var builder = new CodeFoldingBuilder();
+		List<CollapsableRange> closedRanges = new ArrayList<>();
+		builder.setRangeListener(closedRanges::add);
+		for (int offset = 0; offset < JSON.length(); offset += 3) {
+			var chunk = JSON.substring(offset, Math.min(JSON.length(), offset + 3));
+			builder.append(chunk);
+			contentType.computeFolding(builder, chunk, offset);
+		}
+		var root = builder.build();
+
+		assertThat(describeRanges(root)).isEqualTo(describeRanges(contentType.parseText(JSON)));
+		assertThat(toString(root)).isEqualTo(JSON);
+		assertThat(closedRanges).hasSize(7).allMatch(CollapsableRange::isClosed);
+	}
+
+	@Test
+	void shouldCloseUnterminatedRangesOnBuild() {
+		var root = contentType.parseText("{\"a\":{\"b\":1}");
+
+		assertThat(describeRanges(root)).containsExactly(
+				"0-12 lines 0-0 {\"a\":{\"b\":1}",
+				"5-12 lines 0-0 {\"b\":1}");
+	}
+
+	@Test
+	void shouldShowPlaceholderOfCollapsedRange() {
+		var root = contentType.parseText("{\"a\":{\"b\":1}}");
+		var inner = (CollapsableRange) ((CollapsableRange) root.getChildren().get(0)).getChildren().get(1);
+		inner.setCollapsed(true);
+
+		assertThat(toString(root)).isEqualTo("{\"a\":{\n    ...\n  }}");
+	}
+
+	private List<String> describeRanges(CollapsableRange root) {
+		List<String> result = new ArrayList<>();
+		String text = toString(root);
+		collectRanges(root, text, result);
+		return result;
+	}
+
+	private void collectRanges(ContentRange node, String text, List<String> result) {
+		if (node instanceof CollapsableRange) {
+			var range = (CollapsableRange) node;
+			if (!range.isRoot()) {
+				result.add(range.getStart() + "-" + range.getEnd() + " lines " + range.getStartLine() + "-" + range.getEndLine()
+						+ " " + text.substring(range.getStart(), range.getEnd()));
+			}
+			range.getChildren().forEach(child -> collectRanges(child, text, result));
+		}
+	}
+
+	private String toString(ContentRange range) {
+		var b = new StringBuilder();
+		range.appendToString(b);
+		return b.toString();
+	}
+}
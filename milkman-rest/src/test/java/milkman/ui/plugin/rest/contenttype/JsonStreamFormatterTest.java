@@ -0,0 +1,51 @@
+package milkman.ui.plugin.rest.contenttype;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonStreamFormatterTest {
+
+	private static final String NL = System.lineSeparator();
+
+	@Test
+	void shouldFormatConcatenatedDocuments() throws IOException {
+		var formatted = JsonStreamFormatter.format("{\"a\":1,\"b\":[1,2]} {\"c\":\"ä\"}");
+
+		assertThat(formatted).isEqualTo("{" + NL
+				+ "  \"a\" : 1," + NL
+				+ "  \"b\" : [ 1, 2 ]" + NL
+				+ "}\n\n{" + NL
+				+ "  \"c\" : \"ä\"" + NL
+				+ "}");
+	}
+
+	@Test
+	void shouldFormatChunkByChunk() throws IOException {
+		var json = "{\"name\":\"äöü \\\"quoted\\\"\",\"values\":[1.5,true,null,{\"nested\":{}}]}\n[1,2]";
+		var bytes = json.getBytes(StandardCharsets.UTF_8);
+
+		var formatter = new JsonStreamFormatter();
+		var result = new StringBuilder();
+		for (int i = 0; i < bytes.length; i += 3) {
+			result.append(formatter.format(Arrays.copyOfRange(bytes, i, Math.min(bytes.length, i + 3))));
+		}
+		result.append(formatter.finish());
+
+		assertThat(result.toString()).isEqualTo(JsonStreamFormatter.format(json));
+	}
+
+	@Test
+	void shouldFailOnIncompleteContent() throws IOException {
+		var formatter = new JsonStreamFormatter();
+		formatter.format("{\"a\": [1, ".getBytes(StandardCharsets.UTF_8));
+
+		assertThatThrownBy(formatter::finish).isInstanceOf(IOException.class);
+		assertThat(new JsonContentType().formatContent("{\"a\": [1, ")).isEqualTo("{\"a\": [1, ");
+	}
+}
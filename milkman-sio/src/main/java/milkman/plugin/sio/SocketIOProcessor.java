@@ -10,7 +10,6 @@ import milkman.ui.plugin.rest.domain.RestHeaderAspect;
 import milkman.ui.plugin.rest.domain.RestResponseBodyAspect;
 import milkman.ui.plugin.rest.domain.RestResponseContainer;
 import milkman.utils.AsyncResponseControl.AsyncControl;
-import reactor.core.publisher.ReplayProcessor;
 
 import java.net.URI;
 import java.util.List;
@@ -27,20 +26,22 @@ public class SocketIOProcessor {
 			.filter(HeaderEntry::isEnabled)
 			.collect(Collectors.toMap(h -> templater.replaceTags(h.getName()), h -> List.of(templater.replaceTags(h.getValue()))));
 
-		var emitter = ReplayProcessor.<byte[]>create();
+		var bodyStore = asyncControl.createResponseBodyStore();
 
 		var client = new MilkmanSocketIOClient(URI.create(url),
 				settings.getHandshakePath(),
 				settings.getClientVersion(),
 				headers,
-				emitter,
+				bodyStore,
 				asyncControl);
 
 		asyncControl.triggerReqeuestStarted();
 		client.connect();
 
 		var response = new RestResponseContainer(url);
-		response.getAspects().add(new RestResponseBodyAspect(emitter));
+		var body = new RestResponseBodyAspect(bodyStore.asFlux());
+		asyncControl.onResponseDisposed(body::dispose);
+		response.getAspects().add(body);
 		response.getAspects().add(new SocketIOResponseAspect(client));
 		return response;
 	}
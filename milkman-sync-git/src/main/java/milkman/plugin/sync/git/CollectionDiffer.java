@@ -6,6 +6,7 @@ import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,10 +30,13 @@ import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.val;
+import lombok.extern.slf4j.Slf4j;
 import milkman.domain.Collection;
 import milkman.domain.Environment;
 import milkman.domain.RequestContainer;
+import milkman.ui.plugin.PluginIndex;
 
+@Slf4j
 public class CollectionDiffer {
 
 	/**
@@ -46,13 +50,29 @@ public class CollectionDiffer {
 			return classToSubclassCache.get(clazz);
 		
 		
-		List<Class<?>> typesOf = getSubTypesOf(clazz.getName());
+		List<Class<?>> typesOf = getIndexedSubTypesOf(clazz);
+		if (typesOf.isEmpty()) {
+			//e.g. if the classpath is given via manifest
+			typesOf = getSubTypesOf(clazz.getName());
+		}
 		classToSubclassCache.put(clazz, typesOf);
 		
 		return typesOf;
 	}
 	
 	
+	static List<Class<?>> getIndexedSubTypesOf(Class<?> clazz) {
+		List<Class<?>> result = new ArrayList<>();
+		for (String subtype : PluginIndex.instance().getSubtypes(clazz)) {
+			try {
+				result.add(Class.forName(subtype, false, clazz.getClassLoader()));
+			} catch (ClassNotFoundException | LinkageError e) {
+				log.debug("Failed to load indexed subtype {}", subtype, e);
+			}
+		}
+		return result;
+	}
+
 	static List<Class<?>> getSubTypesOf(String superclassName) {
 	    try (ScanResult scanResult = new ClassGraph()
 	    							 	.enableClassInfo().enableAnnotationInfo()
@@ -0,0 +1,122 @@
+package milkman.plugin.test;
+
+import milkman.plugin.test.domain.LoadTestResultAspect.LoadTestSnapshot;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * collects latencies of load test executions. Latencies are recorded (wait-free) in microseconds into a
+ * HdrHistogram recorder and accumulated on every snapshot.
+ *
+ * In the open model, the latency is measured from the intended send time (correcting for coordinated omission)
+ * while the service time is measured from the actual send time.
+ */
+public class LatencyRecorder {
+
+	private static final int SIGNIFICANT_DIGITS = 3;
+
+	private final Recorder latencyRecorder = new Recorder(SIGNIFICANT_DIGITS);
+	private final Histogram accumulatedLatencies = new Histogram(SIGNIFICANT_DIGITS);
+	private Histogram intervalLatencies;
+
+	private final Recorder serviceTimeRecorder = new Recorder(SIGNIFICANT_DIGITS);
+	private final Histogram accumulatedServiceTimes = new Histogram(SIGNIFICANT_DIGITS);
+	private Histogram intervalServiceTimes;
+
+	private final LongAdder totalRequests = new LongAdder();
+	private final LongAdder failedRequests = new LongAdder();
+	private final LongAdder sentRequests = new LongAdder();
+	private final AtomicLong pendingRequests = new AtomicLong();
+	private final AtomicLong maxPendingRequests = new AtomicLong();
+	private final Map<String, LongAdder> statusCodes = new ConcurrentHashMap<>();
+	private final long startTimeNanos = System.nanoTime();
+	private final double intendedRate;
+
+	public LatencyRecorder() {
+		this(0);
+	}
+
+	/**
+	 * @param intendedRate configured requests per second, 0 if unlimited
+	 */
+	public LatencyRecorder(double intendedRate) {
+		this.intendedRate = intendedRate;
+	}
+
+	/**
+	 * a request is due to be sent but might be waiting for a free worker
+	 */
+	public void requestScheduled() {
+		long pending = pendingRequests.incrementAndGet();
+		maxPendingRequests.accumulateAndGet(pending, Math::max);
+	}
+
+	/**
+	 * a scheduled request is actually sent
+	 */
+	public void requestSent() {
+		pendingRequests.decrementAndGet();
+		sentRequests.increment();
+	}
+
+	public void record(long latencyNanos, String statusCode, boolean failed) {
+		record(latencyNanos, latencyNanos, statusCode, failed);
+	}
+
+	public void record(long latencyNanos, long serviceTimeNanos, String statusCode, boolean failed) {
+		latencyRecorder.recordValue(toMicros(latencyNanos));
+		serviceTimeRecorder.recordValue(toMicros(serviceTimeNanos));
+		totalRequests.increment();
+		if (failed) {
+			failedRequests.increment();
+		}
+		statusCodes.computeIfAbsent(statusCode, k -> new LongAdder()).increment();
+	}
+
+	public synchronized LoadTestSnapshot snapshot(boolean finished) {
+		intervalLatencies = latencyRecorder.getIntervalHistogram(intervalLatencies);
+		accumulatedLatencies.add(intervalLatencies);
+		intervalServiceTimes = serviceTimeRecorder.getIntervalHistogram(intervalServiceTimes);
+		accumulatedServiceTimes.add(intervalServiceTimes);
+
+		long elapsedNanos = System.nanoTime() - startTimeNanos;
+		long total = totalRequests.sum();
+		//in the closed model, requests are not tracked as sent separately
+		long sent = Math.max(sentRequests.sum(), total);
+		double elapsedSeconds = elapsedNanos / 1_000_000_000.0;
+
+		Map<String, Long> codes = new TreeMap<>();
+		statusCodes.forEach((code, count) -> codes.put(code, count.sum()));
+
+		return new LoadTestSnapshot(
+				TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+				total,
+				failedRequests.sum(),
+				elapsedSeconds > 0 ? total / elapsedSeconds : 0,
+				intendedRate,
+				elapsedSeconds > 0 ? sent / elapsedSeconds : 0,
+				maxPendingRequests.get(),
+				toMillis(accumulatedLatencies.getValueAtPercentile(50)),
+				toMillis(accumulatedLatencies.getValueAtPercentile(90)),
+				toMillis(accumulatedLatencies.getValueAtPercentile(99)),
+				toMillis(accumulatedLatencies.getMaxValue()),
+				toMillis(accumulatedServiceTimes.getValueAtPercentile(99)),
+				codes,
+				finished);
+	}
+
+	private static long toMicros(long nanos) {
+		return Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+	}
+
+	private static double toMillis(long micros) {
+		return micros / 1000.0;
+	}
+}
@@ -0,0 +1,80 @@
+package milkman.plugin.test;
+
+import milkman.domain.RequestContainer;
+import milkman.domain.RequestExecutionContext;
+import milkman.domain.ResponseContainer;
+import milkman.plugin.test.domain.LoadTestAspect;
+import milkman.plugin.test.domain.LoadTestContainer;
+import milkman.plugin.test.editor.LoadTestAspectEditor;
+import milkman.plugin.test.editor.LoadTestResultAspectEditor;
+import milkman.plugin.test.editor.TestContainerEditor;
+import milkman.ui.plugin.*;
+import milkman.utils.AsyncResponseControl.AsyncControl;
+
+import java.util.List;
+
+public class LoadTestPlugin implements RequestAspectsPlugin, RequestTypePlugin, RequestExecutorAware {
+
+    private PluginRequestExecutor requestExecutor;
+
+    @Override
+    public List<RequestAspectEditor> getRequestTabs() {
+        return List.of(new LoadTestAspectEditor());
+    }
+
+    @Override
+    public List<ResponseAspectEditor> getResponseTabs() {
+        return List.of(new LoadTestResultAspectEditor());
+    }
+
+    @Override
+    public void initializeRequestAspects(RequestContainer request) {
+    }
+
+    @Override
+    public void initializeResponseAspects(RequestContainer request, ResponseContainer response, RequestExecutionContext context) {
+    }
+
+    @Override
+    public int getOrder() {
+        return 31;
+    }
+
+
+    @Override
+    public RequestContainer createNewRequest() {
+        var container = new LoadTestContainer("New Load Test");
+        container.addAspect(new LoadTestAspect());
+        return container;
+    }
+
+    @Override
+    public RequestTypeEditor getRequestEditor() {
+        return new TestContainerEditor();
+    }
+
+    @Override
+    public ResponseContainer executeRequest(RequestContainer request, Templater templater) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ResponseContainer executeRequestAsync(RequestContainer request, Templater templater, AsyncControl asyncControl) {
+        return new LoadTestRunner(requestExecutor).executeRequest((LoadTestContainer) request, templater, asyncControl);
+    }
+
+    @Override
+    public String getRequestType() {
+        return "LOAD";
+    }
+
+    @Override
+    public boolean canHandle(RequestContainer request) {
+        return request instanceof LoadTestContainer;
+    }
+
+    @Override
+    public void setRequestExecutor(PluginRequestExecutor executor) {
+        requestExecutor = executor;
+    }
+}
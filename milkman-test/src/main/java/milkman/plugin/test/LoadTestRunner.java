@@ -0,0 +1,284 @@
+package milkman.plugin.test;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import milkman.domain.RequestContainer;
+import milkman.domain.ResponseContainer;
+import milkman.plugin.test.domain.LoadTestAspect;
+import milkman.plugin.test.domain.LoadTestContainer;
+import milkman.plugin.test.domain.LoadTestResultAspect;
+import milkman.plugin.test.domain.LoadTestResultAspect.LoadTestSnapshot;
+import milkman.plugin.test.domain.LoadTestResultContainer;
+import milkman.ui.plugin.PluginRequestExecutor;
+import milkman.ui.plugin.Templater;
+import milkman.utils.AsyncResponseControl;
+import milkman.utils.AsyncResponseControl.AsyncControl;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.ReplayProcessor;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * executes a single request repeatedly with a number of concurrent workers.
+ *
+ * In the closed model, every worker waits for the response before sending the next request.
+ * In the open model, requests are scheduled with a fixed arrival rate and handed to the workers. If all workers
+ * are busy, requests queue up and their latency is measured from the intended send time, so a stalled server
+ * shows up in the latency percentiles (instead of just reducing the number of requests sent).
+ * At most {@value #MAX_PENDING_REQUESTS} requests queue up, afterwards scheduling waits for the workers. Queued requests
+ * keep their intended send time, so the waiting is still part of the measured latency.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class LoadTestRunner {
+
+	private static final Duration SNAPSHOT_INTERVAL = Duration.ofMillis(500);
+	/** every worker is a thread, so their number is limited */
+	static final int MAX_CONCURRENCY = 500;
+	static final int MAX_PENDING_REQUESTS = 10_000;
+
+	private final PluginRequestExecutor executor;
+
+	public ResponseContainer executeRequest(LoadTestContainer request,
+											Templater templater,
+											AsyncControl asyncControl) {
+		var loadTestAspect = request.getAspect(LoadTestAspect.class)
+				.orElseThrow(() -> new IllegalArgumentException("Missing load test aspect"));
+		validate(loadTestAspect);
+		var targetRequest = executor.getDetails(loadTestAspect.getRequestId())
+				.orElseThrow(() -> new IllegalArgumentException("Request to be tested not found"));
+
+		var run = new LoadTestRun(loadTestAspect, targetRequest, asyncControl);
+		asyncControl.onCancellationRequested.add(run::cancel);
+		asyncControl.triggerReqeuestStarted();
+		run.start();
+
+		var container = new LoadTestResultContainer();
+		container.getAspects().add(new LoadTestResultAspect(run.snapshots));
+		return container;
+	}
+
+	static void validate(LoadTestAspect aspect) {
+		if (aspect.getIterations() <= 0 && aspect.getDurationInSeconds() <= 0) {
+			throw new IllegalArgumentException("Either iterations or duration has to be set");
+		}
+		if (aspect.getConcurrency() < 1 || aspect.getConcurrency() > MAX_CONCURRENCY) {
+			throw new IllegalArgumentException("Concurrency has to be between 1 and " + MAX_CONCURRENCY);
+		}
+		if (aspect.isOpenModel() && aspect.getArrivalRate() < 1) {
+			throw new IllegalArgumentException("Arrival rate has to be at least 1 request per second");
+		}
+		if (aspect.getRampUpInSeconds() < 0 || aspect.getTargetRps() < 0) {
+			throw new IllegalArgumentException("Ramp-up and target rate must not be negative");
+		}
+	}
+
+	static String getStatusCode(ResponseContainer response) {
+		var statusCode = new AtomicReference<>("n/a");
+		response.getStatusInformations().subscribe(entry -> {
+			if (entry.getKey().equals("Status") && !entry.isGroup()) {
+				statusCode.set(entry.getValue().getText());
+			}
+		});
+		return statusCode.get();
+	}
+
+	private static boolean isErrorStatus(String statusCode) {
+		return statusCode.length() == 3 && (statusCode.startsWith("4") || statusCode.startsWith("5"));
+	}
+
+	/**
+	 * state of a single load test execution
+	 */
+	private class LoadTestRun {
+		private final LoadTestAspect aspect;
+		private final RequestContainer targetRequest;
+		private final AsyncControl asyncControl;
+
+		private final int concurrency;
+		private final long iterations;
+		private final long deadline;
+		private final LatencyRecorder recorder;
+		private final ReplayProcessor<LoadTestSnapshot> snapshots = ReplayProcessor.cacheLast();
+		private final AtomicBoolean stopped = new AtomicBoolean(false);
+		private final Set<AsyncResponseControl> inflightRequests = ConcurrentHashMap.newKeySet();
+		private final Semaphore pendingRequests = new Semaphore(MAX_PENDING_REQUESTS);
+		private final ExecutorService workerPool;
+		private Disposable ticker;
+
+		LoadTestRun(LoadTestAspect aspect, RequestContainer targetRequest, AsyncControl asyncControl) {
+			this.aspect = aspect;
+			this.targetRequest = targetRequest;
+			this.asyncControl = asyncControl;
+			this.concurrency = aspect.getConcurrency();
+			this.iterations = aspect.getIterations() > 0 ? aspect.getIterations() : Long.MAX_VALUE;
+			this.deadline = aspect.getDurationInSeconds() > 0
+					? System.nanoTime() + TimeUnit.SECONDS.toNanos(aspect.getDurationInSeconds())
+					: Long.MAX_VALUE;
+			this.recorder = new LatencyRecorder(aspect.isOpenModel() ? aspect.getArrivalRate() : aspect.getTargetRps());
+			this.workerPool = Executors.newFixedThreadPool(concurrency, r -> daemonThread(r, "load-test-worker"));
+		}
+
+		void start() {
+			ticker = Flux.interval(SNAPSHOT_INTERVAL)
+					.subscribe(t -> snapshots.onNext(recorder.snapshot(false)));
+			if (aspect.isOpenModel()) {
+				daemonThread(this::runOpenModel, "load-test-scheduler").start();
+			} else {
+				startClosedModel();
+			}
+		}
+
+		void cancel() {
+			stopped.set(true);
+			inflightRequests.forEach(AsyncResponseControl::cancleRequest);
+		}
+
+		private void startClosedModel() {
+			var pacer = new Pacer(aspect.getTargetRps());
+			var remainingIterations = new AtomicLong(iterations);
+			long rampUpDelayPerWorker = TimeUnit.SECONDS.toNanos(aspect.getRampUpInSeconds()) / concurrency;
+			var finishedWorkers = new AtomicInteger();
+
+			for (int i = 0; i < concurrency; i++) {
+				long startDelay = i * rampUpDelayPerWorker;
+				workerPool.execute(() -> {
+					try {
+						LockSupport.parkNanos(startDelay);
+						while (!stopped.get()
+								&& System.nanoTime() < deadline
+								&& remainingIterations.getAndDecrement() > 0) {
+							pacer.awaitNextSlot();
+							executeOnce(System.nanoTime());
+						}
+					} finally {
+						if (finishedWorkers.incrementAndGet() == concurrency) {
+							workerPool.shutdown();
+							finish();
+						}
+					}
+				});
+			}
+		}
+
+		/**
+		 * schedules requests on fixed intended send times. If the scheduler itself falls behind, requests
+		 * are still sent with their original intended send time, so that delay is accounted for as well.
+		 */
+		private void runOpenModel() {
+			long intervalNanos = TimeUnit.SECONDS.toNanos(1) / aspect.getArrivalRate();
+			long startTime = System.nanoTime();
+			try {
+				for (long i = 0; i < iterations && !stopped.get(); i++) {
+					long intendedStartTime = startTime + i * intervalNanos;
+					if (intendedStartTime >= deadline) {
+						break;
+					}
+					awaitTime(intendedStartTime);
+					if (!awaitPendingSlot()) {
+						break;
+					}
+					recorder.requestScheduled();
+					workerPool.execute(() -> {
+						pendingRequests.release();
+						recorder.requestSent();
+						if (!stopped.get()) {
+							executeOnce(intendedStartTime);
+						}
+					});
+				}
+				workerPool.shutdown();
+				workerPool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				finish();
+			}
+		}
+
+		private void awaitTime(long time) {
+			long remaining;
+			while ((remaining = time - System.nanoTime()) > 0 && !stopped.get()) {
+				LockSupport.parkNanos(remaining);
+			}
+		}
+
+		/**
+		 * waits until the number of queued requests is below the limit. Returns false, if the run is stopped meanwhile.
+		 */
+		private boolean awaitPendingSlot() throws InterruptedException {
+			while (!stopped.get()) {
+				if (pendingRequests.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private void executeOnce(long intendedStartTime) {
+			var requestControl = new AsyncResponseControl();
+			inflightRequests.add(requestControl);
+			long startTime = System.nanoTime();
+			try {
+				var response = executor.executeRequest(targetRequest, Optional.empty(), requestControl.getCancellationControl());
+				long endTime = System.nanoTime();
+				var statusCode = getStatusCode(response);
+				recorder.record(endTime - intendedStartTime, endTime - startTime, statusCode, isErrorStatus(statusCode));
+			} catch (Exception e) {
+				log.debug("Load test request failed", e);
+				long endTime = System.nanoTime();
+				recorder.record(endTime - intendedStartTime, endTime - startTime, e.getClass().getSimpleName(), true);
+			} finally {
+				inflightRequests.remove(requestControl);
+			}
+		}
+
+		private void finish() {
+			ticker.dispose();
+			snapshots.onNext(recorder.snapshot(true));
+			snapshots.onComplete();
+			asyncControl.triggerRequestSucceeded();
+		}
+	}
+
+	private static Thread daemonThread(Runnable runnable, String name) {
+		var thread = new Thread(runnable, name);
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	/**
+	 * hands out evenly spaced time slots, shared by all workers, to limit the overall request rate
+	 */
+	private static class Pacer {
+		private final long intervalNanos;
+		private final AtomicLong nextSlot = new AtomicLong(System.nanoTime());
+
+		Pacer(int targetRps) {
+			this.intervalNanos = targetRps > 0 ? TimeUnit.SECONDS.toNanos(1) / targetRps : 0;
+		}
+
+		void awaitNextSlot() {
+			if (intervalNanos == 0) {
+				return;
+			}
+			long now = System.nanoTime();
+			//slots in the past are not accumulated, so there are no bursts after slow responses
+			long slot = nextSlot.updateAndGet(prev -> Math.max(prev, now) + intervalNanos) - intervalNanos;
+			LockSupport.parkNanos(slot - now);
+		}
+	}
+}
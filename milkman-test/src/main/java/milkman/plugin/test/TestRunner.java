@@ -15,14 +15,19 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.ReplayProcessor;
+import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
 import reactor.util.function.Tuple3;
 import reactor.util.function.Tuples;
 import reactor.util.retry.Retry;
 
 import java.time.Duration;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static milkman.domain.ResponseContainer.StyledText;
 import static milkman.plugin.test.domain.TestResultAspect.TestResultState.*;
@@ -47,31 +52,12 @@ public class TestRunner {
 
 		var replay = ReplayProcessor.<TestResultEvent>create();
 		Flux<TestResultEvent> resultFlux = Flux.<TestResultEvent>create(sink -> {
-			var subscription = Flux.fromIterable(testAspect.getRequests())
-					.index()
-					.flatMap(tuple -> {
-						var requestId = tuple.getT1();
-						var testDetails = tuple.getT2();
-						return Mono.defer(() ->
-								Mono.justOrEmpty(executor.getDetails(testDetails.getId())
-										.map(r -> Tuples.of(requestId, testDetails, r))))
-								.repeat(testDetails.getRepeat());
-					})
-					.filter(t -> {
-						var requestId = t.getT1();
-						var testDetails = t.getT2();
-						var requestContainer = t.getT3();
-						if (testDetails.isSkip()){
-							sink.next(new TestResultEvent(requestId.toString(), requestContainer.getName(), SKIPPED, null, null));
-						}
-						return !testDetails.isSkip();
-					})
-					.doOnNext(tuple -> {
-						var requestId = tuple.getT1();
-						var requestContainer = tuple.getT3();
-						sink.next(new TestResultEvent(requestId.toString(), requestContainer.getName(), STARTED, null, null));
-					})
-					.flatMap(tuple -> execute(tuple, testEnvironment, sink, asyncControl))
+			int concurrency = Math.max(1, testAspect.getConcurrency());
+			var scheduler = Schedulers.newBoundedElastic(concurrency, Integer.MAX_VALUE, "test-runner", 60, true);
+			var subscription = Flux.fromIterable(groupIntoStages(testAspect.getRequests()))
+					.concatMap(stage -> Flux.fromIterable(stage)
+							.flatMap(tuple -> resolveRepetitions(tuple.getT1(), tuple.getT2()), concurrency)
+							.flatMap(tuple -> executeIfNotSkipped(tuple, testEnvironment, sink, asyncControl, scheduler), isParallel(stage) ? concurrency : 1))
 					.flatMap(testSuccess -> {
 						if (!testSuccess && testAspect.isStopOnFirstFailure()) {
 							return Mono.error(new RuntimeException("Test failed"));
@@ -83,6 +69,7 @@ public class TestRunner {
 //					return Mono.just(new TestResultEvent("", "", TestResultAspect.TestResultState.EXCEPTION));
 //				}))
 					.doFinally(s -> {
+						scheduler.dispose();
 						asyncControl.triggerRequestSucceeded();
 						sink.complete();
 					})
@@ -106,22 +93,80 @@ public class TestRunner {
 	private Environment getOverrideEnvironment(TestAspect testAspect){
 		var environment = new Environment("override");
 		environment.setActive(true);
+		//parallel requests might read and write variables concurrently
+		environment.setEntries(new CopyOnWriteArrayList<>());
 		environment.setOrAdd("__TEST__", "true");
 		testAspect.getEnvironmentOverride().forEach(entry -> environment.setOrAdd(entry.getName(), entry.getValue()));
 		return environment;
 	}
 
+	/**
+	 * consecutive parallel requests are grouped into one stage, every other request is a stage on its own.
+	 * Stages are executed one after another.
+	 */
+	static List<List<Tuple2<Long, TestDetails>>> groupIntoStages(List<TestDetails> requests) {
+		List<List<Tuple2<Long, TestDetails>>> stages = new LinkedList<>();
+		List<Tuple2<Long, TestDetails>> parallelStage = null;
+		long index = 0;
+		for (TestDetails testDetails : requests) {
+			var entry = Tuples.of(index++, testDetails);
+			if (testDetails.isParallel()) {
+				if (parallelStage == null) {
+					parallelStage = new LinkedList<>();
+					stages.add(parallelStage);
+				}
+				parallelStage.add(entry);
+			} else {
+				parallelStage = null;
+				stages.add(List.of(entry));
+			}
+		}
+		return stages;
+	}
+
+	private static boolean isParallel(List<Tuple2<Long, TestDetails>> stage) {
+		return stage.get(0).getT2().isParallel();
+	}
+
+	private Flux<Tuple3<Long, TestDetails, RequestContainer>> resolveRepetitions(Long requestId, TestDetails testDetails) {
+		return Mono.defer(() ->
+						Mono.justOrEmpty(executor.getDetails(testDetails.getId())
+								.map(r -> Tuples.of(requestId, testDetails, r))))
+				.repeat(testDetails.getRepeat());
+	}
+
+	private Mono<Boolean> executeIfNotSkipped(
+			Tuple3<Long, TestDetails, RequestContainer> tuple,
+			Environment testEnvironment,
+			FluxSink<TestResultEvent> sink,
+			AsyncControl asyncControl,
+			Scheduler scheduler) {
+		var requestId = tuple.getT1();
+		var testDetails = tuple.getT2();
+		var requestContainer = tuple.getT3();
+		if (testDetails.isSkip()){
+			sink.next(new TestResultEvent(requestId.toString(), requestContainer.getName(), SKIPPED, null, null));
+			return Mono.empty();
+		}
+		return Mono.defer(() -> {
+					sink.next(new TestResultEvent(requestId.toString(), requestContainer.getName(), STARTED, null, null));
+					return execute(tuple, testEnvironment, sink, asyncControl, scheduler);
+				})
+				.subscribeOn(scheduler);
+	}
+
 	private Mono<Boolean> execute(
 			Tuple3<Long, TestDetails, RequestContainer> request,
 			Environment overrideEnv,
 			FluxSink<TestResultEvent> replay,
-			AsyncControl asyncControl) {
+			AsyncControl asyncControl,
+			Scheduler scheduler) {
 		var testDetails = request.getT2();
 		var retryDelay = Duration.ofMillis(testDetails.getWaitBetweenRetriesInMs());
 		return Mono.defer(() -> Mono.just(executor.executeRequest(request.getT3(), Optional.of(overrideEnv), asyncControl)))
 				.retryWhen(Retry.fixedDelay(testDetails.getRetries(), retryDelay)
 //						.filter(t -> !testDetails.isIgnore()) // might be wanted behavior: retry on error but ignore result, so we dont use this filter here
-						.scheduler(Schedulers.elastic()))
+						.scheduler(scheduler))
 				.doOnNext(res -> replay.next(new TestResultEvent(request.getT1().toString(),
 						request.getT3().getName(),
 						SUCCEEDED,
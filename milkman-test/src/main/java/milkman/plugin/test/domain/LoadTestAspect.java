@@ -0,0 +1,27 @@
+package milkman.plugin.test.domain;
+
+import lombok.Data;
+import milkman.domain.RequestAspect;
+
+@Data
+public class LoadTestAspect extends RequestAspect {
+	private String requestId;
+	/** number of executions in total. if 0, the test runs for the given duration */
+	private int iterations = 100;
+	private int durationInSeconds = 0;
+	private int concurrency = 1;
+	private int rampUpInSeconds = 0;
+	/** target requests per second. if 0, requests are executed as fast as possible */
+	private int targetRps = 0;
+	/**
+	 * if true, requests are scheduled with a fixed arrival rate, independent of response times (open model).
+	 * Otherwise, every worker waits for the response before sending the next request (closed model)
+	 */
+	private boolean openModel = false;
+	/** requests per second that are scheduled in the open model */
+	private int arrivalRate = 10;
+
+	public LoadTestAspect() {
+		super("loadtest");
+	}
+}
@@ -0,0 +1,24 @@
+package milkman.plugin.test.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import milkman.domain.RequestContainer;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class LoadTestContainer extends RequestContainer {
+
+
+	public LoadTestContainer(String name) {
+		super(name);
+	}
+
+	@Override
+	public String getType() {
+		return "LOAD";
+	}
+}
@@ -0,0 +1,54 @@
+package milkman.plugin.test.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.Value;
+import milkman.domain.ResponseAspect;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadTestResultAspect implements ResponseAspect {
+
+	/**
+	 * periodically emitted snapshots of the current load test results. The last snapshot contains the final results.
+	 */
+	private Flux<LoadTestSnapshot> snapshots;
+
+	@Override
+	public String getName() {
+		return "Load Test";
+	}
+
+
+	@Value
+	public static class LoadTestSnapshot {
+		long elapsedMs;
+		long totalRequests;
+		long failedRequests;
+		double throughput;
+		/** configured rate of requests per second, 0 if unlimited */
+		double intendedRate;
+		/** rate of requests per second that were actually sent */
+		double actualRate;
+		/** maximum number of requests that were due but not yet sent */
+		long maxPendingRequests;
+		/** latency percentiles, measured from the intended send time in the open model */
+		double p50Ms;
+		double p90Ms;
+		double p99Ms;
+		double maxMs;
+		/** uncorrected latency percentile, measured from the actual send time */
+		double serviceTimeP99Ms;
+		Map<String, Long> statusCodes;
+		boolean finished;
+
+		public double getErrorRate() {
+			return totalRequests == 0 ? 0 : (double) failedRequests / totalRequests;
+		}
+	}
+}
@@ -0,0 +1,6 @@
+package milkman.plugin.test.domain;
+
+import milkman.domain.ResponseContainer;
+
+public class LoadTestResultContainer extends ResponseContainer {
+}
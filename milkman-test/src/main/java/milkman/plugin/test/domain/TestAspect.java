@@ -15,6 +15,8 @@ public class TestAspect extends RequestAspect {
 	private List<TestDetails> requests = new LinkedList<>();
 	private boolean stopOnFirstFailure = true;
 	private boolean propagateResultEnvironment;
+	/** maximum number of requests executed in parallel (only applies to requests marked as parallel) */
+	private int concurrency = 1;
 	private List<EnvironmentEntry> environmentOverride = new LinkedList<>();
 
 	public TestAspect() {
@@ -31,5 +33,10 @@ public class TestAspect extends RequestAspect {
 		private int retries;
 		private int waitBetweenRetriesInMs;
 		private int repeat;
+		/**
+		 * consecutive requests marked as parallel form a group, that (including repeated runs) is executed
+		 * concurrently. Other requests wait for all preceding requests and vice versa.
+		 */
+		private boolean parallel;
 	}
 }
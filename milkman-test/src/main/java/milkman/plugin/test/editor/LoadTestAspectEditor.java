@@ -0,0 +1,131 @@
+package milkman.plugin.test.editor;
+
+import com.jfoenix.controls.JFXTextField;
+import com.jfoenix.controls.JFXToggleButton;
+import com.jfoenix.validation.IntegerValidator;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tab;
+import javafx.scene.input.TransferMode;
+import lombok.extern.slf4j.Slf4j;
+import milkman.domain.RequestContainer;
+import milkman.plugin.test.domain.LoadTestAspect;
+import milkman.ui.plugin.PluginRequestExecutor;
+import milkman.ui.plugin.RequestAspectEditor;
+import milkman.ui.plugin.RequestExecutorAware;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static milkman.utils.fxml.FxmlBuilder.*;
+import static milkman.utils.javafx.DndUtil.JAVA_FORMAT;
+import static milkman.utils.javafx.DndUtil.deserialize;
+
+@Slf4j
+public class LoadTestAspectEditor implements RequestAspectEditor, RequestExecutorAware {
+
+	private PluginRequestExecutor requestExecutor;
+
+	@Override
+	public Tab getRoot(RequestContainer request) {
+		LoadTestAspect aspect = request.getAspect(LoadTestAspect.class)
+				.orElseThrow(() -> new IllegalArgumentException("missing load test aspect"));
+
+		var content = vbox();
+		content.getStyleClass().add("generic-content-pane");
+
+		var targetRequest = new Label(getRequestName(aspect.getRequestId()));
+		var target = hbox(new Label("Request (drop here)"), targetRequest);
+		setupDnD(target, aspect, targetRequest);
+		content.add(target);
+
+		content.add(numberInput("Iterations (0 = use duration)", aspect::getIterations, aspect::setIterations, aspect));
+		content.add(numberInput("Duration in seconds", aspect::getDurationInSeconds, aspect::setDurationInSeconds, aspect));
+		content.add(numberInput("Concurrency", aspect::getConcurrency, aspect::setConcurrency, aspect));
+
+		var closedModelSettings = vbox();
+		closedModelSettings.add(numberInput("Ramp-up in seconds", aspect::getRampUpInSeconds, aspect::setRampUpInSeconds, aspect));
+		closedModelSettings.add(numberInput("Target requests per second (0 = unlimited)", aspect::getTargetRps, aspect::setTargetRps, aspect));
+
+		var openModelSettings = vbox();
+		openModelSettings.add(numberInput("Arrival rate (requests per second)", aspect::getArrivalRate, aspect::setArrivalRate, aspect));
+
+		var openModel = new JFXToggleButton();
+		openModel.setText("constant arrival rate (open model)");
+		openModel.setSelected(aspect.isOpenModel());
+		openModel.selectedProperty().addListener((obs, o, n) -> {
+			if (n != null) {
+				aspect.setOpenModel(n);
+				aspect.setDirty(true);
+			}
+		});
+		closedModelSettings.visibleProperty().bind(openModel.selectedProperty().not());
+		closedModelSettings.managedProperty().bind(closedModelSettings.visibleProperty());
+		openModelSettings.visibleProperty().bind(openModel.selectedProperty());
+		openModelSettings.managedProperty().bind(openModelSettings.visibleProperty());
+
+		content.add(openModel);
+		content.add(closedModelSettings);
+		content.add(openModelSettings);
+
+		var tab = new Tab("Load Test");
+		tab.setContent(content);
+		return tab;
+	}
+
+	private HboxExt numberInput(String name, Supplier<Integer> getter, Consumer<Integer> setter, LoadTestAspect aspect) {
+		var entry = new HboxExt();
+		entry.add(new Label(name));
+		var text = entry.add(new JFXTextField());
+		text.setText("" + getter.get());
+		text.setValidators(new IntegerValidator());
+		text.textProperty().addListener((obs, o, n) -> {
+			if (n != null && text.validate()) {
+				setter.accept(Integer.parseInt(n));
+				aspect.setDirty(true);
+			}
+		});
+		return entry;
+	}
+
+	private void setupDnD(HboxExt target, LoadTestAspect aspect, Label targetRequest) {
+		target.setOnDragOver(e -> {
+			if (e.getDragboard().hasContent(JAVA_FORMAT)) {
+				e.acceptTransferModes(TransferMode.COPY_OR_MOVE);
+			}
+			e.consume();
+		});
+
+		target.setOnDragDropped(e -> {
+			if (e.getDragboard().hasContent(JAVA_FORMAT)) {
+				try {
+					var content = deserialize((String) e.getDragboard().getContent(JAVA_FORMAT), RequestContainer.class);
+					aspect.setRequestId(content.getId());
+					aspect.setDirty(true);
+					targetRequest.setText(getRequestName(content.getId()));
+					e.setDropCompleted(true);
+				} catch (Exception ex) {
+					log.error("failed dnd operation", ex);
+					e.setDropCompleted(false);
+				}
+				e.consume();
+			}
+		});
+	}
+
+	private String getRequestName(String requestId) {
+		if (requestId == null) {
+			return "none";
+		}
+		return requestExecutor.getDetails(requestId).map(RequestContainer::getName).orElse("undefined");
+	}
+
+	@Override
+	public boolean canHandleAspect(RequestContainer request) {
+		return request.getAspect(LoadTestAspect.class).isPresent();
+	}
+
+	@Override
+	public void setRequestExecutor(PluginRequestExecutor executor) {
+		this.requestExecutor = executor;
+	}
+}
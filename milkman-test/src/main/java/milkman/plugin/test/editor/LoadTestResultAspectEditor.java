@@ -0,0 +1,83 @@
+package milkman.plugin.test.editor;
+
+import javafx.application.Platform;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tab;
+import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.layout.GridPane;
+import milkman.domain.RequestContainer;
+import milkman.domain.ResponseContainer;
+import milkman.plugin.test.domain.LoadTestResultAspect;
+import milkman.plugin.test.domain.LoadTestResultAspect.LoadTestSnapshot;
+import milkman.ui.plugin.ResponseAspectEditor;
+
+import java.util.Map;
+
+import static milkman.utils.fxml.FxmlBuilder.vbox;
+
+public class LoadTestResultAspectEditor implements ResponseAspectEditor {
+
+	@Override
+	public Tab getRoot(RequestContainer request, ResponseContainer response) {
+		var resultAspect = response.getAspect(LoadTestResultAspect.class)
+				.orElseThrow(() -> new IllegalArgumentException("missing load test result aspect"));
+
+		var content = vbox();
+		content.getStyleClass().add("generic-content-pane");
+
+		resultAspect.getSnapshots()
+				.subscribe(snapshot -> Platform.runLater(() -> {
+					content.getChildren().clear();
+					content.add(renderSnapshot(snapshot), true);
+				}));
+
+		var tab = new Tab("Load Test Results");
+		tab.setContent(content);
+		return tab;
+	}
+
+	private GridPane renderSnapshot(LoadTestSnapshot snapshot) {
+		GridPane grid = new GridPane();
+		grid.setAlignment(Pos.TOP_LEFT);
+		grid.setHgap(10);
+		grid.setVgap(10);
+		grid.getColumnConstraints().add(new ColumnConstraints(200));
+
+		int row = 0;
+		grid.add(new Label(snapshot.isFinished() ? "Finished" : "Running..."), 0, row++, 2, 1);
+		row = addRow(grid, row, "Elapsed", String.format("%.1f s", snapshot.getElapsedMs() / 1000.0));
+		row = addRow(grid, row, "Requests", "" + snapshot.getTotalRequests());
+		row = addRow(grid, row, "Throughput", String.format("%.1f req/s", snapshot.getThroughput()));
+		if (snapshot.getIntendedRate() > 0) {
+			row = addRow(grid, row, "Intended rate", String.format("%.1f req/s", snapshot.getIntendedRate()));
+		}
+		row = addRow(grid, row, "Actual rate", String.format("%.1f req/s", snapshot.getActualRate()));
+		row = addRow(grid, row, "Max pending requests", "" + snapshot.getMaxPendingRequests());
+		row = addRow(grid, row, "Error rate", String.format("%.2f %%", snapshot.getErrorRate() * 100));
+		row = addRow(grid, row, "Latency p50", formatMs(snapshot.getP50Ms()));
+		row = addRow(grid, row, "Latency p90", formatMs(snapshot.getP90Ms()));
+		row = addRow(grid, row, "Latency p99", formatMs(snapshot.getP99Ms()));
+		row = addRow(grid, row, "Latency max", formatMs(snapshot.getMaxMs()));
+		row = addRow(grid, row, "Service time p99", formatMs(snapshot.getServiceTimeP99Ms()));
+		for (Map.Entry<String, Long> statusCode : snapshot.getStatusCodes().entrySet()) {
+			row = addRow(grid, row, "Status " + statusCode.getKey(), "" + statusCode.getValue());
+		}
+		return grid;
+	}
+
+	private static int addRow(GridPane grid, int row, String key, String value) {
+		grid.add(new Label(key), 0, row);
+		grid.add(new Label(value), 1, row);
+		return row + 1;
+	}
+
+	private static String formatMs(double value) {
+		return String.format("%.2f ms", value);
+	}
+
+	@Override
+	public boolean canHandleAspect(RequestContainer request, ResponseContainer response) {
+		return response.getAspect(LoadTestResultAspect.class).isPresent();
+	}
+}
@@ -93,7 +93,7 @@ public class TestAspectEditor implements RequestAspectEditor, RequestExecutorAwa
 					&& e.getDragboard().hasContent(JAVA_FORMAT)) {
 				try {
 					var content = deserialize((String) e.getDragboard().getContent(JAVA_FORMAT), RequestContainer.class);
-					requests.add(new TestDetails(content.getId(), false, false, 0, 0, 0));
+					requests.add(new TestDetails(content.getId(), false, false, 0, 0, 0, false));
 					testAspect.setDirty(true);
 					e.setDropCompleted(true);
 				} catch (Exception ex) {
@@ -190,6 +190,17 @@ public class TestAspectEditor implements RequestAspectEditor, RequestExecutorAwa
 		});
 		requestDetails.add(repeat);
 
+		var cbParallel = new JFXToggleButton();
+		cbParallel.setText("run in parallel with adjacent parallel requests");
+		cbParallel.setSelected(details.isParallel());
+		cbParallel.selectedProperty().addListener((obs, o, n) -> {
+			if (n != null) {
+				details.setParallel(n);
+				markDirtyRunnable.run();
+			}
+		});
+		requestDetails.add(cbParallel);
+
 	}
 
 	private void moveUp() {
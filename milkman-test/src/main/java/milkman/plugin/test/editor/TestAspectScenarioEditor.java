@@ -1,6 +1,8 @@
 package milkman.plugin.test.editor;
 
+import com.jfoenix.controls.JFXTextField;
 import com.jfoenix.controls.JFXToggleButton;
+import com.jfoenix.validation.IntegerValidator;
 import javafx.scene.control.Label;
 import javafx.scene.control.Tab;
 import lombok.extern.slf4j.Slf4j;
@@ -9,6 +11,7 @@ import milkman.plugin.test.domain.TestAspect;
 import milkman.ui.plugin.RequestAspectEditor;
 import milkman.utils.fxml.GenericBinding;
 
+import static milkman.utils.fxml.FxmlBuilder.HboxExt;
 import static milkman.utils.fxml.FxmlBuilder.VboxExt;
 
 @Slf4j
@@ -16,6 +19,7 @@ public class TestAspectScenarioEditor implements RequestAspectEditor {
 
 	private JFXToggleButton cbFailOnFirst;
 	private JFXToggleButton cbPropagateEnvironment;
+	private JFXTextField concurrencyTxt;
 
 	private final GenericBinding<TestAspect, Boolean> stopOnFirstFailureBinding = GenericBinding.of(TestAspect::isStopOnFirstFailure, TestAspect::setStopOnFirstFailure);
 	private final GenericBinding<TestAspect, Boolean> propagateEnvBinding = GenericBinding.of(TestAspect::isPropagateResultEnvironment, TestAspect::setPropagateResultEnvironment);
@@ -34,6 +38,14 @@ public class TestAspectScenarioEditor implements RequestAspectEditor {
 		propagateEnvBinding.bindTo(cbPropagateEnvironment.selectedProperty(), testAspect);
 		propagateEnvBinding.addListener(c -> request.setDirty(true));
 
+		concurrencyTxt.setText("" + testAspect.getConcurrency());
+		concurrencyTxt.textProperty().addListener((obs, o, n) -> {
+			if (n != null && concurrencyTxt.validate()) {
+				testAspect.setConcurrency(Integer.parseInt(n));
+				request.setDirty(true);
+			}
+		});
+
 		return new Tab("Scenario", content);
 	}
 
@@ -56,6 +68,10 @@ public class TestAspectScenarioEditor implements RequestAspectEditor {
 			controller.cbFailOnFirst.setText("Stop on first failure");
 			controller.cbPropagateEnvironment = add(new JFXToggleButton());
 			controller.cbPropagateEnvironment.setText("Propagate environment changes");
+			var concurrency = add(new HboxExt());
+			concurrency.add(new Label("Max. parallel requests"));
+			controller.concurrencyTxt = concurrency.add(new JFXTextField());
+			controller.concurrencyTxt.setValidators(new IntegerValidator());
 			getStyleClass().add("generic-content-pane");
 
 		}
@@ -0,0 +1,63 @@
+package milkman.plugin.test;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyRecorderTest {
+
+	@Test
+	void shouldComputePercentilesAndStatusCodes() {
+		var recorder = new LatencyRecorder();
+		for (int i = 1; i <= 100; i++) {
+			recorder.record(TimeUnit.MILLISECONDS.toNanos(i), i <= 95 ? "200" : "500", i > 95);
+		}
+
+		var snapshot = recorder.snapshot(true);
+
+		assertThat(snapshot.getTotalRequests()).isEqualTo(100);
+		assertThat(snapshot.getFailedRequests()).isEqualTo(5);
+		assertThat(snapshot.getErrorRate()).isEqualTo(0.05);
+		assertThat(snapshot.getP50Ms()).isCloseTo(50, within(0.1));
+		assertThat(snapshot.getP90Ms()).isCloseTo(90, within(0.1));
+		assertThat(snapshot.getP99Ms()).isCloseTo(99, within(0.1));
+		assertThat(snapshot.getMaxMs()).isCloseTo(100, within(0.1));
+		assertThat(snapshot.getStatusCodes()).containsEntry("200", 95L).containsEntry("500", 5L);
+		assertThat(snapshot.isFinished()).isTrue();
+	}
+
+	@Test
+	void shouldAccumulateAcrossSnapshots() {
+		var recorder = new LatencyRecorder();
+		recorder.record(TimeUnit.MILLISECONDS.toNanos(10), "200", false);
+		recorder.snapshot(false);
+		recorder.record(TimeUnit.MILLISECONDS.toNanos(20), "200", false);
+
+		var snapshot = recorder.snapshot(false);
+
+		assertThat(snapshot.getTotalRequests()).isEqualTo(2);
+		assertThat(snapshot.getMaxMs()).isCloseTo(20, within(0.1));
+	}
+
+	@Test
+	void shouldTrackPendingRequestsAndServiceTime() {
+		var recorder = new LatencyRecorder(10);
+		recorder.requestScheduled();
+		recorder.requestScheduled();
+		recorder.requestSent();
+		recorder.requestScheduled();
+		recorder.requestSent();
+		recorder.requestSent();
+		recorder.record(TimeUnit.MILLISECONDS.toNanos(500), TimeUnit.MILLISECONDS.toNanos(10), "200", false);
+
+		var snapshot = recorder.snapshot(false);
+
+		assertThat(snapshot.getMaxPendingRequests()).isEqualTo(2);
+		assertThat(snapshot.getIntendedRate()).isEqualTo(10);
+		assertThat(snapshot.getMaxMs()).isCloseTo(500, within(0.5));
+		assertThat(snapshot.getServiceTimeP99Ms()).isCloseTo(10, within(0.1));
+	}
+}
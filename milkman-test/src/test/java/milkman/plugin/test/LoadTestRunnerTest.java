@@ -0,0 +1,130 @@
+package milkman.plugin.test;
+
+import milkman.domain.Environment;
+import milkman.domain.RequestContainer;
+import milkman.domain.ResponseContainer;
+import milkman.plugin.test.domain.LoadTestAspect;
+import milkman.plugin.test.domain.LoadTestContainer;
+import milkman.plugin.test.domain.LoadTestResultAspect;
+import milkman.plugin.test.domain.LoadTestResultAspect.LoadTestSnapshot;
+import milkman.plugin.test.domain.LoadTestResultContainer;
+import milkman.ui.plugin.PluginRequestExecutor;
+import milkman.utils.AsyncResponseControl;
+import milkman.utils.AsyncResponseControl.AsyncControl;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoadTestRunnerTest {
+
+	private final CountingExecutor executor = new CountingExecutor();
+	private final LoadTestRunner runner = new LoadTestRunner(executor);
+
+	@Test
+	void shouldExecuteConfiguredIterationsInClosedModel() {
+		var result = run(aspect -> {
+			aspect.setIterations(20);
+			aspect.setConcurrency(4);
+		}, new AsyncResponseControl());
+
+		assertThat(result.isFinished()).isTrue();
+		assertThat(result.getTotalRequests()).isEqualTo(20);
+		assertThat(executor.executions).hasValue(20);
+	}
+
+	@Test
+	void shouldExecuteConfiguredIterationsInOpenModel() {
+		var result = run(aspect -> {
+			aspect.setIterations(20);
+			aspect.setConcurrency(2);
+			aspect.setOpenModel(true);
+			aspect.setArrivalRate(1000);
+		}, new AsyncResponseControl());
+
+		assertThat(result.isFinished()).isTrue();
+		assertThat(result.getTotalRequests()).isEqualTo(20);
+		assertThat(executor.executions).hasValue(20);
+	}
+
+	@Test
+	void shouldStopOnCancellation() {
+		var responseControl = new AsyncResponseControl();
+		responseControl.onRequestStarted.add(() -> new Thread(() -> {
+			sleep(200);
+			responseControl.cancleRequest();
+		}).start());
+
+		var result = run(aspect -> {
+			aspect.setIterations(0);
+			aspect.setDurationInSeconds(60);
+			aspect.setTargetRps(100);
+		}, responseControl);
+
+		assertThat(result.isFinished()).isTrue();
+		assertThat(result.getElapsedMs()).isLessThan(10_000);
+	}
+
+	@Test
+	void shouldRejectTestsWithoutEnd() {
+		assertThatThrownBy(() -> run(aspect -> {
+			aspect.setIterations(0);
+			aspect.setDurationInSeconds(0);
+		}, new AsyncResponseControl())).isInstanceOf(IllegalArgumentException.class);
+		assertThat(executor.executions).hasValue(0);
+	}
+
+	@Test
+	void shouldRejectInvalidConcurrencyAndRates() {
+		assertThatThrownBy(() -> run(aspect -> aspect.setConcurrency(LoadTestRunner.MAX_CONCURRENCY + 1), new AsyncResponseControl()))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> run(aspect -> aspect.setConcurrency(0), new AsyncResponseControl()))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> run(aspect -> {
+			aspect.setOpenModel(true);
+			aspect.setArrivalRate(0);
+		}, new AsyncResponseControl())).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private LoadTestSnapshot run(Consumer<LoadTestAspect> configuration, AsyncResponseControl responseControl) {
+		var aspect = new LoadTestAspect();
+		aspect.setRequestId("target");
+		configuration.accept(aspect);
+		var request = new LoadTestContainer("load test");
+		request.addAspect(aspect);
+
+		var response = runner.executeRequest(request, null, responseControl.getCancellationControl());
+
+		return response.getAspect(LoadTestResultAspect.class).orElseThrow()
+				.getSnapshots()
+				.blockLast(Duration.ofSeconds(30));
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static class CountingExecutor implements PluginRequestExecutor {
+		private final AtomicInteger executions = new AtomicInteger();
+
+		@Override
+		public Optional<RequestContainer> getDetails(String requestId) {
+			return Optional.of(new LoadTestContainer(requestId));
+		}
+
+		@Override
+		public ResponseContainer executeRequest(RequestContainer request, Optional<Environment> environmentOverride, AsyncControl asyncControl) {
+			executions.incrementAndGet();
+			return new LoadTestResultContainer();
+		}
+	}
+}
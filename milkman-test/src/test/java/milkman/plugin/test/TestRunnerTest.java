@@ -0,0 +1,45 @@
+package milkman.plugin.test;
+
+import milkman.plugin.test.domain.TestAspect.TestDetails;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestRunnerTest {
+
+	@Test
+	void shouldGroupConsecutiveParallelRequests() {
+		var requests = List.of(
+				details("login", false),
+				details("a", true),
+				details("b", true),
+				details("c", true),
+				details("logout", false),
+				details("d", true));
+
+		var stages = TestRunner.groupIntoStages(requests).stream()
+				.map(stage -> stage.stream().map(t -> t.getT2().getId()).collect(Collectors.toList()))
+				.collect(Collectors.toList());
+
+		assertThat(stages).containsExactly(
+				List.of("login"),
+				List.of("a", "b", "c"),
+				List.of("logout"),
+				List.of("d"));
+	}
+
+	@Test
+	void shouldKeepSequentialRequestsInSeparateStages() {
+		var stages = TestRunner.groupIntoStages(List.of(details("a", false), details("b", false)));
+
+		assertThat(stages).hasSize(2);
+		assertThat(stages.get(1).get(0).getT1()).isEqualTo(1L);
+	}
+
+	private static TestDetails details(String id, boolean parallel) {
+		return new TestDetails(id, false, false, 0, 0, 0, parallel);
+	}
+}
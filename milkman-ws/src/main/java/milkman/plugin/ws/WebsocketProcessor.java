@@ -7,7 +7,6 @@ import milkman.ui.plugin.Templater;
 import milkman.ui.plugin.rest.domain.RestResponseBodyAspect;
 import milkman.ui.plugin.rest.domain.RestResponseContainer;
 import milkman.utils.AsyncResponseControl;
-import reactor.core.publisher.ReplayProcessor;
 
 import java.net.URI;
 
@@ -17,15 +16,17 @@ public class WebsocketProcessor {
 	public ResponseContainer executeRequest(WebsocketRequestContainer request, Templater templater, AsyncResponseControl.AsyncControl asyncControl) {
 		var url = templater.replaceTags(request.getUrl());
 
-		var emitter = ReplayProcessor.<byte[]>create();
+		var bodyStore = asyncControl.createResponseBodyStore();
 
-		var client = new MilkmanWebsocketClient(URI.create(url), emitter, asyncControl);
+		var client = new MilkmanWebsocketClient(URI.create(url), bodyStore, asyncControl);
 
 		asyncControl.triggerReqeuestStarted();
 		client.connect();
 
 		var response = new RestResponseContainer(url);
-		response.getAspects().add(new RestResponseBodyAspect(emitter));
+		var body = new RestResponseBodyAspect(bodyStore.asFlux());
+		asyncControl.onResponseDisposed(body::dispose);
+		response.getAspects().add(body);
 		response.getAspects().add(new WebsocketResponseAspect(client));
 		return response;
 	}
@@ -8,9 +8,11 @@ import javafx.stage.Stage;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import milkman.ui.main.options.CoreApplicationOptionsProvider;
+import milkman.ui.plugin.PluginIndex;
 
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
 
 @Slf4j
 public class MilkmanApplication extends Application {
@@ -18,6 +20,7 @@ public class MilkmanApplication extends Application {
 	private MainModule module;
 
 	private static long startInitializationTime;
+	private static long phaseStartTime;
 	private boolean hasError = false;
 	
 	@Override
@@ -25,7 +28,12 @@ public class MilkmanApplication extends Application {
 		super.init();
 		module = new MainModule();
 		try {
+			startPhase();
+			PluginIndex.load(Path.of(PlatformUtil.getWritableLocationForFile("plugin-index.json")))
+					.preloadImplementations(Thread.currentThread().getContextClassLoader());
+			endPhase("plugin index");
 			module.start();
+			endPhase("module initialization");
 		} catch (Throwable t) {
 			hasError = true;
 			Platform.runLater(() -> showFatalError(t));
@@ -36,12 +44,18 @@ public class MilkmanApplication extends Application {
 	public void start(Stage primaryStage) throws Exception {
 		if (!hasError) {
 			try {
+				startPhase();
 				module.getApplicationController().initOptions();
+				endPhase("options");
 				module.getMainWindow().start(primaryStage); // 1 sec
+				endPhase("main window");
 				module.getThemeSwitcher().setTheme(CoreApplicationOptionsProvider.options().getTheme(), CoreApplicationOptionsProvider.options().isDisableAnimations());
+				endPhase("theme");
 				module.getApplicationController().initApplication(); // 1 sec
-//				module.getAppCdsGenerator().initializeCds(false);
+				endPhase("workspace");
 				log.info("App Initialization time: {} ms", System.currentTimeMillis() - startInitializationTime);
+				module.getAppCdsGenerator().reportStartupTime(ManagementFactory.getRuntimeMXBean().getUptime());
+				module.getAppCdsGenerator().initializeCds(false);
 
 				
 				primaryStage.setOnCloseRequest(e -> {
@@ -63,6 +77,19 @@ public class MilkmanApplication extends Application {
 		Application.launch(MilkmanApplication.class, args);
 	}
 
+	private static void startPhase() {
+		phaseStartTime = System.currentTimeMillis();
+	}
+
+	/**
+	 * logs the duration of a startup phase, the next phase starts right away
+	 */
+	private static void endPhase(String phase) {
+		long now = System.currentTimeMillis();
+		log.info("Startup phase '{}': {} ms", phase, now - phaseStartTime);
+		phaseStartTime = now;
+	}
+
 	@SneakyThrows
 	private static void showFatalError(Throwable t) {
 		log.error("Failed to start application", t);
@@ -4,9 +4,9 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.nio.file.Paths;
-import java.util.Arrays;
-import java.util.stream.Collectors;
+import java.util.Properties;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -17,21 +17,25 @@ import org.apache.commons.lang3.SystemUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import milkman.PlatformUtil;
-import milkman.ctrl.RequestTypeManager;
-import milkman.ctrl.SynchManager;
-import milkman.ctrl.WorkspaceController;
-import milkman.persistence.PersistenceManager;
-import milkman.ui.main.HotkeyManager;
 import milkman.ui.main.Toaster;
-import milkman.ui.main.ToolbarComponent;
-import milkman.ui.plugin.UiPluginManager;
-import milkman.update.UpdateChecker;
 
+/**
+ * generates the app-cds archive (dynamic class data sharing), which is used by the launcher to speed up startup.
+ *
+ * The archive is recorded by a headless training run ({@link TrainingWorkload}) in a separate jvm. It is regenerated
+ * in the background, if the jvm or the classpath changed (e.g. after an update or installing a plugin)
+ * or if the archive cannot be used anymore.
+ */
 @Slf4j
 @Singleton
 @RequiredArgsConstructor(onConstructor_={@Inject})
 public class AppCdsGenerator {
 
+	private static final String PROPERTIES_FILE = "app-cds.properties";
+	private static final String FINGERPRINT = "fingerprint";
+	private static final String STARTUP_WITH_ARCHIVE = "startupWithArchiveMillis";
+	private static final String STARTUP_WITHOUT_ARCHIVE = "startupWithoutArchiveMillis";
+
 	private final Toaster toaster;
 	
 	public void initializeCds(boolean forceRefresh) {
@@ -61,14 +65,39 @@ public class AppCdsGenerator {
 					log.info("AppCds archive is up-to-date and usable. Not regenerating.");
 					return;
 				} else {
-					log.error("AppCds archive not usable. renaming so it will be deleted on next run and regenerated");
-					invalidateCdsArchive();
+					log.error("AppCds archive not usable, regenerating");
 				}
 			}
 			
 			
 			regenerateAppCdsArchive(classPath);
-		}).start();
+		}, "app-cds-generator").start();
+	}
+
+	/**
+	 * logs the startup time and compares it to the last startup with (or without) the archive
+	 */
+	public void reportStartupTime(long startupMillis) {
+		boolean archiveUsed = isArchiveInUse();
+		Properties properties = loadProperties();
+		String key = archiveUsed ? STARTUP_WITH_ARCHIVE : STARTUP_WITHOUT_ARCHIVE;
+		String otherKey = archiveUsed ? STARTUP_WITHOUT_ARCHIVE : STARTUP_WITH_ARCHIVE;
+		log.info("Startup time: {} ms ({} app-cds archive), last startup {} archive: {} ms",
+				startupMillis, archiveUsed ? "with" : "without", archiveUsed ? "without" : "with",
+				properties.getProperty(otherKey, "unknown"));
+		properties.setProperty(key, String.valueOf(startupMillis));
+		storeProperties(properties);
+	}
+
+	/**
+	 * true, if the jvm was started with the archive and the archive matches the current jvm and classpath
+	 */
+	private boolean isArchiveInUse() {
+		boolean archiveConfigured = ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+				.anyMatch(arg -> arg.startsWith("-XX:SharedArchiveFile"));
+		return archiveConfigured
+				&& new File(PlatformUtil.getWritableLocationForFile("app-cds.jsa")).exists()
+				&& fingerprint(getClassPath()).equals(loadProperties().getProperty(FINGERPRINT));
 	}
 
 	public void invalidateCdsArchive() {
@@ -82,17 +111,25 @@ public class AppCdsGenerator {
 		}
 	}
 
+	/**
+	 * records a new archive by a training run. The archive is written to a new file first, so the current archive
+	 * stays usable until the new one is complete.
+	 */
 	protected void regenerateAppCdsArchive(String classPath) {
 		try {
 			log.info("Regenerating AppCds Archive.");
+			long startTime = System.currentTimeMillis();
+			var newArchive = new File(PlatformUtil.getWritableLocationForFile("app-cds-new.jsa"));
+			FileUtils.deleteQuietly(newArchive);
 			ProcessBuilder pb = new ProcessBuilder(
 					getJavaExecutable(),
 					"-client",
-					"-XX:ArchiveClassesAtExit="+PlatformUtil.getWritableLocationForFile("app-cds.jsa"),
+					"-XX:ArchiveClassesAtExit="+newArchive.getPath(),
 					"-XX:+UseCompressedOops",
 					"-XX:+UseCompressedClassPointers",
+					"-Djava.awt.headless=true",
 					"-cp", classPath,
-					getClass().getName() // AppCdsGenerator::main
+					TrainingWorkload.class.getName()
 					).redirectOutput(new File(PlatformUtil.getWritableLocationForFile("appcds-gen.log")))
 					.redirectError(new File(PlatformUtil.getWritableLocationForFile("appcds-gen.log")));
 
@@ -101,13 +138,19 @@ public class AppCdsGenerator {
 
 			Process process = pb.start();
 			int exitStatus = process.waitFor();
-			if (exitStatus == 0) {
-				log.info("AppCds file generation done.");
-				storeClasspath(classPath);
-				toaster.showToast("Startup Optimization....done.");
-			} else {
+			if (exitStatus != 0 || !newArchive.exists()) {
 				log.error("Failed to generate AppCds file");
+				return;
+			}
+
+			var archive = new File(PlatformUtil.getWritableLocationForFile("app-cds.jsa"));
+			if (archive.exists()) {
+				invalidateCdsArchive();
 			}
+			FileUtils.moveFile(newArchive, archive);
+			storeFingerprint(classPath);
+			log.info("AppCds file generation done in {} ms, archive size: {} kb", System.currentTimeMillis() - startTime, archive.length() / 1024);
+			toaster.showToast("Startup Optimization....done.");
 		} catch (Exception e) {
 			log.error("Executing AppCds generation failed", e);
 		}
@@ -141,19 +184,14 @@ public class AppCdsGenerator {
 	}
 
 	private boolean isRegenrationNecessary(String classPath) {
-		File oldAppCdsClasspathFile = new File(PlatformUtil.getWritableLocationForFile("app-cds.classpath"));
-		if (!oldAppCdsClasspathFile.exists())
+		String storedFingerprint = loadProperties().getProperty(FINGERPRINT);
+		if (storedFingerprint == null)
 			return true;
 		
-		try {
-			String oldAppCdsClasspath = FileUtils.readFileToString(oldAppCdsClasspathFile);
-			//any changes to classpath?
-			if (!classPath.startsWith(oldAppCdsClasspath)){
-				log.error("AppCds classpaths differ. regenerating...");
-				return true;
-			}
-		} catch (IOException e) {
-			log.error("Cannot read app-cds.classpath file");
+		//any changes to jvm or classpath?
+		if (!storedFingerprint.equals(fingerprint(classPath))){
+			log.error("AppCds archive was created for a different jvm or classpath. regenerating...");
+			return true;
 		}
 		
 		var appCdaArchiveFile = new File(PlatformUtil.getWritableLocationForFile("app-cds.jsa"));
@@ -161,6 +199,10 @@ public class AppCdsGenerator {
 		return !appCdaArchiveFile.exists();
 	}
 
+	private static String fingerprint(String classPath) {
+		return System.getProperty("java.vm.version") + "|" + System.getProperty("java.home") + "|" + classPath;
+	}
+
 	
 	public static boolean isFilelocked(File file) {
 		 try {
@@ -176,11 +218,30 @@ public class AppCdsGenerator {
 	     }
     }
 	
-	private void storeClasspath(String classpath) {
-		try {
-			FileUtils.write(new File(PlatformUtil.getWritableLocationForFile("app-cds.classpath")), classpath);
+	private void storeFingerprint(String classpath) {
+		Properties properties = loadProperties();
+		properties.setProperty(FINGERPRINT, fingerprint(classpath));
+		storeProperties(properties);
+	}
+
+	private synchronized Properties loadProperties() {
+		Properties properties = new Properties();
+		File file = new File(PlatformUtil.getWritableLocationForFile(PROPERTIES_FILE));
+		if (file.exists()) {
+			try (var in = new FileInputStream(file)) {
+				properties.load(in);
+			} catch (IOException e) {
+				log.error("Cannot read {} file", PROPERTIES_FILE);
+			}
+		}
+		return properties;
+	}
+
+	private synchronized void storeProperties(Properties properties) {
+		try (var out = FileUtils.openOutputStream(new File(PlatformUtil.getWritableLocationForFile(PROPERTIES_FILE)))) {
+			properties.store(out, "app-cds archive state");
 		} catch (IOException e) {
-			log.error("Cannot write app-cds.classpath file");
+			log.error("Cannot write {} file", PROPERTIES_FILE);
 		}
 	}
 	
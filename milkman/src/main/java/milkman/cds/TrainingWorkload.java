@@ -0,0 +1,196 @@
+package milkman.cds;
+
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import milkman.domain.Collection;
+import milkman.domain.Environment;
+import milkman.domain.RequestContainer;
+import milkman.domain.Workspace;
+import milkman.persistence.PersistenceManager;
+import milkman.templater.EnvironmentTemplater;
+import milkman.templater.PrefixedTemplaterResolver;
+import milkman.ui.plugin.ContentTypePlugin;
+import milkman.ui.plugin.PluginIndex;
+import milkman.ui.plugin.RequestAspectsPlugin;
+import milkman.ui.plugin.RequestTypePlugin;
+import milkman.utils.AsyncResponseControl;
+import milkman.utils.ObjectUtils;
+import org.apache.commons.io.FileUtils;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * headless workload of the training run for the app-cds archive (see {@link AppCdsGenerator}).
+ * Loads all plugins and exercises what is done on a typical start: persisting and loading a workspace,
+ * executing requests of all request types and formatting/highlighting their responses.
+ *
+ * All classes loaded until exit end up in the archive. Failures are ignored, as they do not prevent classes from being loaded.
+ */
+@Slf4j
+public class TrainingWorkload {
+
+	private static final long REQUEST_TIMEOUT_SECONDS = 10;
+
+	private final List<Object> plugins = new ArrayList<>();
+
+	public static void main(String[] args) throws IOException {
+		long startTime = System.currentTimeMillis();
+		new TrainingWorkload().run();
+		log.info("Training workload finished in {} ms", System.currentTimeMillis() - startTime);
+		//plugins might have started non-daemon threads
+		System.exit(0);
+	}
+
+	public void run() throws IOException {
+		Path tempDir = Files.createTempDirectory("milkman-cds");
+		HttpServer server = startServer();
+		try {
+			step("load plugins", this::loadPlugins);
+			String serverUrl = "http://localhost:" + server.getAddress().getPort();
+			List<RequestContainer> requests = new LinkedList<>();
+			step("create requests", () -> requests.addAll(createRequests(serverUrl)));
+			step("persist workspace", () -> persistWorkspace(requests, tempDir.resolve("database.db")));
+			step("execute requests", () -> requests.forEach(this::execute));
+			step("render content", this::renderContent);
+		} finally {
+			server.stop(0);
+			FileUtils.deleteQuietly(tempDir.toFile());
+		}
+	}
+
+	private void loadPlugins() {
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		for (String implementation : PluginIndex.instance().getAllImplementations()) {
+			try {
+				plugins.add(Class.forName(implementation, true, classLoader).getDeclaredConstructor().newInstance());
+			} catch (Throwable t) {
+				log.debug("Failed to load plugin {}", implementation, t);
+			}
+		}
+	}
+
+	private List<RequestContainer> createRequests(String serverUrl) {
+		List<RequestContainer> requests = new LinkedList<>();
+		for (RequestTypePlugin plugin : pluginsOf(RequestTypePlugin.class)) {
+			attempt(() -> requests.add(plugin.createNewRequest()));
+			attempt(() -> plugin.createTrainingRequest(serverUrl).ifPresent(requests::add));
+		}
+		for (RequestContainer request : requests) {
+			pluginsOf(RequestAspectsPlugin.class).forEach(plugin -> attempt(() -> plugin.initializeRequestAspects(request)));
+		}
+		return requests;
+	}
+
+	private void persistWorkspace(List<RequestContainer> requests, Path databaseFile) {
+		System.setProperty(PersistenceManager.DATABASE_FILE_PROPERTY, databaseFile.toString());
+		var persistence = new PersistenceManager();
+		persistence.init();
+		try {
+			var collection = new Collection(UUID.randomUUID().toString(), "Training", false, new LinkedList<>(requests), new LinkedList<>());
+			var workspace = new Workspace(0, UUID.randomUUID().toString(), "Training", new LinkedList<>(List.of(collection)),
+					new LinkedList<>(), null);
+			workspace.getEnvironments().add(new Environment("Training"));
+			persistence.persistWorkspace(workspace);
+			persistence.flush();
+			persistence.loadWorkspaceByName("Training")
+					.ifPresent(loaded -> loaded.getCollections().forEach(c -> c.getRequests().forEach(r -> ObjectUtils.deepClone(r).getAspects())));
+		} finally {
+			persistence.shutdown();
+			System.clearProperty(PersistenceManager.DATABASE_FILE_PROPERTY);
+		}
+	}
+
+	private void execute(RequestContainer request) {
+		var templater = new EnvironmentTemplater(Optional.empty(), List.of(), new PrefixedTemplaterResolver(List.of()));
+		for (RequestTypePlugin plugin : pluginsOf(RequestTypePlugin.class)) {
+			if (!plugin.canHandle(request)) {
+				continue;
+			}
+			var responseControl = new AsyncResponseControl();
+			attempt(() -> {
+				plugin.executeRequestAsync(request, templater, responseControl.getCancellationControl());
+				CompletableFuture.anyOf(responseControl.onRequestSucceeded, responseControl.onRequestFailed)
+						.get(REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+			});
+			responseControl.dispose();
+			return;
+		}
+	}
+
+	private void renderContent() {
+		String json = new String(responseBody(), StandardCharsets.UTF_8);
+		String xml = "<training><entry id=\"1\">value</entry><entry id=\"2\"/></training>";
+		for (ContentTypePlugin plugin : pluginsOf(ContentTypePlugin.class)) {
+			String content = plugin.getContentType().contains("xml") || plugin.getContentType().contains("html") ? xml : json;
+			attempt(() -> {
+				String formatted = plugin.supportFormatting() ? plugin.formatContent(content) : content;
+				plugin.computeHighlighting(formatted);
+				if (plugin.supportFolding()) {
+					plugin.computeFolding(formatted);
+				}
+			});
+		}
+	}
+
+	private HttpServer startServer() throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.createContext("/", exchange -> {
+			byte[] body = responseBody();
+			exchange.getRequestBody().readAllBytes();
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			exchange.getResponseBody().write(body);
+			exchange.close();
+		});
+		server.start();
+		return server;
+	}
+
+	private static byte[] responseBody() {
+		StringBuilder json = new StringBuilder("{\"items\": [");
+		for (int i = 0; i < 100; i++) {
+			json.append(i > 0 ? ", " : "")
+					.append("{\"id\": ").append(i)
+					.append(", \"name\": \"item ").append(i)
+					.append("\", \"active\": ").append(i % 2 == 0)
+					.append(", \"tags\": [\"a\", \"b\"], \"price\": ").append(i * 1.5)
+					.append(", \"parent\": null}");
+		}
+		return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private <T> List<T> pluginsOf(Class<T> type) {
+		return plugins.stream().filter(type::isInstance).map(type::cast).toList();
+	}
+
+	private static void step(String name, Runnable step) {
+		long startTime = System.currentTimeMillis();
+		attempt(step::run);
+		log.info("Training step '{}' done in {} ms", name, System.currentTimeMillis() - startTime);
+	}
+
+	private static void attempt(ThrowingRunnable action) {
+		try {
+			action.run();
+		} catch (Throwable t) {
+			log.debug("Training action failed", t);
+		}
+	}
+
+	@FunctionalInterface
+	private interface ThrowingRunnable {
+		void run() throws Exception;
+	}
+}
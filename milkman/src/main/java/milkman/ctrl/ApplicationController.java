@@ -382,5 +382,6 @@ public class ApplicationController {
 	public void tearDown() {
 		persistState();
 		workspaceController.tearDown();
+		persistence.shutdown();
 	}
 }
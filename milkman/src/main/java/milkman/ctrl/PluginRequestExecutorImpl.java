@@ -41,23 +41,30 @@ public class PluginRequestExecutorImpl implements PluginRequestExecutor {
 
 		plugins.loadRequestAspectPlugins().forEach(a -> a.beforeRequestExecution(requestContainer, context));
 
-		var responseControl = new AsyncResponseControl();
-		parentAsyncControl.onCancellationRequested.add(responseControl::cancleRequest);
+		var responseControl = new AsyncResponseControl(workspaceController.getActiveWorkspace().getResponseMemoryBudget());
+		Runnable cancellation = responseControl::cancleRequest;
+		parentAsyncControl.onCancellationRequested.add(cancellation);
+		try {
+			var templater = environmentOverride.map(workspaceController::buildTemplater)
+					.orElseGet(workspaceController::buildTemplater);
+			var responseContainer = requestTypePlugin.executeRequestAsync(requestContainer, templater, responseControl.getCancellationControl());
+			try{
+				throw responseControl.onRequestFailed.get();
+			} catch (InterruptedException|ExecutionException|CancellationException e) {
+				/* fail-future got cancelled, everything ok */
+			} catch (RuntimeException e) {
+				throw e;
+			}
 
-		var templater = environmentOverride.map(workspaceController::buildTemplater)
-				.orElseGet(workspaceController::buildTemplater);
-		var responseContainer = requestTypePlugin.executeRequestAsync(requestContainer, templater, responseControl.getCancellationControl());
-		try{
-			throw responseControl.onRequestFailed.get();
-		} catch (InterruptedException|ExecutionException|CancellationException e) {
-			/* fail-future got cancelled, everything ok */
-		} catch (RuntimeException e) {
-			throw e;
-		}
-
-		plugins.loadRequestAspectPlugins().forEach(a -> a.initializeResponseAspects(requestContainer, responseContainer, context));
+			plugins.loadRequestAspectPlugins().forEach(a -> a.initializeResponseAspects(requestContainer, responseContainer, context));
 
-		return responseContainer;
+			return responseContainer;
+		} finally {
+			//runners only evaluate status information and aspects initialized above, so buffered bodies
+			//and open cursors are released right away instead of holding on to the workspace memory budget
+			responseControl.dispose();
+			parentAsyncControl.onCancellationRequested.remove(cancellation);
+		}
 	}
 
 	private RequestExecutionContext getExecutionCtx(Optional<Environment> environmentOverride) {
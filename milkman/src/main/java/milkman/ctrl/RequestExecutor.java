@@ -9,6 +9,7 @@ import milkman.ui.plugin.CustomCommand;
 import milkman.ui.plugin.RequestTypePlugin;
 import milkman.ui.plugin.Templater;
 import milkman.utils.AsyncResponseControl;
+import milkman.utils.MemoryBudget;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 
 import java.util.Optional;
@@ -23,6 +24,7 @@ public class RequestExecutor extends Service<AsyncResponseControl> {
 	private final Templater templater;
 	private final Optional<CustomCommand> customCommand;
 	private final ExecutionListenerManager executionListenerManager;
+	private final MemoryBudget responseMemoryBudget;
 	
 	@Override
 	protected Task<AsyncResponseControl> createTask() {
@@ -30,7 +32,7 @@ public class RequestExecutor extends Service<AsyncResponseControl> {
 			
 			@Override
 			protected AsyncResponseControl call() {
-				var asyncCtrl = new AsyncResponseControl();
+				var asyncCtrl = new AsyncResponseControl(responseMemoryBudget);
 				try {
 					if (customCommand.isPresent()) {
 						String commandId = customCommand.get().getCommandId();
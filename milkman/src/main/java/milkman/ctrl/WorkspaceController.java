@@ -125,7 +125,7 @@ public class WorkspaceController {
 			activeWorkspace.getOpenRequests().add(request);
 		activeWorkspace.setActiveRequest(request);
 
-		var cachedResponse = Optional.ofNullable(activeWorkspace.getCachedResponses().get(request.getId()));
+		var cachedResponse = activeWorkspace.getCachedResponses().get(request.getId());
 
 		plugins.loadRequestAspectPlugins().forEach(p -> p.initializeRequestAspects(request));
 		workingAreaView.display(request,
@@ -137,6 +137,8 @@ public class WorkspaceController {
 		} else if (activeWorkspace.getEnqueuedRequestIds().containsKey(request.getId())) {
 			RequestExecutor executor = activeWorkspace.getEnqueuedRequestIds().get(request.getId());
 			workingAreaView.showSpinner(() -> executor.cancel());
+		} else if (activeWorkspace.getCachedResponses().wasEvicted(request.getId())) {
+			workingAreaView.showEvictedResponse();
 		}
 		else {
 			workingAreaView.clearResponse();
@@ -186,7 +188,7 @@ public class WorkspaceController {
 
 	public void scheduleRequestExecution(RequestContainer request, Optional<CustomCommand> command) {
 		RequestTypePlugin plugin = requestTypeManager.getPluginFor(request);
-		executor = new RequestExecutor(request, plugin, buildTemplater(), command, executionListenerManager);
+		executor = new RequestExecutor(request, plugin, buildTemplater(), command, executionListenerManager, activeWorkspace.getResponseMemoryBudget());
 
 		RequestExecutionContext context = getExecutionCtx();
 		try {
@@ -660,22 +662,15 @@ public class WorkspaceController {
 
 
 	private void removeAllCachedResponses() {
-		activeWorkspace.getCachedResponses().values().forEach(AsyncResponseControl::cancleRequest);
 		activeWorkspace.getCachedResponses().clear();
 	}
 
 	private void removeCachedResponseFor(String requestId) {
-		var arc = activeWorkspace.getCachedResponses().remove(requestId);
-		if (arc != null) {
-			arc.cancleRequest();
-		}
+		activeWorkspace.getCachedResponses().remove(requestId);
 	}
 
 	private void removeCachedResponseFor(RequestContainer removed) {
-		var arc = activeWorkspace.getCachedResponses().remove(removed.getId());
-		if (arc != null) {
-			arc.cancleRequest();
-		}
+		activeWorkspace.getCachedResponses().remove(removed.getId());
 	}
 
 }
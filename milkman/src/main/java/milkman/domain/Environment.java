@@ -38,7 +38,10 @@ public class Environment {
 	}
 
 	
-	public void setOrAdd(String name, String value) {
+	/**
+	 * synchronized, as requests executed in parallel (e.g. by a test) might set the same variable
+	 */
+	public synchronized void setOrAdd(String name, String value) {
 		if (name == null) {
 			log.error("Variable name is null");
 			return;
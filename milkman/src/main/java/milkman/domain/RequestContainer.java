@@ -26,6 +26,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @Data
 @NoArgsConstructor
@@ -39,6 +40,15 @@ public abstract class RequestContainer extends Dirtyable implements Searchable {
     private String name;
     private List<RequestAspect> aspects = new LinkedList<RequestAspect>();
 
+    /**
+     * loads the aspects on first access, if the request was loaded without them
+     */
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private volatile Supplier<List<RequestAspect>> aspectsLoader;
+
 
     public RequestContainer(String name) {
         this.name = name;
@@ -54,16 +64,18 @@ public abstract class RequestContainer extends Dirtyable implements Searchable {
 	}
 
     public void addAspect(RequestAspect aspect) {
+        loadAspects();
         aspect.propagateDirtyStateTo(this);
         aspects.add(aspect);
     }
 
     public List<RequestAspect> getAspects() {
+        loadAspects();
         return aspects;
     }
 
     public <T extends RequestAspect> Optional<T> getAspect(Class<T> aspectType) {
-        return aspects.stream()
+        return getAspects().stream()
                 .filter(aspectType::isInstance)
                 .findAny()
                 .map(a -> (T) a);
@@ -72,12 +84,25 @@ public abstract class RequestContainer extends Dirtyable implements Searchable {
     @Override
     public boolean match(String searchString) {
         return StringUtils.containsIgnoreCase(name, searchString)
-                || aspects.stream().anyMatch(a -> a.match(searchString));
+                || getAspects().stream().anyMatch(a -> a.match(searchString));
     }
 
 
+    /**
+     * aspects that are not loaded yet are read from storage without keeping them, so indexing the workspace
+     * does not load all requests
+     */
+    @Override
+    public void collectSearchTerms(SearchTermCollector collector) {
+        collector.add(SearchTermCollector.NAME, name);
+        var loader = aspectsLoader;
+        var currentAspects = loader != null ? loader.get() : aspects;
+        currentAspects.forEach(a -> a.collectSearchTerms(collector));
+    }
+
     public void setAspects(List<RequestAspect> aspects) {
         this.aspects = aspects;
+        this.aspectsLoader = null;
         if (aspects == null) {
             this.aspects = new LinkedList<RequestAspect>();
             return;
@@ -92,6 +117,37 @@ public abstract class RequestContainer extends Dirtyable implements Searchable {
     }
 
 
+    /**
+     * the aspects will be loaded by the given loader when they are accessed the first time
+     */
+    @JsonIgnore
+    public void setAspectsLoader(Supplier<List<RequestAspect>> aspectsLoader) {
+        this.aspectsLoader = aspectsLoader;
+    }
+
+    @JsonIgnore
+    public Supplier<List<RequestAspect>> getAspectsLoader() {
+        return aspectsLoader;
+    }
+
+    @JsonIgnore
+    public boolean isAspectsLoaded() {
+        return aspectsLoader == null;
+    }
+
+    private void loadAspects() {
+        if (aspectsLoader == null) {
+            return;
+        }
+        synchronized (this) {
+            var loader = aspectsLoader;
+            if (loader != null) {
+                //loader is only reset after successful loading, otherwise the aspects would be stored empty
+                setAspects(loader.get());
+            }
+        }
+    }
+
     @Override
     public void setDirty(boolean dirty) {
         super.setDirty(dirty);
@@ -0,0 +1,16 @@
+package milkman.domain;
+
+/**
+ * receives the searchable text of an entity, by field. Fields can be used to scope searches, e.g. {@code url:/api}
+ */
+@FunctionalInterface
+public interface SearchTermCollector {
+
+	String NAME = "name";
+	String URL = "url";
+	String METHOD = "method";
+	String HEADER = "header";
+	String BODY = "body";
+
+	void add(String field, String text);
+}
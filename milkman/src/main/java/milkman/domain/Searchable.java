@@ -3,4 +3,10 @@ package milkman.domain;
 public interface Searchable {
 
 	public boolean match(String searchString);
+
+	/**
+	 * provides the text that should be found by searching for this entity (used for indexing)
+	 */
+	default void collectSearchTerms(SearchTermCollector collector) {
+	}
 }
@@ -5,8 +5,10 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import milkman.ctrl.RequestExecutor;
+import milkman.ui.main.options.CoreApplicationOptionsProvider;
 import milkman.ui.main.sync.NoSyncDetails;
-import milkman.utils.AsyncResponseControl;
+import milkman.utils.MemoryBudget;
+import milkman.utils.ResponseCache;
 import org.dizitart.no2.IndexType;
 import org.dizitart.no2.objects.Id;
 import org.dizitart.no2.objects.Index;
@@ -40,7 +42,12 @@ public class Workspace {
 	private SyncDetails syncDetails = new NoSyncDetails();
 	
 	@JsonIgnore
-	private Map<String, AsyncResponseControl> cachedResponses = new HashMap<String, AsyncResponseControl>();
+	private ResponseCache cachedResponses = new ResponseCache(
+			() -> CoreApplicationOptionsProvider.options().getResponseCacheBudgetMb() * 1024L * 1024L,
+			() -> CoreApplicationOptionsProvider.options().isOffloadEvictedResponses());
+	
+	@JsonIgnore
+	private MemoryBudget responseMemoryBudget = new MemoryBudget(() -> CoreApplicationOptionsProvider.options().getResponseMemoryBudgetMb() * 1024L * 1024L);
 	
 	@JsonIgnore
 	private Map<String, RequestExecutor> enqueuedRequestIds = new HashMap<String, RequestExecutor>();
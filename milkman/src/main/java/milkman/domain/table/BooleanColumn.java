@@ -0,0 +1,50 @@
+package milkman.domain.table;
+
+import java.util.BitSet;
+
+/**
+ * booleans, stored as bits
+ */
+public class BooleanColumn extends Column {
+
+	private final BitSet values = new BitSet();
+
+	@Override
+	public ColumnType getType() {
+		return ColumnType.BOOLEAN;
+	}
+
+	@Override
+	public boolean accepts(Object value) {
+		return value instanceof Boolean;
+	}
+
+	@Override
+	public void appendBoolean(boolean value) {
+		values.set(size++, value);
+	}
+
+	public boolean getBoolean(int row) {
+		return values.get(row);
+	}
+
+	@Override
+	protected String format(int row) {
+		return Boolean.toString(values.get(row));
+	}
+
+	@Override
+	protected Object get(int row) {
+		return values.get(row);
+	}
+
+	@Override
+	protected void set(int row, Object value) {
+		values.set(row, (Boolean) value);
+	}
+
+	@Override
+	protected void ensureCapacity(int capacity) {
+		//bitsets grow on their own
+	}
+}
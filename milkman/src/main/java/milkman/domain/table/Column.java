@@ -0,0 +1,104 @@
+package milkman.domain.table;
+
+import java.util.BitSet;
+
+/**
+ * values of a single column of a {@link ResultTable}. Nulls are tracked in a bitmap, values are only
+ * converted to strings when they are displayed.
+ */
+public abstract class Column {
+
+	public static final String NULL_DISPLAY_VALUE = "NULL";
+
+	protected final BitSet nulls = new BitSet();
+	protected int size;
+
+	public abstract ColumnType getType();
+
+	/**
+	 * true, if the value (not null) can be stored in this column without conversion
+	 */
+	public abstract boolean accepts(Object value);
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isNull(int row) {
+		return nulls.get(row);
+	}
+
+	public void appendNull() {
+		ensureCapacity(size + 1);
+		nulls.set(size);
+		size++;
+	}
+
+	/**
+	 * appends a value, which has to be {@link #accepts(Object) accepted} by this column
+	 */
+	public void appendValue(Object value) {
+		if (value == null) {
+			appendNull();
+		} else {
+			if (!accepts(value)) {
+				throw new IllegalArgumentException("Column of type " + getType() + " does not accept " + value.getClass().getName());
+			}
+			ensureCapacity(size + 1);
+			set(size, value);
+			size++;
+		}
+	}
+
+	public void appendLong(long value) {
+		appendValue(value);
+	}
+
+	public void appendDouble(double value) {
+		appendValue(value);
+	}
+
+	public void appendBoolean(boolean value) {
+		appendValue(value);
+	}
+
+	public void appendAll(Column other) {
+		for (int row = 0; row < other.size(); row++) {
+			appendValue(other.getValue(row));
+		}
+	}
+
+	/**
+	 * the (boxed) value, null if the value is null
+	 */
+	public Object getValue(int row) {
+		return isNull(row) ? null : get(row);
+	}
+
+	public String getDisplayValue(int row) {
+		return isNull(row) ? NULL_DISPLAY_VALUE : format(row);
+	}
+
+	/**
+	 * copies all values into a column that accepts any value
+	 */
+	public ObjectColumn toObjectColumn() {
+		var result = new ObjectColumn();
+		result.appendAll(this);
+		return result;
+	}
+
+	protected String format(int row) {
+		return String.valueOf(get(row));
+	}
+
+	protected abstract Object get(int row);
+
+	protected abstract void set(int row, Object value);
+
+	protected abstract void ensureCapacity(int capacity);
+
+	static int grow(int currentCapacity, int minCapacity) {
+		return Math.max(minCapacity, Math.max(16, currentCapacity + (currentCapacity >> 1)));
+	}
+}
@@ -0,0 +1,47 @@
+package milkman.domain.table;
+
+import java.util.function.Supplier;
+
+/**
+ * storage type of a {@link Column}
+ */
+public enum ColumnType {
+	LONG(LongColumn::new),
+	DOUBLE(() -> new DoubleColumn(false)),
+	FLOAT(() -> new DoubleColumn(true)),
+	BOOLEAN(BooleanColumn::new),
+	STRING(StringColumn::new),
+	OBJECT(ObjectColumn::new);
+
+	private final Supplier<Column> columnFactory;
+
+	ColumnType(Supplier<Column> columnFactory) {
+		this.columnFactory = columnFactory;
+	}
+
+	public Column createColumn() {
+		return columnFactory.get();
+	}
+
+	/**
+	 * the type best suited for storing the given value, {@link #OBJECT} for null
+	 */
+	public static ColumnType of(Object value) {
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return LONG;
+		}
+		if (value instanceof Double) {
+			return DOUBLE;
+		}
+		if (value instanceof Float) {
+			return FLOAT;
+		}
+		if (value instanceof Boolean) {
+			return BOOLEAN;
+		}
+		if (value instanceof String) {
+			return STRING;
+		}
+		return OBJECT;
+	}
+}
@@ -0,0 +1,73 @@
+package milkman.domain.table;
+
+import java.util.Arrays;
+
+/**
+ * floating point numbers, stored as primitive doubles. Single precision values are displayed as floats,
+ * so they show up the way the database returned them.
+ */
+public class DoubleColumn extends Column {
+
+	private final boolean singlePrecision;
+	private double[] values = new double[0];
+
+	public DoubleColumn(boolean singlePrecision) {
+		this.singlePrecision = singlePrecision;
+	}
+
+	@Override
+	public ColumnType getType() {
+		return singlePrecision ? ColumnType.FLOAT : ColumnType.DOUBLE;
+	}
+
+	@Override
+	public boolean accepts(Object value) {
+		return singlePrecision ? value instanceof Float : value instanceof Double;
+	}
+
+	@Override
+	public void appendDouble(double value) {
+		ensureCapacity(size + 1);
+		values[size++] = value;
+	}
+
+	public double getDouble(int row) {
+		return values[row];
+	}
+
+	@Override
+	public void appendAll(Column other) {
+		if (!(other instanceof DoubleColumn) || other.getType() != getType()) {
+			super.appendAll(other);
+			return;
+		}
+		ensureCapacity(size + other.size);
+		System.arraycopy(((DoubleColumn) other).values, 0, values, size, other.size);
+		for (int row = other.nulls.nextSetBit(0); row >= 0; row = other.nulls.nextSetBit(row + 1)) {
+			nulls.set(size + row);
+		}
+		size += other.size;
+	}
+
+	@Override
+	protected String format(int row) {
+		return singlePrecision ? Float.toString((float) values[row]) : Double.toString(values[row]);
+	}
+
+	@Override
+	protected Object get(int row) {
+		return singlePrecision ? (Object) (float) values[row] : (Object) values[row];
+	}
+
+	@Override
+	protected void set(int row, Object value) {
+		values[row] = ((Number) value).doubleValue();
+	}
+
+	@Override
+	protected void ensureCapacity(int capacity) {
+		if (capacity > values.length) {
+			values = Arrays.copyOf(values, grow(values.length, capacity));
+		}
+	}
+}
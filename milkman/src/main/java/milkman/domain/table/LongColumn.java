@@ -0,0 +1,67 @@
+package milkman.domain.table;
+
+import java.util.Arrays;
+
+/**
+ * integral numbers, stored as primitive longs
+ */
+public class LongColumn extends Column {
+
+	private long[] values = new long[0];
+
+	@Override
+	public ColumnType getType() {
+		return ColumnType.LONG;
+	}
+
+	@Override
+	public boolean accepts(Object value) {
+		return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+	}
+
+	@Override
+	public void appendLong(long value) {
+		ensureCapacity(size + 1);
+		values[size++] = value;
+	}
+
+	public long getLong(int row) {
+		return values[row];
+	}
+
+	@Override
+	public void appendAll(Column other) {
+		if (!(other instanceof LongColumn)) {
+			super.appendAll(other);
+			return;
+		}
+		ensureCapacity(size + other.size);
+		System.arraycopy(((LongColumn) other).values, 0, values, size, other.size);
+		for (int row = other.nulls.nextSetBit(0); row >= 0; row = other.nulls.nextSetBit(row + 1)) {
+			nulls.set(size + row);
+		}
+		size += other.size;
+	}
+
+	@Override
+	protected String format(int row) {
+		return Long.toString(values[row]);
+	}
+
+	@Override
+	protected Object get(int row) {
+		return values[row];
+	}
+
+	@Override
+	protected void set(int row, Object value) {
+		values[row] = ((Number) value).longValue();
+	}
+
+	@Override
+	protected void ensureCapacity(int capacity) {
+		if (capacity > values.length) {
+			values = Arrays.copyOf(values, grow(values.length, capacity));
+		}
+	}
+}
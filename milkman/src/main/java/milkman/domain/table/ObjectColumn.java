@@ -0,0 +1,44 @@
+package milkman.domain.table;
+
+import java.util.Arrays;
+
+/**
+ * any other values (e.g. decimals, timestamps or nested documents), they are kept as they are and
+ * only converted to strings when displayed
+ */
+public class ObjectColumn extends Column {
+
+	private Object[] values = new Object[0];
+
+	@Override
+	public ColumnType getType() {
+		return ColumnType.OBJECT;
+	}
+
+	@Override
+	public boolean accepts(Object value) {
+		return true;
+	}
+
+	@Override
+	public ObjectColumn toObjectColumn() {
+		return this;
+	}
+
+	@Override
+	protected Object get(int row) {
+		return values[row];
+	}
+
+	@Override
+	protected void set(int row, Object value) {
+		values[row] = value;
+	}
+
+	@Override
+	protected void ensureCapacity(int capacity) {
+		if (capacity > values.length) {
+			values = Arrays.copyOf(values, grow(values.length, capacity));
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package milkman.domain.table;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * a columnar result, e.g. of a sql query. Every column stores its values in a typed column
+ * (primitive arrays for numbers, dictionary-encoded strings), values are only converted to strings when displayed.
+ *
+ * Rows are written by appending a value to every column and finishing the row with {@link #endRow()}.
+ */
+public class ResultTable {
+
+	private final List<String> columnNames = new ArrayList<>();
+	private final List<Column> columns = new ArrayList<>();
+	private int rowCount;
+
+	public ResultTable() {
+	}
+
+	public ResultTable(List<String> columnNames, List<ColumnType> columnTypes) {
+		if (columnNames.size() != columnTypes.size()) {
+			throw new IllegalArgumentException("Got " + columnNames.size() + " column names, but " + columnTypes.size() + " column types");
+		}
+		for (int i = 0; i < columnNames.size(); i++) {
+			addColumn(columnNames.get(i), columnTypes.get(i));
+		}
+	}
+
+	/**
+	 * adds a column, existing rows get a null value. Returns the index of the new column.
+	 */
+	public int addColumn(String name, ColumnType type) {
+		var column = type.createColumn();
+		for (int row = 0; row < rowCount; row++) {
+			column.appendNull();
+		}
+		columnNames.add(name);
+		columns.add(column);
+		return columns.size() - 1;
+	}
+
+	public List<String> getColumnNames() {
+		return Collections.unmodifiableList(columnNames);
+	}
+
+	public List<ColumnType> getColumnTypes() {
+		return columns.stream().map(Column::getType).collect(Collectors.toList());
+	}
+
+	public int getColumnCount() {
+		return columns.size();
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	public Column getColumn(int column) {
+		return columns.get(column);
+	}
+
+	/**
+	 * appends a value to the current row. If the column can't store the value, it is converted into a column
+	 * that accepts any value.
+	 */
+	public void appendValue(int column, Object value) {
+		var target = columns.get(column);
+		if (value != null && !target.accepts(value)) {
+			target = target.toObjectColumn();
+			columns.set(column, target);
+		}
+		target.appendValue(value);
+	}
+
+	/**
+	 * finishes the current row, columns without a value for this row get a null value
+	 */
+	public void endRow() {
+		for (Column column : columns) {
+			if (column.size() == rowCount) {
+				column.appendNull();
+			} else if (column.size() != rowCount + 1) {
+				throw new IllegalStateException("Column has " + column.size() + " values, expected " + (rowCount + 1));
+			}
+		}
+		rowCount++;
+	}
+
+	/**
+	 * appends all rows of the given table, which has to have the same columns (e.g. the next page of a result)
+	 */
+	public void appendAll(ResultTable other) {
+		if (other.getColumnCount() != getColumnCount()) {
+			throw new IllegalArgumentException("Expected " + getColumnCount() + " columns, got " + other.getColumnCount());
+		}
+		for (int i = 0; i < columns.size(); i++) {
+			var target = columns.get(i);
+			var source = other.columns.get(i);
+			if (target.getType() != source.getType()) {
+				target = target.toObjectColumn();
+				columns.set(i, target);
+			}
+			target.appendAll(source);
+		}
+		rowCount += other.rowCount;
+	}
+
+	public Object getValue(int row, int column) {
+		return columns.get(column).getValue(row);
+	}
+
+	public String getDisplayValue(int row, int column) {
+		return columns.get(column).getDisplayValue(row);
+	}
+
+	/**
+	 * the display values of a row, converted when accessed
+	 */
+	public List<String> getRow(int row) {
+		return new AbstractList<>() {
+			@Override
+			public String get(int column) {
+				return getDisplayValue(row, column);
+			}
+
+			@Override
+			public int size() {
+				return columns.size();
+			}
+		};
+	}
+
+	/**
+	 * display values of all rows, converted when accessed
+	 */
+	public List<List<String>> getRows() {
+		return new AbstractList<>() {
+			@Override
+			public List<String> get(int row) {
+				return getRow(row);
+			}
+
+			@Override
+			public int size() {
+				return rowCount;
+			}
+		};
+	}
+
+	/**
+	 * indices of all rows, e.g. as items of a table view
+	 */
+	public List<Integer> getRowIndices() {
+		return new AbstractList<>() {
+			@Override
+			public Integer get(int row) {
+				return row;
+			}
+
+			@Override
+			public int size() {
+				return rowCount;
+			}
+		};
+	}
+
+	public String formatRow(int row, String delimiter) {
+		return String.join(delimiter, getRow(row));
+	}
+
+	/**
+	 * header and all rows, columns separated by the delimiter
+	 */
+	public String format(String delimiter) {
+		StringBuilder b = new StringBuilder();
+		b.append(String.join(delimiter, columnNames));
+		for (int row = 0; row < rowCount; row++) {
+			b.append(System.lineSeparator());
+			b.append(formatRow(row, delimiter));
+		}
+		return b.toString();
+	}
+}
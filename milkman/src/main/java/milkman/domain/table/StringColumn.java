@@ -0,0 +1,86 @@
+package milkman.domain.table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * dictionary-encoded strings: every distinct value is stored once, rows only hold an index into the dictionary.
+ *
+ * If (nearly) every value is distinct, looking values up does not pay off, so new values are added
+ * to the dictionary without deduplication once it grew large.
+ */
+public class StringColumn extends Column {
+
+	private static final int MIN_DEDUPLICATED_ENTRIES = 1024;
+
+	private final List<String> dictionary = new ArrayList<>();
+	private Map<String, Integer> dictionaryIndex = new HashMap<>();
+	private int[] codes = new int[0];
+
+	@Override
+	public ColumnType getType() {
+		return ColumnType.STRING;
+	}
+
+	@Override
+	public boolean accepts(Object value) {
+		return value instanceof String;
+	}
+
+	public void appendString(String value) {
+		appendValue(value);
+	}
+
+	public String getString(int row) {
+		return isNull(row) ? null : dictionary.get(codes[row]);
+	}
+
+	/**
+	 * number of stored distinct values
+	 */
+	public int getDictionarySize() {
+		return dictionary.size();
+	}
+
+	@Override
+	protected String format(int row) {
+		return dictionary.get(codes[row]);
+	}
+
+	@Override
+	protected Object get(int row) {
+		return dictionary.get(codes[row]);
+	}
+
+	@Override
+	protected void set(int row, Object value) {
+		codes[row] = encode((String) value);
+	}
+
+	private int encode(String value) {
+		if (dictionaryIndex == null) {
+			dictionary.add(value);
+			return dictionary.size() - 1;
+		}
+		Integer code = dictionaryIndex.get(value);
+		if (code == null) {
+			code = dictionary.size();
+			dictionary.add(value);
+			dictionaryIndex.put(value, code);
+			if (dictionary.size() > MIN_DEDUPLICATED_ENTRIES && dictionary.size() > size / 2) {
+				dictionaryIndex = null;
+			}
+		}
+		return code;
+	}
+
+	@Override
+	protected void ensureCapacity(int capacity) {
+		if (capacity > codes.length) {
+			codes = Arrays.copyOf(codes, grow(codes.length, capacity));
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package milkman.persistence;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import milkman.domain.Collection;
+import org.dizitart.no2.IndexType;
+import org.dizitart.no2.objects.Id;
+import org.dizitart.no2.objects.Index;
+import org.dizitart.no2.objects.Indices;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * stored collection. The requests are stored separately, the collection only keeps their keys (in order).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Indices({
+	@Index(value = "workspace", type = IndexType.NonUnique)
+})
+public class CollectionDocument {
+
+	@Id
+	private String key;
+	private long workspace;
+	private Collection collection;
+	private List<String> requestKeys = new LinkedList<>();
+}
@@ -0,0 +1,24 @@
+package milkman.persistence;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import milkman.domain.Environment;
+import org.dizitart.no2.IndexType;
+import org.dizitart.no2.objects.Id;
+import org.dizitart.no2.objects.Index;
+import org.dizitart.no2.objects.Indices;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Indices({
+	@Index(value = "workspace", type = IndexType.NonUnique)
+})
+public class EnvironmentDocument {
+
+	@Id
+	private String key;
+	private long workspace;
+	private Environment environment;
+}
@@ -1,10 +1,18 @@
 package milkman.persistence;
 
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Singleton;
@@ -20,19 +28,58 @@ import lombok.SneakyThrows;
 import lombok.val;
 import lombok.extern.slf4j.Slf4j;
 import milkman.PlatformUtil;
+import milkman.domain.RequestAspect;
 import milkman.domain.Workspace;
+import milkman.ui.main.options.CoreApplicationOptionsProvider;
 
+import static milkman.persistence.WorkspaceDocuments.COLLECTION;
+import static milkman.persistence.WorkspaceDocuments.ENVIRONMENT;
+import static milkman.persistence.WorkspaceDocuments.REQUEST;
+import static milkman.persistence.WorkspaceDocuments.REQUEST_ASPECTS;
+import static milkman.persistence.WorkspaceDocuments.WORKSPACE;
+
+/**
+ * stores workspaces split into separate documents (workspace, collections, requests, request aspects, environments).
+ *
+ * If lazy loading is enabled, aspects of requests are loaded on first access (e.g. if the request is opened or executed).
+ *
+ * Fingerprints of all documents are kept for loaded workspaces, so only changed documents are written on persist.
+ *
+ * Serialization and writes are executed asynchronously (see {@link WriteBehindQueue}), options and workbench state
+ * are written from snapshots. Reads wait for pending writes to be flushed.
+ */
 @Singleton
 @Slf4j
 public class PersistenceManager {
-	
+
+	/**
+	 * system property to use a different database file, e.g. for benchmarks
+	 */
+	public static final String DATABASE_FILE_PROPERTY = "milkman.database.file";
+
+	private static final long COALESCING_DELAY_MILLIS = 200;
+
 	private CompletableFuture<Nitrite> db;
-	private ObjectRepository<Workspace> workspaces;
+	private ObjectMapper mapper;
+	private ObjectRepository<WorkspaceDocument> workspaces;
+	private ObjectRepository<CollectionDocument> collections;
+	private ObjectRepository<RequestDocument> requests;
+	private ObjectRepository<RequestAspectsDocument> requestAspects;
+	private ObjectRepository<EnvironmentDocument> environments;
 	private ObjectRepository<OptionEntry> options;
 	private ObjectRepository<WorkbenchState> workbenchStates;
-	
+	private WriteBehindQueue writeQueue;
+	private final AtomicBoolean shutDown = new AtomicBoolean();
+
+	/**
+	 * fingerprints of the stored documents by type-prefixed key, per workspace id.
+	 * Aspects that were not loaded yet have an empty fingerprint.
+	 */
+	private final Map<Long, Map<String, byte[]>> storedFingerprints = new ConcurrentHashMap<>();
+
 	public WorkbenchState loadWorkbenchState() {
 		assureInitialization();
+		writeQueue.flush();
 		WorkbenchState wb = workbenchStates.find().firstOrDefault();
 		if (wb == null) {
 			wb = new WorkbenchState();
@@ -42,11 +89,13 @@ public class PersistenceManager {
 	}
 	public void saveWorkbenchState(WorkbenchState state) {
 		assureInitialization();
-		workbenchStates.update(state);
+		var snapshot = new WorkbenchState(state.getId(), state.getLoadedWorkspace());
+		writeQueue.enqueue("workbenchState", () -> workbenchStates.update(snapshot));
 	}
-	
+
 	public List<String> loadWorkspaceNames(){
 		assureInitialization();
+		writeQueue.flush();
 		List<String> result = new LinkedList<String>();
 		for(val workspace : workspaces.find())
 			result.add(workspace.getName());
@@ -55,59 +104,277 @@ public class PersistenceManager {
 
 	public Optional<Workspace> loadWorkspaceByName(String name) {
 		assureInitialization();
-		return Optional.ofNullable(workspaces
-				.find(ObjectFilters.eq("name", name))
-				.firstOrDefault())
-				.map(this::fixSerialization);
+		writeQueue.flush();
+		WorkspaceDocument workspaceDocument = workspaces.find(ObjectFilters.eq("name", name)).firstOrDefault();
+		if (workspaceDocument == null) {
+			return Optional.empty();
+		}
+
+		long workspaceId = workspaceDocument.getId();
+		boolean lazy = CoreApplicationOptionsProvider.options().isLazyRequestLoading();
+		val documents = new WorkspaceDocuments(workspaceDocument,
+				collections.find(ObjectFilters.eq("workspace", workspaceId)).toList(),
+				requests.find(ObjectFilters.eq("workspace", workspaceId)).toList(),
+				environments.find(ObjectFilters.eq("workspace", workspaceId)).toList(),
+				lazy ? List.of() : requestAspects.find(ObjectFilters.eq("workspace", workspaceId)).toList());
+		Workspace workspace = documents.assemble();
+		if (lazy) {
+			documents.getRequests().forEach(d -> d.getRequest().setAspectsLoader(
+					new StoredAspectsLoader(d.getKey(), key -> loadRequestAspects(workspaceId, key))));
+		}
+
+		Map<String, byte[]> fingerprints = new ConcurrentHashMap<>();
+		val splitDocuments = WorkspaceDocuments.split(workspace, false);
+		serialize(splitDocuments).forEach((key, json) -> fingerprints.put(key, fingerprint(json)));
+		splitDocuments.getUntouchedKeys().forEach(key -> fingerprints.put(key, new byte[0]));
+		//documents that are no longer referenced get removed on next persist
+		documents.byKey().keySet().forEach(key -> fingerprints.putIfAbsent(key, new byte[0]));
+		storedFingerprints.put(workspaceId, fingerprints);
+		return Optional.of(workspace);
+	}
+
+	/**
+	 * loads the aspects of a request of a lazily loaded workspace
+	 */
+	@SneakyThrows
+	private List<RequestAspect> loadRequestAspects(long workspaceId, String key) {
+		RequestAspectsDocument document = requestAspects.find(ObjectFilters.eq("key", key)).firstOrDefault();
+		if (document == null) {
+			log.warn("No stored aspects found for request {}", key);
+			return new LinkedList<>();
+		}
+		Map<String, byte[]> fingerprints = storedFingerprints.get(workspaceId);
+		if (fingerprints != null) {
+			byte[] fingerprint = fingerprint(mapper.writeValueAsBytes(document));
+			fingerprints.computeIfPresent(REQUEST_ASPECTS + ":" + key, (k, previous) -> previous.length == 0 ? fingerprint : previous);
+		}
+		return document.getAspects();
 	}
 
-	
+
 	public void persistWorkspace(Workspace workspace) {
 		assureInitialization();
+		writeWorkspace(workspace);
+	}
+
+	/**
+	 * splits and serializes the workspace on the calling thread, which owns the entities. Only the serialized
+	 * snapshot is handed to the writer thread, which fingerprints it and writes the changed documents after
+	 * the coalescing delay.
+	 */
+	private void writeWorkspace(Workspace workspace) {
 		if (workspace.getId() == 0) {
 			long newId = new Random().nextLong(); //todo awkward method to generate new id
-			workspace.setId(newId);			
-			workspaces.insert(workspace);
+			workspace.setId(newId);
+		}
+		long workspaceId = workspace.getId();
+
+		//if the stored state is unknown, all aspects have to be written
+		boolean replace = !storedFingerprints.containsKey(workspaceId);
+		val documents = WorkspaceDocuments.split(workspace, replace);
+		if (replace) {
+			//stored state is unknown (e.g. new workspace), so it is replaced completely
+			writeQueue.discard(key -> belongsTo(key, workspaceId));
+		}
+		Map<String, byte[]> serializedDocuments = serialize(documents);
+		Map<String, Class<?>> documentTypes = new HashMap<>();
+		documents.byKey().forEach((key, document) -> documentTypes.put(key, document.getClass()));
+		Set<String> untouchedKeys = Set.copyOf(documents.getUntouchedKeys());
+		String workspaceName = workspace.getName();
+		writeQueue.enqueue("save:" + workspaceId,
+				() -> storeDocuments(workspaceId, workspaceName, serializedDocuments, documentTypes, untouchedKeys, replace));
+	}
+
+	/**
+	 * writes the documents that changed since the last save, runs on the writer thread
+	 */
+	private void storeDocuments(long workspaceId, String workspaceName, Map<String, byte[]> serializedDocuments,
+								Map<String, Class<?>> documentTypes, Set<String> untouchedKeys, boolean replace) {
+
+		Map<String, byte[]> previousFingerprints = storedFingerprints.get(workspaceId);
+		if (replace) {
+			removeDocumentsOf(workspaceId);
+			previousFingerprints = Map.of();
+		} else if (previousFingerprints == null) {
+			//a previous write failed, unloaded aspects are still stored, but everything else is rewritten
+			previousFingerprints = Map.of();
+		}
+
+		Map<String, byte[]> fingerprints = new ConcurrentHashMap<>();
+		int written = 0;
+		for (val document : serializedDocuments.entrySet()) {
+			String key = document.getKey();
+			byte[] fingerprint = fingerprint(document.getValue());
+			if (!Arrays.equals(previousFingerprints.get(key), fingerprint)) {
+				writeDocument(workspaceId, document.getValue(), documentTypes.get(key));
+				written++;
+			}
+			fingerprints.put(key, fingerprint);
+		}
+		//aspects that are not loaded are unchanged
+		for (String key : untouchedKeys) {
+			fingerprints.put(key, previousFingerprints.getOrDefault(key, new byte[0]));
+		}
+		int removed = 0;
+		for (String key : previousFingerprints.keySet()) {
+			if (!fingerprints.containsKey(key)) {
+				removeDocument(key);
+				removed++;
+			}
+		}
+		storedFingerprints.put(workspaceId, fingerprints);
+		log.debug("Persisting workspace {}: {} of {} documents changed, {} removed",
+				workspaceName, written, fingerprints.size(), removed);
+	}
+
+	private static boolean belongsTo(String typedKey, long workspaceId) {
+		String key = typedKey.substring(typedKey.indexOf(':') + 1);
+		return key.equals(String.valueOf(workspaceId)) || key.startsWith(workspaceId + "/");
+	}
+
+	@SneakyThrows
+	private void writeDocument(long workspaceId, byte[] json, Class<?> documentType) {
+		try {
+			Object document = mapper.readValue(json, documentType);
+			if (document instanceof WorkspaceDocument) {
+				workspaces.update((WorkspaceDocument) document, true);
+			} else if (document instanceof CollectionDocument) {
+				collections.update((CollectionDocument) document, true);
+			} else if (document instanceof RequestDocument) {
+				requests.update((RequestDocument) document, true);
+			} else if (document instanceof EnvironmentDocument) {
+				environments.update((EnvironmentDocument) document, true);
+			} else if (document instanceof RequestAspectsDocument) {
+				requestAspects.update((RequestAspectsDocument) document, true);
+			} else {
+				throw new IllegalArgumentException("Unsupported document: " + document);
+			}
+		} catch (Exception e) {
+			//the stored state is unknown now, so the workspace gets written completely next time
+			storedFingerprints.remove(workspaceId);
+			throw e;
 		}
-		else
-			workspaces.update(workspace);
 	}
-	
+
+	private void removeDocument(String typedKey) {
+		int idx = typedKey.indexOf(':');
+		String type = typedKey.substring(0, idx);
+		String key = typedKey.substring(idx + 1);
+		switch (type) {
+			case WORKSPACE -> workspaces.remove(ObjectFilters.eq("id", Long.parseLong(key)));
+			case COLLECTION -> collections.remove(ObjectFilters.eq("key", key));
+			case REQUEST -> requests.remove(ObjectFilters.eq("key", key));
+			case ENVIRONMENT -> environments.remove(ObjectFilters.eq("key", key));
+			case REQUEST_ASPECTS -> requestAspects.remove(ObjectFilters.eq("key", key));
+			default -> throw new IllegalArgumentException("Unsupported document type: " + type);
+		}
+	}
+
+	private void removeDocumentsOf(long workspaceId) {
+		workspaces.remove(ObjectFilters.eq("id", workspaceId));
+		collections.remove(ObjectFilters.eq("workspace", workspaceId));
+		requests.remove(ObjectFilters.eq("workspace", workspaceId));
+		environments.remove(ObjectFilters.eq("workspace", workspaceId));
+		requestAspects.remove(ObjectFilters.eq("workspace", workspaceId));
+	}
+
+	@SneakyThrows
+	private Map<String, byte[]> serialize(WorkspaceDocuments documents) {
+		Map<String, byte[]> result = new LinkedHashMap<>();
+		for (val document : documents.byKey().entrySet()) {
+			result.put(document.getKey(), mapper.writeValueAsBytes(document.getValue()));
+		}
+		return result;
+	}
+
+	@SneakyThrows
+	private static byte[] fingerprint(byte[] json) {
+		return MessageDigest.getInstance("MD5").digest(json);
+	}
+
 	public List<OptionEntry> loadOptions(){
 		assureInitialization();
+		writeQueue.flush();
 		List<OptionEntry> result = new LinkedList<OptionEntry>();
 		for(val option : options.find())
 			result.add(option);
 		return result;
 	}
-	
+
+	@SneakyThrows
 	public void storeOptions(List<OptionEntry> optEntries) {
 		assureInitialization();
-		options.remove(ObjectFilters.ALL);
 		//adjust IDs:
 		for(int i = 0; i < optEntries.size(); ++i)
 			optEntries.get(i).setId(i);
-		options.insert(optEntries.toArray(new OptionEntry[] {}));
+		byte[] snapshot = mapper.writeValueAsBytes(optEntries.toArray(new OptionEntry[] {}));
+		writeQueue.enqueue("options", () -> writeOptions(snapshot));
+	}
+
+	@SneakyThrows
+	private void writeOptions(byte[] snapshot) {
+		OptionEntry[] optEntries = mapper.readValue(snapshot, OptionEntry[].class);
+		for (OptionEntry entry : optEntries) {
+			options.update(entry, true);
+		}
+		options.remove(ObjectFilters.gte("id", (long) optEntries.length));
 	}
 
 	public boolean deleteWorkspace(String workspaceName) {
 		assureInitialization();
-		return workspaces.remove(ObjectFilters.eq("name", workspaceName)).getAffectedCount() > 0;
+		writeQueue.flush();
+		WorkspaceDocument workspaceDocument = workspaces.find(ObjectFilters.eq("name", workspaceName)).firstOrDefault();
+		if (workspaceDocument == null) {
+			return false;
+		}
+		long workspaceId = workspaceDocument.getId();
+		storedFingerprints.remove(workspaceId);
+		writeQueue.discard(key -> belongsTo(key, workspaceId));
+		writeQueue.enqueue("all:" + workspaceId, () -> removeDocumentsOf(workspaceId));
+		return true;
 	}
-	
-	
+
+	/**
+	 * blocks until all pending writes are stored
+	 */
+	public void flush() {
+		assureInitialization();
+		writeQueue.flush();
+	}
+
+	public PersistenceMetrics getMetrics() {
+		assureInitialization();
+		return writeQueue.getMetrics();
+	}
+
+	/**
+	 * flushes pending writes and closes the database
+	 */
+	@SneakyThrows
+	public void shutdown() {
+		if (!shutDown.compareAndSet(false, true) || writeQueue == null) {
+			return;
+		}
+		writeQueue.shutdown();
+		log.info("Persistence shut down: {}", writeQueue.getMetrics());
+		db.get().close();
+	}
+
+
 	@PostConstruct
 	public void init() {
 		JacksonMapper nitriteMapper = new JacksonMapper();
-		ObjectMapper mapper = nitriteMapper.getObjectMapper();
+		mapper = nitriteMapper.getObjectMapper();
 		mapper.addHandler(new UnknownPluginHandler());
 		db = CompletableFuture.supplyAsync(() -> createOrOpenDb(nitriteMapper));
+		//pending writes must not get lost, even if the application is not shut down properly
+		Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "persistence-shutdown"));
 	}
-	
+
 	private Nitrite createOrOpenDb(JacksonMapper nitriteMapper) {
 		var createdDb = Nitrite.builder()
 		        .compressed()
-		        .filePath(PlatformUtil.getWritableLocationForFile("database.db"))
+		        .filePath(System.getProperty(DATABASE_FILE_PROPERTY, PlatformUtil.getWritableLocationForFile("database.db")))
 		        .nitriteMapper(nitriteMapper)
 		        .openOrCreate("milkman", "bringthemilk");
 		if (createdDb == null)
@@ -116,14 +383,51 @@ public class PersistenceManager {
 	}
 
 	@SneakyThrows
-	private void assureInitialization() {
-		if (workspaces == null || options == null || workbenchStates == null) {
-			workspaces = db.get().getRepository(Workspace.class);
-			options = db.get().getRepository(OptionEntry.class);
-			workbenchStates = db.get().getRepository(WorkbenchState.class);
+	private synchronized void assureInitialization() {
+		if (writeQueue == null) {
+			Nitrite nitrite = db.get();
+			collections = nitrite.getRepository(CollectionDocument.class);
+			requests = nitrite.getRepository(RequestDocument.class);
+			requestAspects = nitrite.getRepository(RequestAspectsDocument.class);
+			environments = nitrite.getRepository(EnvironmentDocument.class);
+			options = nitrite.getRepository(OptionEntry.class);
+			workbenchStates = nitrite.getRepository(WorkbenchState.class);
+			workspaces = nitrite.getRepository(WorkspaceDocument.class);
+			//if the migration fails, it is retried on next access instead of working on a partially migrated database
+			migrateWorkspaceDocuments(nitrite);
+			writeQueue = new WriteBehindQueue(COALESCING_DELAY_MILLIS, nitrite::commit);
 		}
 	}
-	
+
+	/**
+	 * before 5.10, workspaces were stored as single documents, including all collections, requests and environments.
+	 *
+	 * Migrated documents are written synchronously, the legacy workspaces are only dropped if all of them were stored.
+	 */
+	private void migrateWorkspaceDocuments(Nitrite nitrite) {
+		if (!nitrite.hasRepository(Workspace.class)) {
+			return;
+		}
+		ObjectRepository<Workspace> legacyWorkspaces = nitrite.getRepository(Workspace.class);
+		for (Workspace workspace : legacyWorkspaces.find()) {
+			log.info("Migrating workspace {} to new storage format", workspace.getName());
+			migrateWorkspace(fixSerialization(workspace));
+		}
+		nitrite.commit();
+		legacyWorkspaces.drop();
+		nitrite.commit();
+	}
+
+	private void migrateWorkspace(Workspace workspace) {
+		if (workspace.getId() == 0) {
+			workspace.setId(new Random().nextLong());
+		}
+		long workspaceId = workspace.getId();
+		val documents = WorkspaceDocuments.split(workspace, true);
+		Map<String, Object> documentsByKey = documents.byKey();
+		removeDocumentsOf(workspaceId);
+		serialize(documents).forEach((key, json) -> writeDocument(workspaceId, json, documentsByKey.get(key).getClass()));
+	}
 
 	private Workspace fixSerialization(Workspace ws) {
 		//due to json serialization, the active request is duplicated, but should be references from openRequests
@@ -131,8 +435,8 @@ public class PersistenceManager {
 		.filter(r -> r.getId().equals(ws.getActiveRequest().getId()))
 		.findAny()
 		.ifPresent(or -> ws.setActiveRequest(or));
-		
+
 		return ws;
 	}
-	
+
 }
@@ -0,0 +1,15 @@
+package milkman.persistence;
+
+import lombok.Value;
+
+@Value
+public class PersistenceMetrics {
+	/** number of writes waiting to be flushed */
+	int queueDepth;
+	long enqueuedWrites;
+	/** writes that replaced a pending write of the same entity */
+	long coalescedWrites;
+	long flushedBatches;
+	long lastFlushMillis;
+	long maxFlushMillis;
+}
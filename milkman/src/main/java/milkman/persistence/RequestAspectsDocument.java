@@ -0,0 +1,30 @@
+package milkman.persistence;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import milkman.domain.RequestAspect;
+import org.dizitart.no2.IndexType;
+import org.dizitart.no2.objects.Id;
+import org.dizitart.no2.objects.Index;
+import org.dizitart.no2.objects.Indices;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * aspects of a stored request (bodies, scripts, ...). Stored separately, so requests can be loaded without them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Indices({
+	@Index(value = "workspace", type = IndexType.NonUnique)
+})
+public class RequestAspectsDocument {
+
+	@Id
+	private String key;
+	private long workspace;
+	private List<RequestAspect> aspects = new LinkedList<>();
+}
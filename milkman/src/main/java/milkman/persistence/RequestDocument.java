@@ -0,0 +1,29 @@
+package milkman.persistence;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import milkman.domain.RequestContainer;
+import org.dizitart.no2.IndexType;
+import org.dizitart.no2.objects.Id;
+import org.dizitart.no2.objects.Index;
+import org.dizitart.no2.objects.Indices;
+
+/**
+ * stored request without its aspects, these are stored in a {@link RequestAspectsDocument} with the same key
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Indices({
+	@Index(value = "workspace", type = IndexType.NonUnique)
+})
+public class RequestDocument {
+
+	@Id
+	private String key;
+	private long workspace;
+	@JsonIgnoreProperties({"aspects"})
+	private RequestContainer request;
+}
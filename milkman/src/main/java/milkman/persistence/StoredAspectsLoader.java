@@ -0,0 +1,25 @@
+package milkman.persistence;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import milkman.domain.RequestAspect;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * loads the aspects of a request from its {@link RequestAspectsDocument}
+ */
+@RequiredArgsConstructor
+class StoredAspectsLoader implements Supplier<List<RequestAspect>> {
+
+	@Getter
+	private final String key;
+	private final Function<String, List<RequestAspect>> loader;
+
+	@Override
+	public List<RequestAspect> get() {
+		return loader.apply(key);
+	}
+}
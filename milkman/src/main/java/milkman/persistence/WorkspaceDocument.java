@@ -0,0 +1,39 @@
+package milkman.persistence;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import milkman.domain.KeySet;
+import milkman.domain.RequestContainer;
+import milkman.domain.SyncDetails;
+import org.dizitart.no2.IndexType;
+import org.dizitart.no2.objects.Id;
+import org.dizitart.no2.objects.Index;
+import org.dizitart.no2.objects.Indices;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * stored workspace without its collections, requests and environments. These are stored as separate documents
+ * and referenced by key.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Indices({
+	@Index(value = "name", type = IndexType.Unique)
+})
+public class WorkspaceDocument {
+
+	@Id
+	private long id;
+	private String workspaceId;
+	private String name;
+	private List<String> collectionKeys = new LinkedList<>();
+	private List<String> environmentKeys = new LinkedList<>();
+	private List<RequestContainer> openRequests = new LinkedList<>();
+	private String activeRequestId;
+	private List<KeySet> keySets = new LinkedList<>();
+	private SyncDetails syncDetails;
+}
@@ -0,0 +1,194 @@
+package milkman.persistence;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import milkman.domain.Collection;
+import milkman.domain.Environment;
+import milkman.domain.RequestAspect;
+import milkman.domain.RequestContainer;
+import milkman.domain.Workspace;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * a workspace, split into separately stored documents
+ */
+@Getter
+@RequiredArgsConstructor
+class WorkspaceDocuments {
+
+	static final String WORKSPACE = "workspace";
+	static final String COLLECTION = "collection";
+	static final String REQUEST = "request";
+	static final String ENVIRONMENT = "environment";
+	static final String REQUEST_ASPECTS = "aspects";
+
+	private final WorkspaceDocument workspace;
+	private final List<CollectionDocument> collections;
+	private final List<RequestDocument> requests;
+	private final List<EnvironmentDocument> environments;
+	private final List<RequestAspectsDocument> requestAspects;
+	/**
+	 * type-prefixed keys of aspects documents that are stored, but were not split as the aspects are not loaded
+	 */
+	private final Set<String> untouchedKeys;
+
+	WorkspaceDocuments(WorkspaceDocument workspace, List<CollectionDocument> collections, List<RequestDocument> requests,
+					   List<EnvironmentDocument> environments, List<RequestAspectsDocument> requestAspects) {
+		this(workspace, collections, requests, environments, requestAspects, Set.of());
+	}
+
+	/**
+	 * splits the workspace into documents. The workspace needs to have an id already.
+	 * Entities without id get a new one assigned, so they keep their key in subsequent saves.
+	 *
+	 * Aspects of requests that are not loaded yet are not split (they are unchanged), unless hydrate is set.
+	 */
+	static WorkspaceDocuments split(Workspace workspace, boolean hydrate) {
+		long workspaceId = workspace.getId();
+		var workspaceDocument = new WorkspaceDocument();
+		workspaceDocument.setId(workspaceId);
+		workspaceDocument.setWorkspaceId(workspace.getWorkspaceId());
+		workspaceDocument.setName(workspace.getName());
+		workspaceDocument.setOpenRequests(workspace.getOpenRequests());
+		workspaceDocument.setActiveRequestId(workspace.getActiveRequest() != null ? workspace.getActiveRequest().getId() : null);
+		workspaceDocument.setKeySets(workspace.getKeySets());
+		workspaceDocument.setSyncDetails(workspace.getSyncDetails());
+
+		List<CollectionDocument> collections = new ArrayList<>();
+		List<RequestDocument> requests = new ArrayList<>();
+		List<RequestAspectsDocument> requestAspects = new ArrayList<>();
+		Set<String> untouchedKeys = new HashSet<>();
+		for (Collection collection : nullSafe(workspace.getCollections())) {
+			if (StringUtils.isEmpty(collection.getId())) {
+				collection.setId(UUID.randomUUID().toString());
+			}
+			String collectionKey = workspaceId + "/" + collection.getId();
+			List<String> requestKeys = new LinkedList<>();
+			for (RequestContainer request : nullSafe(collection.getRequests())) {
+				if (StringUtils.isEmpty(request.getId())) {
+					request.setId(UUID.randomUUID().toString());
+				}
+				String requestKey = collectionKey + "/" + request.getId();
+				requestKeys.add(requestKey);
+				requests.add(new RequestDocument(requestKey, workspaceId, request));
+				if (hydrate || !isStoredAt(request, requestKey)) {
+					requestAspects.add(new RequestAspectsDocument(requestKey, workspaceId, request.getAspects()));
+				} else {
+					untouchedKeys.add(REQUEST_ASPECTS + ":" + requestKey);
+				}
+			}
+			var collectionWithoutRequests = new Collection(collection.getId(), collection.getName(), collection.isStarred(),
+					new LinkedList<>(), collection.getFolders());
+			collections.add(new CollectionDocument(collectionKey, workspaceId, collectionWithoutRequests, requestKeys));
+			workspaceDocument.getCollectionKeys().add(collectionKey);
+		}
+
+		List<EnvironmentDocument> environments = new ArrayList<>();
+		for (Environment environment : nullSafe(workspace.getEnvironments())) {
+			if (StringUtils.isEmpty(environment.getId())) {
+				environment.setId(UUID.randomUUID().toString());
+			}
+			String environmentKey = workspaceId + "/" + environment.getId();
+			environments.add(new EnvironmentDocument(environmentKey, workspaceId, environment));
+			workspaceDocument.getEnvironmentKeys().add(environmentKey);
+		}
+
+		return new WorkspaceDocuments(workspaceDocument, collections, requests, environments, requestAspects, untouchedKeys);
+	}
+
+	/**
+	 * true, if the aspects of the request are not loaded yet and would be loaded from the given key
+	 * (if the request was moved, its aspects need to be stored at the new key)
+	 */
+	private static boolean isStoredAt(RequestContainer request, String requestKey) {
+		return request.getAspectsLoader() instanceof StoredAspectsLoader loader
+				&& loader.getKey().equals(requestKey);
+	}
+
+	/**
+	 * assembles the workspace. Documents that are not referenced are ignored, references to missing documents are skipped.
+	 */
+	Workspace assemble() {
+		Map<String, RequestContainer> requestsByKey = toMap(requests, RequestDocument::getKey, RequestDocument::getRequest);
+		Map<String, List<RequestAspect>> aspectsByKey = toMap(requestAspects, RequestAspectsDocument::getKey, RequestAspectsDocument::getAspects);
+		aspectsByKey.forEach((key, aspects) -> {
+			var request = requestsByKey.get(key);
+			if (request != null) {
+				request.setAspects(aspects);
+			}
+		});
+		Map<String, CollectionDocument> collectionsByKey = toMap(collections, CollectionDocument::getKey, Function.identity());
+		Map<String, Environment> environmentsByKey = toMap(environments, EnvironmentDocument::getKey, EnvironmentDocument::getEnvironment);
+
+		List<Collection> assembledCollections = new LinkedList<>();
+		for (String collectionKey : workspace.getCollectionKeys()) {
+			var document = collectionsByKey.get(collectionKey);
+			if (document == null) {
+				continue;
+			}
+			var collection = document.getCollection();
+			collection.setRequests(document.getRequestKeys().stream()
+					.map(requestsByKey::get)
+					.filter(Objects::nonNull)
+					.collect(Collectors.toCollection(LinkedList::new)));
+			assembledCollections.add(collection);
+		}
+
+		List<Environment> assembledEnvironments = workspace.getEnvironmentKeys().stream()
+				.map(environmentsByKey::get)
+				.filter(Objects::nonNull)
+				.collect(Collectors.toCollection(LinkedList::new));
+
+		List<RequestContainer> openRequests = new ArrayList<>(nullSafe(workspace.getOpenRequests()));
+		RequestContainer activeRequest = openRequests.stream()
+				.filter(r -> r.getId().equals(workspace.getActiveRequestId()))
+				.findAny()
+				.orElse(openRequests.isEmpty() ? null : openRequests.get(0));
+
+		var result = new Workspace(workspace.getId(), workspace.getWorkspaceId(), workspace.getName(),
+				assembledCollections, openRequests, activeRequest);
+		result.setEnvironments(assembledEnvironments);
+		if (workspace.getKeySets() != null && !workspace.getKeySets().isEmpty()) {
+			result.setKeySets(workspace.getKeySets());
+		}
+		if (workspace.getSyncDetails() != null) {
+			result.setSyncDetails(workspace.getSyncDetails());
+		}
+		return result;
+	}
+
+	/**
+	 * all documents by their type-prefixed key
+	 */
+	Map<String, Object> byKey() {
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put(WORKSPACE + ":" + workspace.getId(), workspace);
+		collections.forEach(d -> result.put(COLLECTION + ":" + d.getKey(), d));
+		requests.forEach(d -> result.put(REQUEST + ":" + d.getKey(), d));
+		environments.forEach(d -> result.put(ENVIRONMENT + ":" + d.getKey(), d));
+		requestAspects.forEach(d -> result.put(REQUEST_ASPECTS + ":" + d.getKey(), d));
+		return result;
+	}
+
+	private static <T, V> Map<String, V> toMap(List<T> documents, Function<T, String> key, Function<T, V> value) {
+		Map<String, V> result = new LinkedHashMap<>();
+		documents.forEach(d -> result.put(key.apply(d), value.apply(d)));
+		return result;
+	}
+
+	private static <T> List<T> nullSafe(List<T> list) {
+		return list != null ? list : List.of();
+	}
+}
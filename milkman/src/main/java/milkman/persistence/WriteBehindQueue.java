@@ -0,0 +1,173 @@
+package milkman.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * executes writes on a background thread. Writes are keyed by the entity they write, so a pending write is
+ * replaced if the same entity is written again (keeping its position in the queue).
+ *
+ * Pending writes are collected for a short delay and then executed as a batch, followed by the given commit action.
+ */
+@Slf4j
+class WriteBehindQueue {
+
+	private final long coalescingDelayNanos;
+	private final Runnable commitAction;
+	private final Thread writerThread;
+
+	private final Map<String, Runnable> pending = new LinkedHashMap<>();
+	private long enqueuedSequence;
+	private long flushedSequence;
+	private boolean flushRequested;
+	private boolean writing;
+	private boolean running = true;
+
+	private long enqueuedWrites;
+	private long coalescedWrites;
+	private long flushedBatches;
+	private long lastFlushNanos;
+	private long maxFlushNanos;
+
+	WriteBehindQueue(long coalescingDelayMillis, Runnable commitAction) {
+		this.coalescingDelayNanos = TimeUnit.MILLISECONDS.toNanos(coalescingDelayMillis);
+		this.commitAction = commitAction;
+		this.writerThread = new Thread(this::run, "persistence-writer");
+		this.writerThread.setDaemon(true);
+		this.writerThread.start();
+	}
+
+	public synchronized void enqueue(String key, Runnable write) {
+		if (!running) {
+			throw new IllegalStateException("Persistence is already shut down");
+		}
+		if (pending.put(key, write) != null) {
+			coalescedWrites++;
+		}
+		enqueuedWrites++;
+		enqueuedSequence++;
+		notifyAll();
+	}
+
+	/**
+	 * drops pending writes that are superseded, e.g. by the deletion of the whole entity
+	 */
+	public synchronized void discard(Predicate<String> keys) {
+		pending.keySet().removeIf(keys);
+		if (pending.isEmpty() && !writing) {
+			//all writes are either done or discarded, so there is no batch left to wait for
+			flushedSequence = enqueuedSequence;
+			notifyAll();
+		}
+	}
+
+	/**
+	 * blocks until all writes that were enqueued before are executed
+	 */
+	public synchronized void flush() {
+		long awaitedSequence = enqueuedSequence;
+		if (Thread.currentThread() == writerThread) {
+			return;
+		}
+		flushRequested = true;
+		notifyAll();
+		boolean interrupted = false;
+		while (flushedSequence < awaitedSequence && writerThread.isAlive()) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * flushes all pending writes and stops the writer thread
+	 */
+	public void shutdown() {
+		flush();
+		synchronized (this) {
+			running = false;
+			notifyAll();
+		}
+	}
+
+	public synchronized PersistenceMetrics getMetrics() {
+		return new PersistenceMetrics(pending.size(), enqueuedWrites, coalescedWrites, flushedBatches,
+				TimeUnit.NANOSECONDS.toMillis(lastFlushNanos), TimeUnit.NANOSECONDS.toMillis(maxFlushNanos));
+	}
+
+	private void run() {
+		while (true) {
+			Map<String, Runnable> batch;
+			long batchSequence;
+			synchronized (this) {
+				if (!awaitBatch()) {
+					return;
+				}
+				batch = new LinkedHashMap<>(pending);
+				pending.clear();
+				batchSequence = enqueuedSequence;
+				flushRequested = false;
+				writing = true;
+			}
+
+			long startTime = System.nanoTime();
+			batch.forEach((key, write) -> {
+				try {
+					write.run();
+				} catch (Exception e) {
+					log.error("Failed to persist " + key, e);
+				}
+			});
+			try {
+				commitAction.run();
+			} catch (Exception e) {
+				log.error("Failed to commit persisted changes", e);
+			}
+			long duration = System.nanoTime() - startTime;
+
+			synchronized (this) {
+				writing = false;
+				//writes enqueued during the batch might have been discarded in the meantime
+				flushedSequence = pending.isEmpty() ? enqueuedSequence : batchSequence;
+				flushedBatches++;
+				lastFlushNanos = duration;
+				maxFlushNanos = Math.max(maxFlushNanos, duration);
+				notifyAll();
+			}
+			log.debug("Persisted {} changes in {} ms, {} pending", batch.size(), TimeUnit.NANOSECONDS.toMillis(duration), getMetrics().getQueueDepth());
+		}
+	}
+
+	/**
+	 * waits for pending writes and the coalescing delay (unless a flush is requested).
+	 * Returns false, if the queue is shut down and there is nothing left to write.
+	 */
+	private boolean awaitBatch() {
+		try {
+			while (pending.isEmpty()) {
+				if (!running) {
+					return false;
+				}
+				wait();
+			}
+			long deadline = System.nanoTime() + coalescingDelayNanos;
+			long remaining;
+			while (!flushRequested && running && (remaining = deadline - System.nanoTime()) > 0) {
+				TimeUnit.NANOSECONDS.timedWait(this, remaining);
+			}
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return !pending.isEmpty();
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package milkman.templater;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * a string, parsed into literal text and {{tag}} segments.
+ *
+ * Parsed templates are cached by content, so strings that are rendered on every execution
+ * (urls, headers, bodies) are only parsed once.
+ */
+class CompiledTemplate {
+
+	private static final int MAX_CACHED_LENGTH = 64 * 1024;
+	private static final int MAX_CACHED_TEMPLATES = 512;
+
+	private static final Map<String, CompiledTemplate> cache = Collections.synchronizedMap(
+			new LinkedHashMap<>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, CompiledTemplate> eldest) {
+					return size() > MAX_CACHED_TEMPLATES;
+				}
+			});
+
+	private final String input;
+	/** literal text before each tag, the remaining text is stored in the last element */
+	private final String[] literals;
+	/** tag names, without the surrounding braces */
+	private final String[] tags;
+
+	private CompiledTemplate(String input, String[] literals, String[] tags) {
+		this.input = input;
+		this.literals = literals;
+		this.tags = tags;
+	}
+
+	/**
+	 * returns the (cached) template for the given input
+	 */
+	static CompiledTemplate of(String input) {
+		if (input.indexOf("{{") < 0 || input.length() > MAX_CACHED_LENGTH) {
+			return parse(input);
+		}
+		return cache.computeIfAbsent(input, CompiledTemplate::parse);
+	}
+
+	/**
+	 * parses the input without caching. A tag is the shortest sequence {{...}} that does not contain
+	 * an opening brace, so nested tags are resolved from the inside out.
+	 */
+	static CompiledTemplate parse(String input) {
+		List<String> literals = new ArrayList<>();
+		List<String> tags = new ArrayList<>();
+		int literalStart = 0;
+		int idx = input.indexOf("{{");
+		while (idx >= 0) {
+			int tagEnd = findTagEnd(input, idx + 2);
+			if (tagEnd < 0) {
+				idx = input.indexOf("{{", idx + 1);
+				continue;
+			}
+			literals.add(input.substring(literalStart, idx));
+			tags.add(input.substring(idx + 2, tagEnd));
+			literalStart = tagEnd + 2;
+			idx = input.indexOf("{{", literalStart);
+		}
+		literals.add(input.substring(literalStart));
+		return new CompiledTemplate(input, literals.toArray(new String[0]), tags.toArray(new String[0]));
+	}
+
+	/**
+	 * returns the index of the closing braces of the tag starting at contentStart or -1, if there is none
+	 */
+	private static int findTagEnd(String input, int contentStart) {
+		for (int i = contentStart; i < input.length(); i++) {
+			char c = input.charAt(i);
+			if (c == '{') {
+				return -1;
+			}
+			if (c == '}' && i > contentStart && i + 1 < input.length() && input.charAt(i + 1) == '}') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	boolean hasTags() {
+		return tags.length > 0;
+	}
+
+	String render(Function<String, String> tagResolver) {
+		if (!hasTags()) {
+			return input;
+		}
+		StringBuilder builder = new StringBuilder(input.length());
+		for (int i = 0; i < tags.length; i++) {
+			builder.append(literals[i]);
+			builder.append(tagResolver.apply(tags[i]));
+		}
+		builder.append(literals[tags.length]);
+		return builder.toString();
+	}
+}
@@ -0,0 +1,48 @@
+package milkman.ui.components;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * a text that can't be read anymore once it is cancelled, so long-running matching (e.g. regex based highlighting)
+ * stops early with a {@link CancellationException}. Cancellation is checked every few characters only.
+ */
+class CancellableCharSequence implements CharSequence {
+
+	private static final int CHECK_INTERVAL = 1024;
+
+	private final CharSequence text;
+	private final BooleanSupplier cancelled;
+	private int uncheckedReads = 0;
+
+	CancellableCharSequence(CharSequence text, BooleanSupplier cancelled) {
+		this.text = text;
+		this.cancelled = cancelled;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (++uncheckedReads >= CHECK_INTERVAL) {
+			uncheckedReads = 0;
+			if (cancelled.getAsBoolean()) {
+				throw new CancellationException("Reading the text was cancelled");
+			}
+		}
+		return text.charAt(index);
+	}
+
+	@Override
+	public int length() {
+		return text.length();
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return text.subSequence(start, end);
+	}
+
+	@Override
+	public String toString() {
+		return text.toString();
+	}
+}
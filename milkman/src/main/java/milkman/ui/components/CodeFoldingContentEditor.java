@@ -1,16 +1,24 @@
 package milkman.ui.components;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Stack;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 import java.util.function.IntFunction;
 
 import javafx.application.Platform;
 import javafx.scene.control.Tooltip;
-import milkman.PlatformUtil;
+import lombok.extern.slf4j.Slf4j;
+import milkman.ui.plugin.ContentTypePlugin;
 import org.apache.commons.lang3.StringUtils;
 import org.fxmisc.richtext.LineNumberFactory;
 
@@ -32,8 +40,20 @@ import org.fxmisc.richtext.model.StyledDocument;
  * <p>
  * this should only be used for non-editable code Areas as it modifies the text and this might
  * result in unwanted changes to bound values
+ * <p>
+ * folding is computed in the background. Content is shown expanded right away, fold markers appear as soon as
+ * ranges are known. Content that is added chunk by chunk is folded incrementally, if supported by the content type.
+ * Collapsing/expanding a single range only replaces the text of that range.
  */
+@Slf4j
 public class CodeFoldingContentEditor extends ContentEditor {
+
+    private static final ExecutorService foldingExecutor = Executors.newCachedThreadPool(r -> {
+        Thread t = Executors.defaultThreadFactory().newThread(r);
+        t.setDaemon(true);
+        return t;
+    });
+
     private ContentRange rootRange;
 
     private Button collapseAll;
@@ -48,9 +68,22 @@ public class CodeFoldingContentEditor extends ContentEditor {
     private int maxFoldingLevel;
 
     private int minFoldingLevel = 0;
+    /**
+     * number of the last folding level request, results of earlier requests are dropped
+     */
+    private int foldingLevelRequest = 0;
 
-    private String originalText = "";
+    private final StringBuilder originalText = new StringBuilder();
     private FoldOperatorFactory foldOperatorFactory;
+    private FoldingSession session;
+
+    /**
+     * collapsed ranges, ordered by position (outer ranges first)
+     */
+    private final TreeSet<CollapsableRange> collapsedRanges = new TreeSet<>(Comparator
+            .comparingInt(CollapsableRange::getStart)
+            .thenComparing(CollapsableRange::getEnd, Comparator.reverseOrder())
+            .thenComparingInt(System::identityHashCode));
 
 
     public CodeFoldingContentEditor() {
@@ -58,42 +91,24 @@ public class CodeFoldingContentEditor extends ContentEditor {
         collapseAll = new JFXButton();
         collapseAll.setTooltip(new Tooltip("collapse all levels"));
         collapseAll.setGraphic(new FontAwesomeIconView(FontAwesomeIcon.COMPRESS));
-        collapseAll.setOnAction(e -> {
-            setCollapseRecursively(rootRange, minFoldingLevel, 0);
-            currentFoldingLevel = 0;
-            redrawText();
-        });
+        collapseAll.setOnAction(e -> applyFoldingLevel(minFoldingLevel));
 
 
         expandAll = new JFXButton();
         expandAll.setTooltip(new Tooltip("expand all levels"));
         expandAll.setGraphic(new FontAwesomeIconView(FontAwesomeIcon.EXPAND));
-        expandAll.setOnAction(e -> {
-            setCollapseRecursively(rootRange, maxFoldingLevel, 0);
-            currentFoldingLevel = maxFoldingLevel;
-            redrawText();
-        });
+        expandAll.setOnAction(e -> applyFoldingLevel(maxFoldingLevel));
 
         collapseOne = new JFXButton();
         collapseOne.setTooltip(new Tooltip("collapse one level"));
         collapseOne.setGraphic(new FontAwesomeIconView(FontAwesomeIcon.PLUS));
-        collapseOne.setOnAction(e -> {
-            int nextLevel = Math.min(currentFoldingLevel + 1, maxFoldingLevel);
-            setCollapseRecursively(rootRange, nextLevel, 0);
-            currentFoldingLevel = nextLevel;
-            redrawText();
-        });
+        collapseOne.setOnAction(e -> applyFoldingLevel(Math.min(currentFoldingLevel + 1, maxFoldingLevel)));
 
 
         expandOne = new JFXButton();
         expandOne.setTooltip(new Tooltip("Expand one level"));
         expandOne.setGraphic(new FontAwesomeIconView(FontAwesomeIcon.MINUS));
-        expandOne.setOnAction(e -> {
-            int nextLevel = Math.max(currentFoldingLevel - 1, minFoldingLevel);
-            setCollapseRecursively(rootRange, nextLevel, 0);
-            currentFoldingLevel = nextLevel;
-            redrawText();
-        });
+        expandOne.setOnAction(e -> applyFoldingLevel(Math.max(currentFoldingLevel - 1, minFoldingLevel)));
 
 
         softWrap = new JFXButton();
@@ -101,7 +116,6 @@ public class CodeFoldingContentEditor extends ContentEditor {
         softWrap.setTooltip(new Tooltip("Toggle Soft Wrap"));
         softWrap.setOnAction(e -> {
             codeArea.setWrapText(!codeArea.isWrapText());
-            redrawText();
             // workaround https://github.com/FXMisc/RichTextFX/issues/979
             if ( codeArea.isWrapText() ) // brute force refresh :(
             {
@@ -122,6 +136,7 @@ public class CodeFoldingContentEditor extends ContentEditor {
         header.getChildren().add(collapseOne);
         header.getChildren().add(expandOne);
         header.getChildren().add(softWrap);
+        setFoldingLevelsDisabled(true);
 
         highlighters.getSelectionModel().selectedItemProperty().addListener((obs, o, n) -> {
             if (n != null) {
@@ -130,7 +145,7 @@ public class CodeFoldingContentEditor extends ContentEditor {
                 collapseOne.setVisible(n.supportFolding());
                 expandOne.setVisible(n.supportFolding());
                 //trigger redraw bc of folding
-                replaceText(originalText);
+                replaceText(originalText.toString());
             }
         });
 
@@ -173,25 +188,64 @@ public class CodeFoldingContentEditor extends ContentEditor {
         codeArea.setParagraphGraphicFactory(graphicFactory);
     }
 
+    /**
+     * re-creates the graphics of the visible paragraphs, so fold markers are up-to-date
+     */
+    private void refreshFoldMarkers() {
+        setupParagraphGraphics();
+    }
+
 
     protected void replaceText(String text) {
     	Stopwatch.start("folding");
-        originalText = text;
-        if (getCurrentContenttypePlugin() != null && getCurrentContenttypePlugin().supportFolding()) {
-            rootRange = getCurrentContenttypePlugin().computeFolding(text);
-            Stopwatch.logTime("folding", "compute folding");
-            maxFoldingLevel = computeMaxFoldingLevel(rootRange);
-            Stopwatch.logTime("folding", "compute max folding lvl");
-            currentFoldingLevel = maxFoldingLevel; //start with expanded tree
-            redrawText();
-            Stopwatch.logTime("folding", "redraw text");
-        } else {
-        	foldOperatorFactory.clear();
-            super.replaceText(text);
+        String content = text != null ? text : "";
+        originalText.setLength(0);
+        originalText.append(content);
+        //content is shown expanded, until folding is computed
+        startFoldingSession();
+        super.replaceText(content);
+        Stopwatch.logTime("folding", "replace content in editor");
+        if (session != null) {
+            session.append(content);
+            session.finish();
         }
         Stopwatch.stop("folding");
     }
 
+    private void startFoldingSession() {
+        if (session != null) {
+            session.cancel();
+        }
+        session = null;
+        rootRange = null;
+        collapsedRanges.clear();
+        foldOperatorFactory.clear();
+        setFoldingLevelsDisabled(true);
+        refreshFoldMarkers();
+
+        var plugin = getCurrentContenttypePlugin();
+        if (plugin != null && plugin.supportFolding()) {
+            session = new FoldingSession(plugin);
+        }
+    }
+
+    private void setFoldingLevelsDisabled(boolean disabled) {
+        collapseAll.setDisable(disabled);
+        expandAll.setDisable(disabled);
+        collapseOne.setDisable(disabled);
+        expandOne.setDisable(disabled);
+    }
+
+    private void foldingCompleted(FoldingSession completedSession, CollapsableRange root, int maxLevel) {
+        if (completedSession != session) {
+            return;
+        }
+        rootRange = root;
+        maxFoldingLevel = maxLevel;
+        currentFoldingLevel = maxFoldingLevel; //start with expanded tree
+        setFoldingLevelsDisabled(false);
+    }
+
     private int computeMaxFoldingLevel(ContentRange node) {
         if (node instanceof CollapsableRange) {
             CollapsableRange collapsable = (CollapsableRange) node;
@@ -208,15 +262,140 @@ public class CodeFoldingContentEditor extends ContentEditor {
         return 0;
     }
 
+    /**
+     * collapses/expands a single range by replacing only its text
+     */
+    private void toggle(CollapsableRange range, boolean recursive) {
+        int displayedStart = toDisplayedOffset(range.getStart());
+        int displayedLength = displayedLength(range);
+
+        range.setCollapsed(!range.isCollapsed(), recursive);
+        updateCollapsedRanges(range, recursive);
+
+        String replacement;
+        if (range.isCollapsed()) {
+            replacement = range.getCollapsedText();
+        } else {
+            StringBuilder b = new StringBuilder();
+            range.appendToString(b);
+            replacement = b.toString();
+        }
+        codeArea.replaceText(displayedStart, displayedStart + displayedLength, replacement);
+        codeArea.moveTo(displayedStart);
+        refreshFoldMarkers();
+    }
+
+    private void updateCollapsedRanges(ContentRange node, boolean recursive) {
+        if (node instanceof CollapsableRange) {
+            CollapsableRange collapsable = (CollapsableRange) node;
+            if (!collapsable.isRoot()) {
+                if (collapsable.isCollapsed()) {
+                    collapsedRanges.add(collapsable);
+                } else {
+                    collapsedRanges.remove(collapsable);
+                }
+            }
+            if (recursive) {
+                for (ContentRange child : collapsable.getChildren()) {
+                    updateCollapsedRanges(child, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * collapsed ranges that are not hidden in other collapsed ranges, ordered by position
+     */
+    private List<CollapsableRange> outermostCollapsedRanges(int from, int to) {
+        List<CollapsableRange> result = new ArrayList<>();
+        int lastEnd = Integer.MIN_VALUE;
+        for (CollapsableRange range : collapsedRanges) {
+            if (range.getStart() >= to) {
+                break;
+            }
+            if (range.getStart() >= from && range.getEnd() <= to && range.getStart() >= lastEnd) {
+                result.add(range);
+                lastEnd = range.getEnd();
+            }
+        }
+        return result;
+    }
+
+    private static int savedLength(CollapsableRange collapsed) {
+        return collapsed.getEnd() - collapsed.getStart() - collapsed.getCollapsedText().length();
+    }
+
+    private int toDisplayedOffset(int offset) {
+        int displayed = offset;
+        for (CollapsableRange collapsed : outermostCollapsedRanges(0, offset)) {
+            displayed -= savedLength(collapsed);
+        }
+        return displayed;
+    }
+
+    private int displayedLength(CollapsableRange range) {
+        if (range.isCollapsed()) {
+            return range.getCollapsedText().length();
+        }
+        int length = range.getEnd() - range.getStart();
+        for (CollapsableRange collapsed : outermostCollapsedRanges(range.getStart(), range.getEnd())) {
+            if (collapsed != range) {
+                length -= savedLength(collapsed);
+            }
+        }
+        return length;
+    }
+
+    /**
+     * applies a folding level to all ranges. The content is rebuilt in the background and replaced as a whole.
+     * The collapsed state of the ranges is only changed on the fx thread, together with the content, as it is
+     * read (and toggled) there.
+     */
+    private void applyFoldingLevel(int level) {
+        if (rootRange == null) {
+            return;
+        }
+        var root = rootRange;
+        var currentSession = session;
+        int request = ++foldingLevelRequest;
+        currentFoldingLevel = level;
+        CompletableFuture.supplyAsync(() -> {
+            StringBuilder b = new StringBuilder();
+            appendFolded(root, b, level, 0);
+            return b.toString();
+        }, foldingExecutor).thenAcceptAsync(text -> {
+            if (currentSession == session && request == foldingLevelRequest) {
+                setCollapseRecursively(root, level, 0);
+                collapsedRanges.clear();
+                updateCollapsedRanges(root, true);
+                redrawText(text);
+            }
+        }, Platform::runLater);
+    }
+
+    /**
+     * appends the content as it is shown after {@link #setCollapseRecursively(ContentRange, int, int)},
+     * without reading or changing the collapsed state of the ranges
+     */
+    private static void appendFolded(ContentRange node, StringBuilder b, int collapseAllBelowLevel, int curLevel) {
+        if (node instanceof CollapsableRange) {
+            CollapsableRange collapsable = (CollapsableRange) node;
+            if (!collapsable.isRoot() && curLevel > collapseAllBelowLevel) {
+                b.append(collapsable.getCollapsedText());
+                return;
+            }
+            for (ContentRange child : collapsable.getChildren()) {
+                appendFolded(child, b, collapseAllBelowLevel, curLevel + 1);
+            }
+        } else {
+            node.appendToString(b);
+        }
+    }
 
-    private void redrawText() {
+    private void redrawText(String replacement) {
     	Stopwatch.start("redraw");
-        foldOperatorFactory.updateLineToRangeCache(rootRange);
-        Stopwatch.logTime("redraw", "range cache update");
-        
         int caretPos = 0;
-        if (codeArea.getText() != null
-            && codeArea.getText().length() > 0
+        if (codeArea.getLength() > 0
             && codeArea.getWidth() > 0
             && !shouldSkipExpensiveOperations(codeArea.getText())) {
             //hit test seems to be expensive
@@ -224,14 +403,11 @@ public class CodeFoldingContentEditor extends ContentEditor {
             Stopwatch.logTime("redraw", "hit test");
         }
 
-        StringBuilder b = new StringBuilder();
-        rootRange.appendToString(b);
-        Stopwatch.logTime("redraw", "build content");
-        String replacement = b.toString();
         codeArea.replaceText(replacement);
         Stopwatch.logTime("redraw", "replace content in editor");
+        refreshFoldMarkers();
         //reset window scroll to previous position
-        codeArea.moveTo(caretPos);
+        codeArea.moveTo(Math.min(caretPos, codeArea.getLength()));
         codeArea.requestFollowCaret();
         Stopwatch.stop("redraw");
     }
@@ -240,56 +416,210 @@ public class CodeFoldingContentEditor extends ContentEditor {
     public void formatCurrentCode() {
 //    	System.out.println("### Formatting");
         if (getCurrentContenttypePlugin() != null && getCurrentContenttypePlugin().supportFormatting()) {
-            replaceText(formatCode(originalText));
+            replaceText(formatCode(originalText.toString()));
         }
     }
-    
+
+    /**
+     * marks content that was added chunk by chunk as complete, so folding can be finished
+     */
+    public void completeContent() {
+        if (session != null) {
+            session.finish();
+        }
+    }
+
     @Override
     public void addContent(String additiveContent) {
-    	originalText += additiveContent;
+    	originalText.append(additiveContent);
 //        System.out.println("Content length: " + originalText.length());
-    	super.addContent(additiveContent);
+        if (session != null && !session.isFinished()) {
+            super.addContent(additiveContent);
+            session.append(additiveContent);
+        } else if (!collapsedRanges.isEmpty()) {
+            //content was completed and folded before, show it expanded and start over
+            replaceText(originalText.toString());
+        } else {
+            super.addContent(additiveContent);
+            startFoldingSession();
+            if (session != null) {
+                session.append(originalText.toString());
+            }
+        }
     };
 
-    private class FoldOperatorFactory implements IntFunction<Node> {
+    /**
+     * computes the folding of the content in the background. If the content type supports it, chunks are folded
+     * as they are added, otherwise the complete content is folded on finish. Ranges are reported as soon as they are closed.
+     */
+    private class FoldingSession {
+        private final ContentTypePlugin plugin;
+        private final boolean incremental;
+        private final CodeFoldingBuilder builder = new CodeFoldingBuilder();
+        private final StringBuilder fullText = new StringBuilder();
+        private final List<CollapsableRange> closedRanges = new ArrayList<>();
+        private CompletableFuture<Void> pending = CompletableFuture.completedFuture(null);
+        private int appendedLength = 0;
+        private boolean publishPending = false;
+        private boolean finished = false;
+        private volatile boolean cancelled = false;
+
+        FoldingSession(ContentTypePlugin plugin) {
+            this.plugin = plugin;
+            this.incremental = plugin.supportIncrementalFolding();
+            builder.setRangeListener(this::rangeClosed);
+        }
 
-        Map<Integer, CollapsableRange> lineToContentLookup = new HashMap<>();
+        void append(String chunk) {
+            int offset = appendedLength;
+            appendedLength += chunk.length();
+            if (!incremental) {
+                fullText.append(chunk);
+                return;
+            }
+            submit(() -> {
+                builder.append(chunk);
+                plugin.computeFolding(builder, chunk, offset);
+            });
+        }
 
-        public void updateLineToRangeCache(ContentRange node) {
-            clear();
-            updateLineToRangeCacheInternal(node, 0);
+        void finish() {
+            finished = true;
+            String text = incremental ? null : fullText.toString();
+            submit(() -> {
+                CollapsableRange root;
+                if (incremental) {
+                    root = builder.build();
+                } else {
+                    root = (CollapsableRange) plugin.computeFolding(text);
+                    assignPositions(root, 0, 0);
+                    collectRanges(root);
+                }
+                int maxLevel = computeMaxFoldingLevel(root);
+                Platform.runLater(() -> foldingCompleted(this, root, maxLevel));
+            });
         }
 
-        public void clear() {
-            lineToContentLookup.clear();
-		}
+        boolean isFinished() {
+            return finished;
+        }
 
-		private void updateLineToRangeCacheInternal(ContentRange node, int lineOffset) {
-            if (node == null)
+        void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * folding steps are executed one after another, in the background
+         */
+        private void submit(Runnable step) {
+            pending = pending.thenRunAsync(() -> {
+                if (!cancelled) {
+                    step.run();
+                }
+            }, foldingExecutor).exceptionally(t -> {
+                log.warn("Failed to compute folding", t);
+                cancelled = true;
+                return null;
+            });
+        }
+
+        private void rangeClosed(CollapsableRange range) {
+            synchronized (closedRanges) {
+                closedRanges.add(range);
+                if (publishPending) {
+                    return;
+                }
+                publishPending = true;
+            }
+            Platform.runLater(this::publishClosedRanges);
+        }
+
+        private void publishClosedRanges() {
+            List<CollapsableRange> ranges;
+            synchronized (closedRanges) {
+                ranges = new ArrayList<>(closedRanges);
+                closedRanges.clear();
+                publishPending = false;
+            }
+            if (session != this) {
                 return;
+            }
+            ranges.forEach(foldOperatorFactory::add);
+            refreshFoldMarkers();
+        }
 
+        private void collectRanges(ContentRange node) {
             if (node instanceof CollapsableRange) {
                 CollapsableRange collapsable = (CollapsableRange) node;
+                collapsable.getChildren().forEach(this::collectRanges);
                 if (!collapsable.isRoot()) {
-                    lineToContentLookup.put(lineOffset, collapsable);
+                    collapsable.setClosed(true);
+                    rangeClosed(collapsable);
                 }
+            }
+        }
 
-                if (!collapsable.isCollapsed()) {
-                	int childLineOffset = lineOffset;
-                    for (ContentRange child : collapsable.getChildren()) {
-                        updateLineToRangeCacheInternal(child, childLineOffset);
-                        childLineOffset += child.getContainedLines();
-                    }
+        /**
+         * positions of ranges that were not created by a {@link CodeFoldingBuilder}, based on the expanded content
+         */
+        private int[] assignPositions(ContentRange node, int offset, int line) {
+            if (node instanceof CollapsableRange) {
+                CollapsableRange collapsable = (CollapsableRange) node;
+                collapsable.setStart(offset);
+                collapsable.setStartLine(line);
+                for (ContentRange child : collapsable.getChildren()) {
+                    int[] end = assignPositions(child, offset, line);
+                    offset = end[0];
+                    line = end[1];
                 }
+                collapsable.setEnd(offset);
+                collapsable.setEndLine(line);
+                return new int[]{offset, line};
             }
+            var text = (TextRange) node;
+            return new int[]{offset + text.getText().length(), line + text.getContainedLines()};
         }
+    }
 
-        private Optional<CollapsableRange> lookupCollapsableRangeInStartLineIdx(int lineNumber) {
-            return Optional.ofNullable(lineToContentLookup.get(lineNumber));
+    /**
+     * creates the fold markers of the lines. Ranges are looked up by their line in the expanded content,
+     * which is mapped to the displayed lines via the collapsed ranges.
+     */
+    private class FoldOperatorFactory implements IntFunction<Node> {
+
+        Map<Integer, CollapsableRange> lineToContentLookup = new HashMap<>();
+
+        /**
+         * if several ranges start in the same line, the last one is used
+         */
+        public void add(CollapsableRange range) {
+            lineToContentLookup.merge(range.getStartLine(), range, (a, b) -> a.getStart() > b.getStart() ? a : b);
+        }
+
+        public void clear() {
+            lineToContentLookup.clear();
+		}
+
+        private Optional<CollapsableRange> lookupCollapsableRangeInStartLineIdx(int displayedLine) {
+            int line = displayedLine;
+            for (CollapsableRange collapsed : outermostCollapsedRanges(0, Integer.MAX_VALUE)) {
+                if (collapsed.getStartLine() >= line) {
+                    break;
+                }
+                if (line <= collapsed.getStartLine() + collapsed.getCollapsedLines()) {
+                    //within the placeholder of a collapsed range
+                    return Optional.empty();
+                }
+                line += collapsed.getEndLine() - collapsed.getStartLine() - collapsed.getCollapsedLines();
+            }
+            return Optional.ofNullable(lineToContentLookup.get(line));
         }
 
         @Override
         public Node apply(int lineNumber) {
+            if (lineToContentLookup.isEmpty()) {
+                return null;
+            }
             return lookupCollapsableRangeInStartLineIdx(lineNumber)
                     .map(r -> {
                         FontAwesomeIconView view;
@@ -298,10 +628,7 @@ public class CodeFoldingContentEditor extends ContentEditor {
                         } else {
                             view = new FontAwesomeIconView(FontAwesomeIcon.MINUS_SQUARE);
                         }
-                        view.setOnMouseClicked(e -> {
-                            r.setCollapsed(!r.isCollapsed(), e.getButton() == MouseButton.SECONDARY);
-                            redrawText();
-                        });
+                        view.setOnMouseClicked(e -> toggle(r, e.getButton() == MouseButton.SECONDARY));
                         view.setStyleClass("handCursor");
                         return view;
                     }).orElse(null);
@@ -339,7 +666,19 @@ public class CodeFoldingContentEditor extends ContentEditor {
         private final boolean isRoot;
         private final int collapsedLines;
         private String collapsedText;
-        private boolean collapsed;
+        private volatile boolean collapsed;
+
+        /**
+         * position in the expanded content, set by the {@link CodeFoldingBuilder}
+         */
+        private int start;
+        private int end;
+        private int startLine;
+        private int endLine;
+        /**
+         * true, if the end of the range was found. Only closed ranges can be collapsed while content is added.
+         */
+        private boolean closed;
 
         private List<ContentRange> children = new LinkedList<>();
 
@@ -390,17 +729,46 @@ public class CodeFoldingContentEditor extends ContentEditor {
 
     }
 
+    /**
+     * builds the folding tree of a content. The content can be passed as a whole or appended chunk by chunk.
+     * Indexes are positions within the complete content.
+     */
     public static class CodeFoldingBuilder {
-        private final String text;
+        private final StringBuilder text = new StringBuilder();
         private final Stack<CollapsableRange> rangeStack;
+        private int textOffset = 0; // position of the first char of text, consumed text is removed
         private int curIdx = 0;
+        private int curLine = 0;
+        private Consumer<CollapsableRange> rangeListener = range -> {};
 
-        public CodeFoldingBuilder(String text) {
-            this.text = text;
+        public CodeFoldingBuilder() {
             rangeStack = new Stack<>();
             rangeStack.add(new CollapsableRange(null, true, ""));
         }
 
+        public CodeFoldingBuilder(String text) {
+            this();
+            append(text);
+        }
+
+        public void append(String chunk) {
+            text.append(chunk);
+        }
+
+        /**
+         * is notified for each range, as soon as its end is known
+         */
+        public void setRangeListener(Consumer<CollapsableRange> rangeListener) {
+            this.rangeListener = rangeListener;
+        }
+
+        /**
+         * the number of currently open ranges
+         */
+        public int getDepth() {
+            return rangeStack.size() - 1;
+        }
+
         /**
          * will add everything from current idx to given idx as text node and add a new collapsable to the stack
          *
@@ -410,6 +778,8 @@ public class CodeFoldingContentEditor extends ContentEditor {
             ContentRange prev = addLeftOverTextToCurrentRange(nextIdx);
 
             CollapsableRange newCollapsable = new CollapsableRange(prev, false, placeholder);
+            newCollapsable.setStart(nextIdx);
+            newCollapsable.setStartLine(curLine);
             rangeStack.peek().addChildren(newCollapsable);
             rangeStack.add(newCollapsable);
         }
@@ -428,13 +798,26 @@ public class CodeFoldingContentEditor extends ContentEditor {
             }
 
             if (curIdx < nextIdx) {
-                prev = new TextRange(prev, text.substring(curIdx, nextIdx));
+                prev = new TextRange(prev, text.substring(curIdx - textOffset, nextIdx - textOffset));
+                curLine += prev.getContainedLines();
                 rangeStack.peek().addChildren(prev);
             }
             curIdx = nextIdx;
+            compact();
             return prev;
         }
 
+        /**
+         * removes consumed text, amortized over the appended text
+         */
+        private void compact() {
+            int consumed = curIdx - textOffset;
+            if (consumed > 0 && consumed >= text.length() / 2) {
+                text.delete(0, consumed);
+                textOffset = curIdx;
+            }
+        }
+
         /**
          * will close the current collapsable and pop it from stack
          *
@@ -445,11 +828,24 @@ public class CodeFoldingContentEditor extends ContentEditor {
 
             //just as a guard, dont pop the root
             if (rangeStack.size() > 1)
-                rangeStack.pop();
+                close(rangeStack.pop());
         }
 
+        private void close(CollapsableRange range) {
+            range.setEnd(curIdx);
+            range.setEndLine(curLine);
+            range.setClosed(true);
+            rangeListener.accept(range);
+        }
+
+        /**
+         * adds the remaining text and closes all open ranges at the end of the content
+         */
         public CollapsableRange build() {
-            ContentRange prev = addLeftOverTextToCurrentRange(text.length());
+            ContentRange prev = addLeftOverTextToCurrentRange(textOffset + text.length());
+            while (rangeStack.size() > 1) {
+                close(rangeStack.pop());
+            }
             return rangeStack.get(0);
         }
 
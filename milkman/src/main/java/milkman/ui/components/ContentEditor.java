@@ -20,10 +20,12 @@ import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.util.StringConverter;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import milkman.PlatformUtil;
 import milkman.ui.main.options.CoreApplicationOptionsProvider;
 import milkman.ui.plugin.ContentTypePlugin;
+import milkman.ui.plugin.StreamingContentFormatter;
 import milkman.utils.ContentTypeMatcher;
 import milkman.utils.Stopwatch;
 import milkman.utils.StringUtils;
@@ -34,8 +36,10 @@ import org.fxmisc.flowless.VirtualizedScrollPane;
 import org.fxmisc.richtext.Caret;
 import org.fxmisc.richtext.CodeArea;
 import org.fxmisc.richtext.LineNumberFactory;
+import org.fxmisc.richtext.model.PlainTextChange;
 import org.fxmisc.richtext.model.StyleSpans;
 import org.fxmisc.richtext.model.StyleSpansBuilder;
+import org.fxmisc.richtext.model.TwoDimensional.Bias;
 import org.fxmisc.wellbehaved.event.EventPattern;
 import org.fxmisc.wellbehaved.event.InputMap;
 import org.fxmisc.wellbehaved.event.Nodes;
@@ -53,6 +57,7 @@ import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -62,10 +67,26 @@ import static javafx.scene.input.KeyCombination.SHIFT_DOWN;
  * @author peter
  *
  */
+@Slf4j
 public class ContentEditor extends VBox {
 
 	private static final String DEFAULT_CONTENTTYPE = "text/plain";
 
+	/**
+	 * content above this length is highlighted only around the visible paragraphs
+	 */
+	private static final int VISIBLE_REGION_HIGHLIGHTING_THRESHOLD = 200_000;
+
+	/**
+	 * paragraphs above/below the viewport that are highlighted as well, so scrolling a bit does not show plain text
+	 */
+	private static final int VISIBLE_REGION_MARGIN = 100;
+
+	/**
+	 * maximum length of a region highlighted at once, e.g. a single line of a huge document is a single paragraph
+	 */
+	private static final int MAX_REGION_LENGTH = 100_000;
+
 	private static final ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactory() {
 		@Override
 		public Thread newThread(Runnable r) {
@@ -91,6 +112,10 @@ public class ContentEditor extends VBox {
 
 	protected final VirtualizedScrollPane scrollPane;
 
+	private final HighlightedParagraphs highlightedParagraphs = new HighlightedParagraphs();
+	private Task<StyleSpans<Collection<String>>> regionHighlightTask;
+	private long contentVersion;
+
 	public ContentEditor() {
 		getStyleClass().add("contentEditor");
 
@@ -156,6 +181,7 @@ public class ContentEditor extends VBox {
 
 		// async highlighting:
 		Subscription cleanupWhenNoLongerNeedIt = highLightTrigger.successionEnds(Duration.ofMillis(500))
+				.filter(ignore -> !isLargeContent())
 				.supplyTask(this::highlightCodeAsync).awaitLatest(codeArea.multiPlainChanges()).filterMap(t -> {
 					if (t.isSuccess()) {
 						return Optional.of(t.get());
@@ -165,6 +191,19 @@ public class ContentEditor extends VBox {
 					}
 				}).subscribe(this::applyHighlighting);
 
+		// large content is highlighted around the viewport only, whenever it is scrolled or edited
+		codeArea.plainTextChanges().subscribe(this::invalidateHighlighting);
+		highlighters.getSelectionModel().selectedItemProperty().addListener((obs, o, n) -> {
+			contentVersion++;
+			highlightedParagraphs.clear();
+		});
+		EventStreams.merge(highLightTrigger,
+						EventStreams.changesOf(codeArea.estimatedScrollYProperty()),
+						EventStreams.changesOf(codeArea.heightProperty()))
+				.successionEnds(Duration.ofMillis(100))
+				.filter(ignore -> isLargeContent())
+				.subscribe(ignore -> highlightVisibleRegion());
+
 		Modifier controlKey = KeyCombination.CONTROL_DOWN;
 		if (SystemUtils.IS_OS_MAC){
 			controlKey = KeyCombination.META_DOWN;
@@ -255,7 +294,7 @@ public class ContentEditor extends VBox {
 		Task<StyleSpans<Collection<String>>> task = new Task<StyleSpans<Collection<String>>>() {
 			@Override
 			protected StyleSpans<Collection<String>> call() throws Exception {
-				return computeHighlighting(text);
+				return computeHighlighting(text, this::isCancelled);
 			}
 		};
 		executor.execute(task);
@@ -266,6 +305,88 @@ public class ContentEditor extends VBox {
 		codeArea.setStyleSpans(0, highlighting);
 	}
 
+	private boolean isLargeContent() {
+		return codeArea.getLength() > VISIBLE_REGION_HIGHLIGHTING_THRESHOLD;
+	}
+
+	private void invalidateHighlighting(PlainTextChange change) {
+		contentVersion++;
+		if (change.getPosition() == 0 && change.getInsertionEnd() == codeArea.getLength()) {
+			//whole content replaced
+			highlightedParagraphs.clear();
+			return;
+		}
+		int paragraph = codeArea.offsetToPosition(change.getPosition(), Bias.Forward).getMajor();
+		highlightedParagraphs.invalidate(paragraph, countLineBreaks(change.getRemoved()), countLineBreaks(change.getInserted()));
+	}
+
+	private static int countLineBreaks(String text) {
+		return (int) text.chars().filter(c -> c == '\n').count();
+	}
+
+	/**
+	 * highlights the visible paragraphs (plus a margin) that are not highlighted yet in the background.
+	 * The region is limited to {@link #MAX_REGION_LENGTH} characters, paragraphs farthest from the viewport are left out first.
+	 * A running highlighting is cancelled, results for outdated content are dropped.
+	 */
+	private void highlightVisibleRegion() {
+		if (codeArea.getVisibleParagraphs().isEmpty()) {
+			return;
+		}
+		int lastParagraph = codeArea.getParagraphs().size() - 1;
+		int firstVisible = codeArea.firstVisibleParToAllParIndex();
+		int lastVisible = codeArea.lastVisibleParToAllParIndex();
+		int[] range = highlightedParagraphs.missingRange(
+				Math.max(0, firstVisible - VISIBLE_REGION_MARGIN),
+				Math.min(lastParagraph, lastVisible + VISIBLE_REGION_MARGIN));
+		if (range == null) {
+			return;
+		}
+		long length = 0;
+		for (int paragraph = range[0]; paragraph <= range[1]; paragraph++) {
+			length += codeArea.getParagraphLength(paragraph) + 1;
+		}
+		while (length > MAX_REGION_LENGTH && range[0] < range[1]) {
+			if (firstVisible - range[0] >= range[1] - lastVisible) {
+				length -= codeArea.getParagraphLength(range[0]++) + 1;
+			} else {
+				length -= codeArea.getParagraphLength(range[1]--) + 1;
+			}
+		}
+		if (length > MAX_REGION_LENGTH) {
+			//a single paragraph that is too long, it stays plain like other very long lines
+			return;
+		}
+		range = highlightedParagraphs.missingRange(range[0], range[1]);
+		if (range == null) {
+			return;
+		}
+
+		if (regionHighlightTask != null) {
+			regionHighlightTask.cancel();
+		}
+		int from = range[0];
+		int to = range[1];
+		int offset = codeArea.getAbsolutePosition(from, 0);
+		String text = codeArea.getText(from, 0, to, codeArea.getParagraphLength(to));
+		long version = contentVersion;
+		Task<StyleSpans<Collection<String>>> task = new Task<>() {
+			@Override
+			protected StyleSpans<Collection<String>> call() throws Exception {
+				return computeHighlighting(text, this::isCancelled);
+			}
+		};
+		task.setOnSucceeded(e -> {
+			if (version == contentVersion) {
+				codeArea.setStyleSpans(offset, task.getValue());
+				highlightedParagraphs.markHighlighted(from, to);
+			}
+		});
+		task.setOnFailed(e -> log.warn("Failed to highlight paragraphs {}-{}", from, to, task.getException()));
+		regionHighlightTask = task;
+		executor.execute(task);
+	}
+
 	public void formatCurrentCode() {
 		StopWatch s = new StopWatch();
 		s.start();
@@ -297,16 +418,31 @@ public class ContentEditor extends VBox {
 		}
 	}
 
+	/**
+	 * returns a formatter for content that is added chunk by chunk, if autoformatting is enabled
+	 * and supported by the current content type
+	 */
+	public Optional<StreamingContentFormatter> createStreamingFormatter() {
+		if (!CoreApplicationOptionsProvider.options().isAutoformatContent() || getCurrentContenttypePlugin() == null) {
+			return Optional.empty();
+		}
+		return getCurrentContenttypePlugin().createStreamingFormatter();
+	}
+
 	protected ContentTypePlugin getCurrentContenttypePlugin() {
 		return highlighters.getValue();
 	}
 
-	private StyleSpans<Collection<String>> computeHighlighting(String text) {
+	/**
+	 * highlights the text, the highlighting stops early with a {@link java.util.concurrent.CancellationException} if it
+	 * is cancelled (and the plugin reads the text via {@link ContentTypePlugin#computeHighlighting(CharSequence)})
+	 */
+	private StyleSpans<Collection<String>> computeHighlighting(String text, BooleanSupplier cancelled) {
 		StopWatch s = new StopWatch();
 		s.start();
 		try {
 			if (getCurrentContenttypePlugin() != null && !shouldSkipExpensiveOperations(text))
-				return getCurrentContenttypePlugin().computeHighlighting(text);
+				return getCurrentContenttypePlugin().computeHighlighting(new CancellableCharSequence(text, cancelled));
 			else
 				return noHighlight(text);
 		} finally {
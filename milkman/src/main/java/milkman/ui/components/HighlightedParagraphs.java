@@ -0,0 +1,54 @@
+package milkman.ui.components;
+
+import java.util.BitSet;
+
+/**
+ * keeps track of the paragraphs of a content editor that are already highlighted,
+ * so only paragraphs that were not highlighted yet or were edited need to be highlighted again.
+ */
+class HighlightedParagraphs {
+
+	private BitSet highlighted = new BitSet();
+
+	public void markHighlighted(int fromParagraph, int toParagraph) {
+		highlighted.set(fromParagraph, toParagraph + 1);
+	}
+
+	public boolean isHighlighted(int paragraph) {
+		return highlighted.get(paragraph);
+	}
+
+	/**
+	 * returns the smallest range within the given paragraphs that covers all paragraphs not highlighted yet
+	 * or null, if all are highlighted
+	 */
+	public int[] missingRange(int fromParagraph, int toParagraph) {
+		int first = highlighted.nextClearBit(fromParagraph);
+		if (first > toParagraph) {
+			return null;
+		}
+		int last = toParagraph;
+		while (last > first && highlighted.get(last)) {
+			last--;
+		}
+		return new int[]{first, last};
+	}
+
+	/**
+	 * invalidates the paragraphs affected by an edit starting in the given paragraph. Highlighting of paragraphs after
+	 * the edit stays valid, their indexes are shifted by the number of added/removed lines.
+	 */
+	public void invalidate(int paragraph, int removedLines, int insertedLines) {
+		int tailStart = paragraph + removedLines + 1;
+		BitSet tail = highlighted.get(tailStart, Math.max(tailStart, highlighted.length()));
+		highlighted.clear(paragraph, Math.max(paragraph, highlighted.length()));
+		int shiftedStart = paragraph + insertedLines + 1;
+		for (int i = tail.nextSetBit(0); i >= 0; i = tail.nextSetBit(i + 1)) {
+			highlighted.set(shiftedStart + i);
+		}
+	}
+
+	public void clear() {
+		highlighted = new BitSet();
+	}
+}
@@ -0,0 +1,218 @@
+package milkman.ui.components;
+
+import com.jfoenix.controls.JFXTextField;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+import javafx.concurrent.Task;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import lombok.extern.slf4j.Slf4j;
+import milkman.PlatformUtil;
+import milkman.utils.MappedTextFile;
+import org.apache.commons.io.FileUtils;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * read-only viewer for content that is too big for the {@link ContentEditor}. The content stays in a memory-mapped
+ * file, only the visible lines are read and rendered. Content is shown as plain text, without highlighting/formatting.
+ */
+@Slf4j
+public class LargeContentViewer extends VBox {
+
+	/**
+	 * copying is limited, so selecting everything does not load the whole content to the heap
+	 */
+	private static final int MAX_COPIED_LINES = 100_000;
+
+	private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+		Thread t = Executors.defaultThreadFactory().newThread(r);
+		t.setDaemon(true);
+		return t;
+	});
+
+	private final MappedTextFile content;
+	private final LineList lines = new LineList();
+	private final ListView<String> listView;
+	private final Label status = new Label();
+	private final SearchBox search = new SearchBox();
+	private final AtomicBoolean refreshPending = new AtomicBoolean();
+	private Task<Long> searchTask;
+
+	public LargeContentViewer(MappedTextFile content) {
+		this.content = content;
+		getStyleClass().addAll("contentEditor", "largeContentViewer");
+
+		listView = new ListView<>(lines);
+		listView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+		listView.setFixedCellSize(20);
+		listView.setCellFactory(view -> new LineCell());
+		var findCombination = PlatformUtil.getControlKeyCombination(KeyCode.F);
+		var copyCombination = PlatformUtil.getControlKeyCombination(KeyCode.C);
+		listView.setOnKeyPressed(e -> {
+			if (findCombination.match(e)) {
+				search.setVisible(true);
+				search.requestFocus();
+			} else if (copyCombination.match(e)) {
+				copySelectedLines();
+			}
+		});
+
+		var goToLine = new JFXTextField();
+		goToLine.setPromptText("Go to line");
+		goToLine.setPrefColumnCount(8);
+		goToLine.setOnAction(e -> {
+			try {
+				selectLine(Integer.parseInt(goToLine.getText().trim()) - 1);
+			} catch (NumberFormatException ex) {
+				status.setText("Not a line number: " + goToLine.getText());
+			}
+		});
+
+		var header = new HBox(status, goToLine);
+		header.getStyleClass().add("contentEditor-header");
+		header.setAlignment(Pos.CENTER_LEFT);
+		HBox.setHgrow(status, Priority.ALWAYS);
+		status.setMaxWidth(Double.MAX_VALUE);
+
+		search.onSearch(this::search);
+		search.onCloseRequest(() -> {
+			search.setVisible(false);
+			listView.requestFocus();
+		});
+		StackPane.setAlignment(search, Pos.TOP_RIGHT);
+		var contentPane = new StackPane(listView, search);
+		VBox.setVgrow(contentPane, Priority.ALWAYS);
+
+		getChildren().addAll(header, contentPane);
+		refresh();
+	}
+
+	/**
+	 * notifies the viewer about appended content. Can be called from any thread, updates are coalesced.
+	 */
+	public void contentChanged() {
+		if (refreshPending.compareAndSet(false, true)) {
+			Platform.runLater(() -> {
+				refreshPending.set(false);
+				refresh();
+			});
+		}
+	}
+
+	private void refresh() {
+		lines.refresh();
+		status.setText(String.format("%,d lines, %s (large content, shown without highlighting)",
+				content.lineCount(), FileUtils.byteCountToDisplaySize(content.size())));
+	}
+
+	private void selectLine(int line) {
+		if (line < 0 || line >= lines.size()) {
+			status.setText("Line " + (line + 1) + " does not exist");
+			return;
+		}
+		listView.getSelectionModel().clearAndSelect(line);
+		listView.scrollTo(Math.max(0, line - 5));
+		listView.requestFocus();
+	}
+
+	private void search(String text, boolean forward) {
+		if (searchTask != null) {
+			searchTask.cancel();
+		}
+		long fromLine = listView.getSelectionModel().getSelectedIndices().isEmpty()
+				? (forward ? -1 : lines.size())
+				: listView.getSelectionModel().getSelectedIndex();
+		Task<Long> task = new Task<>() {
+			@Override
+			protected Long call() throws Exception {
+				return content.find(text, fromLine, forward);
+			}
+		};
+		task.setOnSucceeded(e -> {
+			if (task.getValue() >= 0) {
+				selectLine(task.getValue().intValue());
+				search.requestFocus();
+			} else {
+				status.setText("No match for '" + text + "'");
+			}
+		});
+		task.setOnFailed(e -> log.warn("Search failed", task.getException()));
+		searchTask = task;
+		status.setText("Searching...");
+		executor.execute(task);
+	}
+
+	private void copySelectedLines() {
+		var text = listView.getSelectionModel().getSelectedIndices().stream()
+				.sorted()
+				.limit(MAX_COPIED_LINES)
+				.map(lines::get)
+				.collect(Collectors.joining("\n"));
+		var clipboardContent = new ClipboardContent();
+		clipboardContent.putString(text);
+		Clipboard.getSystemClipboard().setContent(clipboardContent);
+	}
+
+	/**
+	 * lines of the content, read on access
+	 */
+	private class LineList extends ObservableListBase<String> {
+		private int size = 0;
+
+		@Override
+		public String get(int index) {
+			try {
+				return content.getLine(index);
+			} catch (IOException e) {
+				log.warn("Failed to read line {}", index, e);
+				return "";
+			}
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		void refresh() {
+			int newSize = (int) Math.min(Integer.MAX_VALUE, content.lineCount());
+			beginChange();
+			if (size > 0) {
+				//last line might have been continued
+				nextUpdate(size - 1);
+			}
+			if (newSize > size) {
+				nextAdd(size, newSize);
+			}
+			size = newSize;
+			endChange();
+		}
+	}
+
+	private static class LineCell extends ListCell<String> {
+		LineCell() {
+			getStyleClass().add("largeContentViewer-line");
+		}
+
+		@Override
+		protected void updateItem(String item, boolean empty) {
+			super.updateItem(item, empty);
+			setText(empty ? null : item);
+		}
+	}
+}
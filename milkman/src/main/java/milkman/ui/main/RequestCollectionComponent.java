@@ -31,6 +31,7 @@ import milkman.ui.commands.UiCommand.*;
 import milkman.ui.main.options.CoreApplicationOptionsProvider;
 import milkman.utils.Event;
 import milkman.utils.PropertyChangeEvent;
+import milkman.utils.SearchIndex;
 import milkman.utils.javafx.SettableTreeItem;
 import milkman.utils.javafx.dnd.DnDCellFactory;
 import org.apache.commons.lang3.builder.CompareToBuilder;
@@ -42,6 +43,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import static milkman.utils.fxml.FxmlBuilder.*;
@@ -62,8 +66,25 @@ public class RequestCollectionComponent {
 	Map<String, Boolean> expansionCache = new HashMap<>();
 
 	private SettableTreeItem<Node> root;
+
+	/**
+	 * the index reads lazily loaded requests from storage, so it is built and queried in the background
+	 */
+	private static final ExecutorService searchExecutor = Executors.newSingleThreadExecutor(r -> {
+		Thread t = Executors.defaultThreadFactory().newThread(r);
+		t.setName("search-index");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private final SearchIndex searchIndex = new SearchIndex();
+	private long searchSequence = 0;
 	
 	public void display(List<Collection> collections) {
+		searchIndex.update(collections.stream()
+				.flatMap(c -> c.getRequests().stream())
+				.collect(Collectors.toList()));
+		searchExecutor.execute(searchIndex::refresh);
 
 		collectionContainer.setShowRoot(false);
 		collectionContainer.setCellFactory(new DnDCellFactory());
@@ -217,34 +238,20 @@ public class RequestCollectionComponent {
 
 	private void setFilterPredicate(FilteredList<TreeItem<Node>> filteredList,
 			String searchTerm) {
-		if (searchTerm != null && searchTerm.length() > 0)
-			filteredList.setPredicate(o -> {
-				Object userData = o.getValue().getUserData();
-				if (userData instanceof Collection) {
-					Collection collection = (Collection) userData;
-					if (collection.isStarred() || collection.match(searchTerm)) {
-						((FilteredList<TreeItem<Node>>)o.getChildren()).setPredicate(ro -> true);
-						return true;
-					}
-					
-					((FilteredList<TreeItem<Node>>)o.getChildren()).setPredicate(ro -> {
-						if (ro.getValue().getUserData() instanceof Folder) {
-							//as we cant use filtered lists in folders (See line 193)
-							//we have to do cheap version here and check all contaiend folders&requests, if they
-							//contain a matching request and show the whole folder
-							return findMatchingRequestInFolderStructure(ro, searchTerm);
-						} else if (ro.getValue().getUserData() instanceof RequestContainer) {
-							RequestContainer req = (RequestContainer) ro.getValue().getUserData();
-							return req.match(searchTerm);
+		long sequence = ++searchSequence;
+		if (searchTerm != null && searchTerm.length() > 0) {
+			CompletableFuture.supplyAsync(() -> searchIndex.search(searchTerm), searchExecutor)
+					.thenAcceptAsync(matchingRequestIds -> {
+						//results of outdated queries are dropped
+						if (sequence == searchSequence) {
+							setSearchResult(filteredList, searchTerm, matchingRequestIds);
 						}
-						return false;
+					}, Platform::runLater)
+					.exceptionally(e -> {
+						log.error("Failed to search requests", e);
+						return null;
 					});
-					
-					return o.getChildren().size() > 0;
-				}
-				return false;
-			});
-		else {
+		} else {
 			filteredList.setPredicate(o -> {
 				Object userData = o.getValue().getUserData();
 				if (userData instanceof Collection) {
@@ -257,17 +264,51 @@ public class RequestCollectionComponent {
 		}
 	}
 
+	private void setSearchResult(FilteredList<TreeItem<Node>> filteredList,
+			String searchTerm, Set<String> matchingRequestIds) {
+		filteredList.setPredicate(o -> {
+			Object userData = o.getValue().getUserData();
+			if (userData instanceof Collection) {
+				Collection collection = (Collection) userData;
+				if (collection.isStarred() || collection.match(searchTerm)) {
+					((FilteredList<TreeItem<Node>>)o.getChildren()).setPredicate(ro -> true);
+					return true;
+				}
+				
+				((FilteredList<TreeItem<Node>>)o.getChildren()).setPredicate(ro -> {
+					if (ro.getValue().getUserData() instanceof Folder) {
+						//as we cant use filtered lists in folders (See line 193)
+						//we have to do cheap version here and check all contaiend folders&requests, if they
+						//contain a matching request and show the whole folder
+						return findMatchingRequestInFolderStructure(ro, searchTerm, matchingRequestIds);
+					} else if (ro.getValue().getUserData() instanceof RequestContainer) {
+						RequestContainer req = (RequestContainer) ro.getValue().getUserData();
+						return matchingRequestIds.contains(req.getId());
+					}
+					return false;
+				});
+				
+				return o.getChildren().size() > 0;
+			}
+			return false;
+		});
+	}
+
 
 	
-	private boolean findMatchingRequestInFolderStructure(TreeItem<Node> ro, String searchTerm) {
-		if (ro.getValue().getUserData() instanceof Searchable) {
-			Searchable s = (Searchable) ro.getValue().getUserData();
+	private boolean findMatchingRequestInFolderStructure(TreeItem<Node> ro, String searchTerm, Set<String> matchingRequestIds) {
+		Object userData = ro.getValue().getUserData();
+		if (userData instanceof RequestContainer) {
+			if (matchingRequestIds.contains(((RequestContainer) userData).getId()))
+				return true;
+		} else if (userData instanceof Searchable) {
+			Searchable s = (Searchable) userData;
 			if (s.match(searchTerm))
 				return true;
 		}
 		
 		return ro.getChildren().stream()
-				.anyMatch(c -> findMatchingRequestInFolderStructure(c, searchTerm));
+				.anyMatch(c -> findMatchingRequestInFolderStructure(c, searchTerm, matchingRequestIds));
 	}
 
 
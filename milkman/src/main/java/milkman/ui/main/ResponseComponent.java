@@ -67,6 +67,9 @@ public class ResponseComponent {
 		hideSpinner();
 
 		addStatusInformation(response.getStatusInformations());
+		if (respCtrl.isOffloaded()) {
+			statusDisplay.getChildren().add(cacheIndicator("offloaded to disk"));
+		}
 		
 		setupAsyncControl(respCtrl);
 		
@@ -144,6 +147,22 @@ public class ResponseComponent {
 		}
 	}
 
+	/**
+	 * indicates, that the response was removed from the response cache and has to be re-executed to be shown
+	 */
+	public void showEvicted() {
+		clear();
+		statusDisplay.getChildren().add(cacheIndicator("response evicted, execute request again"));
+	}
+
+	private HBox cacheIndicator(String text) {
+		Label value = new Label(text);
+		value.getStyleClass().add("emphasized");
+		HBox node = new HBox(new Label("Cache:"), value);
+		node.setUserData("Cache");
+		return node;
+	}
+
 	public void clear() {
 		if (tabs.getSelectionModel().getSelectedIndex() > -1)
 			oldSelection = tabs.getSelectionModel().getSelectedIndex();
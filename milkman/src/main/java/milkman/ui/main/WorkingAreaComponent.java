@@ -176,6 +176,11 @@ public class WorkingAreaComponent {
 		hideSpinner();
 		responseComponent.clear();
 	}
+
+	public void showEvictedResponse() {
+		hideSpinner();
+		responseComponent.showEvicted();
+	}
 	
 	public void showSpinner(Runnable cancellationListener) {
 		responseComponent.showSpinner(cancellationListener);
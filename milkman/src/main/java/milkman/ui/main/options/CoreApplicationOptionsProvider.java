@@ -24,6 +24,12 @@ public class CoreApplicationOptionsProvider implements OptionPageProvider<CoreAp
 		private boolean disableColorfulUi;
 		private boolean useSocksProxy;
 		private String socksProxyAddress;
+		private int responseMemoryThresholdMb = 16;
+		private int responseMemoryBudgetMb = 256;
+		private int responseCacheBudgetMb = 128;
+		private boolean offloadEvictedResponses = true;
+		private boolean lazyRequestLoading = true;
+		private int largeContentThresholdMb = 10;
 
 		@Data
 		public static class UiPrefs {
@@ -77,8 +83,18 @@ public class CoreApplicationOptionsProvider implements OptionPageProvider<CoreAp
 					.toggle("Use Socks Proxy", CoreApplicationOptions::isUseSocksProxy, CoreApplicationOptions::setUseSocksProxy)
 					.textInput("Socks Proxy Address", CoreApplicationOptions::getSocksProxyAddress, CoreApplicationOptions::setSocksProxyAddress)
 				.endSection()
+				.section("Workspaces")
+					.toggle("Load Request Details on Demand", CoreApplicationOptions::isLazyRequestLoading, CoreApplicationOptions::setLazyRequestLoading)
+				.endSection()
 				.section("Code Editor/Viewer")
 					.toggle("Autoformat Content", CoreApplicationOptions::isAutoformatContent, this::toggleAnimations)
+					.numberInput("Large Content Viewer above (MB)", CoreApplicationOptions::getLargeContentThresholdMb, CoreApplicationOptions::setLargeContentThresholdMb)
+				.endSection()
+				.section("Responses")
+					.numberInput("In-Memory Body Size per Response (MB)", CoreApplicationOptions::getResponseMemoryThresholdMb, CoreApplicationOptions::setResponseMemoryThresholdMb)
+					.numberInput("In-Memory Body Size per Workspace (MB)", CoreApplicationOptions::getResponseMemoryBudgetMb, CoreApplicationOptions::setResponseMemoryBudgetMb)
+					.numberInput("Cached Responses per Workspace (MB)", CoreApplicationOptions::getResponseCacheBudgetMb, CoreApplicationOptions::setResponseCacheBudgetMb)
+					.toggle("Offload evicted Responses to Disk", CoreApplicationOptions::isOffloadEvictedResponses, CoreApplicationOptions::setOffloadEvictedResponses)
 				.endSection()
 				.build();
 	}
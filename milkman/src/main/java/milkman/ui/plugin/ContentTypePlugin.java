@@ -1,9 +1,11 @@
 package milkman.ui.plugin;
 
+import milkman.ui.components.CodeFoldingContentEditor.CodeFoldingBuilder;
 import milkman.ui.components.CodeFoldingContentEditor.ContentRange;
 import org.fxmisc.richtext.model.StyleSpans;
 
 import java.util.Collection;
+import java.util.Optional;
 
 /**
 * extension point for content types used by the content-editor
@@ -31,6 +33,14 @@ public interface ContentTypePlugin {
     */
     String formatContent(String text);
 
+    /**
+    * returns a formatter that formats content while it is received, if supported.
+    * The result has to be the same as {@link #formatContent(String)} for the complete content.
+    */
+    default Optional<StreamingContentFormatter> createStreamingFormatter() {
+        return Optional.empty();
+    }
+
     /**
     * calculates the highlighting of the given text.
     * see https://github.com/FXMisc/RichTextFX/blob/master/richtextfx-demos/src/main/java/org/fxmisc/richtext/demo/JavaKeywordsDemo.java for examples.
@@ -38,6 +48,16 @@ public interface ContentTypePlugin {
     */
 	StyleSpans<Collection<String>> computeHighlighting(String text);
 
+	/**
+	 * calculates the highlighting of the given text, like {@link #computeHighlighting(String)}.
+	 * Reading the text throws a {@link java.util.concurrent.CancellationException} once the highlighting is not needed
+	 * anymore (e.g. because the content changed), so plugins matching the text directly (e.g. via regex) can override
+	 * this to stop early. By default, the text is copied and highlighted via {@link #computeHighlighting(String)}.
+	 */
+	default StyleSpans<Collection<String>> computeHighlighting(CharSequence text) {
+		return computeHighlighting(text.toString());
+	}
+
 
 	/**
 	 * returns true if code folding is supported
@@ -55,6 +75,22 @@ public interface ContentTypePlugin {
 		throw new UnsupportedOperationException();
 	}
 
+	/**
+	 * returns true if folding can be computed chunk by chunk, see {@link #computeFolding(CodeFoldingBuilder, String, int)}
+	 */
+	default boolean supportIncrementalFolding() {
+		return false;
+	}
+
+	/**
+	 * adds the folding information of the next chunk of the content to the builder.
+	 * The chunk is already appended to the builder, offset is the position of the chunk within the content.
+	 * Called for each chunk in order, on a background thread.
+	 */
+	default void computeFolding(CodeFoldingBuilder folding, String chunk, int offset) {
+		throw new UnsupportedOperationException();
+	}
+
 
 	default String computeIndentationForNextLine(String currentLine){
 		return "";
@@ -0,0 +1,351 @@
+package milkman.ui.plugin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * index of the SPI implementations (META-INF/services) and the class hierarchy of milkman classes on the classpath.
+ * All classes of plugin jars (jars providing implementations of milkman services) are indexed, whatever their package is.
+ *
+ * Scanning the jars is done only once per jar: the scan results are stored in a cache file and reused as long as
+ * size and modification time of the jar do not change (e.g. if a plugin is updated). Directories (e.g. in development)
+ * are scanned every time.
+ */
+@Slf4j
+public class PluginIndex {
+
+	private static final int FORMAT_VERSION = 2;
+	private static final String SERVICES_PREFIX = "META-INF/services/";
+	private static final String INDEXED_PACKAGE = "milkman/";
+	private static final String PLUGIN_SERVICE_PACKAGE = "milkman.";
+
+	private static volatile PluginIndex instance;
+
+	private final Map<String, List<String>> implementations = new LinkedHashMap<>();
+	private final Map<String, List<String>> directSubtypes = new HashMap<>();
+
+	/**
+	 * loads the index of the current classpath, using (and updating) the given cache file
+	 */
+	public static synchronized PluginIndex load(Path cacheFile) {
+		instance = create(classpathEntries(), cacheFile);
+		return instance;
+	}
+
+	/**
+	 * the index of the current classpath. If it was not loaded before, it is created without caching.
+	 */
+	public static PluginIndex instance() {
+		if (instance == null) {
+			synchronized (PluginIndex.class) {
+				if (instance == null) {
+					instance = create(classpathEntries(), null);
+				}
+			}
+		}
+		return instance;
+	}
+
+	static PluginIndex create(List<Path> classpath, Path cacheFile) {
+		long startTime = System.currentTimeMillis();
+		IndexFile cache = readCache(cacheFile);
+		Map<String, IndexedEntry> entries = Collections.synchronizedMap(new HashMap<>());
+		classpath.parallelStream().forEach(path -> {
+			try {
+				entries.put(path.toString(), indexEntry(path, cache.getEntries().get(path.toString())));
+			} catch (Exception e) {
+				log.warn("Failed to index {}", path, e);
+			}
+		});
+
+		var index = new PluginIndex();
+		Map<String, IndexedEntry> updatedCache = new LinkedHashMap<>();
+		long scanned = 0;
+		for (Path path : classpath) {
+			var entry = entries.get(path.toString());
+			if (entry == null) {
+				continue;
+			}
+			index.add(entry);
+			if (entry.getSize() >= 0) {
+				updatedCache.put(path.toString(), entry);
+				if (entry != cache.getEntries().get(path.toString())) {
+					scanned++;
+				}
+			}
+		}
+		if (cacheFile != null && (scanned > 0 || updatedCache.size() != cache.getEntries().size())) {
+			writeCache(cacheFile, new IndexFile(FORMAT_VERSION, updatedCache));
+		}
+		log.info("Plugin index of {} classpath entries created in {} ms ({} jars scanned)",
+				classpath.size(), System.currentTimeMillis() - startTime, scanned);
+		return index;
+	}
+
+	/**
+	 * names of the implementations of the given service, in classpath order
+	 */
+	public List<String> getImplementations(Class<?> service) {
+		return implementations.getOrDefault(service.getName(), List.of());
+	}
+
+	/**
+	 * names of all implementations of all services
+	 */
+	public Set<String> getAllImplementations() {
+		return implementations.values().stream()
+				.flatMap(List::stream)
+				.collect(Collectors.toCollection(LinkedHashSet::new));
+	}
+
+	/**
+	 * names of all (transitive) subclasses of the given class. Only milkman classes and classes of plugin jars are indexed.
+	 */
+	public List<String> getSubtypes(Class<?> type) {
+		List<String> result = new ArrayList<>();
+		Deque<String> pending = new ArrayDeque<>(List.of(type.getName()));
+		while (!pending.isEmpty()) {
+			for (String subtype : directSubtypes.getOrDefault(pending.poll(), List.of())) {
+				if (!result.contains(subtype)) {
+					result.add(subtype);
+					pending.add(subtype);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * loads all implementation classes in parallel in the background, so instantiating them on first use is faster
+	 */
+	public void preloadImplementations(ClassLoader classLoader) {
+		var names = getAllImplementations();
+		CompletableFuture.runAsync(() -> {
+			long startTime = System.currentTimeMillis();
+			names.parallelStream().forEach(name -> {
+				try {
+					Class.forName(name, false, classLoader);
+				} catch (ClassNotFoundException | LinkageError e) {
+					log.debug("Failed to preload plugin class {}", name, e);
+				}
+			});
+			log.info("Preloaded {} plugin classes in {} ms", names.size(), System.currentTimeMillis() - startTime);
+		});
+	}
+
+	private void add(IndexedEntry entry) {
+		entry.getServices().forEach((service, impls) -> {
+			var list = implementations.computeIfAbsent(service, s -> new ArrayList<>());
+			impls.stream().filter(impl -> !list.contains(impl)).forEach(list::add);
+		});
+		entry.getSuperclasses().forEach((type, superclass) ->
+				directSubtypes.computeIfAbsent(superclass, s -> new ArrayList<>()).add(type));
+	}
+
+	private static List<Path> classpathEntries() {
+		return Stream.of(System.getProperty("java.class.path", "").split(File.pathSeparator))
+				.filter(entry -> !entry.isBlank())
+				.map(Path::of)
+				.filter(Files::exists)
+				.collect(Collectors.toList());
+	}
+
+	private static IndexedEntry indexEntry(Path path, IndexedEntry cached) throws IOException {
+		if (Files.isDirectory(path)) {
+			return indexDirectory(path);
+		}
+		long size = Files.size(path);
+		long lastModified = Files.getLastModifiedTime(path).toMillis();
+		if (cached != null && cached.getSize() == size && cached.getLastModified() == lastModified) {
+			return cached;
+		}
+		var entry = new IndexedEntry(size, lastModified, new LinkedHashMap<>(), new LinkedHashMap<>());
+		try (var jar = new JarFile(path.toFile())) {
+			List<JarEntry> classes = new ArrayList<>();
+			for (var jarEntry : Collections.list(jar.entries())) {
+				String name = jarEntry.getName();
+				if (name.startsWith(SERVICES_PREFIX) && !jarEntry.isDirectory()) {
+					try (var in = jar.getInputStream(jarEntry)) {
+						entry.getServices().put(name.substring(SERVICES_PREFIX.length()), readServiceFile(in));
+					}
+				} else if (isClass(name)) {
+					classes.add(jarEntry);
+				}
+			}
+			boolean plugin = isPlugin(entry);
+			for (var jarEntry : classes) {
+				if (plugin || jarEntry.getName().startsWith(INDEXED_PACKAGE)) {
+					try (var in = jar.getInputStream(jarEntry)) {
+						addSuperclass(entry, in);
+					}
+				}
+			}
+		}
+		return entry;
+	}
+
+	private static IndexedEntry indexDirectory(Path directory) throws IOException {
+		var entry = new IndexedEntry(-1, -1, new LinkedHashMap<>(), new LinkedHashMap<>());
+		Path services = directory.resolve(SERVICES_PREFIX);
+		if (Files.isDirectory(services)) {
+			try (var files = Files.list(services)) {
+				for (Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+					try (var in = Files.newInputStream(file)) {
+						entry.getServices().put(file.getFileName().toString(), readServiceFile(in));
+					}
+				}
+			}
+		}
+		Path classes = isPlugin(entry) ? directory : directory.resolve(INDEXED_PACKAGE);
+		if (Files.isDirectory(classes)) {
+			try (var files = Files.walk(classes)) {
+				for (Path file : files.filter(f -> isClass(directory.relativize(f).toString().replace(File.separatorChar, '/'))).collect(Collectors.toList())) {
+					try (var in = Files.newInputStream(file)) {
+						addSuperclass(entry, in);
+					}
+				}
+			}
+		}
+		return entry;
+	}
+
+	private static boolean isClass(String name) {
+		return name.endsWith(".class") && !name.endsWith("module-info.class");
+	}
+
+	/**
+	 * true, if the jar or directory provides implementations of milkman services
+	 */
+	private static boolean isPlugin(IndexedEntry entry) {
+		return entry.getServices().keySet().stream().anyMatch(service -> service.startsWith(PLUGIN_SERVICE_PACKAGE));
+	}
+
+	static List<String> readServiceFile(InputStream in) throws IOException {
+		var reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		return reader.lines()
+				.map(line -> line.contains("#") ? line.substring(0, line.indexOf('#')) : line)
+				.map(String::trim)
+				.filter(line -> !line.isEmpty())
+				.collect(Collectors.toList());
+	}
+
+	private static void addSuperclass(IndexedEntry entry, InputStream in) throws IOException {
+		String[] names = readClassAndSuperclass(in);
+		if (names != null && names[1] != null && !names[1].equals("java.lang.Object")) {
+			entry.getSuperclasses().put(names[0], names[1]);
+		}
+	}
+
+	/**
+	 * reads the name and the superclass name from the header of a class file, without loading the class
+	 */
+	static String[] readClassAndSuperclass(InputStream classFile) throws IOException {
+		var in = new DataInputStream(classFile);
+		if (in.readInt() != 0xCAFEBABE) {
+			return null;
+		}
+		in.readUnsignedShort(); //minor version
+		in.readUnsignedShort(); //major version
+		int constantPoolCount = in.readUnsignedShort();
+		String[] utf8 = new String[constantPoolCount];
+		int[] classNameIndex = new int[constantPoolCount];
+		for (int i = 1; i < constantPoolCount; i++) {
+			int tag = in.readUnsignedByte();
+			switch (tag) {
+				case 1 -> utf8[i] = in.readUTF();
+				case 7 -> classNameIndex[i] = in.readUnsignedShort();
+				case 8, 16, 19, 20 -> in.skipNBytes(2);
+				case 15 -> in.skipNBytes(3);
+				case 3, 4, 9, 10, 11, 12, 17, 18 -> in.skipNBytes(4);
+				case 5, 6 -> {
+					in.skipNBytes(8);
+					i++; //takes two slots
+				}
+				default -> throw new IOException("Unknown constant pool tag " + tag);
+			}
+		}
+		in.readUnsignedShort(); //access flags
+		int thisClass = in.readUnsignedShort();
+		int superClass = in.readUnsignedShort();
+		return new String[]{
+				utf8[classNameIndex[thisClass]].replace('/', '.'),
+				superClass == 0 ? null : utf8[classNameIndex[superClass]].replace('/', '.')
+		};
+	}
+
+	private static IndexFile readCache(Path cacheFile) {
+		if (cacheFile == null || !Files.exists(cacheFile)) {
+			return new IndexFile(FORMAT_VERSION, Map.of());
+		}
+		try {
+			var cache = new ObjectMapper().readValue(cacheFile.toFile(), IndexFile.class);
+			if (cache.getVersion() == FORMAT_VERSION && cache.getEntries() != null) {
+				return cache;
+			}
+		} catch (Exception e) {
+			log.warn("Failed to read plugin index {}, rebuilding it", cacheFile, e);
+		}
+		return new IndexFile(FORMAT_VERSION, Map.of());
+	}
+
+	private static void writeCache(Path cacheFile, IndexFile cache) {
+		try {
+			if (cacheFile.getParent() != null) {
+				Files.createDirectories(cacheFile.getParent());
+			}
+			new ObjectMapper().writeValue(cacheFile.toFile(), cache);
+		} catch (IOException | UncheckedIOException e) {
+			log.warn("Failed to write plugin index {}", cacheFile, e);
+		}
+	}
+
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	static class IndexFile {
+		private int version;
+		private Map<String, IndexedEntry> entries;
+	}
+
+	/**
+	 * scan result of a jar or directory. Size and modification time are used to detect changed jars.
+	 */
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	static class IndexedEntry {
+		private long size;
+		private long lastModified;
+		private Map<String, List<String>> services;
+		private Map<String, String> superclasses;
+	}
+}
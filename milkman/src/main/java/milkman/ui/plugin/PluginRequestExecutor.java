@@ -11,5 +11,10 @@ public interface PluginRequestExecutor {
 
 	Optional<RequestContainer> getDetails(String requestId);
 
+	/**
+	 * executes the request and waits for it to finish. The response is disposed before it is returned,
+	 * i.e. buffered bodies and open cursors are released. Status information and response aspects
+	 * initialized by aspect plugins stay available.
+	 */
 	ResponseContainer executeRequest(RequestContainer request, Optional<Environment> environmentOverride, AsyncControl asyncControl);
 }
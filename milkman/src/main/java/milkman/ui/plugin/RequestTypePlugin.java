@@ -2,6 +2,7 @@ package milkman.ui.plugin;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import milkman.domain.RequestContainer;
 import milkman.domain.ResponseContainer;
@@ -91,4 +92,13 @@ public interface RequestTypePlugin extends Orderable {
 			throw e;
 		}
 	};
+
+	/**
+	 * creates a request for the training run of the startup optimization (see {@link milkman.cds.TrainingWorkload}).
+	 * It is executed against a local http server that responds with json. Execution is allowed to fail,
+	 * it is only done to load the classes that are involved in executing requests.
+	 */
+	default Optional<RequestContainer> createTrainingRequest(String localServerUrl) {
+		return Optional.empty();
+	}
 }
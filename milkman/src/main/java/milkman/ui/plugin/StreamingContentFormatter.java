@@ -0,0 +1,20 @@
+package milkman.ui.plugin;
+
+import java.io.IOException;
+
+/**
+ * formats content chunk by chunk while it is received, see {@link ContentTypePlugin#createStreamingFormatter()}
+ */
+public interface StreamingContentFormatter {
+
+	/**
+	 * formats the next chunk of (utf-8) content and returns the formatted text available so far
+	 */
+	String format(byte[] chunk) throws IOException;
+
+	/**
+	 * signals the end of the content and returns the remaining formatted text.
+	 * Fails, if the content is incomplete.
+	 */
+	String finish() throws IOException;
+}
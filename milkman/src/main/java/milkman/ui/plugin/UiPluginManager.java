@@ -1,6 +1,7 @@
 package milkman.ui.plugin;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import milkman.ctrl.ExecutionListenerManager;
 import milkman.domain.Workspace;
 import milkman.ui.components.AutoCompleter;
@@ -11,6 +12,7 @@ import javax.inject.Inject;
 import java.util.*;
 import java.util.function.Supplier;
 
+@Slf4j
 @RequiredArgsConstructor(onConstructor_={@Inject})
 public class UiPluginManager {
 
@@ -125,9 +127,7 @@ public class UiPluginManager {
 		if (cachedInstances.containsKey(type))
 			return cachedInstances.get(type);
 		
-		ServiceLoader<T> loader = ServiceLoader.load(type);
-		List<T> result = new LinkedList<T>();
-		loader.forEach(result::add);
+		List<T> result = instantiate(type);
 		result.forEach(this::wireUp);
 		
 		cachedInstances.put(type, result);
@@ -139,9 +139,7 @@ public class UiPluginManager {
 		if (cachedInstances.containsKey(type))
 			return cachedInstances.get(type);
 		
-		ServiceLoader<T> loader = ServiceLoader.load(type);
-		List<T> result = new LinkedList<T>();
-		loader.forEach(result::add);
+		List<T> result = instantiate(type);
 		
 		result.forEach(this::wireUp);
 		
@@ -152,5 +150,28 @@ public class UiPluginManager {
 		return result;
 	}
 
+	/**
+	 * instantiates the implementations listed in the plugin index. Falls back to the service loader,
+	 * if the index does not list any (e.g. if the classpath is given via manifest)
+	 */
+	private <T> List<T> instantiate(Class<T> type) {
+		List<T> result = new LinkedList<T>();
+		List<String> implementations = PluginIndex.instance().getImplementations(type);
+		if (!implementations.isEmpty()) {
+			ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+			try {
+				for (String implementation : implementations) {
+					result.add(type.cast(Class.forName(implementation, true, classLoader).getDeclaredConstructor().newInstance()));
+				}
+				return result;
+			} catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+				log.warn("Failed to instantiate {} plugins of index, falling back to service loader", type.getSimpleName(), e);
+				result.clear();
+			}
+		}
+		ServiceLoader.load(type).forEach(result::add);
+		return result;
+	}
+
 	
 }
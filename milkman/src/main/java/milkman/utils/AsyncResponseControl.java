@@ -3,7 +3,9 @@ package milkman.utils;
 import lombok.*;
 import milkman.domain.ResponseContainer;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * for signaling of request state between main application and plugins.
@@ -11,7 +13,6 @@ import java.util.concurrent.CompletableFuture;
  * @author peter
  *
  */
-@RequiredArgsConstructor
 public class AsyncResponseControl {
 
 	@Getter
@@ -20,9 +21,23 @@ public class AsyncResponseControl {
 	public final Event0 onRequestReady = new Event0();
 	public final CompletableFuture<Void> onRequestSucceeded = new CompletableFuture<>();
 	public final CompletableFuture<Throwable> onRequestFailed = new CompletableFuture<>();
+	public final Event0 onResponseDisposed = new Event0();
 	
 	@Getter @Setter
 	private ResponseContainer response;
+
+	@Getter
+	private final MemoryBudget memoryBudget;
+
+	private final List<ResponseBodyStore> bodyStores = new CopyOnWriteArrayList<>();
+
+	public AsyncResponseControl() {
+		this(MemoryBudget.unbounded());
+	}
+
+	public AsyncResponseControl(MemoryBudget memoryBudget) {
+		this.memoryBudget = memoryBudget;
+	}
 	
 	public void cancleRequest() {
 		if (onRequestSucceeded.isDone() && onRequestFailed.isDone())
@@ -30,6 +45,34 @@ public class AsyncResponseControl {
 		onRequestStarted.clear();
 		cancellationControl.onCancellationRequested.invoke();
 	}
+
+	/**
+	 * cancels the request and releases all resources held by the response (e.g. buffered bodies).
+	 */
+	public void dispose() {
+		cancleRequest();
+		onResponseDisposed.invoke();
+		onResponseDisposed.clear();
+		bodyStores.clear();
+	}
+
+	/**
+	 * returns the number of bytes of response bodies that are held in memory
+	 */
+	public long getRetainedBytes() {
+		return bodyStores.stream().mapToLong(ResponseBodyStore::getMemoryBytes).sum();
+	}
+
+	/**
+	 * moves all response bodies to disk, the response can still be displayed afterwards
+	 */
+	public void offloadBodies() {
+		bodyStores.forEach(ResponseBodyStore::offload);
+	}
+
+	public boolean isOffloaded() {
+		return !bodyStores.isEmpty() && bodyStores.stream().allMatch(ResponseBodyStore::isOffloaded);
+	}
 	
 	
 	@NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -51,6 +94,25 @@ public class AsyncResponseControl {
 			onRequestFailed.complete(exception);
 			onRequestSucceeded.cancel(true);
 		}
+
+		/**
+		 * creates a store for response bodies, that is limited by the memory budget of the workspace
+		 * and gets released, once the response is disposed.
+		 */
+		public ResponseBodyStore createResponseBodyStore() {
+			var store = new ResponseBodyStore(memoryBudget);
+			bodyStores.add(store);
+			onResponseDisposed.add(store::dispose);
+			return store;
+		}
+
+		/**
+		 * registers a listener that releases resources held by the response (e.g. open cursors),
+		 * once the response is disposed.
+		 */
+		public void onResponseDisposed(Runnable listener) {
+			onResponseDisposed.add(listener);
+		}
 	}
 	
 	
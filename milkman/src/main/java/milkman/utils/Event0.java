@@ -1,15 +1,18 @@
 package milkman.utils;
 
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import lombok.SneakyThrows;
 
+/**
+ * listeners can be added and removed concurrently, e.g. by requests of a test that are executed in parallel
+ */
 public class Event0 {
 
 	
-	List<Runnable> listeners = new ArrayList<>();
+	List<Runnable> listeners = new CopyOnWriteArrayList<>();
 	
 
 	
@@ -17,6 +20,10 @@ public class Event0 {
 		listeners.add(listener);
 	}
 
+	public void remove(Runnable listener) {
+		listeners.remove(listener);
+	}
+
 	@SneakyThrows
 	public void invoke() {
 		for(var listener : listeners) {
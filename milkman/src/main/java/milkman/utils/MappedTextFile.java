@@ -0,0 +1,356 @@
+package milkman.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * utf-8 text in a temporary file that is appended chunk by chunk and read line by line, used to view response bodies
+ * that are too big for a text editor. Completely written parts of the file are memory-mapped, so reading lines does
+ * not copy the file to the heap.
+ *
+ * The line index is built while appending. It only stores the offset of every {@value #LINES_PER_CHECKPOINT}th line,
+ * so it stays small for multi-GB files. Lines longer than {@value #MAX_LINE_LENGTH} bytes (e.g. minified json)
+ * are wrapped, so a single line never has to be read as a whole.
+ */
+@Slf4j
+public class MappedTextFile {
+
+	static final int MAX_LINE_LENGTH = 4096;
+	private static final int LINES_PER_CHECKPOINT = 64;
+	private static final long SEGMENT_SIZE = 256 * 1024 * 1024;
+	private static final int SEARCH_BLOCK_SIZE = 1024 * 1024;
+	private static final Cleaner cleaner = Cleaner.create();
+
+	private final FileResources resources;
+	private final Cleaner.Cleanable cleanable;
+	private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+	private long size = 0;
+	private boolean completed = false;
+
+	//line index
+	private long[] checkpoints = new long[1024];
+	private long lineCount = 0;
+	private int currentLineLength = 0;
+	private boolean lineStartPending = true;
+
+	private MappedTextFile(FileResources resources) {
+		this.resources = resources;
+		this.cleanable = cleaner.register(this, resources);
+	}
+
+	public static MappedTextFile create() throws IOException {
+		var path = Files.createTempFile("milkman-content", ".txt");
+		var channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		return new MappedTextFile(new FileResources(path, channel));
+	}
+
+	public synchronized void append(byte[] chunk) throws IOException {
+		if (completed) {
+			throw new IllegalStateException("Content is already completed");
+		}
+		var buffer = ByteBuffer.wrap(chunk);
+		long position = size;
+		while (buffer.hasRemaining()) {
+			position += resources.channel.write(buffer, position);
+		}
+		for (int i = 0; i < chunk.length; i++) {
+			indexByte(chunk[i], size + i);
+		}
+		size = position;
+	}
+
+	/**
+	 * marks the content as complete, no more chunks can be appended
+	 */
+	public synchronized void complete() {
+		completed = true;
+	}
+
+	public synchronized long size() {
+		return size;
+	}
+
+	public synchronized long lineCount() {
+		return lineCount;
+	}
+
+	/**
+	 * returns the given line without line break
+	 */
+	public String getLine(long line) throws IOException {
+		long start = lineStart(line);
+		long end = nextLineStart(start);
+		byte[] bytes = read(start, (int) (end - start));
+		int length = bytes.length;
+		if (length > 0 && bytes[length - 1] == '\n') {
+			length--;
+			if (length > 0 && bytes[length - 1] == '\r') {
+				length--;
+			}
+		}
+		return new String(bytes, 0, length, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * searches (case-insensitive) for the next/previous line containing the text, starting after/before the given line
+	 * and wrapping around at the end/beginning. Returns -1, if nothing is found or the current thread is interrupted.
+	 */
+	public long find(String text, long fromLine, boolean forward) throws IOException {
+		byte[] pattern = text.getBytes(StandardCharsets.UTF_8);
+		for (int i = 0; i < pattern.length; i++) {
+			pattern[i] = toLowerCase(pattern[i]);
+		}
+		long lines = lineCount();
+		if (pattern.length == 0 || lines == 0) {
+			return -1;
+		}
+		long match;
+		if (forward) {
+			long from = fromLine + 1 < lines ? lineStart(fromLine + 1) : size();
+			match = indexOf(pattern, from, size());
+			if (match < 0) {
+				match = indexOf(pattern, 0, from);
+			}
+		} else {
+			long to = fromLine >= 0 ? lineStart(Math.min(fromLine, lines - 1)) : 0;
+			match = lastIndexOf(pattern, 0, to);
+			if (match < 0) {
+				match = lastIndexOf(pattern, to, size());
+			}
+		}
+		return match < 0 ? -1 : lineOf(match);
+	}
+
+	/**
+	 * returns the line that contains the given offset
+	 */
+	public long lineOf(long offset) throws IOException {
+		int checkpoint;
+		synchronized (this) {
+			int checkpointCount = (int) ((lineCount + LINES_PER_CHECKPOINT - 1) / LINES_PER_CHECKPOINT);
+			checkpoint = Arrays.binarySearch(checkpoints, 0, checkpointCount, offset);
+			if (checkpoint < 0) {
+				checkpoint = Math.max(0, -checkpoint - 2);
+			}
+		}
+		long line = (long) checkpoint * LINES_PER_CHECKPOINT;
+		long start = lineStart(line);
+		long lines = lineCount();
+		while (line + 1 < lines) {
+			long next = nextLineStart(start);
+			if (next > offset) {
+				break;
+			}
+			start = next;
+			line++;
+		}
+		return line;
+	}
+
+	/**
+	 * removes the temporary file. Must not be used afterwards.
+	 */
+	public void dispose() {
+		synchronized (this) {
+			segments.clear();
+		}
+		cleanable.clean();
+	}
+
+	private void indexByte(byte b, long offset) {
+		if (lineStartPending || isWrapPosition(currentLineLength, b)) {
+			if (lineCount % LINES_PER_CHECKPOINT == 0) {
+				int checkpoint = (int) (lineCount / LINES_PER_CHECKPOINT);
+				if (checkpoint == checkpoints.length) {
+					checkpoints = Arrays.copyOf(checkpoints, checkpoints.length * 2);
+				}
+				checkpoints[checkpoint] = offset;
+			}
+			lineCount++;
+			currentLineLength = 0;
+		}
+		currentLineLength++;
+		lineStartPending = b == '\n';
+	}
+
+	private long lineStart(long line) throws IOException {
+		long start;
+		synchronized (this) {
+			if (line < 0 || line >= lineCount) {
+				throw new IndexOutOfBoundsException("Line " + line + " of " + lineCount);
+			}
+			start = checkpoints[(int) (line / LINES_PER_CHECKPOINT)];
+		}
+		for (long i = 0; i < line % LINES_PER_CHECKPOINT; i++) {
+			start = nextLineStart(start);
+		}
+		return start;
+	}
+
+	/**
+	 * scans for the start of the next line, using the same rules as the line index
+	 */
+	private long nextLineStart(long lineStart) throws IOException {
+		long available = size() - lineStart;
+		byte[] bytes = read(lineStart, (int) Math.min(available, MAX_LINE_LENGTH + 4));
+		for (int i = 0; i < bytes.length; i++) {
+			if (bytes[i] == '\n') {
+				return lineStart + i + 1;
+			}
+			if (i + 1 < bytes.length && isWrapPosition(i + 1, bytes[i + 1])) {
+				return lineStart + i + 1;
+			}
+		}
+		return lineStart + bytes.length;
+	}
+
+	/**
+	 * a long line is wrapped at the start of a utf-8 character (or after a few bytes more for invalid utf-8),
+	 * but not right before its line break
+	 */
+	private static boolean isWrapPosition(int lineLength, byte next) {
+		return lineLength >= MAX_LINE_LENGTH && next != '\n'
+				&& ((next & 0xC0) != 0x80 || lineLength >= MAX_LINE_LENGTH + 3);
+	}
+
+	private long indexOf(byte[] pattern, long from, long to) throws IOException {
+		for (long blockStart = from; blockStart < to; blockStart += SEARCH_BLOCK_SIZE) {
+			if (Thread.currentThread().isInterrupted()) {
+				return -1;
+			}
+			int starts = (int) Math.min(SEARCH_BLOCK_SIZE, to - blockStart);
+			byte[] block = readBlock(blockStart, starts, pattern.length);
+			for (int i = 0; i < starts; i++) {
+				if (matches(block, i, pattern)) {
+					return blockStart + i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	private long lastIndexOf(byte[] pattern, long from, long to) throws IOException {
+		for (long blockEnd = to; blockEnd > from; blockEnd -= SEARCH_BLOCK_SIZE) {
+			if (Thread.currentThread().isInterrupted()) {
+				return -1;
+			}
+			long blockStart = Math.max(from, blockEnd - SEARCH_BLOCK_SIZE);
+			int starts = (int) (blockEnd - blockStart);
+			byte[] block = readBlock(blockStart, starts, pattern.length);
+			for (int i = starts - 1; i >= 0; i--) {
+				if (matches(block, i, pattern)) {
+					return blockStart + i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * reads the bytes of all matches starting within the given range
+	 */
+	private byte[] readBlock(long start, int starts, int patternLength) throws IOException {
+		return read(start, (int) Math.min(starts + patternLength - 1L, size() - start));
+	}
+
+	private static boolean matches(byte[] block, int idx, byte[] pattern) {
+		if (idx + pattern.length > block.length) {
+			return false;
+		}
+		for (int i = 0; i < pattern.length; i++) {
+			if (toLowerCase(block[idx + i]) != pattern[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * case-insensitive search is limited to ascii characters, as the content is searched byte-wise
+	 */
+	private static byte toLowerCase(byte b) {
+		return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+	}
+
+	private byte[] read(long offset, int length) throws IOException {
+		byte[] result = new byte[length];
+		int done = 0;
+		while (done < length) {
+			long position = offset + done;
+			int segmentIdx = (int) (position / SEGMENT_SIZE);
+			int positionInSegment = (int) (position - segmentIdx * SEGMENT_SIZE);
+			int count = (int) Math.min(length - done, SEGMENT_SIZE - positionInSegment);
+			var segment = segment(segmentIdx);
+			if (segment != null) {
+				segment.get(positionInSegment, result, done, count);
+			} else {
+				var buffer = ByteBuffer.wrap(result, done, count);
+				while (buffer.hasRemaining()) {
+					if (resources.channel.read(buffer, offset + buffer.position()) < 0) {
+						throw new IOException("Unexpected end of file " + resources.path);
+					}
+				}
+			}
+			done += count;
+		}
+		return result;
+	}
+
+	/**
+	 * maps the given segment of the file, if it is completely written
+	 */
+	private synchronized MappedByteBuffer segment(int idx) throws IOException {
+		if (idx < segments.size() && segments.get(idx) != null) {
+			return segments.get(idx);
+		}
+		long start = idx * SEGMENT_SIZE;
+		long length = Math.min(SEGMENT_SIZE, size - start);
+		if (length < SEGMENT_SIZE && !completed) {
+			return null;
+		}
+		var segment = resources.channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+		while (segments.size() <= idx) {
+			segments.add(null);
+		}
+		segments.set(idx, segment);
+		return segment;
+	}
+
+	/**
+	 * resources that have to be released, either explicitly or once the file becomes unreachable
+	 */
+	private static class FileResources implements Runnable {
+		private final Path path;
+		private final FileChannel channel;
+
+		FileResources(Path path, FileChannel channel) {
+			this.path = path;
+			this.channel = channel;
+		}
+
+		@Override
+		public void run() {
+			try {
+				channel.close();
+				Files.deleteIfExists(path);
+			} catch (IOException e) {
+				//mapped files cannot be removed on some platforms as long as the mapping is not garbage collected
+				path.toFile().deleteOnExit();
+				log.debug("Failed to remove content file {}", path, e);
+			}
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package milkman.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * tracks how many bytes are held in memory by a group of consumers (e.g. all response bodies of a workspace).
+ * The limit is re-evaluated on every reservation, so changes to the options apply immediately.
+ */
+public class MemoryBudget {
+
+	private final LongSupplier limitInBytes;
+	private final AtomicLong usedBytes = new AtomicLong();
+
+	public MemoryBudget(LongSupplier limitInBytes) {
+		this.limitInBytes = limitInBytes;
+	}
+
+	public static MemoryBudget unbounded() {
+		return new MemoryBudget(() -> Long.MAX_VALUE);
+	}
+
+	/**
+	 * reserves the given amount of bytes, if the budget allows for it.
+	 * @return true, if the bytes were reserved, false if the budget is exhausted
+	 */
+	public boolean tryReserve(long bytes) {
+		long limit = limitInBytes.getAsLong();
+		while (true) {
+			long current = usedBytes.get();
+			if (current + bytes > limit) {
+				return false;
+			}
+			if (usedBytes.compareAndSet(current, current + bytes)) {
+				return true;
+			}
+		}
+	}
+
+	public void release(long bytes) {
+		usedBytes.addAndGet(-bytes);
+	}
+
+	public long getUsedBytes() {
+		return usedBytes.get();
+	}
+}
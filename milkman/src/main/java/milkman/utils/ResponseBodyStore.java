@@ -0,0 +1,342 @@
+package milkman.utils;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import milkman.ui.main.options.CoreApplicationOptionsProvider;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * stores the chunks of a response body and replays them to every subscriber, like a ReplayProcessor.
+ *
+ * the first chunks are kept in memory, as long as they fit into the per-response threshold and the
+ * memory budget. All subsequent chunks are spilled to a temporary file and read back on replay.
+ * In-memory chunks can also be moved to disk later on via {@link #offload()}.
+ * Temporary files are removed on {@link #dispose()} or as soon as the store becomes unreachable.
+ */
+@Slf4j
+public class ResponseBodyStore implements Subscriber<byte[]> {
+
+	private static final Cleaner cleaner = Cleaner.create();
+	private static final long MB = 1024 * 1024;
+
+	private final long memoryThreshold;
+	private final StoreResources resources;
+	private final Cleaner.Cleanable cleanable;
+
+	private final List<byte[]> memoryChunks = new ArrayList<>();
+	private long memoryBytes = 0;
+	private boolean offloaded = false;
+
+	private volatile boolean completed;
+	private volatile Throwable error;
+
+	private final List<Cursor> cursors = new CopyOnWriteArrayList<>();
+
+	public ResponseBodyStore(MemoryBudget memoryBudget) {
+		this(CoreApplicationOptionsProvider.options().getResponseMemoryThresholdMb() * MB, memoryBudget);
+	}
+
+	public ResponseBodyStore(long memoryThreshold, MemoryBudget memoryBudget) {
+		this.memoryThreshold = memoryThreshold;
+		this.resources = new StoreResources(memoryBudget);
+		this.cleanable = cleaner.register(this, resources);
+	}
+
+	/**
+	 * returns a flux that replays all received chunks and continues with live chunks afterwards.
+	 */
+	public Flux<byte[]> asFlux() {
+		return Flux.create(sink -> {
+			var cursor = new Cursor(sink);
+			cursors.add(cursor);
+			sink.onDispose(() -> cursors.remove(cursor));
+			sink.onRequest(n -> cursor.drain());
+			cursor.drain();
+		});
+	}
+
+	@Override
+	public void onSubscribe(Subscription subscription) {
+		subscription.request(Long.MAX_VALUE);
+	}
+
+	@Override
+	public void onNext(byte[] chunk) {
+		append(chunk);
+		cursors.forEach(Cursor::drain);
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+		error = throwable;
+		cursors.forEach(Cursor::drain);
+	}
+
+	@Override
+	public void onComplete() {
+		completed = true;
+		cursors.forEach(Cursor::drain);
+	}
+
+	/**
+	 * releases the memory reservation and removes the spill file. Must not be used afterwards.
+	 */
+	public void dispose() {
+		synchronized (this) {
+			memoryChunks.clear();
+		}
+		cleanable.clean();
+	}
+
+	public synchronized long getMemoryBytes() {
+		return memoryBytes;
+	}
+
+	public synchronized long getSpilledBytes() {
+		return resources.spillFile == null ? 0 : resources.spillFile.size;
+	}
+
+	/**
+	 * moves all chunks held in memory to a temporary file and releases their memory reservation.
+	 * Chunks received afterwards are spilled to disk as well.
+	 */
+	@SneakyThrows
+	public synchronized void offload() {
+		offloaded = true;
+		if (memoryChunks.isEmpty()) {
+			return;
+		}
+		var offloadFile = ChunkFile.create("milkman-offloaded");
+		synchronized (resources) {
+			resources.offloadFile = offloadFile;
+		}
+		for (byte[] chunk : memoryChunks) {
+			offloadFile.append(chunk);
+		}
+		log.debug("Offloaded {} bytes of response body to {}", memoryBytes, offloadFile.path);
+		memoryChunks.clear();
+		memoryBytes = 0;
+		synchronized (resources) {
+			resources.memoryBudget.release(resources.reservedBytes);
+			resources.reservedBytes = 0;
+		}
+	}
+
+	public synchronized boolean isOffloaded() {
+		return offloaded;
+	}
+
+	private synchronized void append(byte[] chunk) {
+		if (!offloaded
+				&& resources.spillFile == null
+				&& memoryBytes + chunk.length <= memoryThreshold
+				&& resources.memoryBudget.tryReserve(chunk.length)) {
+			memoryChunks.add(chunk);
+			memoryBytes += chunk.length;
+			resources.reservedBytes += chunk.length;
+			return;
+		}
+		spill(chunk);
+	}
+
+	@SneakyThrows
+	private void spill(byte[] chunk) {
+		if (resources.spillFile == null) {
+			var spillFile = ChunkFile.create("milkman-response");
+			synchronized (resources) {
+				resources.spillFile = spillFile;
+			}
+			log.debug("Response body exceeds memory limits, spilling to {}", spillFile.path);
+		}
+		resources.spillFile.append(chunk);
+	}
+
+	private synchronized int chunkCount() {
+		return offloadedChunkCount() + memoryChunks.size() + spilledChunkCount();
+	}
+
+	private int offloadedChunkCount() {
+		return resources.offloadFile == null ? 0 : resources.offloadFile.chunkCount;
+	}
+
+	private int spilledChunkCount() {
+		return resources.spillFile == null ? 0 : resources.spillFile.chunkCount;
+	}
+
+	/**
+	 * chunks are ordered as: offloaded chunks, in-memory chunks, spilled chunks
+	 */
+	private byte[] readChunk(int index) {
+		ChunkFile file;
+		int fileIndex;
+		synchronized (this) {
+			int offloadedCount = offloadedChunkCount();
+			if (index < offloadedCount) {
+				file = resources.offloadFile;
+				fileIndex = index;
+			} else if (index - offloadedCount < memoryChunks.size()) {
+				return memoryChunks.get(index - offloadedCount);
+			} else {
+				file = resources.spillFile;
+				fileIndex = index - offloadedCount - memoryChunks.size();
+			}
+		}
+		return file.read(fileIndex);
+	}
+
+	/**
+	 * per-subscriber replay position
+	 */
+	private class Cursor {
+		private final FluxSink<byte[]> sink;
+		private final AtomicInteger wip = new AtomicInteger();
+		private int index = 0;
+
+		Cursor(FluxSink<byte[]> sink) {
+			this.sink = sink;
+		}
+
+		void drain() {
+			if (wip.getAndIncrement() != 0) {
+				return;
+			}
+			int missed = 1;
+			do {
+				try {
+					emitAvailable();
+				} catch (Exception e) {
+					sink.error(e);
+					return;
+				}
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void emitAvailable() {
+			while (!sink.isCancelled() && sink.requestedFromDownstream() > 0 && index < chunkCount()) {
+				sink.next(readChunk(index++));
+			}
+
+			//terminal state has to be read before the chunk count, so we do not miss last chunks
+			boolean isCompleted = completed;
+			Throwable failure = error;
+			if ((isCompleted || failure != null) && index >= chunkCount()) {
+				if (failure != null) {
+					sink.error(failure);
+				} else {
+					sink.complete();
+				}
+			}
+		}
+	}
+
+	/**
+	 * a temporary file holding a sequence of chunks
+	 */
+	private static class ChunkFile {
+		private final Path path;
+		private final FileChannel channel;
+		private long[] chunkEnds = new long[64];
+		private int chunkCount = 0;
+		private long size = 0;
+
+		private ChunkFile(Path path, FileChannel channel) {
+			this.path = path;
+			this.channel = channel;
+		}
+
+		static ChunkFile create(String prefix) throws IOException {
+			var path = Files.createTempFile(prefix, ".body");
+			var channel = FileChannel.open(path,
+					StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+			return new ChunkFile(path, channel);
+		}
+
+		synchronized void append(byte[] chunk) throws IOException {
+			var buffer = ByteBuffer.wrap(chunk);
+			long position = size;
+			while (buffer.hasRemaining()) {
+				position += channel.write(buffer, position);
+			}
+			size = position;
+
+			if (chunkCount == chunkEnds.length) {
+				chunkEnds = Arrays.copyOf(chunkEnds, chunkEnds.length * 2);
+			}
+			chunkEnds[chunkCount] = size;
+			chunkCount++;
+		}
+
+		@SneakyThrows
+		byte[] read(int index) {
+			long start;
+			long end;
+			synchronized (this) {
+				start = index == 0 ? 0 : chunkEnds[index - 1];
+				end = chunkEnds[index];
+			}
+
+			var buffer = ByteBuffer.allocate((int) (end - start));
+			long position = start;
+			while (buffer.hasRemaining()) {
+				int read = channel.read(buffer, position);
+				if (read < 0) {
+					throw new IOException("Unexpected end of response body file " + path);
+				}
+				position += read;
+			}
+			return buffer.array();
+		}
+
+		void close() {
+			try {
+				channel.close();
+				Files.deleteIfExists(path);
+			} catch (IOException e) {
+				log.warn("Failed to remove response body file {}", path, e);
+			}
+		}
+	}
+
+	/**
+	 * resources that have to be released, either explicitly or once the store is garbage collected
+	 */
+	private static class StoreResources implements Runnable {
+		private final MemoryBudget memoryBudget;
+		private long reservedBytes;
+		private ChunkFile spillFile;
+		private ChunkFile offloadFile;
+
+		StoreResources(MemoryBudget memoryBudget) {
+			this.memoryBudget = memoryBudget;
+		}
+
+		@Override
+		public synchronized void run() {
+			memoryBudget.release(reservedBytes);
+			reservedBytes = 0;
+			if (spillFile != null) {
+				spillFile.close();
+			}
+			if (offloadFile != null) {
+				offloadFile.close();
+			}
+		}
+	}
+}
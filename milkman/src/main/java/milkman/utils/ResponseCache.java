@@ -0,0 +1,134 @@
+package milkman.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * caches the latest response per request. If the responses retain more memory than the budget allows,
+ * the least recently used responses are evicted, weighted by the size of their in-memory bodies.
+ *
+ * Evicted responses are either offloaded (their bodies are moved to disk, but they can still be displayed)
+ * or discarded. Discarded request ids are remembered, so this can be indicated to the user.
+ */
+@Slf4j
+public class ResponseCache {
+
+	/**
+	 * assumed size of a response besides its body (headers, status information, parsed aspects)
+	 */
+	static final long RESPONSE_OVERHEAD_BYTES = 16 * 1024;
+
+	private final LongSupplier budgetInBytes;
+	private final BooleanSupplier offloadEvictedResponses;
+
+	private final LinkedHashMap<String, AsyncResponseControl> responses = new LinkedHashMap<>(16, 0.75f, true);
+	private final Set<String> evictedRequestIds = new HashSet<>();
+
+	public ResponseCache(LongSupplier budgetInBytes, BooleanSupplier offloadEvictedResponses) {
+		this.budgetInBytes = budgetInBytes;
+		this.offloadEvictedResponses = offloadEvictedResponses;
+	}
+
+	/**
+	 * returns the cached response and marks it as recently used
+	 */
+	public synchronized Optional<AsyncResponseControl> get(String requestId) {
+		return Optional.ofNullable(responses.get(requestId));
+	}
+
+	public synchronized void put(String requestId, AsyncResponseControl response) {
+		evictedRequestIds.remove(requestId);
+		var previous = responses.put(requestId, response);
+		if (previous != null && previous != response) {
+			previous.dispose();
+		}
+		evictIfNecessary();
+	}
+
+	/**
+	 * removes and disposes the cached response
+	 */
+	public synchronized void remove(String requestId) {
+		evictedRequestIds.remove(requestId);
+		var response = responses.remove(requestId);
+		if (response != null) {
+			response.dispose();
+		}
+	}
+
+	public synchronized void clear() {
+		responses.values().forEach(AsyncResponseControl::dispose);
+		responses.clear();
+		evictedRequestIds.clear();
+	}
+
+	/**
+	 * true, if the response of the given request was discarded to stay within the budget
+	 */
+	public synchronized boolean wasEvicted(String requestId) {
+		return evictedRequestIds.contains(requestId);
+	}
+
+	public synchronized int size() {
+		return responses.size();
+	}
+
+	public synchronized long getRetainedBytes() {
+		return responses.values().stream().mapToLong(ResponseCache::weightOf).sum();
+	}
+
+	/**
+	 * evicts responses, starting with the least recently used one. The most recently used response is never evicted.
+	 * Bodies of responses might still be streamed, so the weights are re-evaluated every time.
+	 */
+	public synchronized void evictIfNecessary() {
+		long budget = budgetInBytes.getAsLong();
+		long retained = getRetainedBytes();
+		if (retained <= budget) {
+			return;
+		}
+
+		var candidates = new ArrayList<>(responses.entrySet());
+		if (candidates.isEmpty()) {
+			return;
+		}
+		candidates.remove(candidates.size() - 1);
+
+		if (offloadEvictedResponses.getAsBoolean()) {
+			for (Map.Entry<String, AsyncResponseControl> candidate : candidates) {
+				if (retained <= budget) {
+					return;
+				}
+				long bodyBytes = candidate.getValue().getRetainedBytes();
+				if (bodyBytes > 0) {
+					log.debug("Offloading response of request {} ({} bytes)", candidate.getKey(), bodyBytes);
+					candidate.getValue().offloadBodies();
+					retained -= bodyBytes;
+				}
+			}
+		}
+
+		for (Map.Entry<String, AsyncResponseControl> candidate : candidates) {
+			if (retained <= budget) {
+				return;
+			}
+			log.debug("Discarding response of request {}", candidate.getKey());
+			retained -= weightOf(candidate.getValue());
+			responses.remove(candidate.getKey());
+			candidate.getValue().dispose();
+			evictedRequestIds.add(candidate.getKey());
+		}
+	}
+
+	private static long weightOf(AsyncResponseControl response) {
+		return response.getRetainedBytes() + RESPONSE_OVERHEAD_BYTES;
+	}
+}
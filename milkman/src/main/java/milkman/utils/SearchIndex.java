@@ -0,0 +1,233 @@
+package milkman.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import milkman.domain.RequestContainer;
+import milkman.domain.SearchTermCollector;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * inverted trigram index over the searchable text of requests (see {@link milkman.domain.Searchable#collectSearchTerms}).
+ *
+ * A query consists of whitespace separated terms that all have to be contained (case-insensitive) in the request.
+ * Terms can be scoped to a field, e.g. {@code url:/api header:bearer}. Candidates are looked up by the trigrams
+ * of a term and verified against the indexed text afterwards.
+ *
+ * Requests are indexed on search (or {@link #refresh()}), if they are new or were replaced (e.g. after saving).
+ * Dirty requests are re-indexed on every search, as they might have been edited in place. The search terms of requests
+ * are collected without holding the lock of the index, as this might read lazily loaded requests from storage.
+ */
+@Slf4j
+public class SearchIndex {
+
+	/**
+	 * indexed characters per field of a request, so huge bodies do not bloat the index
+	 */
+	static final int MAX_INDEXED_LENGTH = 100_000;
+	private static final int GRAM_LENGTH = 3;
+
+	private final Map<String, IndexedRequest> indexed = new HashMap<>();
+	private final Map<String, RequestContainer> stale = new LinkedHashMap<>();
+	private final Map<String, Set<String>> postings = new HashMap<>();
+	private final Set<String> fields = new HashSet<>(List.of(SearchTermCollector.NAME, SearchTermCollector.URL,
+			SearchTermCollector.METHOD, SearchTermCollector.HEADER, SearchTermCollector.BODY));
+
+	/**
+	 * synchronizes the index with the given requests. Requests that are not indexed yet are indexed on next search.
+	 */
+	public synchronized void update(Collection<RequestContainer> requests) {
+		Set<String> ids = new HashSet<>();
+		for (RequestContainer request : requests) {
+			ids.add(request.getId());
+			var entry = indexed.get(request.getId());
+			if (entry == null || entry.request != request) {
+				stale.put(request.getId(), request);
+			}
+		}
+		new ArrayList<>(indexed.keySet()).stream()
+				.filter(id -> !ids.contains(id))
+				.forEach(this::remove);
+		stale.keySet().removeIf(id -> !ids.contains(id));
+	}
+
+	/**
+	 * returns the ids of all requests matching the query
+	 */
+	public Set<String> search(String query) {
+		refresh();
+		synchronized (this) {
+			return find(query);
+		}
+	}
+
+	private Set<String> find(String query) {
+		Set<String> result = null;
+		for (String token : StringUtils.split(query.toLowerCase(Locale.ROOT))) {
+			String field = null;
+			String term = token;
+			int idx = token.indexOf(':');
+			if (idx > 0 && fields.contains(token.substring(0, idx))) {
+				field = token.substring(0, idx);
+				term = token.substring(idx + 1);
+			}
+			if (term.isEmpty()) {
+				continue;
+			}
+
+			Set<String> matches = match(field, term);
+			if (result == null) {
+				result = matches;
+			} else {
+				result.retainAll(matches);
+			}
+			if (result.isEmpty()) {
+				break;
+			}
+		}
+		return result != null ? result : new HashSet<>(indexed.keySet());
+	}
+
+	public synchronized int size() {
+		return indexed.size() + stale.size();
+	}
+
+	/**
+	 * indexes new, replaced and dirty requests. Requests that are updated meanwhile are indexed on next refresh.
+	 */
+	public void refresh() {
+		List<RequestContainer> requests;
+		synchronized (this) {
+			indexed.values().stream()
+					.filter(entry -> entry.request.isDirty())
+					.forEach(entry -> stale.put(entry.request.getId(), entry.request));
+			if (stale.isEmpty()) {
+				return;
+			}
+			requests = new ArrayList<>(stale.values());
+		}
+
+		long startTime = System.currentTimeMillis();
+		List<IndexedRequest> entries = new ArrayList<>(requests.size());
+		for (RequestContainer request : requests) {
+			entries.add(collect(request));
+		}
+
+		synchronized (this) {
+			for (IndexedRequest entry : entries) {
+				String id = entry.request.getId();
+				if (stale.get(id) == entry.request) {
+					stale.remove(id);
+					remove(id);
+					add(entry);
+				}
+			}
+		}
+		log.debug("Indexed {} requests in {} ms", entries.size(), System.currentTimeMillis() - startTime);
+	}
+
+	private static IndexedRequest collect(RequestContainer request) {
+		Map<String, StringBuilder> texts = new HashMap<>();
+		request.collectSearchTerms((field, text) -> {
+			if (StringUtils.isEmpty(text)) {
+				return;
+			}
+			var builder = texts.computeIfAbsent(field, f -> new StringBuilder());
+			if (builder.length() > 0) {
+				builder.append('\n');
+			}
+			int remaining = MAX_INDEXED_LENGTH - builder.length();
+			if (remaining > 0) {
+				builder.append(text.substring(0, Math.min(text.length(), remaining)).toLowerCase(Locale.ROOT));
+			}
+		});
+
+		Map<String, String> fieldTexts = new HashMap<>();
+		Set<String> grams = new HashSet<>();
+		texts.forEach((field, builder) -> {
+			String text = builder.toString();
+			fieldTexts.put(field, text);
+			for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+				grams.add(text.substring(i, i + GRAM_LENGTH));
+			}
+		});
+		return new IndexedRequest(request, fieldTexts, grams);
+	}
+
+	private void add(IndexedRequest entry) {
+		fields.addAll(entry.fieldTexts.keySet());
+		for (String gram : entry.grams) {
+			postings.computeIfAbsent(gram, g -> new HashSet<>()).add(entry.request.getId());
+		}
+		indexed.put(entry.request.getId(), entry);
+	}
+
+	private void remove(String id) {
+		var entry = indexed.remove(id);
+		if (entry == null) {
+			return;
+		}
+		for (String gram : entry.grams) {
+			var ids = postings.get(gram);
+			if (ids != null) {
+				ids.remove(id);
+				if (ids.isEmpty()) {
+					postings.remove(gram);
+				}
+			}
+		}
+	}
+
+	private Set<String> match(String field, String term) {
+		Set<String> result = new HashSet<>();
+		for (String id : candidates(term)) {
+			if (indexed.get(id).matches(field, term)) {
+				result.add(id);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * ids of requests that contain all trigrams of the term (or all requests, if the term is too short)
+	 */
+	private Collection<String> candidates(String term) {
+		if (term.length() < GRAM_LENGTH) {
+			return indexed.keySet();
+		}
+		List<Set<String>> lists = new ArrayList<>();
+		for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+			var ids = postings.get(term.substring(i, i + GRAM_LENGTH));
+			if (ids == null) {
+				return Set.of();
+			}
+			lists.add(ids);
+		}
+		lists.sort(Comparator.comparingInt(Set::size));
+		Set<String> result = new HashSet<>(lists.get(0));
+		for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+			result.retainAll(lists.get(i));
+		}
+		return result;
+	}
+
+	private record IndexedRequest(RequestContainer request, Map<String, String> fieldTexts, Set<String> grams) {
+
+		boolean matches(String field, String term) {
+			if (field != null) {
+				String text = fieldTexts.get(field);
+				return text != null && text.contains(term);
+			}
+			return fieldTexts.values().stream().anyMatch(text -> text.contains(term));
+		}
+	}
+}
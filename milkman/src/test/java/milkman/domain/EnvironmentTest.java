@@ -0,0 +1,40 @@
+package milkman.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EnvironmentTest {
+
+	@Test
+	void shouldNotDuplicateVariablesSetConcurrently() throws InterruptedException {
+		var environment = new Environment("override");
+		environment.setEntries(new CopyOnWriteArrayList<>());
+		int threads = 8;
+		var start = new CountDownLatch(1);
+		var executor = Executors.newFixedThreadPool(threads);
+		for (int i = 0; i < threads; i++) {
+			String value = "value " + i;
+			executor.execute(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				for (int n = 0; n < 100; n++) {
+					environment.setOrAdd("token" + n, value);
+				}
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+		assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(environment.getEntries()).hasSize(100);
+	}
+}
@@ -0,0 +1,106 @@
+package milkman.domain.table;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResultTableTest {
+
+	@Test
+	void shouldStoreTypedValuesAndDisplayThemLazily() {
+		var table = new ResultTable(List.of("id", "price", "ratio", "active", "name", "amount"),
+				List.of(ColumnType.LONG, ColumnType.DOUBLE, ColumnType.FLOAT, ColumnType.BOOLEAN, ColumnType.STRING, ColumnType.OBJECT));
+		table.getColumn(0).appendLong(1);
+		table.getColumn(1).appendDouble(9.99);
+		table.getColumn(2).appendDouble(1.1f);
+		table.getColumn(3).appendBoolean(true);
+		table.appendValue(4, "first");
+		table.appendValue(5, new BigDecimal("10.50"));
+		table.endRow();
+		table.getColumn(0).appendLong(2);
+		table.endRow();
+
+		assertThat(table.getRowCount()).isEqualTo(2);
+		assertThat(table.getRow(0)).containsExactly("1", "9.99", "1.1", "true", "first", "10.50");
+		assertThat(table.getRow(1)).containsExactly("2", "NULL", "NULL", "NULL", "NULL", "NULL");
+		assertThat(table.getValue(0, 0)).isEqualTo(1L);
+		assertThat(table.getValue(1, 4)).isNull();
+		assertThat(((LongColumn) table.getColumn(0)).getLong(1)).isEqualTo(2L);
+	}
+
+	@Test
+	void shouldDeduplicateStrings() {
+		var column = new StringColumn();
+		for (int i = 0; i < 1000; i++) {
+			column.appendString(i % 2 == 0 ? "even" : "odd");
+		}
+		column.appendNull();
+
+		assertThat(column.size()).isEqualTo(1001);
+		assertThat(column.getDictionarySize()).isEqualTo(2);
+		assertThat(column.getString(2)).isEqualTo("even");
+		assertThat(column.getString(3)).isEqualTo("odd");
+		assertThat(column.getString(1000)).isNull();
+	}
+
+	@Test
+	void shouldWidenColumnsForValuesOfOtherTypes() {
+		var table = new ResultTable();
+		table.addColumn("value", ColumnType.LONG);
+		table.appendValue(0, 1);
+		table.endRow();
+		table.appendValue(0, "two");
+		table.endRow();
+
+		assertThat(table.getColumn(0).getType()).isEqualTo(ColumnType.OBJECT);
+		assertThat(table.getValue(0, 0)).isEqualTo(1L);
+		assertThat(table.getDisplayValue(1, 0)).isEqualTo("two");
+	}
+
+	@Test
+	void shouldFillNullsForColumnsAddedLater() {
+		var table = new ResultTable();
+		table.appendValue(table.addColumn("a", ColumnType.STRING), "a1");
+		table.endRow();
+		table.appendValue(table.addColumn("b", ColumnType.LONG), 2);
+		table.endRow();
+
+		assertThat(table.getColumnNames()).containsExactly("a", "b");
+		assertThat(table.getRow(0)).containsExactly("a1", "NULL");
+		assertThat(table.getRow(1)).containsExactly("NULL", "2");
+	}
+
+	@Test
+	void shouldAppendPages() {
+		var table = new ResultTable(List.of("id", "name"), List.of(ColumnType.LONG, ColumnType.STRING));
+		table.getColumn(0).appendLong(1);
+		table.appendValue(1, "one");
+		table.endRow();
+
+		var page = new ResultTable(table.getColumnNames(), table.getColumnTypes());
+		page.getColumn(0).appendNull();
+		page.appendValue(1, "two");
+		page.endRow();
+		page.getColumn(0).appendLong(3);
+		page.appendValue(1, "one");
+		page.endRow();
+		table.appendAll(page);
+
+		assertThat(table.getRowIndices()).containsExactly(0, 1, 2);
+		assertThat(table.getRows()).containsExactly(List.of("1", "one"), List.of("NULL", "two"), List.of("3", "one"));
+		assertThat(table.format("\t")).isEqualTo(String.join(System.lineSeparator(), "id\tname", "1\tone", "NULL\ttwo", "3\tone"));
+	}
+
+	@Test
+	void shouldRejectIncompleteRows() {
+		var table = new ResultTable(List.of("a"), List.of(ColumnType.LONG));
+		table.getColumn(0).appendLong(1);
+		table.getColumn(0).appendLong(2);
+
+		assertThatThrownBy(table::endRow).isInstanceOf(IllegalStateException.class);
+	}
+}
@@ -0,0 +1,250 @@
+package milkman.persistence;
+
+import milkman.domain.Collection;
+import milkman.domain.Environment;
+import milkman.domain.RequestAspect;
+import milkman.domain.RequestContainer;
+import milkman.domain.Workspace;
+import milkman.ui.main.options.CoreApplicationOptionsProvider;
+import org.dizitart.no2.Nitrite;
+import org.dizitart.no2.mapper.JacksonMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PersistenceManagerTest {
+
+	@TempDir
+	Path tempDir;
+
+	private String databaseFile;
+	private final List<PersistenceManager> persistenceManagers = new LinkedList<>();
+
+	@BeforeEach
+	void setup() {
+		databaseFile = tempDir.resolve("database.db").toString();
+		System.setProperty(PersistenceManager.DATABASE_FILE_PROPERTY, databaseFile);
+	}
+
+	@AfterEach
+	void tearDown() {
+		persistenceManagers.forEach(PersistenceManager::shutdown);
+		System.clearProperty(PersistenceManager.DATABASE_FILE_PROPERTY);
+		CoreApplicationOptionsProvider.options().setLazyRequestLoading(true);
+	}
+
+	@Test
+	void shouldLoadPersistedWorkspace() {
+		var persistence = createPersistenceManager();
+		var workspace = createWorkspace("ws", 2, 3);
+		persistence.persistWorkspace(workspace);
+
+		var loaded = persistence.loadWorkspaceByName("ws").orElseThrow();
+
+		assertThat(loaded.getId()).isEqualTo(workspace.getId());
+		assertThat(loaded.getCollections()).extracting(Collection::getName).containsExactly("collection 0", "collection 1");
+		assertThat(loaded.getCollections().get(1).getRequests()).extracting(RequestContainer::getName)
+				.containsExactly("request 0", "request 1", "request 2");
+		assertThat(loaded.getEnvironments()).extracting(Environment::getName).containsExactly("env");
+		assertThat(loaded.getActiveRequest()).isSameAs(loaded.getOpenRequests().get(0));
+		assertThat(persistence.loadWorkspaceNames()).containsExactly("ws");
+	}
+
+	@Test
+	void shouldPersistChangedAndRemovedEntities() {
+		var persistence = createPersistenceManager();
+		persistence.persistWorkspace(createWorkspace("ws", 2, 3));
+
+		var workspace = persistence.loadWorkspaceByName("ws").orElseThrow();
+		workspace.getCollections().get(0).getRequests().get(0).setName("renamed");
+		workspace.getCollections().get(0).getRequests().remove(2);
+		workspace.getCollections().remove(1);
+		workspace.getEnvironments().get(0).setOrAdd("host", "localhost");
+		persistence.persistWorkspace(workspace);
+
+		var loaded = persistence.loadWorkspaceByName("ws").orElseThrow();
+		assertThat(loaded.getCollections()).hasSize(1);
+		assertThat(loaded.getCollections().get(0).getRequests()).extracting(RequestContainer::getName)
+				.containsExactly("renamed", "request 1");
+		assertThat(loaded.getEnvironments().get(0).getEntries()).hasSize(1);
+	}
+
+	@Test
+	void shouldCoalesceRepeatedSavesOfWorkspace() {
+		var persistence = createPersistenceManager();
+		persistence.persistWorkspace(createWorkspace("ws", 1, 2));
+		var workspace = persistence.loadWorkspaceByName("ws").orElseThrow();
+		long coalescedWrites = persistence.getMetrics().getCoalescedWrites();
+
+		workspace.getCollections().get(0).getRequests().get(0).setName("renamed");
+		persistence.persistWorkspace(workspace);
+		persistence.persistWorkspace(workspace);
+
+		assertThat(persistence.getMetrics().getCoalescedWrites()).isEqualTo(coalescedWrites + 1);
+		var loaded = persistence.loadWorkspaceByName("ws").orElseThrow();
+		assertThat(loaded.getCollections().get(0).getRequests()).extracting(RequestContainer::getName)
+				.containsExactly("renamed", "request 1");
+	}
+
+	@Test
+	void shouldStoreWorkspaceAsOfPersisting() {
+		var persistence = createPersistenceManager();
+		var workspace = createWorkspace("ws", 1, 1);
+		persistence.persistWorkspace(workspace);
+
+		//changed before the write-behind queue is flushed
+		workspace.getCollections().get(0).getRequests().get(0).setName("changed later");
+
+		var loaded = persistence.loadWorkspaceByName("ws").orElseThrow();
+		assertThat(loaded.getCollections().get(0).getRequests()).extracting(RequestContainer::getName)
+				.containsExactly("request 0");
+	}
+
+	@Test
+	void shouldLoadAspectsOnDemand() {
+		var persistence = createPersistenceManager();
+		persistence.persistWorkspace(createWorkspace("ws", 1, 2));
+
+		var workspace = persistence.loadWorkspaceByName("ws").orElseThrow();
+		var requests = workspace.getCollections().get(0).getRequests();
+		assertThat(requests).noneMatch(RequestContainer::isAspectsLoaded);
+		assertThat(requests.get(0).getAspect(StoredAspect.class)).hasValueSatisfying(a -> assertThat(a.getBody()).isEqualTo("body of request 0"));
+		assertThat(requests.get(1).isAspectsLoaded()).isFalse();
+
+		//unloaded aspects must not get lost on persist
+		requests.get(1).setName("renamed");
+		persistence.persistWorkspace(workspace);
+
+		var loaded = persistence.loadWorkspaceByName("ws").orElseThrow();
+		assertThat(loaded.getCollections().get(0).getRequests())
+				.extracting(r -> r.getAspect(StoredAspect.class).orElseThrow().getBody())
+				.containsExactly("body of request 0", "body of request 1");
+	}
+
+	@Test
+	void shouldLoadAspectsEagerlyIfDisabled() {
+		CoreApplicationOptionsProvider.options().setLazyRequestLoading(false);
+		var persistence = createPersistenceManager();
+		persistence.persistWorkspace(createWorkspace("ws", 1, 2));
+
+		var requests = persistence.loadWorkspaceByName("ws").orElseThrow().getCollections().get(0).getRequests();
+
+		assertThat(requests).allMatch(RequestContainer::isAspectsLoaded);
+		assertThat(requests.get(1).getAspect(StoredAspect.class)).hasValueSatisfying(a -> assertThat(a.getBody()).isEqualTo("body of request 1"));
+	}
+
+	@Test
+	void shouldDeleteWorkspace() {
+		var persistence = createPersistenceManager();
+		persistence.persistWorkspace(createWorkspace("ws1", 1, 1));
+		persistence.persistWorkspace(createWorkspace("ws2", 1, 1));
+
+		assertThat(persistence.deleteWorkspace("ws1")).isTrue();
+
+		assertThat(persistence.loadWorkspaceNames()).containsExactly("ws2");
+		assertThat(persistence.loadWorkspaceByName("ws1")).isEmpty();
+	}
+
+	@Test
+	void shouldStorePendingWritesOnShutdown() {
+		var persistence = createPersistenceManager();
+		persistence.persistWorkspace(createWorkspace("ws", 1, 2));
+		persistence.persistWorkspace(createWorkspace("ws2", 1, 2));
+		var state = persistence.loadWorkbenchState();
+		state.setLoadedWorkspace("ws2");
+		persistence.saveWorkbenchState(state);
+		persistence.shutdown();
+
+		var reopened = createPersistenceManager();
+		assertThat(reopened.loadWorkspaceNames()).containsExactlyInAnyOrder("ws", "ws2");
+		assertThat(reopened.loadWorkspaceByName("ws2").orElseThrow().getCollections().get(0).getRequests()).hasSize(2);
+		assertThat(reopened.loadWorkbenchState().getLoadedWorkspace()).isEqualTo("ws2");
+	}
+
+	@Test
+	void shouldMigrateSingleDocumentWorkspaces() {
+		var legacyDb = Nitrite.builder()
+				.compressed()
+				.filePath(databaseFile)
+				.nitriteMapper(new JacksonMapper())
+				.openOrCreate("milkman", "bringthemilk");
+		var legacyWorkspace = createWorkspace("legacy", 1, 2);
+		legacyWorkspace.setId(42);
+		legacyDb.getRepository(Workspace.class).insert(legacyWorkspace);
+		legacyDb.close();
+
+		var persistence = createPersistenceManager();
+
+		assertThat(persistence.loadWorkspaceNames()).containsExactly("legacy");
+		var migrated = persistence.loadWorkspaceByName("legacy").orElseThrow();
+		assertThat(migrated.getId()).isEqualTo(42);
+		assertThat(migrated.getCollections().get(0).getRequests()).hasSize(2);
+		assertThat(migrated.getActiveRequest()).isSameAs(migrated.getOpenRequests().get(0));
+	}
+
+	private PersistenceManager createPersistenceManager() {
+		var persistence = new PersistenceManager();
+		persistence.init();
+		persistenceManagers.add(persistence);
+		return persistence;
+	}
+
+	private static Workspace createWorkspace(String name, int collectionCount, int requestsPerCollection) {
+		List<Collection> collections = new LinkedList<>();
+		for (int c = 0; c < collectionCount; c++) {
+			List<RequestContainer> requests = new LinkedList<>();
+			for (int r = 0; r < requestsPerCollection; r++) {
+				var request = new StoredRequestContainer("request " + r);
+				request.addAspect(new StoredAspect("body of request " + r));
+				requests.add(request);
+			}
+			collections.add(new Collection(UUID.randomUUID().toString(), "collection " + c, false, requests, new LinkedList<>()));
+		}
+		var openRequest = new StoredRequestContainer("open");
+		var workspace = new Workspace(0, UUID.randomUUID().toString(), name, collections,
+				new LinkedList<>(List.of(openRequest)), openRequest);
+		workspace.getEnvironments().add(new Environment("env"));
+		return workspace;
+	}
+
+	public static class StoredRequestContainer extends RequestContainer {
+
+		public StoredRequestContainer() {
+		}
+
+		public StoredRequestContainer(String name) {
+			super(name);
+		}
+
+		@Override
+		public String getType() {
+			return "STORED";
+		}
+	}
+
+	public static class StoredAspect extends RequestAspect {
+
+		private String body;
+
+		public StoredAspect() {
+			super("stored");
+		}
+
+		public StoredAspect(String body) {
+			this();
+			this.body = body;
+		}
+
+		public String getBody() {
+			return body;
+		}
+	}
+}
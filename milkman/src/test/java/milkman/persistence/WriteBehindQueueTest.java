@@ -0,0 +1,112 @@
+package milkman.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class WriteBehindQueueTest {
+
+	private final AtomicInteger commits = new AtomicInteger();
+	private final WriteBehindQueue queue = new WriteBehindQueue(60_000, commits::incrementAndGet);
+
+	@AfterEach
+	void tearDown() {
+		queue.shutdown();
+	}
+
+	@Test
+	void shouldCoalesceWritesOfSameEntity() {
+		List<String> writes = new CopyOnWriteArrayList<>();
+		queue.enqueue("a", () -> writes.add("a1"));
+		queue.enqueue("b", () -> writes.add("b1"));
+		queue.enqueue("a", () -> writes.add("a2"));
+
+		assertThat(queue.getMetrics().getQueueDepth()).isEqualTo(2);
+		queue.flush();
+
+		assertThat(writes).containsExactly("a2", "b1");
+		assertThat(commits).hasValue(1);
+		var metrics = queue.getMetrics();
+		assertThat(metrics.getQueueDepth()).isEqualTo(0);
+		assertThat(metrics.getEnqueuedWrites()).isEqualTo(3);
+		assertThat(metrics.getCoalescedWrites()).isEqualTo(1);
+		assertThat(metrics.getFlushedBatches()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldDiscardSupersededWrites() {
+		List<String> writes = new CopyOnWriteArrayList<>();
+		queue.enqueue("request:1/a", () -> writes.add("request"));
+		queue.enqueue("request:2/a", () -> writes.add("other"));
+		queue.discard(key -> key.startsWith("request:1/"));
+		queue.flush();
+
+		assertThat(writes).containsExactly("other");
+	}
+
+	@Test
+	void shouldNotWaitForDiscardedWritesOnFlush() {
+		queue.enqueue("request:1/a", () -> {});
+		queue.discard(key -> key.startsWith("request:1/"));
+
+		assertTimeoutPreemptively(Duration.ofSeconds(10), queue::flush);
+	}
+
+	@Test
+	void shouldNotWaitForWritesDiscardedDuringBatch() throws InterruptedException {
+		var started = new CountDownLatch(1);
+		var release = new CountDownLatch(1);
+		queue.enqueue("a", () -> {
+			started.countDown();
+			awaitQuietly(release);
+		});
+		var firstFlush = CompletableFuture.runAsync(queue::flush);
+		started.await();
+		queue.enqueue("request:1/a", () -> {});
+		queue.discard(key -> key.startsWith("request:1/"));
+		release.countDown();
+
+		assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+			firstFlush.join();
+			queue.flush();
+		});
+	}
+
+	@Test
+	void shouldContinueAfterFailedWrite() {
+		List<String> writes = new CopyOnWriteArrayList<>();
+		queue.enqueue("a", () -> {
+			throw new IllegalStateException("failed");
+		});
+		queue.enqueue("b", () -> writes.add("b"));
+		queue.flush();
+
+		assertThat(writes).containsExactly("b");
+	}
+
+	@Test
+	void shouldWriteEverythingOnShutdown() {
+		List<String> writes = new CopyOnWriteArrayList<>();
+		queue.enqueue("a", () -> writes.add("a"));
+		queue.shutdown();
+
+		assertThat(writes).containsExactly("a");
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
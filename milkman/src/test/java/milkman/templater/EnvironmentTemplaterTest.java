@@ -20,4 +20,32 @@ class EnvironmentTemplaterTest {
         assertThat(result).isEqualTo("testValue$d2");
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldSeeVariablesAddedAfterConstruction() {
+        var testEnv = new Environment("test");
+        var templater = new EnvironmentTemplater(Optional.of(testEnv), List.of(), null);
+        testEnv.setOrAdd("late", "value");
+        assertThat(templater.replaceTags("a {{late}} b")).isEqualTo("a value b");
+    }
+
+    @Test
+    void shouldRenderCachedTemplatesRepeatedly() {
+        var testEnv = new Environment("test");
+        testEnv.setOrAdd("id", "1");
+        var first = new EnvironmentTemplater(Optional.of(testEnv), List.of(), null);
+        assertThat(first.replaceTags("/items/{{id}}/{{ id }}")).isEqualTo("/items/1/1");
+
+        testEnv.setOrAdd("id", "2");
+        var second = new EnvironmentTemplater(Optional.of(testEnv), List.of(), null);
+        assertThat(second.replaceTags("/items/{{id}}/{{ id }}")).isEqualTo("/items/2/2");
+    }
+
+    @Test
+    void shouldKeepIncompleteTags() {
+        var testEnv = new Environment("test");
+        testEnv.setOrAdd("a", "x");
+        var templater = new EnvironmentTemplater(Optional.of(testEnv), List.of(), new PrefixedTemplaterResolver(List.of()));
+        assertThat(templater.replaceTags("{{ {{a}} }} {{a} {{}} }}{{a}}")).isEqualTo("{{ x }} {{a} {{}} }}x");
+    }
+
+}
@@ -0,0 +1,41 @@
+package milkman.ui.components;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CancellableCharSequenceTest {
+
+	@Test
+	void shouldMatchLikeTheText() {
+		var text = new CancellableCharSequence("a 1 b 22", () -> false);
+
+		var matcher = Pattern.compile("\\d+").matcher(text);
+
+		assertThat(matcher.find()).isTrue();
+		assertThat(matcher.group()).isEqualTo("1");
+		assertThat(matcher.find()).isTrue();
+		assertThat(matcher.group()).isEqualTo("22");
+	}
+
+	@Test
+	void shouldStopMatchingOnceCancelled() {
+		var cancelled = new AtomicBoolean();
+		var text = new CancellableCharSequence("x".repeat(100_000), cancelled::get);
+		var matcher = Pattern.compile("x").matcher(text);
+		assertThat(matcher.find()).isTrue();
+
+		cancelled.set(true);
+
+		assertThatThrownBy(() -> {
+			while (matcher.find()) {
+				// reads the text until the cancellation is noticed
+			}
+		}).isInstanceOf(CancellationException.class);
+	}
+}
@@ -0,0 +1,42 @@
+package milkman.ui.components;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HighlightedParagraphsTest {
+
+	@Test
+	void shouldReturnMissingRange() {
+		var paragraphs = new HighlightedParagraphs();
+		assertThat(paragraphs.missingRange(0, 10)).containsExactly(0, 10);
+
+		paragraphs.markHighlighted(0, 10);
+		assertThat(paragraphs.missingRange(0, 10)).isNull();
+		assertThat(paragraphs.missingRange(5, 20)).containsExactly(11, 20);
+
+		paragraphs.markHighlighted(15, 20);
+		assertThat(paragraphs.missingRange(5, 20)).containsExactly(11, 14);
+	}
+
+	@Test
+	void shouldShiftParagraphsAfterEdit() {
+		var paragraphs = new HighlightedParagraphs();
+		paragraphs.markHighlighted(0, 9);
+
+		//paragraph 2 replaced by three lines
+		paragraphs.invalidate(2, 0, 2);
+
+		assertThat(paragraphs.isHighlighted(1)).isTrue();
+		assertThat(paragraphs.missingRange(0, 20)).containsExactly(2, 20);
+		assertThat(paragraphs.missingRange(0, 11)).containsExactly(2, 4);
+		assertThat(paragraphs.isHighlighted(11)).isTrue();
+		assertThat(paragraphs.isHighlighted(12)).isFalse();
+
+		//paragraphs 2-4 joined into one
+		paragraphs.invalidate(2, 2, 0);
+		assertThat(paragraphs.missingRange(0, 9)).containsExactly(2, 2);
+		assertThat(paragraphs.isHighlighted(9)).isTrue();
+		assertThat(paragraphs.isHighlighted(10)).isFalse();
+	}
+}
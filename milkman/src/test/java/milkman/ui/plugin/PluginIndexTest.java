@@ -0,0 +1,119 @@
+package milkman.ui.plugin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PluginIndexTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void shouldIndexServicesAndSubtypes() throws IOException {
+		var jar = createJar("plugin.jar", "# comment\nmilkman.FirstPlugin\n\nmilkman.SecondPlugin # trailing comment\n");
+
+		var index = PluginIndex.create(List.of(jar), null);
+
+		assertThat(index.getImplementations(ContentTypePlugin.class)).containsExactly("milkman.FirstPlugin", "milkman.SecondPlugin");
+		assertThat(index.getImplementations(ImporterPlugin.class)).isEmpty();
+		assertThat(index.getSubtypes(BasePlugin.class)).containsExactlyInAnyOrder(SubPlugin.class.getName(), SubSubPlugin.class.getName());
+		assertThat(index.getSubtypes(SubSubPlugin.class)).isEmpty();
+	}
+
+	@Test
+	void shouldIndexClassesOfPluginJarsInAllPackages() throws IOException {
+		var plugin = createJar("plugin.jar", ContentTypePlugin.class.getName(), "milkman.FirstPlugin", "com/example/");
+		var library = createJar("library.jar", "org.example.Service", "org.example.Implementation", "org/example/");
+
+		assertThat(PluginIndex.create(List.of(plugin), null).getSubtypes(BasePlugin.class))
+				.containsExactlyInAnyOrder(SubPlugin.class.getName(), SubSubPlugin.class.getName());
+		assertThat(PluginIndex.create(List.of(library), null).getSubtypes(BasePlugin.class)).isEmpty();
+	}
+
+	@Test
+	void shouldReuseCachedEntriesOfUnchangedJars() throws IOException {
+		var jar = createJar("plugin.jar", "milkman.FirstPlugin");
+		var cacheFile = tempDir.resolve("plugin-index.json");
+		PluginIndex.create(List.of(jar), cacheFile);
+
+		//tamper with the cache to see, whether it is used
+		var mapper = new ObjectMapper();
+		var cache = mapper.readValue(cacheFile.toFile(), PluginIndex.IndexFile.class);
+		cache.getEntries().get(jar.toString()).getServices().put(ContentTypePlugin.class.getName(), List.of("milkman.CachedPlugin"));
+		mapper.writeValue(cacheFile.toFile(), cache);
+
+		assertThat(PluginIndex.create(List.of(jar), cacheFile).getImplementations(ContentTypePlugin.class))
+				.containsExactly("milkman.CachedPlugin");
+	}
+
+	@Test
+	void shouldRescanChangedJars() throws IOException {
+		var jar = createJar("plugin.jar", "milkman.FirstPlugin");
+		var cacheFile = tempDir.resolve("plugin-index.json");
+		PluginIndex.create(List.of(jar), cacheFile);
+
+		createJar("plugin.jar", "milkman.UpdatedPlugin");
+		Files.setLastModifiedTime(jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() + 10_000));
+
+		assertThat(PluginIndex.create(List.of(jar), cacheFile).getImplementations(ContentTypePlugin.class))
+				.containsExactly("milkman.UpdatedPlugin");
+	}
+
+	@Test
+	void shouldReadClassHeader() throws IOException {
+		try (InputStream in = classFile(SubSubPlugin.class)) {
+			assertThat(PluginIndex.readClassAndSuperclass(in)).containsExactly(SubSubPlugin.class.getName(), SubPlugin.class.getName());
+		}
+	}
+
+	private Path createJar(String name, String serviceFile) throws IOException {
+		return createJar(name, ContentTypePlugin.class.getName(), serviceFile, null);
+	}
+
+	/**
+	 * the test classes are stored in the given package directory, if set. The index reads their names from the class files.
+	 */
+	private Path createJar(String name, String service, String serviceFile, String classDirectory) throws IOException {
+		var jar = tempDir.resolve(name);
+		try (var out = new JarOutputStream(Files.newOutputStream(jar))) {
+			out.putNextEntry(new JarEntry("META-INF/services/" + service));
+			out.write(serviceFile.getBytes(StandardCharsets.UTF_8));
+			for (Class<?> type : List.of(BasePlugin.class, SubPlugin.class, SubSubPlugin.class)) {
+				String entryName = classDirectory != null
+						? classDirectory + type.getSimpleName() + ".class"
+						: type.getName().replace('.', '/') + ".class";
+				out.putNextEntry(new JarEntry(entryName));
+				try (var in = classFile(type)) {
+					in.transferTo(out);
+				}
+			}
+		}
+		return jar;
+	}
+
+	private static InputStream classFile(Class<?> type) {
+		return type.getResourceAsStream("/" + type.getName().replace('.', '/') + ".class");
+	}
+
+	static class BasePlugin {
+	}
+
+	static class SubPlugin extends BasePlugin {
+	}
+
+	static class SubSubPlugin extends SubPlugin {
+	}
+}
@@ -0,0 +1,85 @@
+package milkman.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedTextFileTest {
+
+	@Test
+	void shouldIndexLinesAcrossChunks() throws IOException {
+		var file = MappedTextFile.create();
+		try {
+			file.append("first\nsec".getBytes(StandardCharsets.UTF_8));
+			file.append("ond\r\n\nlast".getBytes(StandardCharsets.UTF_8));
+			file.complete();
+
+			assertThat(file.lineCount()).isEqualTo(4);
+			assertThat(file.getLine(0)).isEqualTo("first");
+			assertThat(file.getLine(1)).isEqualTo("second");
+			assertThat(file.getLine(2)).isEmpty();
+			assertThat(file.getLine(3)).isEqualTo("last");
+		} finally {
+			file.dispose();
+		}
+	}
+
+	@Test
+	void shouldReadLinesAfterCheckpoints() throws IOException {
+		var file = MappedTextFile.create();
+		try {
+			StringBuilder content = new StringBuilder();
+			for (int i = 0; i < 1000; i++) {
+				content.append("line ").append(i).append('\n');
+			}
+			file.append(content.toString().getBytes(StandardCharsets.UTF_8));
+
+			assertThat(file.lineCount()).isEqualTo(1000);
+			assertThat(file.getLine(0)).isEqualTo("line 0");
+			assertThat(file.getLine(63)).isEqualTo("line 63");
+			assertThat(file.getLine(64)).isEqualTo("line 64");
+			assertThat(file.getLine(999)).isEqualTo("line 999");
+		} finally {
+			file.dispose();
+		}
+	}
+
+	@Test
+	void shouldWrapLongLinesAtCharacterBoundaries() throws IOException {
+		var file = MappedTextFile.create();
+		try {
+			String longLine = "ä".repeat(MappedTextFile.MAX_LINE_LENGTH);
+			file.append((longLine + "\nend").getBytes(StandardCharsets.UTF_8));
+			file.complete();
+
+			assertThat(file.lineCount()).isEqualTo(3);
+			assertThat(file.getLine(0) + file.getLine(1)).isEqualTo(longLine);
+			assertThat(file.getLine(2)).isEqualTo("end");
+		} finally {
+			file.dispose();
+		}
+	}
+
+	@Test
+	void shouldFindLinesInBothDirections() throws IOException {
+		var file = MappedTextFile.create();
+		try {
+			file.append("alpha\nbeta\nGamma\nbeta again\n".getBytes(StandardCharsets.UTF_8));
+			file.complete();
+
+			assertThat(file.find("beta", 0, true)).isEqualTo(1);
+			assertThat(file.find("beta", 1, true)).isEqualTo(3);
+			assertThat(file.find("beta", 3, true)).isEqualTo(1);
+			assertThat(file.find("BETA", 3, false)).isEqualTo(1);
+			assertThat(file.find("beta", 1, false)).isEqualTo(3);
+			assertThat(file.find("gamma", 0, true)).isEqualTo(2);
+			assertThat(file.find("delta", 0, true)).isEqualTo(-1);
+			assertThat(file.lineOf(7)).isEqualTo(1);
+		} finally {
+			file.dispose();
+		}
+	}
+}
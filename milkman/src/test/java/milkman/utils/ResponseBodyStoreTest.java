@@ -0,0 +1,93 @@
+package milkman.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseBodyStoreTest {
+
+	@Test
+	void shouldReplayChunksFromMemory() {
+		var store = new ResponseBodyStore(1024, MemoryBudget.unbounded());
+		store.onNext(bytes("first"));
+		store.onNext(bytes("second"));
+		store.onComplete();
+
+		assertThat(readAll(store)).containsExactly("first", "second");
+		assertThat(store.getSpilledBytes()).isEqualTo(0);
+	}
+
+	@Test
+	void shouldSpillChunksExceedingThreshold() {
+		var store = new ResponseBodyStore(8, MemoryBudget.unbounded());
+		store.onNext(bytes("first"));
+		store.onNext(bytes("second"));
+		store.onNext(bytes("ab"));
+		store.onComplete();
+
+		assertThat(readAll(store)).containsExactly("first", "second", "ab");
+		assertThat(store.getMemoryBytes()).isEqualTo(5);
+		assertThat(store.getSpilledBytes()).isEqualTo(8);
+		store.dispose();
+	}
+
+	@Test
+	void shouldRespectMemoryBudget() {
+		var budget = new MemoryBudget(() -> 6);
+		var first = new ResponseBodyStore(1024, budget);
+		var second = new ResponseBodyStore(1024, budget);
+		first.onNext(bytes("first"));
+		second.onNext(bytes("second"));
+		first.onComplete();
+		second.onComplete();
+
+		assertThat(readAll(second)).containsExactly("second");
+		assertThat(second.getMemoryBytes()).isEqualTo(0);
+		assertThat(budget.getUsedBytes()).isEqualTo(5);
+
+		first.dispose();
+		second.dispose();
+		assertThat(budget.getUsedBytes()).isEqualTo(0);
+	}
+
+	@Test
+	void shouldDeliverLiveChunksToExistingSubscribers() {
+		var store = new ResponseBodyStore(1024, MemoryBudget.unbounded());
+		store.onNext(bytes("first"));
+		var result = store.asFlux().map(b -> new String(b, StandardCharsets.UTF_8)).collectList().toFuture();
+
+		store.onNext(bytes("second"));
+		store.onComplete();
+
+		assertThat(result.join()).containsExactly("first", "second");
+	}
+
+	@Test
+	void shouldOffloadMemoryChunks() {
+		var budget = new MemoryBudget(() -> 1024);
+		var store = new ResponseBodyStore(1024, budget);
+		store.onNext(bytes("first"));
+		store.offload();
+		store.onNext(bytes("second"));
+		store.onComplete();
+
+		assertThat(readAll(store)).containsExactly("first", "second");
+		assertThat(store.getMemoryBytes()).isEqualTo(0);
+		assertThat(budget.getUsedBytes()).isEqualTo(0);
+		store.dispose();
+	}
+
+	private static List<String> readAll(ResponseBodyStore store) {
+		return store.asFlux().toStream()
+				.map(b -> new String(b, StandardCharsets.UTF_8))
+				.collect(Collectors.toList());
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,80 @@
+package milkman.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static milkman.utils.ResponseCache.RESPONSE_OVERHEAD_BYTES;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTest {
+
+	private static final long BUDGET_FOR_TWO_RESPONSES = 2 * (1000 + RESPONSE_OVERHEAD_BYTES);
+
+	@Test
+	void shouldOffloadLeastRecentlyUsedResponse() {
+		var cache = new ResponseCache(() -> BUDGET_FOR_TWO_RESPONSES, () -> true);
+		var first = responseWithBody(1000);
+		var second = responseWithBody(1000);
+		var third = responseWithBody(1000);
+
+		cache.put("first", first);
+		cache.put("second", second);
+		cache.put("third", third);
+
+		assertThat(cache.size()).isEqualTo(3);
+		assertThat(first.isOffloaded()).isTrue();
+		assertThat(first.getRetainedBytes()).isEqualTo(0);
+		assertThat(second.isOffloaded()).isFalse();
+		assertThat(third.isOffloaded()).isFalse();
+	}
+
+	@Test
+	void shouldDiscardLeastRecentlyUsedResponse() {
+		var cache = new ResponseCache(() -> BUDGET_FOR_TWO_RESPONSES, () -> false);
+		cache.put("first", responseWithBody(1000));
+		cache.put("second", responseWithBody(1000));
+		cache.get("first");
+		cache.put("third", responseWithBody(1000));
+
+		assertThat(cache.get("first")).isPresent();
+		assertThat(cache.get("second")).isEmpty();
+		assertThat(cache.wasEvicted("second")).isTrue();
+		assertThat(cache.get("third")).isPresent();
+	}
+
+	@Test
+	void shouldNeverEvictMostRecentResponse() {
+		var cache = new ResponseCache(() -> 0, () -> false);
+		var response = responseWithBody(1000);
+		cache.put("first", response);
+
+		assertThat(cache.get("first")).contains(response);
+	}
+
+	@Test
+	void shouldIgnoreEvictionOfEmptyCache() {
+		var cache = new ResponseCache(() -> -1, () -> false);
+
+		cache.evictIfNecessary();
+
+		assertThat(cache.size()).isEqualTo(0);
+	}
+
+	@Test
+	void shouldForgetEvictionOnNewResponse() {
+		var cache = new ResponseCache(() -> 0, () -> false);
+		cache.put("first", responseWithBody(1000));
+		cache.put("second", responseWithBody(1000));
+		assertThat(cache.wasEvicted("first")).isTrue();
+
+		cache.put("first", responseWithBody(1000));
+		assertThat(cache.wasEvicted("first")).isFalse();
+	}
+
+	private static AsyncResponseControl responseWithBody(int size) {
+		var response = new AsyncResponseControl();
+		var store = response.getCancellationControl().createResponseBodyStore();
+		store.onNext(new byte[size]);
+		store.onComplete();
+		return response;
+	}
+}
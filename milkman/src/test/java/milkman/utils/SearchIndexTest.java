@@ -0,0 +1,125 @@
+package milkman.utils;
+
+import milkman.domain.RequestAspect;
+import milkman.domain.RequestContainer;
+import milkman.domain.SearchTermCollector;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchIndexTest {
+
+	@Test
+	void shouldFindRequestsBySubstringOfAnyField() {
+		var index = new SearchIndex();
+		var users = new IndexedRequest("1", "get users", "https://example.com/api/users", "{\"active\": true}");
+		var orders = new IndexedRequest("2", "Create Order", "https://example.com/api/orders", "{\"item\": \"users\"}");
+		index.update(List.of(users, orders));
+
+		assertThat(index.search("users")).containsExactlyInAnyOrder("1", "2");
+		assertThat(index.search("ORDER")).containsExactly("2");
+		assertThat(index.search("api active")).containsExactly("1");
+		assertThat(index.search("ap")).containsExactlyInAnyOrder("1", "2");
+		assertThat(index.search("unknown")).isEmpty();
+		assertThat(index.search(" ")).containsExactlyInAnyOrder("1", "2");
+	}
+
+	@Test
+	void shouldScopeTermsToFields() {
+		var index = new SearchIndex();
+		var users = new IndexedRequest("1", "get users", "https://example.com/api/users", "{\"active\": true}");
+		var orders = new IndexedRequest("2", "Create Order", "https://example.com/api/orders", "{\"item\": \"users\"}");
+		index.update(List.of(users, orders));
+
+		assertThat(index.search("url:users")).containsExactly("1");
+		assertThat(index.search("body:users")).containsExactly("2");
+		assertThat(index.search("url:/api body:item")).containsExactly("2");
+		assertThat(index.search("https://example.com/api/orders")).containsExactly("2");
+	}
+
+	@Test
+	void shouldReindexReplacedDirtyAndRemovedRequests() {
+		var index = new SearchIndex();
+		var users = new IndexedRequest("1", "get users", "https://example.com/api/users", "");
+		var orders = new IndexedRequest("2", "Create Order", "https://example.com/api/orders", "");
+		index.update(List.of(users, orders));
+		assertThat(index.search("users")).containsExactly("1");
+
+		//edited in place
+		users.setDirty(true);
+		users.body = "renamed";
+		assertThat(index.search("renamed")).containsExactly("1");
+
+		//replaced after saving
+		index.update(List.of(users, new IndexedRequest("2", "Create Invoice", "https://example.com/api/invoices", "")));
+		assertThat(index.search("order")).isEmpty();
+		assertThat(index.search("invoice")).containsExactly("2");
+
+		index.update(List.of(users));
+		assertThat(index.search("example")).containsExactly("1");
+		assertThat(index.size()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldLimitIndexedText() {
+		var index = new SearchIndex();
+		var body = "a".repeat(SearchIndex.MAX_INDEXED_LENGTH) + "hidden";
+		index.update(List.of(new IndexedRequest("1", "large", "", body)));
+
+		assertThat(index.search("aaa")).containsExactly("1");
+		assertThat(index.search("hidden")).isEmpty();
+	}
+
+	@Test
+	void shouldIndexLazilyLoadedRequestsWithoutLoadingThem() {
+		var index = new SearchIndex();
+		var request = new IndexedRequest("1", "lazy", "", "");
+		request.setAspectsLoader(() -> List.of(new BodyAspect("stored body")));
+		index.update(List.of(request));
+
+		index.refresh();
+
+		assertThat(index.search("stored")).containsExactly("1");
+		assertThat(request.isAspectsLoaded()).isFalse();
+	}
+
+	private static class BodyAspect extends RequestAspect {
+		private final String body;
+
+		BodyAspect(String body) {
+			super("body");
+			this.body = body;
+		}
+
+		@Override
+		public void collectSearchTerms(SearchTermCollector collector) {
+			collector.add(SearchTermCollector.BODY, body);
+		}
+	}
+
+	private static class IndexedRequest extends RequestContainer {
+		private final String url;
+		private String body;
+
+		IndexedRequest(String id, String name, String url, String body) {
+			super(name);
+			setId(id);
+			this.url = url;
+			this.body = body;
+		}
+
+		@Override
+		public void collectSearchTerms(SearchTermCollector collector) {
+			collector.add(SearchTermCollector.URL, url);
+			collector.add(SearchTermCollector.BODY, body);
+			super.collectSearchTerms(collector);
+		}
+
+		@Override
+		public String getType() {
+			return "TEST";
+		}
+	}
+}